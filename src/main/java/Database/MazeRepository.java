@@ -4,18 +4,24 @@ import Models.Cell;
 import Models.Direction;
 import Models.Exceptions.DatabaseException;
 import Models.Maze;
+import Models.MazeGrid;
+import Models.PackedGrid;
 import Utils.PropertyReader;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import static Models.Wall.*;
 import static Utils.Utils.imageToInputStream;
@@ -88,10 +94,17 @@ public class MazeRepository implements IMazeRepository {
                 "  finish_width int, \n" +
                 "  finish_height int, \n" +
                 "  entry smallint[][][4], \n" +
-                "  exit smallint[][][4]);";
+                "  exit smallint[][][4], \n" +
+                "  seed bigint, \n" +
+                "  layout bytea, \n" +
+                "  mask bytea);";
+        // Tables created before seeds, layouts and masks were stored don't have the columns
+        String addSeedSql = "ALTER TABLE " + fullTableName + " ADD COLUMN IF NOT EXISTS seed bigint, " +
+                "ADD COLUMN IF NOT EXISTS layout bytea, ADD COLUMN IF NOT EXISTS mask bytea";
         try (Statement stmt = connection.createStatement()) {
             stmt.executeUpdate(createSchemaSql);
             stmt.executeUpdate(createTableSql);
+            stmt.executeUpdate(addSeedSql);
         } catch (SQLException ex) {
             throw new DatabaseException("Error creating database schema");
         }
@@ -130,18 +143,18 @@ public class MazeRepository implements IMazeRepository {
                             "last_edited_date=?, start_x=?, start_y=?, finish_x=?, finish_y=?, logo_image=?, " +
                             "logo_x=?, logo_y=?, cells=?, solution=?, start_Ix=?, start_Iy=?, finish_Ix=?, finish_Iy=?," +
                             "start_image=?, finish_image=?, logo_width=?, logo_height=?, start_width=?, start_height=?," +
-                            "finish_width=?, finish_height=?, entry=?, exit=? WHERE maze_id=?";
+                            "finish_width=?, finish_height=?, entry=?, exit=?, seed=?, layout=?, mask=? WHERE maze_id=?";
                 } else {
                     saveMazeSql = "INSERT INTO " + fullTableName + "(name,author,creation_date,last_edited_date," +
                             "start_x,start_y,finish_x,finish_y,logo_image,logo_x,logo_y,cells,solution," +
                             "start_Ix,start_Iy,finish_Ix,finish_Iy,start_image,finish_image,logo_width,logo_height, " +
-                            "start_width,start_height,finish_width,finish_height,entry,exit) " +
-                            "VALUES(?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+                            "start_width,start_height,finish_width,finish_height,entry,exit,seed,layout,mask) " +
+                            "VALUES(?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
                 }
 
                 PreparedStatement ps = connection.prepareStatement(saveMazeSql, Statement.RETURN_GENERATED_KEYS);
                 if (existed) {
-                    ps.setInt(28, maze.getId());
+                    ps.setInt(31, maze.getId());
                 }
                 ps.setString(1, maze.getName());
                 ps.setString(2, maze.getAuthor());
@@ -160,6 +173,7 @@ public class MazeRepository implements IMazeRepository {
                 ps.setInt(23, maze.getStartHeight());
                 ps.setInt(24, maze.getFinishWidth());
                 ps.setInt(25, maze.getFinishHeight());
+                ps.setLong(28, maze.getSeed());
 
                 if (maze.getLogo_x() != -1 && maze.getLogo_y() != -1) {
                     try {
@@ -205,44 +219,65 @@ public class MazeRepository implements IMazeRepository {
                     ps.setNull(19, Types.BINARY);
                 }
 
-                Cell[][] cells = maze.getCells();
+                MazeGrid grid = maze.getGrid();
                 int width = maze.getWidth();
                 int height = maze.getHeight();
-                int[][][] cellArray = new int[width][height][4];
-                for (int i = 0; i < width; i++)
-                    for (int j = 0; j < height; j++)
-                        for (int k = 0; k < 4; k++) {
-                            cellArray[i][j][k] = cells[i][j].getWall(Direction.getDirection(k)).getValue();
-                        }
-                Array cellMultiArray = connection.createArrayOf("integer", cellArray);
-                ps.setArray(12, cellMultiArray);
-
-                int[][][] solutionArray = new int[width][height][4];
-                for (int i = 0; i < width; i++)
-                    for (int j = 0; j < height; j++)
-                        for (int k = 0; k < 4; k++) {
-                            solutionArray[i][j][k] = cells[i][j].solution[k];
-                        }
-                Array solutionMultiArray = connection.createArrayOf("integer", solutionArray);
-                ps.setArray(13, solutionMultiArray);
-
-                int[][][] entryArray = new int[width][height][4];
-                for (int i = 0; i < width; i++)
-                    for (int j = 0; j < height; j++)
-                        for (int k = 0; k < 4; k++) {
-                            entryArray[i][j][k] = cells[i][j].entry[k];
-                        }
-                Array entryMultiArray = connection.createArrayOf("integer", entryArray);
-                ps.setArray(26, entryMultiArray);
-
-                int[][][] exitArray = new int[width][height][4];
-                for (int i = 0; i < width; i++)
-                    for (int j = 0; j < height; j++)
-                        for (int k = 0; k < 4; k++) {
-                            exitArray[i][j][k] = cells[i][j].exit[k];
-                        }
-                Array exitMultiArray = connection.createArrayOf("integer", exitArray);
-                ps.setArray(27, exitMultiArray);
+                try {
+                    ps.setBytes(29, compressLayout(grid));
+                    // The cells outside a shaped maze are saved rather than guessed from the walls, as a cell walled
+                    // off in the editor has all of its walls up too
+                    BitSet mask = maze.getMaskedCells();
+                    if (mask.isEmpty()) {
+                        ps.setNull(30, Types.BINARY);
+                    } else {
+                        ps.setBytes(30, compress(mask.toByteArray()));
+                    }
+                } catch (IOException ex) {
+                    throw new DatabaseException("Unable to compress maze layout");
+                }
+                // Large mazes are only stored as a compressed layout, Postgres arrays of them would be several gigabytes
+                if ((long) width * height > Maze.PACKED_GRID_THRESHOLD) {
+                    ps.setNull(12, Types.ARRAY);
+                    ps.setNull(13, Types.ARRAY);
+                    ps.setNull(26, Types.ARRAY);
+                    ps.setNull(27, Types.ARRAY);
+                } else {
+                    int[][][] cellArray = new int[width][height][4];
+                    for (int i = 0; i < width; i++)
+                        for (int j = 0; j < height; j++)
+                            for (int k = 0; k < 4; k++) {
+                                cellArray[i][j][k] = grid.getWall(i, j, Direction.getDirection(k)).getValue();
+                            }
+                    Array cellMultiArray = connection.createArrayOf("integer", cellArray);
+                    ps.setArray(12, cellMultiArray);
+
+                    int[][][] solutionArray = new int[width][height][4];
+                    for (int i = 0; i < width; i++)
+                        for (int j = 0; j < height; j++)
+                            for (int k = 0; k < 4; k++) {
+                                solutionArray[i][j][k] = grid.isSolution(i, j, Direction.getDirection(k)) ? 1 : 0;
+                            }
+                    Array solutionMultiArray = connection.createArrayOf("integer", solutionArray);
+                    ps.setArray(13, solutionMultiArray);
+
+                    int[][][] entryArray = new int[width][height][4];
+                    for (int i = 0; i < width; i++)
+                        for (int j = 0; j < height; j++)
+                            for (int k = 0; k < 4; k++) {
+                                entryArray[i][j][k] = grid.isEntry(i, j, Direction.getDirection(k)) ? 1 : 0;
+                            }
+                    Array entryMultiArray = connection.createArrayOf("integer", entryArray);
+                    ps.setArray(26, entryMultiArray);
+
+                    int[][][] exitArray = new int[width][height][4];
+                    for (int i = 0; i < width; i++)
+                        for (int j = 0; j < height; j++)
+                            for (int k = 0; k < 4; k++) {
+                                exitArray[i][j][k] = grid.isExit(i, j, Direction.getDirection(k)) ? 1 : 0;
+                            }
+                    Array exitMultiArray = connection.createArrayOf("integer", exitArray);
+                    ps.setArray(27, exitMultiArray);
+                }
                 ps.execute();
 
                 ResultSet rs = ps.getGeneratedKeys();
@@ -360,16 +395,13 @@ public class MazeRepository implements IMazeRepository {
         int startHeight = rs.getInt("start_height");
         int finishWidth = rs.getInt("finish_width");
         int finishHeight = rs.getInt("finish_height");
+        long seed = rs.getLong("seed");
+        if(rs.wasNull()){
+            // Mazes saved before seeds were stored are given their own seed for any random decisions made from now on
+            seed = new SplittableRandom().nextLong();
+        }
         LocalDateTime creation_date = rs.getTimestamp("creation_date").toLocalDateTime();
         LocalDateTime last_edited_date = rs.getTimestamp("last_edited_date").toLocalDateTime();
-        Array cellArray = rs.getArray("cells");
-        Array solutionArray = rs.getArray("solution");
-        Short[][][] cellsInfo = (Short[][][]) cellArray.getArray();
-        Short[][][] solutionInfo = (Short[][][]) solutionArray.getArray();
-        Array entryArray = rs.getArray("entry");
-        Array exitArray = rs.getArray("exit");
-        Short[][][] entryInfo = (Short[][][]) entryArray.getArray();
-        Short[][][] exitInfo = (Short[][][]) exitArray.getArray();
         InputStream logoStream = rs.getBinaryStream("logo_image");
         BufferedImage logoImg = logoStream == null ? null : ImageIO.read(logoStream);
         InputStream startStream = rs.getBinaryStream("start_image");
@@ -377,6 +409,20 @@ public class MazeRepository implements IMazeRepository {
         InputStream finishStream = rs.getBinaryStream("finish_image");
         BufferedImage finishImg = finishStream == null ? null : ImageIO.read(finishStream);
 
+        byte[] maskBytes = rs.getBytes("mask");
+        BitSet mask = maskBytes == null ? new BitSet() : BitSet.valueOf(decompress(maskBytes));
+        byte[] layout = rs.getBytes("layout");
+        Array cellArray = rs.getArray("cells");
+        if (cellArray == null && layout != null) {
+            MazeGrid grid = decompressLayout(layout);
+            return new Maze(id, name, author, creation_date, last_edited_date, grid, start_x, start_y, finish_x, finish_y,
+                    start_Ix, start_Iy, finish_Ix, finish_Iy, logo_Ix, logo_Iy, logoImg, startImg, finishImg, logoWidth,
+                    logoHeight, startWidth, startHeight, finishWidth, finishHeight, seed, mask);
+        }
+        Short[][][] cellsInfo = (Short[][][]) cellArray.getArray();
+        Short[][][] solutionInfo = (Short[][][]) rs.getArray("solution").getArray();
+        Short[][][] entryInfo = (Short[][][]) rs.getArray("entry").getArray();
+        Short[][][] exitInfo = (Short[][][]) rs.getArray("exit").getArray();
         int width = cellsInfo.length;
         int height = cellsInfo[0].length;
         Cell[][] cells = new Cell[width][height];
@@ -384,15 +430,78 @@ public class MazeRepository implements IMazeRepository {
             for (int j = 0; j < height; j++) {
                 Short[] curCellInfo = cellsInfo[i][j];
                 Cell cell = new Cell(j, i, fromShort(curCellInfo[0]), fromShort(curCellInfo[1]), fromShort(curCellInfo[2]), fromShort(curCellInfo[3]));
-                cell.solution = new byte[]{solutionInfo[i][j][0].byteValue(), solutionInfo[i][j][1].byteValue(), solutionInfo[i][j][2].byteValue(), solutionInfo[i][j][3].byteValue()};
-                cell.entry = new byte[]{entryInfo[i][j][0].byteValue(), entryInfo[i][j][1].byteValue(), entryInfo[i][j][2].byteValue(), entryInfo[i][j][3].byteValue()};
-                cell.exit = new byte[]{exitInfo[i][j][0].byteValue(), exitInfo[i][j][1].byteValue(), exitInfo[i][j][2].byteValue(), exitInfo[i][j][3].byteValue()};
+                for (int k = 0; k < 4; k++) {
+                    Direction position = Direction.getDirection(k);
+                    cell.setSolution(position, solutionInfo[i][j][k] == 1);
+                    cell.setEntry(position, entryInfo[i][j][k] == 1);
+                    cell.setExit(position, exitInfo[i][j][k] == 1);
+                }
                 cells[i][j] = cell;
             }
 
         return new Maze(id, name, author, creation_date, last_edited_date, cells, start_x, start_y, finish_x, finish_y,
                 start_Ix, start_Iy, finish_Ix, finish_Iy, logo_Ix, logo_Iy, logoImg, startImg, finishImg, logoWidth, logoHeight,
-                startWidth, startHeight, finishWidth, finishHeight);
+                startWidth, startHeight, finishWidth, finishHeight, seed, mask);
+    }
+
+    /**
+     * Compresses the layout of a maze, this is much smaller than the arrays and has no limit on the size of the maze
+     *
+     * @param grid The layout of the maze
+     * @return The layout as written by {@link PackedGrid#write} compressed with deflate
+     * @throws IOException Thrown if the layout could not be compressed
+     */
+    private static byte[] compressLayout(MazeGrid grid) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // Fastest compression is several times quicker than the default and only makes the layout about half as big again
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (OutputStream out = new BufferedOutputStream(new DeflaterOutputStream(bytes, deflater), 1 << 16)) {
+            PackedGrid.write(grid, out);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reverses {@link #compressLayout(MazeGrid)}
+     *
+     * @param layout The compressed layout from the database
+     * @return The layout of the maze
+     * @throws IOException Thrown if the layout is not valid
+     */
+    private static MazeGrid decompressLayout(byte[] layout) throws IOException {
+        try (InputStream in = new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(layout)), 1 << 16)) {
+            return PackedGrid.read(in);
+        }
+    }
+
+    /**
+     * Compresses bytes with deflate, used for the bitmap of cells left out of a shaped maze
+     *
+     * @param bytes The bytes to compress
+     * @return The compressed bytes
+     * @throws IOException Thrown if the bytes could not be compressed
+     */
+    private static byte[] compress(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(compressed)) {
+            out.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Reverses {@link #compress(byte[])}
+     *
+     * @param compressed The compressed bytes from the database
+     * @return The original bytes
+     * @throws IOException Thrown if the bytes are not valid
+     */
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
     }
 
     @Override
@@ -2,6 +2,7 @@ package Main;
 
 import Database.MazeRepository;
 import Models.Maze;
+import Models.MazePool;
 import Panels.CreateMazeDisplay;
 import Panels.MainMenu;
 import Panels.MazeDisplay;
@@ -55,5 +56,6 @@ public class MazeGame extends JFrame {
         MainMenu mainMenu = new MainMenu(contentPane);
         getContentPane().add(mainMenu, "Creation");
         setLocationRelativeTo(null);
+        MazePool.getDefault(); // Start generating mazes in the background before the create form is opened
     }
 }
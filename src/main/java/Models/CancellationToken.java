@@ -0,0 +1,52 @@
+package Models;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Asks a long running task on a maze to stop. The token can be cancelled from any thread, the task checks it as it
+ * works and stops by throwing a {@link CancellationException} soon after.
+ */
+public class CancellationToken {
+    private final CancellationToken parent;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a token that hasn't been cancelled
+     */
+    public CancellationToken() {
+        this(null);
+    }
+
+    /**
+     * Creates a token that is also cancelled whenever another token is, so part of a task can be stopped on its own
+     * @param parent The token that also cancels this one, or null if there isn't one
+     */
+    public CancellationToken(CancellationToken parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Asks every task using this token to stop, this can't be undone
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks whether the token, or the token it was created from, has been cancelled
+     * @return true if the token has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled || parent != null && parent.isCancelled();
+    }
+
+    /**
+     * Stops the current task if the token has been cancelled
+     * @throws CancellationException thrown if the token has been cancelled
+     */
+    public void throwIfCancelled() {
+        if(isCancelled()){
+            throw new CancellationException("The task was cancelled");
+        }
+    }
+}
@@ -24,19 +24,19 @@ public class Cell {
      * Each element of the array refers to a wall on a different side of the cell (North, East, South, West in that order)
      * For example if the solution array is [1, 1, 0, 0] the solution enters the top of the cell and exits through the right (or the reverse, entering/exiting isn't specified)
      */
-    public byte[] solution = {0,0,0,0};
+    private final byte[] solution;
     /**
      * A byte value of 1 if entry point to maze, 0 otherwise.
      */
-    public byte[] entry = {0,0,0,0};
+    private final byte[] entry;
     /**
      * A byte value of 1 if exit point to maze, 0 otherwise.
      */
-    public byte[] exit = {0,0,0,0};
+    private final byte[] exit;
     /**
      * Byte value 1 for cell top left corner of the starting image will be, zero otherwise
      */
-    public byte finishImage = 0;
+    private byte finishImage = 0;
     /**
      * Creates a cell with the specified walls
      * @param x The horizontal position of the cell starting from 0
@@ -48,6 +48,9 @@ public class Cell {
      */
     public Cell(int x, int y, Wall north, Wall east, Wall south, Wall west) {
         walls = new Wall[] {north, east, south, west};
+        solution = new byte[4];
+        entry = new byte[4];
+        exit = new byte[4];
     }
     /**
      * Creates a cell with all walls UP with a specified position
@@ -55,7 +58,7 @@ public class Cell {
      *  @param y The vertical position of the cell starting from 0
      */
     public Cell(int x, int y) {
-        walls = new Wall[] {UP, UP, UP, UP};
+        this(x, y, UP, UP, UP, UP);
         this.x = x;
         this.y = y;
     }
@@ -65,6 +68,20 @@ public class Cell {
     public Cell() {
         this(0, 0);
     }
+    /**
+     * Creates a cell that holds no state of its own, used by views onto a {@link MazeGrid} which override every accessor
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param view Marker to distinguish this constructor, the value is ignored
+     */
+    Cell(int x, int y, boolean view) {
+        walls = null;
+        solution = null;
+        entry = null;
+        exit = null;
+        this.x = x;
+        this.y = y;
+    }
     /**
      * Gets the type of wall at a specified position of the cell
      * @param position The position of the cell to get the wall of
@@ -110,4 +127,66 @@ public class Cell {
     public void setX(int newX){
         x = newX;
     }
+    /**
+     * Checks whether the solution passes through a specified wall of the cell
+     * @param position The position of the wall around the cell
+     * @return true if the solution goes through the wall at position, false otherwise
+     */
+    public boolean isSolution(Direction position) {
+        return solution[position.getIndex()] == 1;
+    }
+    /**
+     * Sets whether the solution passes through a specified wall of the cell
+     * @param position The position of the wall around the cell
+     * @param value true if the solution goes through the wall at position, false otherwise
+     */
+    public void setSolution(Direction position, boolean value) {
+        solution[position.getIndex()] = (byte) (value ? 1 : 0);
+    }
+    /**
+     * Checks whether a specified wall of the cell is the entry to the maze
+     * @param position The position of the wall around the cell
+     * @return true if the wall at position is the entry to the maze, false otherwise
+     */
+    public boolean isEntry(Direction position) {
+        return entry[position.getIndex()] == 1;
+    }
+    /**
+     * Sets whether a specified wall of the cell is the entry to the maze
+     * @param position The position of the wall around the cell
+     * @param value true if the wall at position is the entry to the maze, false otherwise
+     */
+    public void setEntry(Direction position, boolean value) {
+        entry[position.getIndex()] = (byte) (value ? 1 : 0);
+    }
+    /**
+     * Checks whether a specified wall of the cell is the exit of the maze
+     * @param position The position of the wall around the cell
+     * @return true if the wall at position is the exit of the maze, false otherwise
+     */
+    public boolean isExit(Direction position) {
+        return exit[position.getIndex()] == 1;
+    }
+    /**
+     * Sets whether a specified wall of the cell is the exit of the maze
+     * @param position The position of the wall around the cell
+     * @param value true if the wall at position is the exit of the maze, false otherwise
+     */
+    public void setExit(Direction position, boolean value) {
+        exit[position.getIndex()] = (byte) (value ? 1 : 0);
+    }
+    /**
+     * Checks whether the cell is the top left corner of the finishing image
+     * @return true if the cell is the top left corner of the finishing image, false otherwise
+     */
+    public boolean isFinishImage() {
+        return finishImage == 1;
+    }
+    /**
+     * Sets whether the cell is the top left corner of the finishing image
+     * @param value true if the cell is the top left corner of the finishing image, false otherwise
+     */
+    public void setFinishImage(boolean value) {
+        finishImage = (byte) (value ? 1 : 0);
+    }
 }
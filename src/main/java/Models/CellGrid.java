@@ -0,0 +1,117 @@
+package Models;
+
+/**
+ * A {@link MazeGrid} that stores every cell as its own {@link Cell} object.
+ * Cells returned by {@link #getCell(int, int)} are the stored objects themselves so changes made to them are kept.
+ */
+public class CellGrid implements MazeGrid {
+    private final Cell[][] cells;
+
+    /**
+     * Creates a grid where every cell has all of its walls up
+     * @param width the width of the grid in cells
+     * @param height the height of the grid in cells
+     */
+    public CellGrid(int width, int height) {
+        cells = new Cell[width][height];
+        for(int i = 0; i < width; i++){
+            for(int j = 0; j < height; j++){
+                cells[i][j] = new Cell(i, j);
+            }
+        }
+    }
+    /**
+     * Creates a grid backed by an existing array of cells
+     * @param cells A 2D array containing the cells of the grid where the first index of the array is x position
+     * and the second is y position
+     */
+    public CellGrid(Cell[][] cells) {
+        this.cells = cells;
+    }
+
+    @Override
+    public int getWidth() {
+        return cells.length;
+    }
+
+    @Override
+    public int getHeight() {
+        return cells[0].length;
+    }
+
+    @Override
+    public Wall getWall(int x, int y, Direction position) {
+        return cells[x][y].getWall(position);
+    }
+
+    @Override
+    public void setWall(int x, int y, Direction position, Wall wallType) {
+        cells[x][y].setWall(position, wallType);
+    }
+
+    @Override
+    public boolean isSolution(int x, int y, Direction position) {
+        return cells[x][y].isSolution(position);
+    }
+
+    @Override
+    public void setSolution(int x, int y, Direction position, boolean value) {
+        cells[x][y].setSolution(position, value);
+    }
+
+    @Override
+    public boolean isEntry(int x, int y, Direction position) {
+        return cells[x][y].isEntry(position);
+    }
+
+    @Override
+    public void setEntry(int x, int y, Direction position, boolean value) {
+        cells[x][y].setEntry(position, value);
+    }
+
+    @Override
+    public boolean isExit(int x, int y, Direction position) {
+        return cells[x][y].isExit(position);
+    }
+
+    @Override
+    public void setExit(int x, int y, Direction position, boolean value) {
+        cells[x][y].setExit(position, value);
+    }
+
+    @Override
+    public boolean isFinishImage(int x, int y) {
+        return cells[x][y].isFinishImage();
+    }
+
+    @Override
+    public void setFinishImage(int x, int y, boolean value) {
+        cells[x][y].setFinishImage(value);
+    }
+
+    @Override
+    public void clearSolution() {
+        for (Cell[] column : cells) {
+            for (Cell cell : column) {
+                for (int k = 0; k < 4; k++) {
+                    cell.setSolution(Direction.getDirection(k), false);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Cell getCell(int x, int y) {
+        return cells[x][y];
+    }
+
+    @Override
+    public void setCell(int x, int y, Cell cell) {
+        cells[x][y] = cell;
+    }
+
+    @Override
+    public Cell[][] getCells() {
+        return cells;
+    }
+}
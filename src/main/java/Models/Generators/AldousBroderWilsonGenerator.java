@@ -0,0 +1,122 @@
+package Models.Generators;
+
+import Models.Direction;
+import Models.MazeGrid;
+import Models.ProgressListener.Stage;
+import Models.TaskProgress;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import static Models.Direction.*;
+import static Models.Generators.WilsonGenerator.addRemainingCells;
+import static Models.Generators.WilsonGenerator.addRoots;
+import static Models.Generators.WilsonGenerator.fillGroup;
+import static Models.Generators.WilsonGenerator.neighbourIndex;
+
+/**
+ * Generates mazes by starting with the Aldous-Broder algorithm and finishing with Wilson's algorithm.
+ * Aldous-Broder makes a single random walk, knocking down the wall it walks through whenever it enters a cell for the
+ * first time. This is quick while most cells are new, but slows down as the walk spends more and more time crossing
+ * cells it has already visited. Wilson's algorithm is the other way around, its first walks wander for a long time
+ * looking for the small starting maze, but later walks soon find it. Switching from one to the other once part of the
+ * grid has been visited avoids the slow part of both, on large grids this is several times faster than Wilson's
+ * algorithm on its own.
+ * Either algorithm on its own picks uniformly at random from every possible perfect maze, but the switch makes the
+ * mazes slightly less even: which cells the walk has reached by the time it switches depends on the passages it has
+ * carved, so Wilson's algorithm finishes a part of the maze that isn't quite a uniform choice. On a 3x3 grid the
+ * chance of each maze is off by about 3% in total at the default switch fraction, starting the walk from a random cell
+ * rather than a fixed one keeps this small. Use {@link WilsonGenerator} where mazes must be exactly uniform.
+ */
+public class AldousBroderWilsonGenerator implements MazeGenerator {
+    /**
+     * The fraction of cells added by Aldous-Broder when no other is given, the fastest on large grids
+     */
+    public static final double DEFAULT_SWITCH_FRACTION = 0.3;
+
+    private final double switchFraction;
+
+    /**
+     * Creates a generator that switches to Wilson's algorithm once {@link #DEFAULT_SWITCH_FRACTION} of the cells are in
+     * the maze
+     */
+    public AldousBroderWilsonGenerator() {
+        this(DEFAULT_SWITCH_FRACTION);
+    }
+
+    /**
+     * Creates a generator that switches to Wilson's algorithm once a fraction of the cells are in the maze
+     * @param switchFraction The fraction of the cells added by Aldous-Broder, 0 gives Wilson's algorithm and 1 gives
+     *                       Aldous-Broder, both of which are exactly uniform
+     */
+    public AldousBroderWilsonGenerator(double switchFraction) {
+        if(!(switchFraction >= 0 && switchFraction <= 1)){
+            throw new IllegalArgumentException("The fraction of cells added by Aldous-Broder must be between 0 and 1");
+        }
+        this.switchFraction = switchFraction;
+    }
+
+    @Override
+    public void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand) {
+        generate(grid, excludedCells, rand, TaskProgress.NONE);
+    }
+
+    @Override
+    public void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand, TaskProgress progress) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int totalCells = width * height;
+        BitSet inMaze = new BitSet(totalCells);         // Cells that have been added to the maze
+        int[] directions = new int[4];                  // Directions that can be moved in from the current cell
+        int steps = 0;                                  // Steps walked, wrapping round, to check for cancellation
+        progress.start(Stage.GENERATING, totalCells - excludedCells.cardinality());
+
+        int current = excludedCells.nextClearBit(rand.nextInt(totalCells));
+        if(current >= totalCells){
+            current = excludedCells.nextClearBit(0);
+            if(current >= totalCells){
+                progress.finish();
+                return;
+            }
+        }
+        // The walk can't leave the group of cells it starts in, so the fraction is of that group
+        BitSet walkGroup = new BitSet(totalCells);
+        int groupSize = excludedCells.isEmpty() ? totalCells
+                : fillGroup(current, width, height, excludedCells, walkGroup);
+        long target = (long) Math.ceil(switchFraction * groupSize);
+        inMaze.set(current);
+        for(long added = 1; added < target; ){
+            int x = current % width;
+            int y = current / width;
+            int count = 0;
+            if(y > 0 && !excludedCells.get(current - width)){
+                directions[count++] = NORTH.getIndex();
+            }
+            if(x < width - 1 && !excludedCells.get(current + 1)){
+                directions[count++] = EAST.getIndex();
+            }
+            if(y < height - 1 && !excludedCells.get(current + width)){
+                directions[count++] = SOUTH.getIndex();
+            }
+            if(x > 0 && !excludedCells.get(current - 1)){
+                directions[count++] = WEST.getIndex();
+            }
+            if((++steps & 0xFFFF) == 0){
+                progress.checkCancelled();
+            }
+            int direction = directions[rand.nextInt(count)];
+            int next = neighbourIndex(current, direction, width);
+            if(!inMaze.get(next)){
+                inMaze.set(next);
+                grid.carve(x, y, Direction.getDirection(direction));
+                progress.update(++added);
+            }
+            current = next;
+        }
+        if(!excludedCells.isEmpty()){
+            addRoots(width, height, excludedCells, inMaze, walkGroup);
+        }
+        addRemainingCells(grid, excludedCells, inMaze, rand, progress);
+        progress.finish();
+    }
+}
@@ -0,0 +1,63 @@
+package Models.Generators;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates mazes with the binary tree algorithm, joining every cell to either the cell north of it or the cell east of
+ * it at random. Each cell is decided on its own, which makes this the fastest generator, but the mazes are far from
+ * uniform: the top row and right column are always unbroken corridors and every passage leads up and to the right.
+ * It is intended for generating large numbers of simple mazes quickly and as a baseline for the other generators.
+ */
+public class BinaryTreeGenerator extends RowParallelGenerator {
+    /**
+     * Creates a generator using the common pool
+     */
+    public BinaryTreeGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a generator
+     * @param pool The pool the bands of rows are generated on
+     */
+    public BinaryTreeGenerator(ForkJoinPool pool) {
+        super(pool);
+    }
+
+    @Override
+    protected int decideRow(BitSet excludedCells, int width, int y, SplittableRandom rand, long[] east, long[] north) {
+        int row = y * width;
+        int last = width - 1;
+        if(noneExcluded(excludedCells, y > 0 ? row - width : row, row + width)){
+            // Every cell can choose freely, one random bit each picks north or east
+            for(int word = 0; word < east.length; word++){
+                long bits = y > 0 ? rand.nextLong() : 0;
+                north[word] = bits & columnMask(word, width);
+                east[word] = ~bits & columnMask(word, width);
+            }
+            east[last >>> 6] &= ~(1L << last);
+            if(y > 0){
+                north[last >>> 6] |= 1L << last;
+            }
+            return width;
+        }
+        int cells = 0;
+        for(int x = 0; x < width; x++){
+            if(excludedCells.get(row + x)){
+                continue;
+            }
+            cells++;
+            boolean canGoNorth = y > 0 && !excludedCells.get(row + x - width);
+            boolean canGoEast = x < last && !excludedCells.get(row + x + 1);
+            if(canGoNorth && (!canGoEast || rand.nextBoolean())){
+                north[x >>> 6] |= 1L << x;
+            }
+            else if(canGoEast){
+                east[x >>> 6] |= 1L << x;
+            }
+        }
+        return cells;
+    }
+}
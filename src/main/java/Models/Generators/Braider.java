@@ -0,0 +1,146 @@
+package Models.Generators;
+
+import Models.Direction;
+import Models.MazeGrid;
+import Models.Wall;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import static Models.Generators.WilsonGenerator.neighbourIndex;
+import static Models.Wall.DOWN;
+import static Models.Wall.UP;
+
+/**
+ * Turns a generated maze into a braid maze by knocking down a wall at some of its dead ends, joining them into loops.
+ * Dead ends are counted the same way as {@link Models.Maze#deadEnds()}, a cell with three walls up and one down.
+ * The grid is scanned once to build an index of its dead ends, after which only the cells on either side of each
+ * knocked down wall are looked at again. Knocking down a wall only ever adds a passage, so no new dead ends appear and
+ * the index only has to be shrunk as cells stop being dead ends. Where a dead end backs onto another the wall between
+ * them is preferred, removing both at once and leaving fewer extra passages.
+ */
+public class Braider {
+    private final MazeGrid grid;
+    private final BitSet excludedCells;
+    private final int width;
+    private final int height;
+
+    /**
+     * Creates a braider for a maze
+     * @param grid The grid holding the generated maze
+     * @param excludedCells Bitmap of the cells whose walls are never knocked down, indexed by y * width + x
+     */
+    public Braider(MazeGrid grid, BitSet excludedCells) {
+        this.grid = grid;
+        this.excludedCells = excludedCells;
+        width = grid.getWidth();
+        height = grid.getHeight();
+    }
+
+    /**
+     * Removes a percentage of the dead ends of the maze, chosen at random. Dead ends that only back onto excluded cells
+     * or the outside of the grid can't be removed and are skipped, otherwise exactly the percentage is removed, rounded
+     * to the nearest dead end.
+     * @param percent The percentage of the dead ends to remove, from 0 to 100
+     * @param rand The source of randomness used to choose the dead ends and walls
+     * @return the number of dead ends removed
+     */
+    public int braid(int percent, SplittableRandom rand) {
+        if(percent < 0 || percent > 100){
+            throw new IllegalArgumentException("The percentage of dead ends to remove must be between 0 and 100");
+        }
+        int totalCells = width * height;
+        BitSet isDeadEnd = new BitSet(totalCells);  // Cells that are still dead ends
+        int[] deadEnds = new int[1024];             // Cells that were dead ends, removed lazily as they are picked
+        int size = 0;
+        for(int index = excludedCells.nextClearBit(0); index < totalCells; index = excludedCells.nextClearBit(index + 1)){
+            if(isDeadEnd(index % width, index / width)){
+                if(size == deadEnds.length){
+                    int[] larger = new int[deadEnds.length * 2];
+                    System.arraycopy(deadEnds, 0, larger, 0, size);
+                    deadEnds = larger;
+                }
+                deadEnds[size++] = index;
+                isDeadEnd.set(index);
+            }
+        }
+        long target = Math.round(size * percent / 100.0);
+
+        int[] directions = new int[3];      // Walls that can be knocked down from the current dead end
+        int removed = 0;
+        while(removed < target && size > 0){
+            int pick = rand.nextInt(size);
+            int index = deadEnds[pick];
+            deadEnds[pick] = deadEnds[--size];
+            if(!isDeadEnd.get(index)){
+                continue;
+            }
+            int x = index % width;
+            int y = index / width;
+            int count = 0;
+            boolean joinsDeadEnd = false;
+            for(Direction position : Direction.values()){
+                if(grid.getWall(x, y, position) != UP || !isInside(x, y, position)){
+                    continue;
+                }
+                int next = neighbourIndex(index, position.getIndex(), width);
+                if(excludedCells.get(next)){
+                    continue;
+                }
+                boolean nextDeadEnd = isDeadEnd.get(next);
+                if(nextDeadEnd && removed + 2 > target){
+                    continue; // Joining two dead ends would remove one more than the target
+                }
+                if(nextDeadEnd && !joinsDeadEnd){
+                    joinsDeadEnd = true;
+                    count = 0;
+                }
+                if(nextDeadEnd == joinsDeadEnd){
+                    directions[count++] = position.getIndex();
+                }
+            }
+            if(count == 0){
+                continue;
+            }
+            isDeadEnd.clear(index);
+            Direction position = Direction.getDirection(directions[rand.nextInt(count)]);
+            grid.carve(x, y, position);
+            removed++;
+            if(joinsDeadEnd){
+                isDeadEnd.clear(neighbourIndex(index, position.getIndex(), width));
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Checks whether a cell has three walls up and one down
+     */
+    private boolean isDeadEnd(int x, int y) {
+        int up = 0;
+        int down = 0;
+        for(Direction position : Direction.values()){
+            Wall wall = grid.getWall(x, y, position);
+            if(wall == UP){
+                up++;
+            }
+            else if(wall == DOWN){
+                down++;
+            }
+        }
+        return up == 3 && down == 1;
+    }
+
+    /**
+     * Checks whether the neighbour of a cell in a direction is inside the grid
+     */
+    private boolean isInside(int x, int y, Direction position) {
+        return switch (position) {
+            case NORTH -> y > 0;
+            case EAST -> x < width - 1;
+            case SOUTH -> y < height - 1;
+            case WEST -> x > 0;
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package Models.Generators;
+
+/**
+ * Ranges that the difficulty of a generated maze should fall within, measured the same way as
+ * {@link Models.Maze#deadEnds()} and {@link Models.Maze#percentUsed()}, along with how long to spend trying to meet them
+ */
+public class DifficultyTarget {
+    private final int minDeadEnds;
+    private final int maxDeadEnds;
+    private final int minPercentUsed;
+    private final int maxPercentUsed;
+    private final long budgetMillis;
+
+    /**
+     * Creates a difficulty target, all ranges are inclusive
+     * @param minDeadEnds The fewest dead ends the maze should have
+     * @param maxDeadEnds The most dead ends the maze should have
+     * @param minPercentUsed The lowest percentage of cells the solution should go through
+     * @param maxPercentUsed The highest percentage of cells the solution should go through
+     * @param budgetMillis The longest time to spend trying to meet the target
+     */
+    public DifficultyTarget(int minDeadEnds, int maxDeadEnds, int minPercentUsed, int maxPercentUsed, long budgetMillis) {
+        if(minDeadEnds > maxDeadEnds || minPercentUsed > maxPercentUsed){
+            throw new IllegalArgumentException("The minimum of a range can't be more than its maximum");
+        }
+        if(budgetMillis < 0){
+            throw new IllegalArgumentException("Time budget can't be negative");
+        }
+        this.minDeadEnds = minDeadEnds;
+        this.maxDeadEnds = maxDeadEnds;
+        this.minPercentUsed = minPercentUsed;
+        this.maxPercentUsed = maxPercentUsed;
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Checks whether measurements of a maze are within the target
+     * @param deadEnds The number of dead ends in the maze
+     * @param percentUsed The percentage of cells the solution goes through
+     * @return true if both measurements are within their ranges
+     */
+    public boolean isMet(int deadEnds, int percentUsed) {
+        return deadEnds >= minDeadEnds && deadEnds <= maxDeadEnds
+                && percentUsed >= minPercentUsed && percentUsed <= maxPercentUsed;
+    }
+
+    public int getMinDeadEnds() {
+        return minDeadEnds;
+    }
+
+    public int getMaxDeadEnds() {
+        return maxDeadEnds;
+    }
+
+    public int getMinPercentUsed() {
+        return minPercentUsed;
+    }
+
+    public int getMaxPercentUsed() {
+        return maxPercentUsed;
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+}
@@ -0,0 +1,402 @@
+package Models.Generators;
+
+import Models.Direction;
+import Models.MazeGrid;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import static Models.Direction.*;
+import static Models.Generators.WilsonGenerator.neighbourIndex;
+import static Models.Wall.DOWN;
+import static Models.Wall.UP;
+
+/**
+ * Reshapes a generated maze until its number of dead ends and the length of its solution fall within a
+ * {@link DifficultyTarget}.
+ * The maze is treated as a tree rooted at an origin cell, with every other cell pointing towards the origin. Each move
+ * shifts the origin to a random neighbour, which swaps exactly one wall of the maze for another while keeping it
+ * perfect. Moves that take the maze further from the target are undone. Only the three cells whose walls change have
+ * to be checked for dead ends, and the solution only has to be found again when the removed wall was on it, which is
+ * done by walking up the tree rather than searching the maze. If the maze stops getting closer to the target it is
+ * generated again from scratch.
+ */
+public class DifficultyTuner {
+    private static final byte ROOT = -1;
+    private final MazeGrid grid;
+    private final BitSet excludedCells;
+    private final DifficultyTarget target;
+    private final int width;
+    private final int height;
+    private final int totalCells;
+    private final byte[] parentDirection;   // Direction of the next cell towards the origin from each cell
+    private final BitSet onPath;            // Cells of the tree that the solution goes through
+    private final BitSet marked;            // Cells between the start of the path in the tree and the origin
+    private final BitSet inTree;            // Cells joined to the origin that can be changed
+    private final int minPathCells;
+    private final int maxPathCells;
+    private int origin;
+    private int deadEnds;
+    private int pathStart;                  // First cell of the solution that is part of the tree, -1 if there isn't one
+    private int pathFinish;                 // Last cell of the solution that is part of the tree
+    private int fixedPathCells;             // Cells of the solution that aren't part of the tree
+    private int pathCells;
+
+    /**
+     * Creates a tuner for a maze
+     * @param grid The grid holding the generated maze
+     * @param excludedCells Bitmap of the cells that were excluded when the maze was generated, these are never changed
+     * @param target The difficulty to aim for
+     */
+    public DifficultyTuner(MazeGrid grid, BitSet excludedCells, DifficultyTarget target) {
+        this.grid = grid;
+        this.excludedCells = excludedCells;
+        this.target = target;
+        width = grid.getWidth();
+        height = grid.getHeight();
+        totalCells = width * height;
+        parentDirection = new byte[totalCells];
+        onPath = new BitSet(totalCells);
+        marked = new BitSet(totalCells);
+        inTree = new BitSet(totalCells);
+
+        // Convert the percentage range into a range of cell counts, rounding the same way as Maze.percentUsed()
+        int minCells = (int) Math.ceil(target.getMinPercentUsed() * totalCells / 100.0);
+        while(minCells > 0 && percentUsed(minCells - 1) >= target.getMinPercentUsed()){
+            minCells--;
+        }
+        while(percentUsed(minCells) < target.getMinPercentUsed() && minCells <= totalCells){
+            minCells++;
+        }
+        int maxCells = (int) Math.min(totalCells, Math.ceil((target.getMaxPercentUsed() + 1) * (long) totalCells / 100.0));
+        while(maxCells > 0 && percentUsed(maxCells) > target.getMaxPercentUsed()){
+            maxCells--;
+        }
+        minPathCells = minCells;
+        maxPathCells = maxCells;
+    }
+
+    /**
+     * Reshapes the maze until it meets the target or the time budget runs out
+     * Pre-condition: The maze is perfect and its entrance and exit have been opened.
+     * Post-condition: The maze is still perfect and is as close to the target as could be found.
+     * @param startX The horizontal position of the entrance cell
+     * @param startY The vertical position of the entrance cell
+     * @param finishX The horizontal position of the exit cell
+     * @param finishY The vertical position of the exit cell
+     * @param generator The algorithm used to generate the maze again if it stops getting closer to the target
+     * @param rand The source of randomness for the moves
+     * @return true if the maze meets the target
+     */
+    public boolean tune(int startX, int startY, int finishX, int finishY, MazeGenerator generator, SplittableRandom rand) {
+        long deadline = System.nanoTime() + target.getBudgetMillis() * 1_000_000;
+        int start = startY * width + startX;
+        int finish = finishY * width + finishX;
+        if(!load(start, finish)){
+            return target.isMet(deadEnds, percentUsed(pathCells));
+        }
+        long cost = cost();
+        long staleLimit = Math.max(1000, 4L * totalCells);
+        long stale = 0;
+        int[] moves = new int[4];
+        for(long step = 0; cost > 0; step++){
+            if((step & 63) == 0 && System.nanoTime() > deadline){
+                break;
+            }
+            int count = 0;
+            int x = origin % width;
+            int y = origin / width;
+            if(y > 0 && inTree.get(origin - width)){
+                moves[count++] = NORTH.getIndex();
+            }
+            if(x < width - 1 && inTree.get(origin + 1)){
+                moves[count++] = EAST.getIndex();
+            }
+            if(y < height - 1 && inTree.get(origin + width)){
+                moves[count++] = SOUTH.getIndex();
+            }
+            if(x > 0 && inTree.get(origin - 1)){
+                moves[count++] = WEST.getIndex();
+            }
+            if(stale > staleLimit || count == 0){
+                regenerate(generator, rand);
+                if(!load(start, finish)){
+                    break;
+                }
+                cost = cost();
+                stale = 0;
+                continue;
+            }
+            int direction = moves[rand.nextInt(count)];
+            long newCost = shiftOrigin(direction, cost);
+            if(newCost < cost){
+                stale = 0;
+            }
+            else{
+                stale++;
+            }
+            cost = newCost;
+        }
+        return cost == 0;
+    }
+
+    /**
+     * Moves the origin to a neighbouring cell, knocking down the wall between them and putting up the wall between the
+     * neighbour and the cell it used to point to. The move is undone if it takes the maze further from the target.
+     * @param direction The index of the direction of the neighbour from the origin
+     * @param cost How far the maze was from the target before the move
+     * @return how far the maze is from the target after the move
+     */
+    private long shiftOrigin(int direction, long cost) {
+        int oldOrigin = origin;
+        int next = neighbourIndex(origin, direction, width);
+        byte oldDirection = parentDirection[next];
+        int oldParent = neighbourIndex(next, oldDirection, width);
+        parentDirection[oldOrigin] = (byte) direction;
+        parentDirection[next] = ROOT;
+        origin = next;
+        if(oldParent == oldOrigin){
+            // The wall between them was already down so the maze is unchanged
+            return cost;
+        }
+
+        int oldDeadEnds = deadEnds;
+        deadEnds -= deadEnd(oldOrigin) + deadEnd(next) + deadEnd(oldParent);
+        setWall(next, oldDirection, false);
+        setWall(oldOrigin, direction, true);
+        deadEnds += deadEnd(oldOrigin) + deadEnd(next) + deadEnd(oldParent);
+        // The solution only changes if the wall put up was on it
+        boolean pathChanged = onPath.get(next) && onPath.get(oldParent);
+        if(pathChanged){
+            findPath();
+        }
+        long newCost = cost();
+        if(newCost <= cost){
+            return newCost;
+        }
+
+        setWall(oldOrigin, direction, false);
+        setWall(next, oldDirection, true);
+        parentDirection[next] = oldDirection;
+        parentDirection[oldOrigin] = ROOT;
+        origin = oldOrigin;
+        deadEnds = oldDeadEnds;
+        if(pathChanged){
+            findPath();
+        }
+        return cost;
+    }
+
+    /**
+     * Counts the dead ends of the maze, finds its solution and builds the tree of the cells that can be changed
+     * @param start The index of the entrance cell
+     * @param finish The index of the exit cell
+     * @return false if the solution couldn't be found so the maze can't be tuned
+     */
+    private boolean load(int start, int finish) {
+        deadEnds = 0;
+        for(int index = 0; index < totalCells; index++){
+            deadEnds += deadEnd(index);
+        }
+
+        // Breadth first search from the entrance through every cell to find the whole solution
+        int[] previous = new int[totalCells];
+        int[] queue = new int[totalCells];
+        BitSet reached = new BitSet(totalCells);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        reached.set(start);
+        while(head < tail && !reached.get(finish)){
+            int current = queue[head++];
+            for(int direction = 0; direction < 4; direction++){
+                if(isOpen(current, direction)){
+                    int next = neighbourIndex(current, direction, width);
+                    if(!reached.get(next)){
+                        reached.set(next);
+                        previous[next] = current;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        if(!reached.get(finish)){
+            pathCells = 0;
+            return false;
+        }
+        // Find where the solution enters and leaves the cells that can be changed, which must be in one stretch
+        int solutionCells = 0;
+        int treeCells = 0;
+        int lastTreeCell = -1;
+        pathStart = -1;
+        pathFinish = -1;
+        boolean leftTree = false;
+        for(int current = finish; ; current = previous[current]){
+            solutionCells++;
+            if(!excludedCells.get(current)){
+                if(leftTree){
+                    return false;
+                }
+                if(pathFinish < 0){
+                    pathFinish = current;
+                }
+                lastTreeCell = current;
+                treeCells++;
+            }
+            else if(pathFinish >= 0){
+                leftTree = true;
+            }
+            if(current == start){
+                break;
+            }
+        }
+        pathStart = lastTreeCell;
+        fixedPathCells = solutionCells - treeCells;
+
+        // Root the tree at the end of the solution, or anywhere if the solution never enters it
+        origin = pathFinish;
+        if(origin < 0){
+            origin = excludedCells.nextClearBit(0);
+            if(origin >= totalCells){
+                pathCells = solutionCells;
+                return false;
+            }
+        }
+        parentDirection[origin] = ROOT;
+        inTree.clear();
+        inTree.set(origin);
+        head = 0;
+        tail = 0;
+        queue[tail++] = origin;
+        while(head < tail){
+            int current = queue[head++];
+            for(int direction = 0; direction < 4; direction++){
+                if(isOpen(current, direction)){
+                    int next = neighbourIndex(current, direction, width);
+                    if(!inTree.get(next) && !excludedCells.get(next)){
+                        inTree.set(next);
+                        parentDirection[next] = (byte) ((direction + 2) % 4);
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        findPath();
+        return true;
+    }
+
+    /**
+     * Finds the part of the solution inside the tree by walking from both of its ends towards the origin until the
+     * walks meet, then updates the length of the solution
+     */
+    private void findPath() {
+        onPath.clear();
+        if(pathStart < 0){
+            pathCells = fixedPathCells;
+            return;
+        }
+        marked.clear();
+        for(int current = pathStart; ; current = neighbourIndex(current, parentDirection[current], width)){
+            marked.set(current);
+            if(parentDirection[current] == ROOT){
+                break;
+            }
+        }
+        int count = 1;
+        int meeting = pathFinish;
+        while(!marked.get(meeting)){
+            onPath.set(meeting);
+            count++;
+            meeting = neighbourIndex(meeting, parentDirection[meeting], width);
+        }
+        for(int current = pathStart; current != meeting; current = neighbourIndex(current, parentDirection[current], width)){
+            onPath.set(current);
+            count++;
+        }
+        onPath.set(meeting);
+        pathCells = fixedPathCells + count;
+    }
+
+    /**
+     * Generates the changeable part of the maze again after putting all of its walls back up
+     */
+    private void regenerate(MazeGenerator generator, SplittableRandom rand) {
+        for(int index = excludedCells.nextClearBit(0); index < totalCells; index = excludedCells.nextClearBit(index + 1)){
+            int x = index % width;
+            int y = index / width;
+            if(x < width - 1 && !excludedCells.get(index + 1)){
+                grid.seal(x, y, EAST);
+            }
+            if(y < height - 1 && !excludedCells.get(index + width)){
+                grid.seal(x, y, SOUTH);
+            }
+        }
+        generator.generate(grid, excludedCells, rand);
+    }
+
+    /**
+     * Gets how far the maze is from the target, as the number of dead ends plus the number of solution cells that are
+     * outside of their ranges
+     */
+    private long cost() {
+        long cost = 0;
+        cost += Math.max(0, target.getMinDeadEnds() - deadEnds) + Math.max(0, deadEnds - target.getMaxDeadEnds());
+        cost += Math.max(0, minPathCells - pathCells) + Math.max(0, pathCells - maxPathCells);
+        return cost;
+    }
+
+    /**
+     * Checks whether a cell is a dead end, that is three of its walls are up and the other is down
+     * @return 1 if it is a dead end, 0 otherwise
+     */
+    private int deadEnd(int index) {
+        int x = index % width;
+        int y = index / width;
+        int up = 0;
+        int down = 0;
+        for(int direction = 0; direction < 4; direction++){
+            Direction position = Direction.getDirection(direction);
+            if(grid.getWall(x, y, position) == UP){
+                up++;
+            }
+            else if(grid.getWall(x, y, position) == DOWN){
+                down++;
+            }
+        }
+        return up == 3 && down == 1 ? 1 : 0;
+    }
+
+    /**
+     * Checks whether a cell is joined to the cell next to it, the walls on both sides must be down
+     */
+    private boolean isOpen(int index, int direction) {
+        int x = index % width;
+        int y = index / width;
+        if(direction == NORTH.getIndex() && y == 0 || direction == EAST.getIndex() && x == width - 1
+                || direction == SOUTH.getIndex() && y == height - 1 || direction == WEST.getIndex() && x == 0){
+            return false;
+        }
+        int next = neighbourIndex(index, direction, width);
+        return grid.getWall(x, y, Direction.getDirection(direction)) == DOWN
+                && grid.getWall(next % width, next / width, Direction.getDirection((direction + 2) % 4)) == DOWN;
+    }
+
+    /**
+     * Knocks down or puts up the wall between a cell and its neighbour
+     */
+    private void setWall(int index, int direction, boolean open) {
+        if(open){
+            grid.carve(index % width, index / width, Direction.getDirection(direction));
+        }
+        else{
+            grid.seal(index % width, index / width, Direction.getDirection(direction));
+        }
+    }
+
+    /**
+     * Gets the percentage of cells a solution goes through, rounded the same way as Maze.percentUsed()
+     */
+    private int percentUsed(int cells) {
+        return (int) Math.abs((double) cells / totalCells * 100);
+    }
+}
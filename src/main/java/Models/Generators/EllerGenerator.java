@@ -0,0 +1,219 @@
+package Models.Generators;
+
+import Models.MazeGrid;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import static Models.Direction.EAST;
+import static Models.Direction.SOUTH;
+
+/**
+ * Generates mazes using Eller's algorithm, which builds the maze one row at a time while only remembering which cells
+ * of the current row are already connected. This lets mazes of any height be streamed to a {@link RowSink} using memory
+ * proportional to the width of the maze instead of its area.
+ */
+public class EllerGenerator implements MazeGenerator {
+
+    /**
+     * Generates a maze with no excluded cells, passing each row to a sink as soon as it is finished
+     * @param width The width of the maze in cells
+     * @param height The height of the maze in cells
+     * @param rand The source of randomness for the layout of the maze
+     * @param sink Receives every row of the maze in order
+     * @throws IOException thrown if the sink could not write a row
+     */
+    public void generate(int width, int height, SplittableRandom rand, RowSink sink) throws IOException {
+        generate(width, height, null, rand, sink);
+    }
+
+    /**
+     * Generates a maze into a grid. As rows can't be revisited, a group of cells that is blocked from going any further
+     * down by excluded cells is joined to a neighbour in its row. If it has no such neighbour but was reachable from
+     * another group in an earlier row it will be left as a separate region, so shapes with pockets that open upwards
+     * are better suited to {@link WilsonGenerator} or {@link KruskalGenerator}.
+     * @param grid The grid to carve the maze into
+     * @param excludedCells Bitmap of the cells to leave out of the maze, indexed by y * width + x
+     * @param rand The source of randomness for the layout of the maze
+     */
+    @Override
+    public void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand) {
+        try {
+            generate(grid.getWidth(), grid.getHeight(), excludedCells, rand, (y, eastOpen, southOpen) -> {
+                for(int x = eastOpen.nextSetBit(0); x >= 0; x = eastOpen.nextSetBit(x + 1)){
+                    grid.carve(x, y, EAST);
+                }
+                for(int x = southOpen.nextSetBit(0); x >= 0; x = southOpen.nextSetBit(x + 1)){
+                    grid.carve(x, y, SOUTH);
+                }
+            });
+        } catch (IOException e) {
+            // Carving into a grid never throws
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Runs Eller's algorithm. Sets of connected cells are given ids between 0 and width - 1 which are reused once no
+     * cell of the row belongs to them, and sets joined within a row are tracked with a union-find over those ids.
+     * @param width The width of the maze in cells
+     * @param height The height of the maze in cells
+     * @param excludedCells Bitmap of the cells to leave out indexed by y * width + x, or null if there are none
+     * @param rand The source of randomness for the layout of the maze
+     * @param sink Receives every row of the maze in order
+     * @throws IOException thrown if the sink could not write a row
+     */
+    private void generate(int width, int height, BitSet excludedCells, SplittableRandom rand, RowSink sink) throws IOException {
+        int[] set = new int[width];                 // Set of each cell in the row, -1 if it isn't connected above
+        int[] parent = new int[width];              // Union-find parent of each set id for joins made in the row
+        int[] candidates = new int[width];          // Number of cells of each set that can be opened downwards
+        int[] chosen = new int[width];              // A random cell of each set that can be opened downwards
+        boolean[] used = new boolean[width];        // Set ids that belong to a cell of the row
+        BitSet goesDown = new BitSet(width);        // Set ids that have been opened downwards
+        BitSet excluded = new BitSet(width);
+        BitSet excludedBelow = new BitSet(width);
+        BitSet eastOpen = new BitSet(width);
+        BitSet southOpen = new BitSet(width);
+        Arrays.fill(set, -1);
+
+        for(int y = 0; y < height; y++){
+            boolean lastRow = y == height - 1;
+            excluded.clear();
+            excludedBelow.clear();
+            eastOpen.clear();
+            southOpen.clear();
+            goesDown.clear();
+            if(excludedCells != null){
+                for(int x = 0; x < width; x++){
+                    excluded.set(x, excludedCells.get(y * width + x));
+                    excludedBelow.set(x, !lastRow && excludedCells.get((y + 1) * width + x));
+                }
+            }
+
+            // Give every cell that isn't connected to the row above a set of its own
+            Arrays.fill(used, false);
+            for(int x = 0; x < width; x++){
+                if(set[x] >= 0){
+                    used[set[x]] = true;
+                }
+            }
+            int freeId = 0;
+            for(int x = 0; x < width; x++){
+                if(set[x] < 0 && !excluded.get(x)){
+                    while(used[freeId]){
+                        freeId++;
+                    }
+                    set[x] = freeId;
+                    used[freeId] = true;
+                }
+            }
+            for(int id = 0; id < width; id++){
+                parent[id] = id;
+            }
+
+            // Randomly join neighbouring cells of different sets, the last row joins all of them
+            for(int x = 0; x < width - 1; x++){
+                if(lastRow || rand.nextBoolean()){
+                    join(x, set, parent, excluded, eastOpen);
+                }
+            }
+            if(lastRow){
+                sink.acceptRow(y, eastOpen, southOpen);
+                break;
+            }
+
+            countCandidates(width, set, parent, candidates, chosen, excluded, excludedBelow, rand);
+            if(excludedCells != null){
+                // A set that can't go down is joined to a neighbouring set so it isn't cut off from the rest
+                boolean joined = false;
+                for(int x = 0; x < width - 1; x++){
+                    if(!excluded.get(x) && !excluded.get(x + 1)
+                            && (candidates[find(parent, set[x])] == 0 || candidates[find(parent, set[x + 1])] == 0)){
+                        joined |= join(x, set, parent, excluded, eastOpen);
+                    }
+                }
+                if(joined){
+                    countCandidates(width, set, parent, candidates, chosen, excluded, excludedBelow, rand);
+                }
+            }
+
+            // Open cells downwards at random, making sure every set goes down at least once
+            for(int x = 0; x < width; x++){
+                if(excluded.get(x)){
+                    continue;
+                }
+                set[x] = find(parent, set[x]);
+                if(!excludedBelow.get(x) && rand.nextBoolean()){
+                    southOpen.set(x);
+                    goesDown.set(set[x]);
+                }
+            }
+            for(int x = 0; x < width; x++){
+                if(!excluded.get(x) && !goesDown.get(set[x]) && candidates[set[x]] > 0){
+                    southOpen.set(chosen[set[x]]);
+                    goesDown.set(set[x]);
+                }
+            }
+            sink.acceptRow(y, eastOpen, southOpen);
+
+            // Cells below an opening carry their set into the next row
+            for(int x = 0; x < width; x++){
+                if(!southOpen.get(x)){
+                    set[x] = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Joins a cell to the cell to its east if both are in the maze and they belong to different sets
+     * @return true if the wall between them was opened
+     */
+    private static boolean join(int x, int[] set, int[] parent, BitSet excluded, BitSet eastOpen){
+        if(excluded.get(x) || excluded.get(x + 1)){
+            return false;
+        }
+        int root = find(parent, set[x]);
+        int neighbourRoot = find(parent, set[x + 1]);
+        if(root == neighbourRoot){
+            return false;
+        }
+        parent[neighbourRoot] = root;
+        eastOpen.set(x);
+        return true;
+    }
+
+    /**
+     * Counts the cells of each set that can be opened downwards and picks one of them for each set uniformly at random
+     */
+    private static void countCandidates(int width, int[] set, int[] parent, int[] candidates, int[] chosen,
+                                        BitSet excluded, BitSet excludedBelow, SplittableRandom rand){
+        Arrays.fill(candidates, 0);
+        for(int x = 0; x < width; x++){
+            if(!excluded.get(x) && !excludedBelow.get(x)){
+                int root = find(parent, set[x]);
+                candidates[root]++;
+                if(rand.nextInt(candidates[root]) == 0){
+                    chosen[root] = x;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the root of a set id, halving the path to it along the way
+     * @param parent The parent of every set id
+     * @param id The set id
+     * @return the root set id
+     */
+    private static int find(int[] parent, int id){
+        while(parent[id] != id){
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+}
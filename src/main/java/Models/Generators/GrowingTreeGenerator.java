@@ -0,0 +1,104 @@
+package Models.Generators;
+
+import Models.Direction;
+import Models.MazeGrid;
+import Models.ProgressListener.Stage;
+import Models.TaskProgress;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import static Models.Generators.WilsonGenerator.neighbourIndex;
+
+/**
+ * Generates mazes using the growing tree algorithm. A list is kept of the cells that may still have neighbours outside
+ * the maze, each step a cell is picked from the list and joined to a random neighbour that isn't in the maze yet, or
+ * dropped from the list if it has none.
+ * How the cell is picked decides the style of the maze: always picking the newest cell gives the long winding
+ * corridors of the recursive backtracker, picking at random gives the short branching passages of Prim's algorithm
+ * and anything in between mixes the two.
+ * The list is kept in a plain int array rather than by recursion, so any size of maze can be generated without running
+ * out of stack. Dropping a cell other than the newest moves the newest cell into its place, so when the two ways of
+ * picking are mixed the newest cell is the newest of those that haven't been moved.
+ */
+public class GrowingTreeGenerator implements MazeGenerator {
+    private final double newestChance;
+
+    /**
+     * Creates a growing tree generator
+     * @param newestChance The chance of picking the newest cell of the list each step, otherwise a random cell is
+     *                     picked. 1 always picks the newest cell and 0 always picks at random
+     */
+    public GrowingTreeGenerator(double newestChance) {
+        if(!(newestChance >= 0 && newestChance <= 1)){
+            throw new IllegalArgumentException("The chance of picking the newest cell must be between 0 and 1");
+        }
+        this.newestChance = newestChance;
+    }
+
+    @Override
+    public void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand) {
+        generate(grid, excludedCells, rand, TaskProgress.NONE);
+    }
+
+    @Override
+    public void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand, TaskProgress progress) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int totalCells = width * height;
+        long added = 0;                                     // Cells added to the maze so far
+        progress.start(Stage.GENERATING, totalCells - excludedCells.cardinality());
+        BitSet visited = (BitSet) excludedCells.clone();    // Cells that are in the maze or left out of it
+        int[] active = new int[1024];                       // Cells that may still have neighbours outside the maze
+        int[] directions = new int[4];                      // Directions to neighbours outside the maze
+
+        // Start from a random cell, then from the first cell of any region the excluded cells cut off from it
+        int root = visited.nextClearBit(rand.nextInt(totalCells));
+        if(root >= totalCells){
+            root = visited.nextClearBit(0);
+        }
+        while(root < totalCells){
+            visited.set(root);
+            progress.update(++added);
+            active[0] = root;
+            int size = 1;
+            while(size > 0){
+                int pick = newestChance >= 1 || newestChance > 0 && rand.nextDouble() < newestChance
+                        ? size - 1 : rand.nextInt(size);
+                int current = active[pick];
+                int x = current % width;
+                int y = current / width;
+                int count = 0;
+                if(y > 0 && !visited.get(current - width)){
+                    directions[count++] = Direction.NORTH.getIndex();
+                }
+                if(x < width - 1 && !visited.get(current + 1)){
+                    directions[count++] = Direction.EAST.getIndex();
+                }
+                if(y < height - 1 && !visited.get(current + width)){
+                    directions[count++] = Direction.SOUTH.getIndex();
+                }
+                if(x > 0 && !visited.get(current - 1)){
+                    directions[count++] = Direction.WEST.getIndex();
+                }
+                if(count == 0){
+                    active[pick] = active[--size];
+                    continue;
+                }
+                int direction = directions[rand.nextInt(count)];
+                grid.carve(x, y, Direction.getDirection(direction));
+                int next = neighbourIndex(current, direction, width);
+                visited.set(next);
+                progress.update(++added);
+                if(size == active.length){
+                    int[] larger = new int[active.length * 2];
+                    System.arraycopy(active, 0, larger, 0, size);
+                    active = larger;
+                }
+                active[size++] = next;
+            }
+            root = visited.nextClearBit(0);
+        }
+        progress.finish();
+    }
+}
@@ -0,0 +1,40 @@
+package Models.Generators;
+
+import Models.MazeGrid;
+import Models.ProgressListener.Stage;
+import Models.TaskProgress;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * An algorithm that carves a perfect maze (exactly one path between any two cells) into a {@link MazeGrid}
+ */
+public interface MazeGenerator {
+    /**
+     * Carves a maze into a grid by knocking down walls between cells. Excluded cells are left out of the maze and none
+     * of their walls are changed.
+     * Pre-condition: Every wall between two non-excluded cells of the grid is up.
+     * Post-condition: The non-excluded cells of every connected region of the grid form a spanning tree.
+     * @param grid The grid to carve the maze into
+     * @param excludedCells Bitmap of the cells to leave out of the maze, indexed by y * width + x
+     * @param rand The source of randomness for the layout of the maze
+     */
+    void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand);
+
+    /**
+     * Carves a maze into a grid as {@link #generate(MazeGrid, BitSet, SplittableRandom)} does, reporting the number of
+     * cells added to the maze out of the non-excluded cells and stopping if the task is cancelled. Algorithms that
+     * don't check while they work only report when they start and finish.
+     * @param grid The grid to carve the maze into
+     * @param excludedCells Bitmap of the cells to leave out of the maze, indexed by y * width + x
+     * @param rand The source of randomness for the layout of the maze
+     * @param progress Where progress is reported and cancellation is checked
+     * @throws java.util.concurrent.CancellationException thrown if the task is cancelled, the grid is left part carved
+     */
+    default void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand, TaskProgress progress) {
+        progress.start(Stage.GENERATING, (long) grid.getWidth() * grid.getHeight() - excludedCells.cardinality());
+        generate(grid, excludedCells, rand);
+        progress.finish();
+    }
+}
@@ -0,0 +1,105 @@
+package Models.Generators;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Writes a maze to a black and white PBM image as its rows are generated, so very large mazes can be exported without
+ * the whole maze or image being held in memory. Every cell and wall is drawn as a square block of pixels, with an
+ * opening at the top of the top left cell and the bottom of the bottom right cell.
+ */
+public class PbmRowSink implements RowSink {
+    private final OutputStream out;
+    private final int width;
+    private final int height;
+    private final int scale;
+    private final byte[] line;      // One line of pixels, 1 bits are black
+
+    /**
+     * Writes the header and top wall of the image
+     * @param out The stream to write the image to, this is not closed
+     * @param width The width of the maze in cells
+     * @param height The height of the maze in cells
+     * @param scale The width in pixels of every cell and wall
+     * @throws IOException thrown if the header could not be written
+     */
+    public PbmRowSink(OutputStream out, int width, int height, int scale) throws IOException {
+        if(width < 1 || height < 1 || scale < 1){
+            throw new IllegalArgumentException("Width, height and scale must be positive");
+        }
+        int pixelWidth = Math.multiplyExact(2 * width + 1, scale);
+        int pixelHeight = Math.multiplyExact(2 * height + 1, scale);
+        this.out = new BufferedOutputStream(out);
+        this.width = width;
+        this.height = height;
+        this.scale = scale;
+        this.line = new byte[(pixelWidth + 7) / 8];
+
+        this.out.write(("P4\n" + pixelWidth + " " + pixelHeight + "\n").getBytes(StandardCharsets.US_ASCII));
+        // Top wall with the entrance above the first cell
+        Arrays.fill(line, (byte) 0);
+        fillBlocks(0, 2 * width + 1);
+        clearBlock(1);
+        writeLine();
+    }
+
+    @Override
+    public void acceptRow(int y, BitSet eastOpen, BitSet southOpen) throws IOException {
+        // Cells with the walls between them
+        Arrays.fill(line, (byte) 0);
+        fillBlocks(0, 1);
+        for(int x = 0; x < width; x++){
+            if(!eastOpen.get(x) || x == width - 1){
+                fillBlocks(2 * x + 2, 1);
+            }
+        }
+        writeLine();
+
+        // Walls below the cells, with the exit below the last cell
+        Arrays.fill(line, (byte) 0);
+        fillBlocks(0, 2 * width + 1);
+        for(int x = 0; x < width; x++){
+            if(y == height - 1 ? x == width - 1 : southOpen.get(x)){
+                clearBlock(2 * x + 1);
+            }
+        }
+        writeLine();
+        if(y == height - 1){
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes the current line of blocks to the image once for every pixel of its height
+     */
+    private void writeLine() throws IOException {
+        for(int i = 0; i < scale; i++){
+            out.write(line);
+        }
+    }
+
+    /**
+     * Colours a run of blocks in the current line black
+     * @param block The position of the first block
+     * @param count The number of blocks to colour
+     */
+    private void fillBlocks(int block, int count){
+        for(int pixel = block * scale; pixel < (block + count) * scale; pixel++){
+            line[pixel >>> 3] |= (byte) (0x80 >>> (pixel & 7));
+        }
+    }
+
+    /**
+     * Colours a block in the current line white
+     * @param block The position of the block
+     */
+    private void clearBlock(int block){
+        for(int pixel = block * scale; pixel < (block + 1) * scale; pixel++){
+            line[pixel >>> 3] &= (byte) ~(0x80 >>> (pixel & 7));
+        }
+    }
+}
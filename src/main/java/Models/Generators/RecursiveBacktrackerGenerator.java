@@ -0,0 +1,14 @@
+package Models.Generators;
+
+/**
+ * Generates mazes using the recursive backtracker, which walks to a random neighbour outside the maze for as long as
+ * it can and backs up to the last cell with such a neighbour when it gets stuck. This gives mazes with long winding
+ * corridors and few dead ends.
+ * It is the growing tree algorithm always picking the newest cell, so the path walked is kept in an int array rather
+ * than on the call stack.
+ */
+public class RecursiveBacktrackerGenerator extends GrowingTreeGenerator {
+    public RecursiveBacktrackerGenerator() {
+        super(1);
+    }
+}
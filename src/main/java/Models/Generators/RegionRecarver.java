@@ -0,0 +1,331 @@
+package Models.Generators;
+
+import Models.Direction;
+import Models.MazeGrid;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static Models.Generators.WilsonGenerator.neighbourIndex;
+import static Models.Wall.DOWN;
+import static Models.Wall.UP;
+
+/**
+ * Turns a rectangle of an already generated perfect maze into a room for an image, then joins the rest of the maze
+ * back together without generating it again.
+ * Sealing the room off cuts every passage that led into it, splitting the maze into pieces that each touch the room.
+ * Because the maze is a tree the number of pieces is known up front: one more than the number of cut passages less
+ * the number of separate parts the room's cells formed. To find which cut passages lead to the same piece a pair of
+ * walkers leaves through each one, one keeping its right hand on the wall and one its left, and each follows the wall
+ * until it comes back to the room. A walker that returns through another cut passage, or crosses the path of another
+ * walker, shows that both passages lead to the same piece, so walking stops as soon as the pieces are all known. A
+ * Kruskal's pass over the walls next to the cells walked then joins the pieces back together, walking further if the
+ * cells walked so far aren't enough to join every piece. The walls next to the room usually lead back to it quickly
+ * unless a piece really has been cut off, so the time taken depends on the size of the room and the pieces cut off
+ * rather than the size of the maze.
+ */
+public class RegionRecarver {
+    private final MazeGrid grid;
+    private final BitSet excludedCells;
+    private final int width;
+    private final int height;
+    private final Map<Integer, Integer> walked = new HashMap<>();   // Cut passage each walked cell was reached from
+    private final Map<Long, Integer> passages = new HashMap<>();    // Cut passage leaving each cell and direction
+    private int[] walkerCell;
+    private int[] walkerHeading;
+    private int[] parent;                                           // Union-find over the cut passages
+    private int pieces;
+
+    /**
+     * Creates a re-carver for a maze
+     * @param grid The grid holding the generated maze
+     * @param excludedCells Bitmap of the excluded cells of the maze, cells of new rooms are added to it
+     */
+    public RegionRecarver(MazeGrid grid, BitSet excludedCells) {
+        this.grid = grid;
+        this.excludedCells = excludedCells;
+        width = grid.getWidth();
+        height = grid.getHeight();
+    }
+
+    /**
+     * Turns a rectangle of the maze into a room, knocking down every wall inside it, putting up every wall around it and
+     * adding its cells to the excluded cells, then joins the cells that were cut off from each other back together
+     * @param x1 The horizontal position of the left column of the room
+     * @param y1 The vertical position of the top row of the room
+     * @param x2 The horizontal position of the right column of the room
+     * @param y2 The vertical position of the bottom row of the room
+     * @param rand The source of randomness used to choose the walls that join the maze back together
+     * @return true if every cell that was cut off could be joined back, false if some are enclosed by excluded cells
+     */
+    public boolean exclude(int x1, int y1, int x2, int y2, SplittableRandom rand) {
+        if(x1 < 0 || y1 < 0 || x2 >= width || y2 >= height || x1 > x2 || y1 > y2){
+            throw new IllegalArgumentException("Region " + x1 + ", " + y1 + " to " + x2 + ", " + y2 + " is outside the maze");
+        }
+        for(int y = y1; y <= y2; y++){
+            int excluded = excludedCells.nextSetBit(y * width + x1);
+            if(excluded != -1 && excluded <= y * width + x2){
+                throw new IllegalArgumentException("Region " + x1 + ", " + y1 + " to " + x2 + ", " + y2 + " overlaps excluded cells");
+            }
+        }
+        walked.clear();
+        passages.clear();
+
+        // Find the passages out of the room, numbering each one by the cell outside it
+        List<Integer> outsideCells = new ArrayList<>();
+        List<Integer> outwardHeadings = new ArrayList<>();
+        for(int y = y1; y <= y2; y++){
+            for(int x = x1; x <= x2; x++){
+                for(Direction position : Direction.values()){
+                    int index = y * width + x;
+                    if(!isInside(x, y, position) || grid.getWall(x, y, position) != DOWN){
+                        continue;
+                    }
+                    int next = neighbourIndex(index, position.getIndex(), width);
+                    if(!isInRoom(next, x1, y1, x2, y2)){
+                        passages.put(passageKey(next, (position.getIndex() + 2) % 4), outsideCells.size());
+                        outsideCells.add(next);
+                        outwardHeadings.add(position.getIndex());
+                    }
+                }
+            }
+        }
+        int passageCount = outsideCells.size();
+        pieces = passageCount;
+        int targetPieces = passageCount - countRoomParts(x1, y1, x2, y2) + 1;
+        parent = new int[passageCount];
+        // Walker 2i keeps its right hand on the wall and walker 2i + 1 its left, both leaving through passage i
+        walkerCell = new int[passageCount * 2];
+        walkerHeading = new int[passageCount * 2];
+        for(int i = 0; i < passageCount; i++){
+            parent[i] = i;
+            walked.put(outsideCells.get(i), i);
+            for(int hand = 0; hand < 2; hand++){
+                walkerCell[2 * i + hand] = outsideCells.get(i);
+                walkerHeading[2 * i + hand] = outwardHeadings.get(i);
+            }
+        }
+        while(pieces > targetPieces){
+            if(walkAll(1) == 0){
+                break;
+            }
+        }
+        // Walk further until the walls next to the walked cells are enough to join every piece
+        int steps = 64;
+        while(!canJoinWalkedCells() && walkAll(steps) > 0){
+            steps *= 2;
+        }
+
+        for(int y = y1; y <= y2; y++){
+            excludedCells.set(y * width + x1, y * width + x2 + 1);
+        }
+        grid.carveRegion(x1, y1, x2, y2);
+        joinWalkedCells(rand);
+        walked.clear();
+        return pieces <= 1;
+    }
+
+    /**
+     * Moves every walker that hasn't come back to the room a number of steps along the wall
+     * @return the number of walkers that still haven't come back to the room
+     */
+    private int walkAll(int steps) {
+        int walking = 0;
+        for(int w = 0; w < walkerCell.length; w++){
+            for(int step = 0; step < steps && walkerCell[w] != -1; step++){
+                walk(w);
+            }
+            if(walkerCell[w] != -1){
+                walking++;
+            }
+        }
+        return walking;
+    }
+
+    /**
+     * Moves a walker one cell along the wall on its side, stopping it if the next step would take it back into the room
+     */
+    private void walk(int w) {
+        int index = walkerCell[w];
+        int passage = w / 2;
+        int turn = w % 2 == 0 ? 1 : 3;
+        int x = index % width;
+        int y = index / width;
+        for(int k = 0; k < 4; k++){
+            // Try turning towards the wall first, then straight on, then away from it, then back
+            int direction = (walkerHeading[w] + turn * (1 - k) + 8) % 4;
+            if(k == 3){
+                direction = (walkerHeading[w] + 2) % 4;
+            }
+            Integer returned = passages.get(passageKey(index, direction));
+            if(returned != null){
+                union(passage, returned);
+                walkerCell[w] = -1;
+                return;
+            }
+            Direction position = Direction.getDirection(direction);
+            if(isInside(x, y, position) && grid.getWall(x, y, position) == DOWN){
+                int next = neighbourIndex(index, direction, width);
+                Integer other = walked.putIfAbsent(next, passage);
+                if(other != null){
+                    union(passage, other);
+                }
+                walkerCell[w] = next;
+                walkerHeading[w] = direction;
+                return;
+            }
+        }
+        walkerCell[w] = -1;
+    }
+
+    /**
+     * Checks whether every piece could be joined using only walls between walked cells, without changing anything
+     */
+    private boolean canJoinWalkedCells() {
+        int[] savedParent = parent.clone();
+        int savedPieces = pieces;
+        for(long[] candidate : findCandidates()){
+            int index = (int) candidate[0];
+            union(walked.get(index), walked.get(neighbourIndex(index, (int) candidate[1], width)));
+        }
+        boolean joined = pieces <= 1;
+        parent = savedParent;
+        pieces = savedPieces;
+        return joined;
+    }
+
+    /**
+     * Knocks down a random selection of walls between walked cells of different pieces until no more pieces can be
+     * joined using them
+     */
+    private void joinWalkedCells(SplittableRandom rand) {
+        List<long[]> candidates = findCandidates();
+        for(int i = candidates.size() - 1; i > 0; i--){
+            int j = rand.nextInt(i + 1);
+            long[] swap = candidates.get(i);
+            candidates.set(i, candidates.get(j));
+            candidates.set(j, swap);
+        }
+        for(long[] candidate : candidates){
+            int index = (int) candidate[0];
+            int direction = (int) candidate[1];
+            int next = neighbourIndex(index, direction, width);
+            if(union(walked.get(index), walked.get(next))){
+                grid.carve(index % width, index / width, Direction.getDirection(direction));
+            }
+        }
+    }
+
+    /**
+     * Finds the walls between walked cells that aren't excluded and are in different pieces
+     * @return the cell index and direction of each wall
+     */
+    private List<long[]> findCandidates() {
+        List<long[]> candidates = new ArrayList<>();
+        for(Map.Entry<Integer, Integer> entry : walked.entrySet()){
+            int index = entry.getKey();
+            if(excludedCells.get(index)){
+                continue;
+            }
+            int x = index % width;
+            int y = index / width;
+            for(Direction position : Direction.values()){
+                if(!isInside(x, y, position) || grid.getWall(x, y, position) != UP){
+                    continue;
+                }
+                int next = neighbourIndex(index, position.getIndex(), width);
+                Integer nextPassage = walked.get(next);
+                if(nextPassage != null && !excludedCells.get(next) && find(nextPassage) != find(entry.getValue())){
+                    candidates.add(new long[]{index, position.getIndex()});
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Counts the separate parts the cells of the room form using the passages between them before it is opened up
+     */
+    private int countRoomParts(int x1, int y1, int x2, int y2) {
+        BitSet reached = new BitSet();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int roomWidth = x2 - x1 + 1;
+        int parts = 0;
+        for(int y = y1; y <= y2; y++){
+            for(int x = x1; x <= x2; x++){
+                if(reached.get((y - y1) * roomWidth + x - x1)){
+                    continue;
+                }
+                parts++;
+                reached.set((y - y1) * roomWidth + x - x1);
+                queue.add(y * width + x);
+                while(!queue.isEmpty()){
+                    int index = queue.poll();
+                    for(Direction position : Direction.values()){
+                        if(!isInside(index % width, index / width, position)
+                                || grid.getWall(index % width, index / width, position) != DOWN){
+                            continue;
+                        }
+                        int next = neighbourIndex(index, position.getIndex(), width);
+                        int roomIndex = (next / width - y1) * roomWidth + next % width - x1;
+                        if(isInRoom(next, x1, y1, x2, y2) && !reached.get(roomIndex)){
+                            reached.set(roomIndex);
+                            queue.add(next);
+                        }
+                    }
+                }
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Checks whether a cell has a neighbour on a side rather than the edge of the maze
+     */
+    private boolean isInside(int x, int y, Direction position) {
+        return switch (position) {
+            case NORTH -> y > 0;
+            case EAST -> x < width - 1;
+            case SOUTH -> y < height - 1;
+            case WEST -> x > 0;
+        };
+    }
+
+    private boolean isInRoom(int index, int x1, int y1, int x2, int y2) {
+        int x = index % width;
+        int y = index / width;
+        return x >= x1 && x <= x2 && y >= y1 && y <= y2;
+    }
+
+    private static long passageKey(int index, int direction) {
+        return (long) index * 4 + direction;
+    }
+
+    private int find(int i) {
+        while(parent[i] != i){
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * Joins the pieces two passages lead to
+     * @return true if they were different pieces
+     */
+    private boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if(rootA == rootB){
+            return false;
+        }
+        parent[rootA] = rootB;
+        pieces--;
+        return true;
+    }
+}
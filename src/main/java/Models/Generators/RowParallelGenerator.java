@@ -0,0 +1,215 @@
+package Models.Generators;
+
+import Models.MazeGrid;
+import Models.ProgressListener.Stage;
+import Models.TaskProgress;
+import Models.Wall;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static Models.Direction.*;
+import static Models.Generators.KruskalGenerator.union;
+import static Models.Wall.DOWN;
+import static Models.Wall.UP;
+
+/**
+ * Base for generators where every row of the maze is carved on its own, only ever joining a cell to the cell east of it
+ * or north of it. The rows are split into bands which are carved at the same time on a {@link ForkJoinPool}, each with
+ * its own random generator so the layout doesn't depend on the order the bands are run in.
+ * Each row is decided as a pair of bitmaps, one bit per cell for a passage east and one for a passage north, which are
+ * written straight into the grid with {@link MazeGrid#carveRow(int, long[], long[])}. Rows without excluded cells can
+ * fill the bitmaps 64 cells at a time from a single random number. The only walls shared between bands are those
+ * between the first row of a band and the last row of the band above, so the passages north from the first row of
+ * each band are kept to one side and carved once every band has finished.
+ * When no cells are excluded every cell except one is joined to exactly one cell north or east of it, which gives a
+ * perfect maze. Excluded cells can cut the maze into several trees, in which case a final pass joins them by knocking
+ * down walls between trees found with a union-find.
+ */
+public abstract class RowParallelGenerator implements MazeGenerator {
+    /**
+     * The number of cells each band is made up to, enough to outweigh the cost of scheduling it
+     */
+    public static final int BAND_CELLS = 1 << 16;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a generator
+     * @param pool The pool the bands of rows are generated on
+     */
+    protected RowParallelGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Decides the passages of a single row of the maze
+     * @param excludedCells Bitmap of the cells to leave out, indexed by y * width + x
+     * @param width The width of the maze in cells
+     * @param y The vertical position of the row starting from 0
+     * @param rand The source of randomness for the band the row is in
+     * @param east Empty bitmap of the columns to carve east from, column x is bit x % 64 of word x / 64
+     * @param north Empty bitmap of the columns to carve north from, laid out the same way
+     * @return the number of cells in the row that aren't excluded
+     */
+    protected abstract int decideRow(BitSet excludedCells, int width, int y, SplittableRandom rand, long[] east,
+                                     long[] north);
+
+    /**
+     * Checks whether none of a range of cells are excluded
+     * @param excludedCells Bitmap of the excluded cells
+     * @param from The index of the first cell of the range
+     * @param to The index after the last cell of the range
+     * @return true if no cell in the range is excluded
+     */
+    static boolean noneExcluded(BitSet excludedCells, int from, int to) {
+        int excluded = excludedCells.nextSetBit(from);
+        return excluded == -1 || excluded >= to;
+    }
+
+    /**
+     * Gets the bits of a word of a row bitmap that are columns of the maze
+     * @param word The index of the word in the bitmap
+     * @param width The width of the maze in cells
+     * @return a mask with a bit set for every column the word covers
+     */
+    static long columnMask(int word, int width) {
+        int columns = width - word * 64;
+        return columns >= 64 ? -1L : (1L << columns) - 1;
+    }
+
+    @Override
+    public void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand) {
+        generate(grid, excludedCells, rand, TaskProgress.NONE);
+    }
+
+    /**
+     * Carves a maze into a grid, reporting progress and checking for cancellation as each band of rows is finished
+     */
+    @Override
+    public void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand, TaskProgress progress) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        progress.start(Stage.GENERATING, (long) width * height - excludedCells.cardinality());
+        int rowsPerBand = Math.max(1, BAND_CELLS / width);
+        int bands = (height + rowsPerBand - 1) / rowsPerBand;
+        SplittableRandom[] bandRandoms = new SplittableRandom[bands];
+        for(int band = 0; band < bands; band++){
+            bandRandoms[band] = rand.split();
+        }
+        long[][] firstRowNorth = new long[bands][];
+        pool.invoke(new BandTask(grid, excludedCells, bandRandoms, firstRowNorth, rowsPerBand, 0, bands, progress,
+                new AtomicLong()));
+        progress.checkCancelled();
+        long[] none = new long[(width + 63) >>> 6];
+        for(int band = 1; band < bands; band++){
+            grid.carveRow(band * rowsPerBand, none, firstRowNorth[band]);
+        }
+        if(!excludedCells.isEmpty()){
+            joinTrees(grid, excludedCells);
+        }
+        progress.finish();
+    }
+
+    /**
+     * Joins trees that excluded cells have cut apart, knocking down a wall wherever it joins two trees that aren't
+     * already connected
+     */
+    private static void joinTrees(MazeGrid grid, BitSet excludedCells) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int totalCells = width * height;
+        int[] parent = new int[totalCells];
+        byte[] rank = new byte[totalCells];
+        for(int index = 0; index < totalCells; index++){
+            parent[index] = index;
+        }
+        // The first pass joins the cells that are already connected, the second knocks down walls between trees
+        for(int pass = 0; pass < 2; pass++){
+            Wall wall = pass == 0 ? DOWN : UP;
+            for(int y = 0; y < height; y++){
+                for(int x = 0; x < width; x++){
+                    int index = y * width + x;
+                    if(excludedCells.get(index)){
+                        continue;
+                    }
+                    if(x < width - 1 && !excludedCells.get(index + 1) && grid.getWall(x, y, EAST) == wall
+                            && union(parent, rank, index, index + 1) && pass == 1){
+                        grid.carve(x, y, EAST);
+                    }
+                    if(y < height - 1 && !excludedCells.get(index + width) && grid.getWall(x, y, SOUTH) == wall
+                            && union(parent, rank, index, index + width) && pass == 1){
+                        grid.carve(x, y, SOUTH);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Carves the rows of a range of bands, splitting the range in half until it is a single band. Each band only
+     * writes to the walls of its own cells so they can safely run at the same time.
+     */
+    private class BandTask extends RecursiveAction {
+        private final MazeGrid grid;
+        private final BitSet excludedCells;
+        private final SplittableRandom[] bandRandoms;
+        private final long[][] firstRowNorth;   // Columns to carve north from in the first row of each band
+        private final int rowsPerBand;
+        private final int from;
+        private final int to;
+        private final TaskProgress progress;
+        private final AtomicLong cellsDone;     // Non-excluded cells in the bands carved so far
+
+        BandTask(MazeGrid grid, BitSet excludedCells, SplittableRandom[] bandRandoms, long[][] firstRowNorth,
+                 int rowsPerBand, int from, int to, TaskProgress progress, AtomicLong cellsDone) {
+            this.grid = grid;
+            this.excludedCells = excludedCells;
+            this.bandRandoms = bandRandoms;
+            this.firstRowNorth = firstRowNorth;
+            this.rowsPerBand = rowsPerBand;
+            this.from = from;
+            this.to = to;
+            this.progress = progress;
+            this.cellsDone = cellsDone;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from > 1){
+                int middle = (from + to) >>> 1;
+                invokeAll(new BandTask(grid, excludedCells, bandRandoms, firstRowNorth, rowsPerBand, from, middle,
+                                progress, cellsDone),
+                        new BandTask(grid, excludedCells, bandRandoms, firstRowNorth, rowsPerBand, middle, to,
+                                progress, cellsDone));
+                return;
+            }
+            progress.checkCancelled();
+            int top = from * rowsPerBand;
+            int bottom = Math.min(top + rowsPerBand, grid.getHeight());
+            SplittableRandom rand = bandRandoms[from];
+            int width = grid.getWidth();
+            int words = (width + 63) >>> 6;
+            long[] east = new long[words];
+            long[] north = new long[words];
+            long[] none = new long[words];
+            long bandCells = 0;
+            for(int y = top; y < bottom; y++){
+                Arrays.fill(east, 0);
+                Arrays.fill(north, 0);
+                bandCells += decideRow(excludedCells, width, y, rand, east, north);
+                if(y == top){
+                    firstRowNorth[from] = north.clone();
+                    grid.carveRow(y, east, none);
+                }
+                else{
+                    grid.carveRow(y, east, north);
+                }
+            }
+            progress.update(cellsDone.addAndGet(bandCells));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package Models.Generators;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+/**
+ * Receives the rows of a maze one at a time as they are generated by {@link EllerGenerator}, so that the whole maze
+ * never has to be held in memory
+ */
+public interface RowSink {
+    /**
+     * Receives the next row of the maze, rows are given in order starting from the top (y = 0).
+     * The north wall of a cell is open when the south wall of the cell above it was open and the west wall of a cell is
+     * open when the east wall of the cell to its left is open, the outside walls of the maze are always up.
+     * The bit sets are reused for every row so must be copied if they are needed after this returns.
+     * @param y The vertical position of the row starting from 0
+     * @param eastOpen The cells of the row (by x position) that have their east wall down
+     * @param southOpen The cells of the row (by x position) that have their south wall down
+     * @throws IOException thrown if the row could not be written
+     */
+    void acceptRow(int y, BitSet eastOpen, BitSet southOpen) throws IOException;
+}
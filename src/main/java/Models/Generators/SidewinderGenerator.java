@@ -0,0 +1,80 @@
+package Models.Generators;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates mazes with the Sidewinder algorithm. Each row is split at random into runs of cells joined east to west,
+ * and every run is joined to the row above through one of its cells picked at random. The top row has nothing above it
+ * so is a single unbroken corridor. Rows only depend on themselves, so this is nearly as fast as
+ * {@link BinaryTreeGenerator}, with passages that wander sideways rather than all leading up and to the right. The
+ * mazes are still not uniform, a path straight up from any cell to the top row never has to turn back down.
+ */
+public class SidewinderGenerator extends RowParallelGenerator {
+    /**
+     * Creates a generator using the common pool
+     */
+    public SidewinderGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a generator
+     * @param pool The pool the bands of rows are generated on
+     */
+    public SidewinderGenerator(ForkJoinPool pool) {
+        super(pool);
+    }
+
+    @Override
+    protected int decideRow(BitSet excludedCells, int width, int y, SplittableRandom rand, long[] east, long[] north) {
+        int row = y * width;
+        int last = width - 1;
+        if(noneExcluded(excludedCells, y > 0 ? row - width : row, row + width)){
+            // One random bit per cell decides whether the run carries on east, the top row is a single run
+            for(int word = 0; word < east.length; word++){
+                east[word] = (y > 0 ? rand.nextLong() : -1L) & columnMask(word, width);
+            }
+            east[last >>> 6] &= ~(1L << last);
+            if(y > 0){
+                int start = 0;
+                for(int word = 0; word < east.length; word++){
+                    // A run ends at every cell that doesn't carry on east
+                    for(long ends = ~east[word] & columnMask(word, width); ends != 0; ends &= ends - 1){
+                        int end = word * 64 + Long.numberOfTrailingZeros(ends);
+                        int chosen = start + rand.nextInt(end - start + 1);
+                        north[chosen >>> 6] |= 1L << chosen;
+                        start = end + 1;
+                    }
+                }
+            }
+            return width;
+        }
+        int cells = 0;
+        int exits = 0;          // Cells of the current run that could be joined north
+        int chosen = -1;        // The cell of the current run picked to join north so far
+        for(int x = 0; x < width; x++){
+            if(excludedCells.get(row + x)){
+                continue;
+            }
+            cells++;
+            // Pick one of the run's cells that can go north uniformly, without having to store the run
+            if(y > 0 && !excludedCells.get(row + x - width) && rand.nextInt(++exits) == 0){
+                chosen = x;
+            }
+            boolean canGoEast = x < last && !excludedCells.get(row + x + 1);
+            if(canGoEast && (exits == 0 || rand.nextBoolean())){
+                east[x >>> 6] |= 1L << x;
+                continue;
+            }
+            // End the run, a run with no way north is joined to the rest of the maze elsewhere
+            if(exits > 0){
+                north[chosen >>> 6] |= 1L << chosen;
+            }
+            exits = 0;
+            chosen = -1;
+        }
+        return cells;
+    }
+}
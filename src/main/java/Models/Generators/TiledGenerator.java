@@ -0,0 +1,192 @@
+package Models.Generators;
+
+import Models.MazeGrid;
+import Models.ProgressListener.Stage;
+import Models.TaskProgress;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static Models.Direction.EAST;
+import static Models.Direction.SOUTH;
+import static Models.Generators.KruskalGenerator.union;
+
+/**
+ * Generates large mazes in parallel by splitting the grid into square tiles. A spanning tree is carved inside every tile
+ * at the same time on a {@link ForkJoinPool} using randomised Kruskal's algorithm, then the trees are stitched together
+ * by knocking down walls on the borders between tiles in a random order wherever they join two trees that aren't
+ * already connected. Every cell keeps its union-find entry from its tile, so the stitching only has to visit the
+ * border walls and the result is still a perfect maze.
+ */
+public class TiledGenerator implements MazeGenerator {
+    public static final int DEFAULT_TILE_SIZE = 256;
+    private final int tileSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a generator using the default tile size and the common pool
+     */
+    public TiledGenerator() {
+        this(DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a generator
+     * @param tileSize The width and height of each tile in cells
+     * @param pool The pool the tiles are generated on
+     */
+    public TiledGenerator(int tileSize, ForkJoinPool pool) {
+        if(tileSize < 2){
+            throw new IllegalArgumentException("Tile size must be at least 2");
+        }
+        this.tileSize = tileSize;
+        this.pool = pool;
+    }
+
+    @Override
+    public void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand) {
+        generate(grid, excludedCells, rand, TaskProgress.NONE);
+    }
+
+    /**
+     * Carves a maze into a grid, reporting progress and checking for cancellation as each tile is finished. Cells count
+     * as added once the tile they are in has been carved.
+     */
+    @Override
+    public void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand, TaskProgress progress) {
+        progress.start(Stage.GENERATING, (long) grid.getWidth() * grid.getHeight() - excludedCells.cardinality());
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int totalCells = width * height;
+        int tilesAcross = (width + tileSize - 1) / tileSize;
+        int tilesDown = (height + tileSize - 1) / tileSize;
+        int[] parent = new int[totalCells];
+        byte[] rank = new byte[totalCells];
+
+        // Each tile gets its own random generator so the layout doesn't depend on the order the tiles are run in
+        SplittableRandom[] tileRandoms = new SplittableRandom[tilesAcross * tilesDown];
+        for(int tile = 0; tile < tileRandoms.length; tile++){
+            tileRandoms[tile] = rand.split();
+        }
+        pool.invoke(new TileTask(grid, excludedCells, parent, rank, tileRandoms, tilesAcross, 0, tileRandoms.length,
+                progress, new AtomicLong()));
+        progress.checkCancelled();
+
+        // Walls on the borders between tiles, encoded the same way as in KruskalGenerator
+        int[] walls = new int[(tilesAcross - 1) * height + (tilesDown - 1) * width];
+        int wallCount = 0;
+        for(int x = tileSize - 1; x < width - 1; x += tileSize){
+            for(int y = 0; y < height; y++){
+                int index = y * width + x;
+                if(!excludedCells.get(index) && !excludedCells.get(index + 1)){
+                    walls[wallCount++] = index * 2;
+                }
+            }
+        }
+        for(int y = tileSize - 1; y < height - 1; y += tileSize){
+            for(int x = 0; x < width; x++){
+                int index = y * width + x;
+                if(!excludedCells.get(index) && !excludedCells.get(index + width)){
+                    walls[wallCount++] = index * 2 + 1;
+                }
+            }
+        }
+        for(int i = wallCount - 1; i >= 0; i--){
+            int j = rand.nextInt(i + 1);
+            int wall = walls[j];
+            walls[j] = walls[i];
+
+            int index = wall >>> 1;
+            boolean south = (wall & 1) == 1;
+            if(union(parent, rank, index, south ? index + width : index + 1)){
+                grid.carve(index % width, index / width, south ? SOUTH : EAST);
+            }
+        }
+        progress.finish();
+    }
+
+    /**
+     * Carves a spanning tree inside every tile of a range, splitting the range in half until it is a single tile.
+     * Tiles only write to the grid and union-find entries of their own cells so they can safely run at the same time.
+     */
+    private class TileTask extends RecursiveAction {
+        private final MazeGrid grid;
+        private final BitSet excludedCells;
+        private final int[] parent;
+        private final byte[] rank;
+        private final SplittableRandom[] tileRandoms;
+        private final int tilesAcross;
+        private final int from;
+        private final int to;
+        private final TaskProgress progress;
+        private final AtomicLong cellsDone;     // Non-excluded cells in the tiles carved so far
+
+        TileTask(MazeGrid grid, BitSet excludedCells, int[] parent, byte[] rank, SplittableRandom[] tileRandoms,
+                 int tilesAcross, int from, int to, TaskProgress progress, AtomicLong cellsDone) {
+            this.grid = grid;
+            this.excludedCells = excludedCells;
+            this.parent = parent;
+            this.rank = rank;
+            this.tileRandoms = tileRandoms;
+            this.tilesAcross = tilesAcross;
+            this.from = from;
+            this.to = to;
+            this.progress = progress;
+            this.cellsDone = cellsDone;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from > 1){
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileTask(grid, excludedCells, parent, rank, tileRandoms, tilesAcross, from, middle,
+                                progress, cellsDone),
+                        new TileTask(grid, excludedCells, parent, rank, tileRandoms, tilesAcross, middle, to,
+                                progress, cellsDone));
+                return;
+            }
+            int width = grid.getWidth();
+            int left = (from % tilesAcross) * tileSize;
+            int top = (from / tilesAcross) * tileSize;
+            int right = Math.min(left + tileSize, width);
+            int bottom = Math.min(top + tileSize, grid.getHeight());
+            SplittableRandom rand = tileRandoms[from];
+
+            progress.checkCancelled();
+            int[] walls = new int[2 * (right - left) * (bottom - top)];
+            int wallCount = 0;
+            int tileCells = 0;
+            for(int y = top; y < bottom; y++){
+                for(int x = left; x < right; x++){
+                    int index = y * width + x;
+                    parent[index] = index;
+                    if(excludedCells.get(index)){
+                        continue;
+                    }
+                    tileCells++;
+                    if(x < right - 1 && !excludedCells.get(index + 1)){
+                        walls[wallCount++] = index * 2;
+                    }
+                    if(y < bottom - 1 && !excludedCells.get(index + width)){
+                        walls[wallCount++] = index * 2 + 1;
+                    }
+                }
+            }
+            for(int i = wallCount - 1; i >= 0; i--){
+                int j = rand.nextInt(i + 1);
+                int wall = walls[j];
+                walls[j] = walls[i];
+
+                int index = wall >>> 1;
+                boolean south = (wall & 1) == 1;
+                if(union(parent, rank, index, south ? index + width : index + 1)){
+                    grid.carve(index % width, index / width, south ? SOUTH : EAST);
+                }
+            }
+            progress.update(cellsDone.addAndGet(tileCells));
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package Models.Generators;
+
+import Models.Direction;
+import Models.MazeGrid;
+import Models.ProgressListener.Stage;
+import Models.TaskProgress;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import static Models.Direction.*;
+
+/**
+ * Generates mazes using Wilson's algorithm, which picks uniformly at random from every possible perfect maze.
+ * Each random walk records the direction it last left every cell by, so when the walk reaches the maze following
+ * those directions from its start gives the loop-erased path without having to search the walk for loops.
+ */
+public class WilsonGenerator implements MazeGenerator {
+
+    @Override
+    public void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand) {
+        generate(grid, excludedCells, rand, TaskProgress.NONE);
+    }
+
+    @Override
+    public void generate(MazeGrid grid, BitSet excludedCells, SplittableRandom rand, TaskProgress progress) {
+        progress.start(Stage.GENERATING, (long) grid.getWidth() * grid.getHeight() - excludedCells.cardinality());
+        BitSet inMaze = new BitSet(grid.getWidth() * grid.getHeight());
+        addRoots(grid.getWidth(), grid.getHeight(), excludedCells, inMaze);
+        addRemainingCells(grid, excludedCells, inMaze, rand, progress);
+        progress.finish();
+    }
+
+    /**
+     * Adds every cell that isn't excluded or already in the maze to the maze using loop-erased random walks. The maze
+     * must already have at least one cell in every connected group of non-excluded cells.
+     * @param grid The grid to carve the maze into
+     * @param excludedCells Bitmap of the cells left out of the maze
+     * @param inMaze The cells that are in the maze, every other cell is added to this
+     * @param rand The source of randomness used to make the random walks
+     * @param progress Where the number of cells in the maze is reported and cancellation is checked
+     */
+    static void addRemainingCells(MazeGrid grid, BitSet excludedCells, BitSet inMaze, SplittableRandom rand,
+                                  TaskProgress progress) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int totalCells = width * height;                // Total number of cells
+        byte[] walkDirection = new byte[totalCells];    // Direction the current random walk last left each cell by
+        int[] directions = new int[4];                  // Directions that can be moved in from the current cell
+        long added = inMaze.cardinality();              // Cells in the maze so far
+        int steps = 0;                                  // Steps walked, wrapping round, to check for cancellation
+
+        for(int start = 0; start < totalCells; start++){
+            if(inMaze.get(start) || excludedCells.get(start)){
+                continue;
+            }
+            // Random walk until the maze is reached, later visits to a cell overwrite earlier ones erasing any loops
+            int current = start;
+            int x = start % width;
+            int y = start / width;
+            while(!inMaze.get(current)){
+                int count = 0;
+                if(y > 0 && !excludedCells.get(current - width)){
+                    directions[count++] = NORTH.getIndex();
+                }
+                if(x < width - 1 && !excludedCells.get(current + 1)){
+                    directions[count++] = EAST.getIndex();
+                }
+                if(y < height - 1 && !excludedCells.get(current + width)){
+                    directions[count++] = SOUTH.getIndex();
+                }
+                if(x > 0 && !excludedCells.get(current - 1)){
+                    directions[count++] = WEST.getIndex();
+                }
+                if((++steps & 0xFFFF) == 0){
+                    progress.checkCancelled();
+                }
+                int direction = directions[rand.nextInt(count)];
+                walkDirection[current] = (byte) direction;
+                current = neighbourIndex(current, direction, width);
+                switch (direction) {
+                    case 0 -> y--;
+                    case 1 -> x++;
+                    case 2 -> y++;
+                    default -> x--;
+                }
+            }
+            // Follow the loop-erased walk from its start, breaking down walls and adding its cells to the maze
+            current = start;
+            while(!inMaze.get(current)){
+                inMaze.set(current);
+                int direction = walkDirection[current];
+                grid.carve(current % width, current / width, Direction.getDirection(direction));
+                current = neighbourIndex(current, direction, width);
+                progress.update(++added);
+            }
+        }
+    }
+
+    /**
+     * Adds one cell of every connected group of non-excluded cells to the maze so that every random walk is able to
+     * reach the maze, even if excluded regions cut part of the grid off.
+     * @param width The width of the grid in cells
+     * @param height The height of the grid in cells
+     * @param excludedCells Bitmap of the cells left out of the maze
+     * @param inMaze The cells that are in the maze, the roots are added to this
+     */
+    static void addRoots(int width, int height, BitSet excludedCells, BitSet inMaze){
+        if(excludedCells.isEmpty()){
+            inMaze.set(0);
+            return;
+        }
+        addRoots(width, height, excludedCells, inMaze, new BitSet(width * height));
+    }
+
+    /**
+     * Adds one cell of every connected group of non-excluded cells that hasn't already been reached to the maze
+     * @param width The width of the grid in cells
+     * @param height The height of the grid in cells
+     * @param excludedCells Bitmap of the cells left out of the maze
+     * @param inMaze The cells that are in the maze, the roots are added to this
+     * @param reached The cells of groups that already have a root, the cells of every other group are added to this
+     */
+    static void addRoots(int width, int height, BitSet excludedCells, BitSet inMaze, BitSet reached){
+        int totalCells = width * height;
+        for(int root = 0; root < totalCells; root++){
+            if(reached.get(root) || excludedCells.get(root)){
+                continue;
+            }
+            inMaze.set(root);
+            fillGroup(root, width, height, excludedCells, reached);
+        }
+    }
+
+    /**
+     * Finds every cell that can be reached from a cell without crossing excluded cells
+     * @param start The index of the cell to start from
+     * @param width The width of the grid in cells
+     * @param height The height of the grid in cells
+     * @param excludedCells Bitmap of the cells left out of the maze
+     * @param reached The cells that have been reached, the cells of the group are added to this
+     * @return the number of cells in the group
+     */
+    static int fillGroup(int start, int width, int height, BitSet excludedCells, BitSet reached){
+        // Circular queue that grows when full, the edge of a search across a grid is far smaller than the grid
+        int[] queue = new int[1024];
+        reached.set(start);
+        int head = 0;
+        int size = 0;
+        int groupSize = 0;
+        queue[size++] = start;
+        while(size > 0){
+            groupSize++;
+            int current = queue[head];
+            head = (head + 1) & (queue.length - 1);
+            size--;
+            int x = current % width;
+            int y = current / width;
+            for(int direction = 0; direction < 4; direction++){
+                if(direction == NORTH.getIndex() && y == 0 || direction == EAST.getIndex() && x == width - 1
+                        || direction == SOUTH.getIndex() && y == height - 1 || direction == WEST.getIndex() && x == 0){
+                    continue;
+                }
+                int next = neighbourIndex(current, direction, width);
+                if(!reached.get(next) && !excludedCells.get(next)){
+                    reached.set(next);
+                    if(size == queue.length){
+                        int[] larger = new int[queue.length * 2];
+                        for(int i = 0; i < size; i++){
+                            larger[i] = queue[(head + i) & (queue.length - 1)];
+                        }
+                        queue = larger;
+                        head = 0;
+                    }
+                    queue[(head + size) & (queue.length - 1)] = next;
+                    size++;
+                }
+            }
+        }
+        return groupSize;
+    }
+
+    /**
+     * Gets the index of the cell next to another cell in a specified direction
+     * @param index The index of the cell
+     * @param direction The index of the direction to move in (North, East, South, West)
+     * @param width The width of the grid in cells
+     * @return the index of the neighbouring cell
+     */
+    public static int neighbourIndex(int index, int direction, int width){
+        return switch (direction) {
+            case 0 -> index - width;
+            case 1 -> index + 1;
+            case 2 -> index + width;
+            default -> index - 1;
+        };
+    }
+}
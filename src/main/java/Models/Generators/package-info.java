@@ -0,0 +1,4 @@
+/**
+ * Algorithms that carve the layout of a maze into a grid
+ */
+package Models.Generators;
@@ -0,0 +1,106 @@
+package Models;
+
+/**
+ * A {@link Cell} that reads and writes straight through to a cell of a {@link MazeGrid}, used by grids that don't store
+ * cell objects
+ */
+class GridCell extends Cell {
+    private final MazeGrid grid;
+
+    GridCell(MazeGrid grid, int x, int y) {
+        super(x, y, true);
+        this.grid = grid;
+    }
+
+    @Override
+    public Wall getWall(Direction position) {
+        return grid.getWall(getX(), getY(), position);
+    }
+
+    /**
+     * Gets a copy of the walls of the cell, changing the returned array does not change the cell
+     * @return an array of all the walls of the cell ordered North, East, South, West
+     */
+    @Override
+    public Wall[] getWalls() {
+        return new Wall[] {getWall(Direction.NORTH), getWall(Direction.EAST), getWall(Direction.SOUTH), getWall(Direction.WEST)};
+    }
+
+    @Override
+    void setWall(Direction position, Wall wallType) {
+        grid.setWall(getX(), getY(), position, wallType);
+    }
+
+    @Override
+    public boolean isSolution(Direction position) {
+        return grid.isSolution(getX(), getY(), position);
+    }
+
+    @Override
+    public void setSolution(Direction position, boolean value) {
+        grid.setSolution(getX(), getY(), position, value);
+    }
+
+    @Override
+    public boolean isEntry(Direction position) {
+        return grid.isEntry(getX(), getY(), position);
+    }
+
+    @Override
+    public void setEntry(Direction position, boolean value) {
+        grid.setEntry(getX(), getY(), position, value);
+    }
+
+    @Override
+    public boolean isExit(Direction position) {
+        return grid.isExit(getX(), getY(), position);
+    }
+
+    @Override
+    public void setExit(Direction position, boolean value) {
+        grid.setExit(getX(), getY(), position, value);
+    }
+
+    @Override
+    public boolean isFinishImage() {
+        return grid.isFinishImage(getX(), getY());
+    }
+
+    @Override
+    public void setFinishImage(boolean value) {
+        grid.setFinishImage(getX(), getY(), value);
+    }
+
+    /**
+     * The position of a view can't be changed as it always refers to the same cell of the grid
+     * @throws UnsupportedOperationException if the new position isn't the cell's own
+     */
+    @Override
+    public void setX(int newX) {
+        if (newX != getX())
+            throw new UnsupportedOperationException("Cell " + getX() + ", " + getY() + " of the grid can't be moved to x " + newX);
+    }
+
+    /**
+     * The position of a view can't be changed as it always refers to the same cell of the grid
+     * @throws UnsupportedOperationException if the new position isn't the cell's own
+     */
+    @Override
+    public void setY(int newY) {
+        if (newY != getY())
+            throw new UnsupportedOperationException("Cell " + getX() + ", " + getY() + " of the grid can't be moved to y " + newY);
+    }
+
+    /**
+     * Two views are equal if they refer to the same cell of the same grid
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GridCell other && other.grid == grid && other.getX() == getX() && other.getY() == getY();
+    }
+
+    @Override
+    public int hashCode() {
+        return getY() * grid.getWidth() + getX();
+    }
+}
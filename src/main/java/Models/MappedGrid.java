@@ -0,0 +1,269 @@
+package Models;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static Models.PackedGrid.*;
+
+/**
+ * A {@link MazeGrid} that keeps the packed state of each cell in a memory-mapped file rather than on the Java heap, so
+ * a maze can be larger than the heap and only the parts being worked on need to be in memory.
+ * Cells are packed into ints exactly as in {@link PackedGrid} and the file is laid out the same way as
+ * {@link PackedGrid#write(MazeGrid, java.io.OutputStream)}, so the file is also a snapshot of the maze that can be
+ * reopened with {@link #open(Path)} or read into the heap with {@link PackedGrid#read(java.io.InputStream)}.
+ * Changes are written back to the file by the operating system, call {@link #force()} or {@link #close()} to make sure
+ * they have reached the disk.
+ * Cells returned by {@link #getCell(int, int)} are lightweight views, reading and changing them reads and changes the grid.
+ */
+public class MappedGrid implements MazeGrid, Closeable {
+    /**
+     * The width and height at the start of the file
+     */
+    private static final int HEADER_BYTES = 8;
+    /**
+     * A single mapping can be at most 2GB, so the cells are mapped in chunks of this many
+     */
+    private static final int CHUNK_SHIFT = 26;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final int width;
+    private final int height;
+    private final MappedByteBuffer[] chunks;
+
+    private MappedGrid(FileChannel channel, int width, int height) throws IOException {
+        this.channel = channel;
+        this.width = width;
+        this.height = height;
+        int cells = Math.multiplyExact(width, height);
+        chunks = new MappedByteBuffer[((cells - 1) >>> CHUNK_SHIFT) + 1];
+        for (int k = 0; k < chunks.length; k++) {
+            long first = (long) k << CHUNK_SHIFT;
+            long count = Math.min(1L << CHUNK_SHIFT, cells - first);
+            chunks[k] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + first * 4, count * 4);
+        }
+    }
+
+    /**
+     * Creates a grid backed by a new file where every cell has all of its walls up, replacing the file if it exists
+     * @param file The file to store the grid in
+     * @param width the width of the grid in cells
+     * @param height the height of the grid in cells
+     * @return the new grid
+     * @throws IOException thrown if the file could not be created or mapped
+     */
+    public static MappedGrid create(Path file, int width, int height) throws IOException {
+        if (width < 1 || height < 1)
+            throw new IllegalArgumentException("Invalid grid size " + width + "x" + height);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            channel.write(ByteBuffer.allocate(HEADER_BYTES).putInt(width).putInt(height).flip(), 0);
+            MappedGrid grid = new MappedGrid(channel, width, height);
+            int[] wallsUp = new int[1 << 16];
+            Arrays.fill(wallsUp, ALL_WALLS_UP);
+            for (MappedByteBuffer chunk : grid.chunks) {
+                IntBuffer ints = chunk.asIntBuffer();
+                while (ints.hasRemaining()) {
+                    ints.put(wallsUp, 0, Math.min(wallsUp.length, ints.remaining()));
+                }
+            }
+            return grid;
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Opens a grid stored in a file by {@link #create(Path, int, int)} or {@link PackedGrid#write}, changes made to the
+     * grid are made to the file. Nothing is read until it is needed so this takes the same time for any size of grid.
+     * @param file The file the grid is stored in
+     * @return the grid stored in the file
+     * @throws IOException thrown if the file could not be opened or is not a grid
+     */
+    public static MappedGrid open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0)
+                    throw new IOException(file + " is too short to be a maze grid");
+            }
+            int width = header.getInt(0);
+            int height = header.getInt(4);
+            if (width < 1 || height < 1 || channel.size() != HEADER_BYTES + 4L * width * height)
+                throw new IOException(file + " is not a maze grid");
+            return new MappedGrid(channel, width, height);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public Wall getWall(int x, int y, Direction position) {
+        return WALLS[(get(index(x, y)) >>> (position.getIndex() * 2)) & 0b11];
+    }
+
+    @Override
+    public void setWall(int x, int y, Direction position, Wall wallType) {
+        int i = index(x, y);
+        int shift = position.getIndex() * 2;
+        set(i, (get(i) & ~(0b11 << shift)) | (wallType.getValue() << shift));
+    }
+
+    @Override
+    public boolean isSolution(int x, int y, Direction position) {
+        return getFlag(x, y, SOLUTION_SHIFT + position.getIndex());
+    }
+
+    @Override
+    public void setSolution(int x, int y, Direction position, boolean value) {
+        setFlag(x, y, SOLUTION_SHIFT + position.getIndex(), value);
+    }
+
+    @Override
+    public boolean isEntry(int x, int y, Direction position) {
+        return getFlag(x, y, ENTRY_SHIFT + position.getIndex());
+    }
+
+    @Override
+    public void setEntry(int x, int y, Direction position, boolean value) {
+        setFlag(x, y, ENTRY_SHIFT + position.getIndex(), value);
+    }
+
+    @Override
+    public boolean isExit(int x, int y, Direction position) {
+        return getFlag(x, y, EXIT_SHIFT + position.getIndex());
+    }
+
+    @Override
+    public void setExit(int x, int y, Direction position, boolean value) {
+        setFlag(x, y, EXIT_SHIFT + position.getIndex(), value);
+    }
+
+    @Override
+    public boolean isFinishImage(int x, int y) {
+        return (get(index(x, y)) & FINISH_IMAGE_BIT) != 0;
+    }
+
+    @Override
+    public void setFinishImage(int x, int y, boolean value) {
+        int i = index(x, y);
+        set(i, value ? get(i) | FINISH_IMAGE_BIT : get(i) & ~FINISH_IMAGE_BIT);
+    }
+
+    @Override
+    public void clearSolution() {
+        int cells = width * height;
+        for (int i = 0; i < cells; i++) {
+            int packed = get(i);
+            if ((packed & SOLUTION_MASK) != 0)
+                set(i, packed & ~SOLUTION_MASK);
+        }
+    }
+
+    @Override
+    public Cell getCell(int x, int y) {
+        if(x < 0 || x >= width || y < 0 || y >= height)
+            throw new ArrayIndexOutOfBoundsException("Cell " + x + ", " + y + " is outside the grid");
+        return new GridCell(this, x, y);
+    }
+
+    @Override
+    public void setCell(int x, int y, Cell cell) {
+        set(index(x, y), pack(cell));
+    }
+
+    /**
+     * Gets every cell of the grid as views, this creates a view object for every cell so should be avoided on large grids
+     * @return A 2D array containing views of the cells of the grid where the first index of the array is x position
+     * and the second is y position
+     */
+    @Override
+    public Cell[][] getCells() {
+        Cell[][] cells = new Cell[width][height];
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                cells[i][j] = new GridCell(this, i, j);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Writes any changes to the grid that are still only in memory to the file
+     */
+    public void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * Writes any changes to the file and closes it. The grid must not be used afterwards, the memory it maps is
+     * released once the grid is garbage collected.
+     * @throws IOException thrown if the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Gets the packed state of a cell laid out as described in {@link PackedGrid}
+     * @param i The position of the cell, y * width + x
+     * @return the packed state of the cell
+     */
+    int getPacked(int i) {
+        return get(i);
+    }
+
+    /**
+     * Gets the position of a cell in the file
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @return the position of the cell counting from the first cell
+     */
+    private int index(int x, int y) {
+        if(x < 0 || x >= width || y < 0 || y >= height)
+            throw new ArrayIndexOutOfBoundsException("Cell " + x + ", " + y + " is outside the grid");
+        return y * width + x;
+    }
+
+    private int get(int i) {
+        return chunks[i >>> CHUNK_SHIFT].getInt((i & CHUNK_MASK) << 2);
+    }
+
+    private void set(int i, int packed) {
+        chunks[i >>> CHUNK_SHIFT].putInt((i & CHUNK_MASK) << 2, packed);
+    }
+
+    private boolean getFlag(int x, int y, int bit) {
+        return (get(index(x, y)) & (1 << bit)) != 0;
+    }
+
+    private void setFlag(int x, int y, int bit, boolean value) {
+        int i = index(x, y);
+        set(i, value ? get(i) | (1 << bit) : get(i) & ~(1 << bit));
+    }
+}
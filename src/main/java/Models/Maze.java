@@ -1,5 +1,18 @@
 package Models;
 
+import Models.Generators.Braider;
+import Models.Generators.DifficultyTarget;
+import Models.Generators.DifficultyTuner;
+import Models.Generators.MazeGenerator;
+import Models.Generators.RegionRecarver;
+import Models.Generators.TiledGenerator;
+import Models.Generators.WilsonGenerator;
+import Models.Solvers.BidirectionalSolver;
+import Models.Solvers.DistanceField;
+import Models.Solvers.MazeSolver;
+import Models.Solvers.PathIndex;
+import Models.Solvers.SolveResult;
+
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.geom.Path2D;
@@ -23,6 +36,27 @@ import static Utils.Utils.getScaledImage;
  * Stores data about a maze created using Wilson's algorithm including the actual maze layout as well as metadata about the maze
  */
 public class Maze implements Printable {
+    /**
+     * Mazes with more cells than this are stored in a {@link PackedGrid} rather than as individual {@link Cell} objects
+     */
+    public static final int PACKED_GRID_THRESHOLD = 100 * 100;
+    /**
+     * The number of colours the heat map is drawn with, from blue to red
+     */
+    private static final int HEAT_MAP_SHADES = 64;
+    /**
+     * Mazes with more cells than this are generated with a {@link TiledGenerator} unless another generator is given
+     */
+    public static final int TILED_GENERATION_THRESHOLD = 1000 * 1000;
+    /**
+     * Mazes with more cells than this keep only one set of distances at a time, as each takes 4 MB per million cells,
+     * and have no path index, which takes 12 MB per million cells plus another 4 MB while it is built
+     */
+    public static final int SEARCH_CACHE_THRESHOLD = 2000 * 2000;
+    /**
+     * The largest width or height in pixels of an exported image, bigger mazes are exported as an overview
+     */
+    public static final int MAX_IMAGE_SIZE = 4096;
     private final int width;
     private final int height;
     private Integer id;
@@ -36,11 +70,19 @@ public class Maze implements Printable {
     private int finish_Iy = -1;
     private int logo_Ix = -1;
     private int logo_Iy = -1;
-    private final Cell[][] cells;
-    private final Stack<Cell> excludedCells = new Stack<>(); // Stack for storing all excluded cells for image insert
+    private final MazeGrid grid;
+    private MazeGenerator generator = new WilsonGenerator();
+    private MazeSolver mazeSolver = new BidirectionalSolver(); // Algorithm used to find the solution
+    private SolveResult lastSolve; // How the solution was last found, null until the maze is solved
+    private DistanceField distanceField; // Distances from the entry, null until asked for or once the walls change
+    private PathIndex pathIndex; // Paths through the maze, null until built, once the walls change or if it has loops
+    private boolean pathIndexBuilt; // Whether the path index has been built for the current walls
+    private DistanceField endField; // Distances from whichever end stayed put when the other moved, null until then or if dropped for distanceField on a large maze
+    private long seed; // Seed of every random decision made while creating the maze
+    private SplittableRandom random; // Source of every random decision, starting from the seed
+    private final BitSet excludedCells = new BitSet(); // Bitmap of all excluded cells for image insert, indexed by y * width + x
+    private final BitSet maskedCells = new BitSet(); // Bitmap of the cells left out of a shaped maze, indexed by y * width + x
     private Stack<Cell> mazeSolution = new Stack<>(); // Stack for holding the maze solution path
-    private final Stack<Cell> logoCells = new Stack<>(); // Stack for holding the cells where the logo is placed
-    private final Stack<Cell> logoStartCells = new Stack<>(); // Stack for holding the cells where the logo is placed
     private final Stack<Cell> finishImageCells = new Stack<>(); // Stack for holding the cells where the logo is placed
     private String name;
     private String author;
@@ -56,7 +98,9 @@ public class Maze implements Printable {
     private boolean finishImageExists;
     private boolean startImageExists;
     private boolean logoExists = false;
+    private boolean generated = true; // False while a new maze is being laid out, inserting images after this re-carves
     private boolean showArrows;
+    private boolean showHeatMap;
     private BufferedImage startImage;
     private BufferedImage finishImage;
     private BufferedImage logo;
@@ -68,7 +112,8 @@ public class Maze implements Printable {
     private String logoInput;
 
     /**
-     * Implements: Constructs a new Maze with an automatically generated layout using Wilson's algorithm
+     * Implements: Constructs a new Maze with an automatically generated layout using Wilson's algorithm, or a
+     * {@link TiledGenerator} for mazes with more than {@link #TILED_GENERATION_THRESHOLD} cells
      * Pre-condition: All input types are valid.
      * Post-condition: A two-dimensional array or cells are produced with a valid solution.
      * @param name the title of the maze.
@@ -86,29 +131,290 @@ public class Maze implements Printable {
     public Maze(String name, String author, int width, int height, String startInput,
                 String finishInput, String logoInput, boolean showArrows,
                 String startImagePath, String finishImagePath, String logoPath){
+        this(name, author, width, height, startInput, finishInput, logoInput, showArrows, startImagePath, finishImagePath,
+                logoPath, defaultGenerator(width, height));
+    }
+    /**
+     * Gets the algorithm used to generate mazes when none is given, Wilson's algorithm or a {@link TiledGenerator} for
+     * mazes with more than {@link #TILED_GENERATION_THRESHOLD} cells
+     * @param width the width of the maze in cells.
+     * @param height the height of the maze in cells.
+     * @return the algorithm to generate a maze of this size with
+     */
+    public static MazeGenerator defaultGenerator(int width, int height){
+        return (long) width * height > TILED_GENERATION_THRESHOLD ? new TiledGenerator() : new WilsonGenerator();
+    }
+    /**
+     * Implements: Constructs a new Maze with an automatically generated layout using the specified algorithm
+     * Pre-condition: All input types are valid.
+     * Post-condition: A two-dimensional array or cells are produced with a valid solution.
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param width the width of the maze in cells.
+     * @param height the height of the maze in cells.
+     * @param startInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param finishInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param logoInput describes the logo point as None if there is no logo to be inserted, or the size that needs to be left for the logo
+     * @param showArrows If true arrows will be drawn pointing to the entrance and exit of the maze, otherwise they will not be drawn
+     * @param logoPath A full path to an image file that will be displayed as the logo or null if no logo is wanted
+     * @param startImagePath A full path to an image file that will be used as the start of the maze or null if no start image is wanted
+     * @param finishImagePath A full path to an image file that will be used as the end of the maze or null if no end image is wanted
+     * @param generator The algorithm used to carve the layout of the maze
+     */
+    public Maze(String name, String author, int width, int height, String startInput,
+                String finishInput, String logoInput, boolean showArrows,
+                String startImagePath, String finishImagePath, String logoPath, MazeGenerator generator){
+        this(name, author, width, height, startInput, finishInput, logoInput, showArrows, startImagePath, finishImagePath,
+                logoPath, generator, new SplittableRandom().nextLong());
+    }
+    /**
+     * Implements: Constructs a new Maze with an automatically generated layout using the specified algorithm and seed
+     * Pre-condition: All input types are valid.
+     * Post-condition: A two-dimensional array or cells are produced with a valid solution. Mazes constructed with the
+     * same seed and parameters have identical layouts.
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param width the width of the maze in cells.
+     * @param height the height of the maze in cells.
+     * @param startInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param finishInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param logoInput describes the logo point as None if there is no logo to be inserted, or the size that needs to be left for the logo
+     * @param showArrows If true arrows will be drawn pointing to the entrance and exit of the maze, otherwise they will not be drawn
+     * @param logoPath A full path to an image file that will be displayed as the logo or null if no logo is wanted
+     * @param startImagePath A full path to an image file that will be used as the start of the maze or null if no start image is wanted
+     * @param finishImagePath A full path to an image file that will be used as the end of the maze or null if no end image is wanted
+     * @param generator The algorithm used to carve the layout of the maze
+     * @param seed The seed used for every random decision made while creating the maze
+     */
+    public Maze(String name, String author, int width, int height, String startInput,
+                String finishInput, String logoInput, boolean showArrows,
+                String startImagePath, String finishImagePath, String logoPath, MazeGenerator generator, long seed){
+        this(name, author, width, height, startInput, finishInput, logoInput, showArrows, startImagePath, finishImagePath,
+                logoPath, generator, seed, null);
+    }
+    /**
+     * Implements: Constructs a new Maze with an automatically generated layout that is reshaped to meet a difficulty
+     * Pre-condition: All input types are valid.
+     * Post-condition: A two-dimensional array or cells are produced with a valid solution. If the difficulty could be
+     * met within its time budget the maze's dead ends and percentage of cells used are within its ranges, otherwise the
+     * maze is the closest to them that was found.
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param width the width of the maze in cells.
+     * @param height the height of the maze in cells.
+     * @param startInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param finishInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param logoInput describes the logo point as None if there is no logo to be inserted, or the size that needs to be left for the logo
+     * @param showArrows If true arrows will be drawn pointing to the entrance and exit of the maze, otherwise they will not be drawn
+     * @param logoPath A full path to an image file that will be displayed as the logo or null if no logo is wanted
+     * @param startImagePath A full path to an image file that will be used as the start of the maze or null if no start image is wanted
+     * @param finishImagePath A full path to an image file that will be used as the end of the maze or null if no end image is wanted
+     * @param generator The algorithm used to carve the layout of the maze
+     * @param seed The seed used for every random decision made while creating the maze
+     * @param difficulty The dead ends and percentage of cells used to aim for, or null to keep the generated layout
+     */
+    public Maze(String name, String author, int width, int height, String startInput,
+                String finishInput, String logoInput, boolean showArrows,
+                String startImagePath, String finishImagePath, String logoPath, MazeGenerator generator, long seed,
+                DifficultyTarget difficulty){
+        this(name, author, width, height, startInput, finishInput, logoInput, showArrows, startImagePath, finishImagePath,
+                logoPath, generator, seed, difficulty, TaskProgress.NONE);
+    }
+    /**
+     * Implements: Constructs a new Maze with an automatically generated layout, reporting progress while it is
+     * generated and solved and stopping if it is cancelled
+     * Pre-condition: All input types are valid.
+     * Post-condition: A two-dimensional array or cells are produced with a valid solution, or a
+     * {@link java.util.concurrent.CancellationException} is thrown if the progress's token was cancelled.
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param width the width of the maze in cells.
+     * @param height the height of the maze in cells.
+     * @param startInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param finishInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param logoInput describes the logo point as None if there is no logo to be inserted, or the size that needs to be left for the logo
+     * @param showArrows If true arrows will be drawn pointing to the entrance and exit of the maze, otherwise they will not be drawn
+     * @param logoPath A full path to an image file that will be displayed as the logo or null if no logo is wanted
+     * @param startImagePath A full path to an image file that will be used as the start of the maze or null if no start image is wanted
+     * @param finishImagePath A full path to an image file that will be used as the end of the maze or null if no end image is wanted
+     * @param generator The algorithm used to carve the layout of the maze
+     * @param seed The seed used for every random decision made while creating the maze
+     * @param difficulty The dead ends and percentage of cells used to aim for, or null to keep the generated layout
+     * @param progress Where progress is reported and cancellation is checked
+     */
+    public Maze(String name, String author, int width, int height, String startInput,
+                String finishInput, String logoInput, boolean showArrows,
+                String startImagePath, String finishImagePath, String logoPath, MazeGenerator generator, long seed,
+                DifficultyTarget difficulty, TaskProgress progress){
+        this(name, author, (long) width * height > PACKED_GRID_THRESHOLD ? new PackedGrid(width, height) : new CellGrid(width, height),
+                startInput, finishInput, logoInput, showArrows, startImagePath, finishImagePath, logoPath, generator,
+                seed, difficulty, progress);
+    }
+    /**
+     * Implements: Constructs a new Maze with an automatically generated layout carved into a grid supplied by the caller,
+     * such as a {@link MappedGrid} for mazes too large to keep on the heap
+     * Pre-condition: All input types are valid and every cell of the grid has all of its walls up.
+     * Post-condition: The grid holds the layout of the maze with a valid solution. The caller is still responsible
+     * for closing the grid if it needs closing.
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param grid the grid to create the maze in, its size is the size of the maze.
+     * @param startInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param finishInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param logoInput describes the logo point as None if there is no logo to be inserted, or the size that needs to be left for the logo
+     * @param showArrows If true arrows will be drawn pointing to the entrance and exit of the maze, otherwise they will not be drawn
+     * @param logoPath A full path to an image file that will be displayed as the logo or null if no logo is wanted
+     * @param startImagePath A full path to an image file that will be used as the start of the maze or null if no start image is wanted
+     * @param finishImagePath A full path to an image file that will be used as the end of the maze or null if no end image is wanted
+     * @param generator The algorithm used to carve the layout of the maze
+     * @param seed The seed used for every random decision made while creating the maze
+     * @param difficulty The dead ends and percentage of cells used to aim for, or null to keep the generated layout
+     */
+    public Maze(String name, String author, MazeGrid grid, String startInput,
+                String finishInput, String logoInput, boolean showArrows,
+                String startImagePath, String finishImagePath, String logoPath, MazeGenerator generator, long seed,
+                DifficultyTarget difficulty){
+        this(name, author, grid, startInput, finishInput, logoInput, showArrows, startImagePath, finishImagePath,
+                logoPath, generator, seed, difficulty, TaskProgress.NONE);
+    }
+    /**
+     * Implements: Constructs a new Maze with an automatically generated layout carved into a grid supplied by the caller,
+     * reporting progress while it is generated and solved and stopping if it is cancelled
+     * Pre-condition: All input types are valid and every cell of the grid has all of its walls up.
+     * Post-condition: The grid holds the layout of the maze with a valid solution, or a
+     * {@link java.util.concurrent.CancellationException} is thrown if the progress's token was cancelled, leaving the
+     * grid part carved. The caller is still responsible for closing the grid if it needs closing.
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param grid the grid to create the maze in, its size is the size of the maze.
+     * @param startInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param finishInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param logoInput describes the logo point as None if there is no logo to be inserted, or the size that needs to be left for the logo
+     * @param showArrows If true arrows will be drawn pointing to the entrance and exit of the maze, otherwise they will not be drawn
+     * @param logoPath A full path to an image file that will be displayed as the logo or null if no logo is wanted
+     * @param startImagePath A full path to an image file that will be used as the start of the maze or null if no start image is wanted
+     * @param finishImagePath A full path to an image file that will be used as the end of the maze or null if no end image is wanted
+     * @param generator The algorithm used to carve the layout of the maze
+     * @param seed The seed used for every random decision made while creating the maze
+     * @param difficulty The dead ends and percentage of cells used to aim for, or null to keep the generated layout
+     * @param progress Where progress is reported and cancellation is checked
+     */
+    public Maze(String name, String author, MazeGrid grid, String startInput,
+                String finishInput, String logoInput, boolean showArrows,
+                String startImagePath, String finishImagePath, String logoPath, MazeGenerator generator, long seed,
+                DifficultyTarget difficulty, TaskProgress progress){
 
         this.name = name;
         this.author = author;
         creationDate = LocalDateTime.now();
         lastEdited = LocalDateTime.now();
-        this.width = width;
-        this.height = height;
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
         this.showArrows = showArrows;
         this.startInput = startInput;
         this.finishInput = finishInput;
         this.logoInput = logoInput;
+        this.generator = generator;
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+        generated = false;
         id = null;
         logo = getImageFromPath(logoPath);
         startImage = getImageFromPath(startImagePath);
         finishImage = getImageFromPath(finishImagePath);
-        cells = new Cell[width][height];
-        initializeCells();
         startImageInsert();
         finishImageInsert();
         logoImageInsert();
-        generateMaze();
+        BitSet excludedAtGeneration = (BitSet) excludedCells.clone(); // Entry and exit are excluded once placed
+        generateMaze(progress);
+        generated = true;
         entryAndExit();
-        this.mazeSolution = solve();
+        if(difficulty != null){
+            progress.checkCancelled();
+            new DifficultyTuner(grid, excludedAtGeneration, difficulty).tune(start_x, start_y, finish_x, finish_y, generator, random);
+        }
+        this.mazeSolution = solve(progress);
+    }
+    /**
+     * Implements: Constructs a new Maze in the shape of a mask, such as a silhouette loaded with
+     * {@link MazeMask#fromImage(BufferedImage, int, int)}
+     * Pre-condition: The mask has at least one cell in the maze.
+     * Post-condition: The largest connected part of the mask is carved into a perfect maze with a valid solution,
+     * entered from the left of the shape and left from its right. Cells outside the shape keep all of their walls and
+     * are not drawn. The maze has no images.
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param mask the shape of the maze, its size is the size of the maze.
+     * @param generator The algorithm used to carve the layout of the maze
+     * @param seed The seed used for every random decision made while creating the maze
+     */
+    public Maze(String name, String author, MazeMask mask, MazeGenerator generator, long seed){
+        this(name, author, mask, generator, seed, TaskProgress.NONE);
+    }
+    /**
+     * Implements: Constructs a new Maze in the shape of a mask, reporting progress while it is generated and solved and
+     * stopping if it is cancelled
+     * Pre-condition: The mask has at least one cell in the maze.
+     * Post-condition: As {@link #Maze(String, String, MazeMask, MazeGenerator, long)}, or a
+     * {@link java.util.concurrent.CancellationException} is thrown if the progress's token was cancelled.
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param mask the shape of the maze, its size is the size of the maze.
+     * @param generator The algorithm used to carve the layout of the maze
+     * @param seed The seed used for every random decision made while creating the maze
+     * @param progress Where progress is reported and cancellation is checked
+     */
+    public Maze(String name, String author, MazeMask mask, MazeGenerator generator, long seed, TaskProgress progress){
+        this(name, author, (long) mask.getWidth() * mask.getHeight() > PACKED_GRID_THRESHOLD
+                        ? new PackedGrid(mask.getWidth(), mask.getHeight()) : new CellGrid(mask.getWidth(), mask.getHeight()),
+                mask, generator, seed, progress);
+    }
+    /**
+     * Implements: Constructs a new Maze in the shape of a mask carved into a grid supplied by the caller
+     * Pre-condition: The grid is the same size as the mask, every cell of the grid has all of its walls up and the
+     * mask has at least one cell in the maze.
+     * Post-condition: As {@link #Maze(String, String, MazeMask, MazeGenerator, long)}, or a
+     * {@link java.util.concurrent.CancellationException} is thrown if the progress's token was cancelled. The caller
+     * is still responsible for closing the grid if it needs closing.
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param grid the grid to create the maze in.
+     * @param mask the shape of the maze, this is not changed.
+     * @param generator The algorithm used to carve the layout of the maze
+     * @param seed The seed used for every random decision made while creating the maze
+     * @param progress Where progress is reported and cancellation is checked
+     */
+    public Maze(String name, String author, MazeGrid grid, MazeMask mask, MazeGenerator generator, long seed,
+                TaskProgress progress){
+        if(mask.getWidth() != grid.getWidth() || mask.getHeight() != grid.getHeight()){
+            throw new IllegalArgumentException("The mask is " + mask.getWidth() + "x" + mask.getHeight()
+                    + " but the maze is " + grid.getWidth() + "x" + grid.getHeight());
+        }
+        MazeMask shape = new MazeMask(mask);
+        shape.keepLargestRegion();
+        if(shape.countInside() == 0){
+            throw new IllegalArgumentException("The mask doesn't have any cells in the maze");
+        }
+        this.name = name;
+        this.author = author;
+        creationDate = LocalDateTime.now();
+        lastEdited = LocalDateTime.now();
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.startInput = "Exclude";
+        this.finishInput = "Exclude";
+        this.logoInput = "Exclude";
+        this.generator = generator;
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+        id = null;
+        maskedCells.or(shape.getOutsideCells());
+        excludedCells.or(maskedCells);
+        generateMaze(progress);
+        maskedEntryAndExit();
+        this.mazeSolution = solve(progress);
     }
     /**
      * Implements: Constructor method
@@ -128,13 +434,20 @@ public class Maze implements Printable {
     public Maze(int id, String name, String author, LocalDateTime creationDate, LocalDateTime lastEdited, Cell[][] cells, int start_x,
                 int start_y, int finish_x, int finish_y, int start_Ix, int start_Iy, int finish_Ix, int finish_Iy,
                 int logo_Ix, int logo_Iy, BufferedImage logo, BufferedImage startImage, BufferedImage finishImage){
+        this(id, name, author, creationDate, lastEdited, new CellGrid(cells), start_x, start_y, finish_x, finish_y,
+                start_Ix, start_Iy, finish_Ix, finish_Iy, logo_Ix, logo_Iy, logo, startImage, finishImage);
+    }
+
+    private Maze(int id, String name, String author, LocalDateTime creationDate, LocalDateTime lastEdited, MazeGrid grid, int start_x,
+                int start_y, int finish_x, int finish_y, int start_Ix, int start_Iy, int finish_Ix, int finish_Iy,
+                int logo_Ix, int logo_Iy, BufferedImage logo, BufferedImage startImage, BufferedImage finishImage){
         this.name = name;
         this.author = author;
         this.creationDate = creationDate;
         this.lastEdited = lastEdited;
-        this.cells = cells;
-        this.width = cells.length;
-        this.height = cells[0].length;
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
         this.start_x = start_x;
         this.start_y = start_y;
         this.finish_x = finish_x;
@@ -149,6 +462,9 @@ public class Maze implements Printable {
         this.finishImage = finishImage;
         this.logo = logo;
         this.id = id;
+        // Constructors given the seed the maze was created with replace this one
+        seed = new SplittableRandom().nextLong();
+        random = new SplittableRandom(seed);
     }
 
     public Maze(int id, String name, String author, LocalDateTime creationDate, LocalDateTime lastEdited, Cell[][] cells, int start_x,
@@ -165,6 +481,117 @@ public class Maze implements Printable {
         this.finishHeight = finishHeight;
     }
 
+    public Maze(int id, String name, String author, LocalDateTime creationDate, LocalDateTime lastEdited, Cell[][] cells, int start_x,
+                int start_y, int finish_x, int finish_y, int start_Ix, int start_Iy, int finish_Ix, int finish_Iy,
+                int logo_Ix, int logo_Iy, BufferedImage logo, BufferedImage startImage, BufferedImage finishImage,
+                int logoWidth, int logoHeight, int startWidth, int startHeight, int finishWidth, int finishHeight, long seed,
+                BitSet mask){
+        this(id, name, author, creationDate, lastEdited, new CellGrid(cells), start_x, start_y, finish_x, finish_y,
+                start_Ix, start_Iy, finish_Ix, finish_Iy, logo_Ix, logo_Iy, logo, startImage, finishImage, logoWidth,
+                logoHeight, startWidth, startHeight, finishWidth, finishHeight, seed, mask);
+    }
+
+    /**
+     * Recreates a saved maze from a grid that has already been filled in, used for mazes too large to be stored as
+     * separate cells
+     * @param grid the layout of the maze, this is used directly rather than copied
+     * @param mask the cells left out of a shaped maze as saved from {@link #getMaskedCells()}, this is not changed
+     */
+    public Maze(int id, String name, String author, LocalDateTime creationDate, LocalDateTime lastEdited, MazeGrid grid, int start_x,
+                int start_y, int finish_x, int finish_y, int start_Ix, int start_Iy, int finish_Ix, int finish_Iy,
+                int logo_Ix, int logo_Iy, BufferedImage logo, BufferedImage startImage, BufferedImage finishImage,
+                int logoWidth, int logoHeight, int startWidth, int startHeight, int finishWidth, int finishHeight, long seed,
+                BitSet mask){
+        this(id, name, author, creationDate, lastEdited, grid, start_x, start_y, finish_x, finish_y, start_Ix, start_Iy,
+                finish_Ix, finish_Iy, logo_Ix, logo_Iy, logo, startImage, finishImage);
+        restoreMask(mask);
+        this.logoWidth = logoWidth;
+        this.logoHeight = logoHeight;
+        this.startWidth = startWidth;
+        this.startHeight = startHeight;
+        this.finishWidth = finishWidth;
+        this.finishHeight = finishHeight;
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Implements: Constructor method for a maze stored only as its layout, such as a {@link MappedGrid} snapshot
+     * Pre-condition: The grid holds a finished maze with its entry and exit on the outside of the grid.
+     * Post-condition: The start and finish are found from the entry and exit of the grid, the maze has no images or
+     * shape.
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param grid the layout of the maze, this is used directly rather than copied
+     */
+    public Maze(String name, String author, MazeGrid grid){
+        this(name, author, grid, new BitSet());
+    }
+
+    /**
+     * Implements: Constructor method for a shaped maze stored only as its layout and the cells left out of its shape
+     * Pre-condition: The grid holds a finished maze with its entry and exit on the edge of its shape.
+     * Post-condition: The start and finish are found from the entry and exit of the grid, the maze has no images.
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param grid the layout of the maze, this is used directly rather than copied
+     * @param mask the cells left out of the shape as saved from {@link #getMaskedCells()}, this is not changed
+     */
+    public Maze(String name, String author, MazeGrid grid, BitSet mask){
+        this(0, name, author, LocalDateTime.now(), LocalDateTime.now(), grid, 0, 0, 0, 0, -1, -1, -1, -1, -1, -1,
+                null, null, null);
+        id = null;
+        restoreMask(mask);
+        for(int x = 0; x < width; x++){
+            findEntryAndExit(x, 0);
+            findEntryAndExit(x, height - 1);
+        }
+        for(int y = 0; y < height; y++){
+            findEntryAndExit(0, y);
+            findEntryAndExit(width - 1, y);
+        }
+        // A shaped maze is entered from the edge of its shape, which can be anywhere in the grid
+        if(!maskedCells.isEmpty()){
+            for(int y = 0; y < height; y++){
+                for(int x = 0; x < width; x++){
+                    if(!maskedCells.get(cellIndex(x, y))){
+                        findEntryAndExit(x, y);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Leaves the cells outside the shape of a saved maze out of it again when it is loaded
+     * @param mask the cells left out of the shape, indexed by y * width + x
+     */
+    private void restoreMask(BitSet mask){
+        if(mask.length() > width * height){
+            throw new IllegalArgumentException("The mask has cells outside the maze");
+        }
+        maskedCells.or(mask);
+        excludedCells.or(maskedCells);
+    }
+
+    /**
+     * Sets the start or finish to a cell if any of its walls is the entry or exit of the maze
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     */
+    private void findEntryAndExit(int x, int y){
+        for(Direction position : Direction.values()){
+            if(grid.isEntry(x, y, position)){
+                start_x = x;
+                start_y = y;
+            }
+            if(grid.isExit(x, y, position)){
+                finish_x = x;
+                finish_y = y;
+            }
+        }
+    }
+
     /**
      * Changes the creation date, for use only in testing!
      * @param date The new date to set the creation date to
@@ -183,10 +610,17 @@ public class Maze implements Printable {
      * Gets the cells of the maze
      * @return A 2D array containing the cells of the maze where the first index of the array is x position
      * and the second is y position
-     * For example cells[1][2] gets the cell at x = 1, y = 2
+     * For example grid.getCell(1, 2) gets the cell at x = 1, y = 2
      */
     public Cell[][] getCells(){
-        return cells;
+        return grid.getCells();
+    }
+    /**
+     * Gets the grid that stores the layout of the maze
+     * @return the grid that stores the walls and solution of every cell of the maze
+     */
+    public MazeGrid getGrid(){
+        return grid;
     }
     /**
      * Gets a specific cell of the maze
@@ -195,7 +629,7 @@ public class Maze implements Printable {
      * @return The cell at the specified position
      */
     public Cell getCell(int x, int y) {
-        return cells[x][y];
+        return grid.getCell(x, y);
     }
     /**
      * Determines if a cell already exists.
@@ -204,12 +638,7 @@ public class Maze implements Printable {
      * @return true if the specified cell exists, false otherwise.
      */
     private boolean cellExists(int x, int y) {
-        try {
-            Cell cell =  cells[x][y];
-            return true;
-        } catch(ArrayIndexOutOfBoundsException e) {
-            return false;
-        }
+        return x >= 0 && x < width && y >= 0 && y < height;
     }
     /**
      * Changes a specified cell of the maze
@@ -219,16 +648,25 @@ public class Maze implements Printable {
      */
     public void setCell(int x, int y, Cell newCell) {
         updateLastEdited();
-        cells[x][y] = newCell;
+        // Only walls between two cells change paths, the neighbours still hold the old walls to compare against. The
+        // image rooms aren't searched, so moving an image's opening leaves the distances and paths as they are.
+        if(!isInImageRoom(x, y)
+                && (cellExists(x + 1, y) && !isInImageRoom(x + 1, y) && grid.getWall(x + 1, y, WEST) != newCell.getWall(EAST)
+                || cellExists(x - 1, y) && !isInImageRoom(x - 1, y) && grid.getWall(x - 1, y, EAST) != newCell.getWall(WEST)
+                || cellExists(x, y + 1) && !isInImageRoom(x, y + 1) && grid.getWall(x, y + 1, NORTH) != newCell.getWall(SOUTH)
+                || cellExists(x, y - 1) && !isInImageRoom(x, y - 1) && grid.getWall(x, y - 1, SOUTH) != newCell.getWall(NORTH))){
+            wallsChanged();
+        }
+        grid.setCell(x, y, newCell);
         // Update the walls of any adjacent cells
         if(cellExists(x + 1, y))
-            cells[x + 1][y].setWall(WEST, newCell.getWall(EAST));
+            grid.setWall(x + 1, y, WEST, newCell.getWall(EAST));
         if(cellExists(x - 1, y))
-            cells[x - 1][y].setWall(EAST, newCell.getWall(WEST));
+            grid.setWall(x - 1, y, EAST, newCell.getWall(WEST));
         if(cellExists(x, y + 1))
-            cells[x][y + 1].setWall(NORTH, newCell.getWall(SOUTH));
+            grid.setWall(x, y + 1, NORTH, newCell.getWall(SOUTH));
         if(cellExists(x, y - 1))
-            cells[x][y - 1].setWall(SOUTH, newCell.getWall(NORTH));
+            grid.setWall(x, y - 1, SOUTH, newCell.getWall(NORTH));
     }
     /**
      * Sets the type of specific wall of a specific cell
@@ -238,10 +676,46 @@ public class Maze implements Printable {
      * @param wallType The type to set the wall to
      */
     public void setWall(int x, int y, Direction position, Wall wallType ) {
-        Cell cell = cells[x][y];
+        Cell cell = grid.getCell(x, y);
         cell.setWall(position, wallType);
         setCell(x, y, cell);
     }
+    /**
+     * Opens a rectangle of cells into a single room in one pass, knocking down every wall between two of its cells and
+     * putting up every wall around its edge, including the matching walls of the neighbouring cells
+     * @param x1 The horizontal position of the left column of the rectangle
+     * @param y1 The vertical position of the top row of the rectangle
+     * @param x2 The horizontal position of the right column of the rectangle
+     * @param y2 The vertical position of the bottom row of the rectangle
+     */
+    public void carveRegion(int x1, int y1, int x2, int y2) {
+        checkRegion(x1, y1, x2, y2);
+        grid.carveRegion(x1, y1, x2, y2);
+        wallsChanged();
+        updateLastEdited();
+    }
+    /**
+     * Puts up every wall of every cell in a rectangle in one pass, including the matching walls of the neighbouring cells
+     * @param x1 The horizontal position of the left column of the rectangle
+     * @param y1 The vertical position of the top row of the rectangle
+     * @param x2 The horizontal position of the right column of the rectangle
+     * @param y2 The vertical position of the bottom row of the rectangle
+     */
+    public void sealRegion(int x1, int y1, int x2, int y2) {
+        checkRegion(x1, y1, x2, y2);
+        grid.sealRegion(x1, y1, x2, y2);
+        wallsChanged();
+        updateLastEdited();
+    }
+    /**
+     * Checks that a rectangle of cells is inside the maze
+     * @throws IllegalArgumentException thrown if any part of the rectangle is outside the maze
+     */
+    private void checkRegion(int x1, int y1, int x2, int y2) {
+        if(x1 < 0 || y1 < 0 || x2 >= width || y2 >= height || x1 > x2 || y1 > y2){
+            throw new IllegalArgumentException("Region " + x1 + ", " + y1 + " to " + x2 + ", " + y2 + " is outside the maze");
+        }
+    }
     /**
      * Gets the type of specific wall of a specified cell
      * @param x The horizontal position of the cell starting from 0
@@ -250,7 +724,22 @@ public class Maze implements Printable {
      * @return The type of the wall at position of cell x, y
      */
     public Wall getWall(int x, int y, Direction position) {
-        return cells[x][y].getWall(position);
+        return grid.getWall(x, y, position);
+    }
+    /**
+     * Gets the seed every random decision made while creating the maze started from, constructing a maze with the
+     * same seed and parameters gives the same layout
+     * @return The seed of the maze, or a fresh seed for later random decisions if it was loaded without one
+     */
+    public long getSeed(){
+        return seed;
+    }
+    /**
+     * Gets the cells left out of a shaped maze, to be saved alongside its layout
+     * @return a copy of the bitmap of the cells outside the shape, indexed by y * width + x, empty if the maze has no shape
+     */
+    public BitSet getMaskedCells(){
+        return (BitSet) maskedCells.clone();
     }
     /**
      * Gets the minimum number of cells that the optimal solution goes through
@@ -347,6 +836,17 @@ public class Maze implements Printable {
         name = newName;
         updateLastEdited();
     }
+    /**
+     * Implements: Hands a maze generated ahead of time to its author as though it had just been created.
+     * Pre-condition: The maze has not been given to anyone else.
+     * Post-condition: The name and author are set and the creation and last edited times are now.
+     */
+    void claim(String newName, String newAuthor) {
+        name = newName;
+        author = newAuthor;
+        creationDate = LocalDateTime.now();
+        lastEdited = creationDate;
+    }
     /**
      * Gets the time the maze was created
      * @return The time the maze was created
@@ -417,18 +917,6 @@ public class Maze implements Printable {
     public int getFinishHeight() {
         return finishHeight;
     }
-    /**
-     * Implements: Initialises all the cells of the maze.
-     * Pre-condition: The two-dimensional array of the maze has be constructed
-     * Post-condition: All cells in the maze have their walls up.
-     */
-    private void initializeCells(){
-        for(int i = 0; i < width; i++){
-            for(int j = 0; j < height; j++){
-                cells[i][j] = new Cell(i, j);
-            }
-        }
-    }
     /**
      * Implements: Inserts starting image into maze before constructing maze.
      * Pre-condition: Maze has been constructed and initialised.
@@ -436,7 +924,6 @@ public class Maze implements Printable {
      * have been added to excluded stack.
      */
     private void startImageInsert(){
-        Random rand = new Random();
         // Assign start dimensions
         switch (startInput) {
             case "Exclude", "Arrow","Small square" -> {
@@ -477,51 +964,22 @@ public class Maze implements Printable {
             }
         }
         // Set start position along edge of maze CAN UPDATE THIS CODE TO BE LIKE LOGO RANDOM POSITION
-        start_x = rand.nextInt(width - startWidth - 1);
+        start_x = random.nextInt(width - startWidth - 1);
         if((start_x == 0) || (start_x == width - startWidth - 1)){
-            start_y = rand.nextInt(height - startHeight - 1);
+            start_y = random.nextInt(height - startHeight - 1);
         }
         else{
-            start_y = rand.nextBoolean() ? 0 : height - startHeight - 1;
+            start_y = random.nextBoolean() ? 0 : height - startHeight - 1;
         }
         if(!Objects.equals(startInput, "Exclude") && !Objects.equals(startInput, "Arrow")){
             int startX_1 = start_x;
             int startY_1 = start_y;
             int startX_2 = startX_1 + startWidth;
             int startY_2 = startY_1 + startHeight;
-            for(int i = startX_1; i < startX_2 + 1; i++){
-                for(int j = startY_1; j < startY_2 + 1; j++){
-                    excludedCells.push(cells[i][j]);
-                    // clear right wall
-                    if(i < startX_2){
-                        setWall(i, j, EAST, DOWN);
-                    }
-                    // clear left wall
-                    if(i > startX_1){
-                        setWall(i, j, WEST, DOWN);
-                    }
-                    // clear top wall
-                    if(j > startY_1){
-                        setWall(i, j, NORTH, DOWN);
-                    }
-                    // clear bottom wall
-                    if(j < startY_2){
-                        setWall(i, j, SOUTH, DOWN);
-                    }
-                    if(i == startX_1){
-                        setWall(i, j, WEST, UP);
-                    }
-                    if(j == startY_1){
-                        setWall(i, j, NORTH, UP);
-                    }
-                    if(i == startX_2){
-                        setWall(i, j, EAST, UP);
-                    }
-                    if(j == startY_2){
-                        setWall(i, j, SOUTH, UP);
-                    }
-                }
+            for(int j = startY_1; j <= startY_2; j++){
+                excludedCells.set(cellIndex(startX_1, j), cellIndex(startX_2, j) + 1);
             }
+            grid.carveRegion(startX_1, startY_1, startX_2, startY_2);
             startImageExists = true;
             start_Ix = startX_1;
             start_Iy = startY_1;
@@ -534,7 +992,6 @@ public class Maze implements Printable {
      * have been added to excluded stack.
      */
     private void finishImageInsert(){
-        Random rand = new Random();
         // Assign finish dimensions
         switch (finishInput) {
             case "Exclude", "Arrow", "Small square" -> {
@@ -577,22 +1034,22 @@ public class Maze implements Printable {
         // Set finish position along edge
         boolean end = false;
         while(!end){
-            finish_x = rand.nextInt(width - finishWidth - 1);
+            finish_x = random.nextInt(width - finishWidth - 1);
             if((finish_x == 0) || (finish_x == width - finishWidth - 1)){
-                finish_y = rand.nextInt(height - finishHeight - 1);
+                finish_y = random.nextInt(height - finishHeight - 1);
             }
             else{
-                finish_y = rand.nextBoolean() ? 0 : height - finishWidth - 1;
+                finish_y = random.nextBoolean() ? 0 : height - finishWidth - 1;
             }
             if(start_x != finish_x || start_y != finish_y){
                 for(int i = finish_x; i <= finish_x + finishWidth; i++){
                     for(int j = finish_y; j<= finish_y + finishHeight; j++){
-                        if(excludedCells.contains(cells[i][j])){
+                        if(excludedCells.get(cellIndex(i, j))){
                             finishImageCells.clear();
                             break;
                         }
                         else{
-                            finishImageCells.push(cells[i][j]);
+                            finishImageCells.push(grid.getCell(i, j));
                             if(i == (finish_x + finishWidth) && j == (finish_y + finishHeight)){
                                 end = true;
                             }
@@ -609,43 +1066,13 @@ public class Maze implements Printable {
             int finishY_1 = finish_y;
             int finishX_2 = finishX_1 + finishWidth;
             int finishY_2 = finishY_1 + finishHeight;
-            for(int i = finishX_1; i < finishX_2 + 1; i++){
-                for(int j = finishY_1; j < finishY_2 + 1; j++){
-                    excludedCells.push(cells[i][j]);
-                    // Ensure walls are up around boarder
-                    if(i == finishX_1){
-                        setWall(i, j, WEST, UP);
-                    }
-                    if(j == finishY_1){
-                        setWall(i, j, NORTH, UP);
-                    }
-                    if(i == finishX_2){
-                        setWall(i, j, EAST, UP);
-                    }
-                    if(j == finishY_2){
-                        setWall(i, j, SOUTH, UP);
-                    }
-                    // clear right wall
-                    if(i < finishX_2){
-                        setWall(i, j, EAST, DOWN);
-                    }
-                    // clear left wall
-                    if(i > finishX_1){
-                        setWall(i, j, WEST, DOWN);
-                    }
-                    // clear top wall
-                    if(j > finishY_1){
-                        setWall(i, j, NORTH, DOWN);
-                    }
-                    // clear bottom wall
-                    if(j < finishY_2){
-                        setWall(i, j, SOUTH, DOWN);
-                    }
-                }
+            for(int j = finishY_1; j <= finishY_2; j++){
+                excludedCells.set(cellIndex(finishX_1, j), cellIndex(finishX_2, j) + 1);
             }
+            grid.carveRegion(finishX_1, finishY_1, finishX_2, finishY_2);
             // Select cell to have opening into grouped cells
             finishImageExists = true;
-            cells[finishX_1][finishY_1].finishImage = 1; // Can Update this if we want start to be just group of cells without image
+            grid.setFinishImage(finishX_1, finishY_1, true); // Can Update this if we want start to be just group of cells without image
             finish_Ix = finishX_1;
             finish_Iy = finishY_1;
         }
@@ -657,7 +1084,6 @@ public class Maze implements Printable {
      * have been added to excluded stack.
      */
     private void logoImageInsert(){
-        Random rand = new Random();
         // If logo is included into
         if(!logoInput.equals("Exclude")){
             // Assign logo dimensions
@@ -701,250 +1127,138 @@ public class Maze implements Printable {
             }
             int scale_x = logoWidth - 1;
             int scale_y = logoHeight - 1;
-            int logoX_1 = rand.nextInt(0,width - logoWidth - 1);
-            int logoY_1 = rand.nextInt(0,height - logoHeight - 1);
+            int logoX_1 = random.nextInt(0,width - logoWidth - 1);
+            int logoY_1 = random.nextInt(0,height - logoHeight - 1);
             int logoX_2 = logoX_1 + scale_x;
             int logoY_2 = logoY_1 + scale_y;
             boolean setLogo = false;
-            // Ensure logo isn't inserted in already restricted section of maze
+            int totalAvailableCells = width*height - excludedCells.cardinality();
+            int attempts = 0;
+            // Ensure logo isn't inserted in already restricted section of maze or on the solution
             while(!setLogo){
-                // Iterate over cells' logo will take up to ensure they aren't inserted in already restricted
-                // section of maze or solution
-                logoStartCells.push(cells[logoX_1][logoY_1]);
-                for(int i = logoX_1; i <= logoX_2; i++){
-                    for(int j = logoY_1; j <= logoY_2; j++){
-                        if(mazeSolution.contains(cells[i][j]) || excludedCells.contains(cells[i][j])){
-                            logoCells.clear();
-                            break;
-                        }
-                        else{
-                            logoCells.push(cells[i][j]);
-                            if(i == logoX_2 && j == logoY_2){
-                                setLogo = true;
-                            }
-                        }
-                    }
-                    if(logoCells.isEmpty()){break;}
-                }
+                setLogo = logoFits(logoX_1, logoY_1, logoX_2, logoY_2);
                 if(!setLogo) {
-                    int totalAvailableCells = width*height - excludedCells.size();
-                    if(logoStartCells.size() == totalAvailableCells){
+                    if(++attempts >= totalAvailableCells){
+                        // Try a smaller logo once there have been as many tries as there are places for it
                         logoWidth--;
                         logoHeight--;
-                        if(logoWidth < 0 || logoHeight < 0){
+                        if(logoWidth < 1 || logoHeight < 1){
                             break;
                         }
+                        scale_x = logoWidth - 1;
+                        scale_y = logoHeight - 1;
+                        attempts = 0;
                     }
-                    logoX_1 = rand.nextInt(0, width - logoWidth - 1);
-                    logoY_1 = rand.nextInt(0, height - logoHeight - 1);
+                    logoX_1 = random.nextInt(0, width - logoWidth - 1);
+                    logoY_1 = random.nextInt(0, height - logoHeight - 1);
                     logoX_2 = logoX_1 + scale_x;
                     logoY_2 = logoY_1 + scale_y;
                 }
             }
+            if(!setLogo){
+                return;
+            }
 
-            for(int i = logoX_1; i <= logoX_2; i++){
-                for(int j = logoY_1; j <= logoY_2; j++){
-                    excludedCells.push(cells[i][j]);
-                    // Ensure walls are up around boarder
-                    if(i == logoX_1){
-                        setWall(i, j, WEST, UP);
-                    }
-                    if(j == logoY_1){
-                        setWall(i, j, NORTH,UP);
-                    }
-                    if(i == logoX_2){
-                        setWall(i, j, EAST, UP);
-                    }
-                    if(j == logoY_2){
-                        setWall(i, j, SOUTH, UP);
-                    }
-                    // clear right wall
-                    if(i < logoX_2){
-                        setWall(i, j, EAST,  DOWN);
-                    }
-                    // clear left wall
-                    if(i > logoX_1){
-                        setWall(i, j, WEST, DOWN);
-                    }
-                    // clear top wall
-                    if(j > logoY_1){
-                        setWall(i, j, NORTH, DOWN);
-                    }
-                    // clear bottom wall
-                    if(j < logoY_2){
-                        setWall(i, j, SOUTH, DOWN);
-                    }
+            if(generated){
+                // Only join back the cells the logo cuts off rather than generating the maze again. The logo is never
+                // placed on the solution so the solution stays the same
+                if(!new RegionRecarver(grid, excludedCells).exclude(logoX_1, logoY_1, logoX_2, logoY_2, random)){
+                    leaveOutUnreachableCells();
                 }
+                lastEdited = LocalDateTime.now();
+                logo_Ix = logoX_1;
+                logo_Iy = logoY_1;
+                logoExists = true;
+                return;
+            }
+            for(int j = logoY_1; j <= logoY_2; j++){
+                excludedCells.set(cellIndex(logoX_1, j), cellIndex(logoX_2, j) + 1);
             }
+            grid.carveRegion(logoX_1, logoY_1, logoX_2, logoY_2);
             logo_Ix = logoX_1;
             logo_Iy = logoY_1;
             logoExists = true;
         }
     }
     /**
-     *  Implements: Wilson's algorithm method to construct maze. When constructing the maze cells that are a part of the
-     *  start, finish or logo are excluded.
-     *  Pre-condition: Maze has been initialised with start, finish and logo cells set.
-     *  Post-condition: Solvable maze is produced in the form of a two-dimensional array.
+     * Implements: Checks whether a logo can go in a rectangle of the maze.
+     * Pre-condition: The solution directions of the maze are up to date.
+     * Post-condition: None.
+     * @return true if none of the cells of the rectangle are excluded or part of the solution
      */
-    private void generateMaze(){
-        Random rand = new Random();
-        Stack<Cell> cellStack = new Stack<>();  // Stack for storing cells that need to be added to maze
-        Stack<Cell> randomWalk = new Stack<>(); // Stack for storing cells of random walk
-        int totalCells = width * height;        // Total number of cells
-
-        // Random starting locations
-        int x_1 = rand.nextInt(width);
-        int y_1 = rand.nextInt(height);
-        if(!excludedCells.isEmpty()){
-            while(excludedCells.contains(cells[x_1][y_1])){
-                x_1 = rand.nextInt(width);
-                y_1 = rand.nextInt(height);
+    private boolean logoFits(int x1, int y1, int x2, int y2){
+        for(int i = x1; i <= x2; i++){
+            for(int j = y1; j <= y2; j++){
+                if(isOnSolution(i, j) || excludedCells.get(cellIndex(i, j))){
+                    return false;
+                }
             }
         }
-        Cell startLocation = cells[x_1][y_1];
-        cellStack.push(startLocation);
-
-        int x_2 = rand.nextInt(width);
-        int y_2 = rand.nextInt(height);
-        if(!excludedCells.isEmpty()){
-            while(excludedCells.contains(cells[x_1][y_1]) || ((x_1 == x_2) && (y_1 == y_2))){
-                x_1 = rand.nextInt(width);
-                y_1 = rand.nextInt(height);
+        return true;
+    }
+    /**
+     * Implements: Checks whether a cell is part of the solution from the directions the solution leaves it by.
+     * Pre-condition: The solution directions of the maze are up to date.
+     * Post-condition: None.
+     * @return true if the solution passes through the cell
+     */
+    private boolean isOnSolution(int x, int y){
+        for(Direction position : Direction.values()){
+            if(grid.isSolution(x, y, position)){
+                return true;
             }
         }
-
-        int addedCells = 1;                        // Counter for number of cells that have been added to the maze
-        Cell currentCell = cells[x_2][y_2];        // Variable for holding the current cell
-        ArrayList<Information> neighbourCellList = new ArrayList<>(); // Array list for holding neighbour cells
-        Information info;
-        boolean newWalk = false;
-
-        while(addedCells < (totalCells - excludedCells.size())){
-            if(newWalk){
-                x_2 = rand.nextInt(width);
-                y_2 = rand.nextInt(height);
-
-                currentCell = cells[x_2][y_2];
-
-                // Ensures new starting location is not in maze or excluded section
-                while ((cellStack.search(currentCell) > -1) || (excludedCells.contains(currentCell))){
-                    x_2 = rand.nextInt(width);
-                    y_2 = rand.nextInt(height);
-                    currentCell = cells[x_2][y_2];
-                }
-            }
-            // Push the current cell to the random walk stack
-            randomWalk.push(currentCell);
-            // Reassign x_2 and y_2 values
-            x_2 = currentCell.getX();
-            y_2 = currentCell.getY();
-
-            // Finding current cells neighbour cells
-            neighbourCellList.clear(); // Clear List
-            info = new Information(); // Clear neighbour variable
-            // Neighbour cell above
-            if(((y_2 - 1) >= 0) && !(excludedCells.contains(cells[x_2][y_2 - 1]))){
-                info.current_x = x_2;
-                info.current_y = y_2;
-                info.neighbour_x = x_2;
-                info.neighbour_y = y_2 - 1;
-                info.current_wall = NORTH;
-                info.neighbour_wall = SOUTH;
-                neighbourCellList.add(info); // Add the neighbor to list
-            }
-            // Neighbour cell bellow
-            info = new Information(); // Clear neighbour variable
-            if((y_2 + 1 < height) && !(excludedCells.contains(cells[x_2][y_2 + 1]))){
-                info.current_x = x_2;
-                info.current_y = y_2;
-                info.neighbour_x = x_2;
-                info.neighbour_y = y_2 + 1;
-                info.current_wall = SOUTH;
-                info.neighbour_wall = NORTH;
-                neighbourCellList.add(info); // Add the neighbor to list
-            }
-            // Neighbour cell left
-            info = new Information(); // Clear neighbour variable
-            if((x_2 - 1 >= 0) && !(excludedCells.contains(cells[x_2 - 1][y_2]))){
-                info.current_x = x_2;
-                info.current_y = y_2;
-                info.neighbour_x = x_2 - 1;
-                info.neighbour_y = y_2;
-                info.current_wall = WEST;
-                info.neighbour_wall = EAST;
-                neighbourCellList.add(info); // Add the neighbor to list
-            }
-            // Neighbour cell right
-            info = new Information(); // Clear neighbour variable
-            if((x_2 + 1 < width) && !(excludedCells.contains(cells[x_2 + 1][y_2]))){
-                info.current_x = x_2;
-                info.current_y = y_2;
-                info.neighbour_x = x_2 + 1;
-                info.neighbour_y = y_2;
-                info.current_wall = EAST;
-                info.neighbour_wall = WEST;
-                neighbourCellList.add(info); // Add the neighbor to list
-            }
-            // Find next cell to move to
-            // Randomly choose a neighbor from the list
-            int next = rand.nextInt(neighbourCellList.size());
-            info = neighbourCellList.get(next);
-            Cell nextStep = cells[info.neighbour_x][info.neighbour_y];
-
-            // Test to see if next step is in current random walk
-            if (randomWalk.search(nextStep) > -1){
-                // Loop has occurred retrace steps until cross over part has been reached
-                while(randomWalk.peek() != nextStep){
-                    // Reset cells
-                    Cell reset = randomWalk.peek();
-                    cells[reset.getX()][reset.getY()] = new Cell(reset.getX(), reset.getY());
-
-                    // Decrease number of added cells counter
-                    addedCells--;
-
-                    // remove loop cells from random walk
-                    randomWalk.pop();
+        return false;
+    }
+    /**
+     * Implements: Leaves the cells that can't be reached from the entry out of the maze, as though they were outside
+     * its shape. Only needed when a logo encloses part of the maze against other excluded cells so it can't be joined
+     * back, which is rare enough that searching the whole maze is acceptable.
+     * Pre-condition: Maze has been generated with entry and exit cells set.
+     * Post-condition: Every cell of the maze that isn't excluded can be reached from the entry.
+     */
+    private void leaveOutUnreachableCells(){
+        DistanceField distances = new DistanceField(grid, cellIndex(start_x, start_y));
+        for(int y = 0; y < height; y++){
+            for(int x = 0; x < width; x++){
+                if(distances.getDistance(x, y) != DistanceField.UNREACHABLE || excludedCells.get(cellIndex(x, y))){
+                    continue;
                 }
-                // Remove cross over cell from random walk
-                randomWalk.pop();
-                // Assign current cell the value of next step
-                currentCell = nextStep;
-                // set new random walk to false
-                newWalk = false;
-            }
-            // Test to see if next step is already apart off maze
-            else if(cellStack.search(nextStep) > - 1){
-                // break wall between cells
-                cells[info.current_x][info.current_y].setWall(info.current_wall, DOWN);
-                cells[info.neighbour_x][info.neighbour_y].setWall(info.neighbour_wall, DOWN);
-
-                // add all cells from random Walk stack to cell stack
-                while(!randomWalk.isEmpty()){
-                    cellStack.push(randomWalk.peek());
-                    randomWalk.pop();
+                for(Direction position : Direction.values()){
+                    grid.setWall(x, y, position, UP);
                 }
-                // set new random walk to true
-                newWalk = true;
-                // increment added cells
-                addedCells++;
-            }
-            // Next step is not in random walk or apart off maze
-            else{
-                // Break down wall between current cell and next step
-                cells[info.current_x][info.current_y].setWall(info.current_wall, DOWN);
-                cells[info.neighbour_x][info.neighbour_y].setWall(info.neighbour_wall, DOWN);
-
-                // Assign current cell the value of next step
-                currentCell = nextStep;
-
-                // set new random walk to false
-                newWalk = false;
-
-                //increment added cell
-                addedCells++;
+                if(cellExists(x + 1, y))
+                    grid.setWall(x + 1, y, WEST, UP);
+                if(cellExists(x - 1, y))
+                    grid.setWall(x - 1, y, EAST, UP);
+                if(cellExists(x, y + 1))
+                    grid.setWall(x, y + 1, NORTH, UP);
+                if(cellExists(x, y - 1))
+                    grid.setWall(x, y - 1, SOUTH, UP);
+                maskedCells.set(cellIndex(x, y));
             }
         }
+        excludedCells.or(maskedCells);
+        wallsChanged();
+    }
+    /**
+     *  Implements: Carves the maze using the maze's generator, Wilson's algorithm unless another was given. When
+     *  constructing the maze cells that are a part of the start, finish or logo are excluded.
+     *  Pre-condition: Maze has been initialised with start, finish and logo cells set.
+     *  Post-condition: Solvable maze is produced in the form of a two-dimensional array.
+     *  @param progress Where the number of cells carved is reported and cancellation is checked
+     */
+    private void generateMaze(TaskProgress progress){
+        generator.generate(grid, excludedCells, random, progress);
+    }
+    /**
+     * Gets the index of a cell as used by the excluded cells, cells are numbered row by row
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @return the index of the cell, y * width + x
+     */
+    private int cellIndex(int x, int y){
+        return y * width + x;
     }
     /**
      * Implements: Sets entry and exit point into maze by removing the appropriate walls.
@@ -952,28 +1266,27 @@ public class Maze implements Printable {
      * Post-condition: Maze's entry and exit cells have had their appropriate walls removed.
      */
     private void entryAndExit(){
-        Random rand = new Random();
         // Break start and exit walls
         if(startHeight == 0 && startWidth == 0){
             if(start_x == 0){
-                cells[start_x][start_y].setWall(WEST, DOWN);
-                cells[start_x][start_y].solution[3] = 1;
-                cells[start_x][start_y].entry[3] = 1;
+                grid.setWall(start_x, start_y, WEST, DOWN);
+                grid.setSolution(start_x, start_y, WEST, true);
+                grid.setEntry(start_x, start_y, WEST, true);
             }
             else if(start_x == width - 1){
-                cells[start_x][start_y].setWall(EAST, DOWN);
-                cells[start_x][start_y].solution[1] = 1;
-                cells[start_x][start_y].entry[1] = 1;
+                grid.setWall(start_x, start_y, EAST, DOWN);
+                grid.setSolution(start_x, start_y, EAST, true);
+                grid.setEntry(start_x, start_y, EAST, true);
             }
             else if(start_y == 0){
-                cells[start_x][start_y].setWall(NORTH, DOWN);
-                cells[start_x][start_y].solution[0] = 1;
-                cells[start_x][start_y].entry[0] = 1;
+                grid.setWall(start_x, start_y, NORTH, DOWN);
+                grid.setSolution(start_x, start_y, NORTH, true);
+                grid.setEntry(start_x, start_y, NORTH, true);
             }
             else{
-                cells[start_x][start_y].setWall(SOUTH, DOWN);
-                cells[start_x][start_y].solution[2] = 1;
-                cells[start_x][start_y].entry[2] = 1;
+                grid.setWall(start_x, start_y, SOUTH, DOWN);
+                grid.setSolution(start_x, start_y, SOUTH, true);
+                grid.setEntry(start_x, start_y, SOUTH, true);
             }
         }
         else{
@@ -981,38 +1294,38 @@ public class Maze implements Printable {
             int entryY;
             if(start_x == 0){
                 entryX = start_x + startWidth;
-                entryY = rand.nextInt(start_y, start_y + startHeight);
+                entryY = random.nextInt(start_y, start_y + startHeight);
                 setWall(entryX, entryY, WEST, DOWN);
                 setWall(entryX - 1, entryY, EAST, DOWN);
-                cells[entryX][entryY].solution[3] = 1;
-                cells[entryX][entryY].entry[3] = 1;
+                grid.setSolution(entryX, entryY, WEST, true);
+                grid.setEntry(entryX, entryY, WEST, true);
                 start_x = entryX;
                 start_y = entryY;
             }
             else if(start_x == width - startWidth- 1){
                 entryX = start_x;
-                entryY = rand.nextInt(start_y, start_y + startHeight);
+                entryY = random.nextInt(start_y, start_y + startHeight);
                 setWall(entryX, entryY, EAST, DOWN);
                 setWall(entryX + 1, entryY, WEST, DOWN);
-                cells[entryX][entryY].solution[1] = 1;
-                cells[entryX][entryY].entry[1] = 1;
+                grid.setSolution(entryX, entryY, EAST, true);
+                grid.setEntry(entryX, entryY, EAST, true);
                 start_x = entryX;
                 start_y = entryY;
             }
             else{
-                entryY = rand.nextBoolean() ? start_y: start_y + startHeight;
-                entryX = rand.nextBoolean() ? start_x: start_x + startWidth;
+                entryY = random.nextBoolean() ? start_y: start_y + startHeight;
+                entryX = random.nextBoolean() ? start_x: start_x + startWidth;
                 if(entryX == start_x){
                     setWall(entryX, entryY, WEST, DOWN);
                     setWall(entryX - 1, entryY, EAST, DOWN);
-                    cells[entryX][entryY].solution[3] = 1;
-                    cells[entryX][entryY].entry[3] = 1;
+                    grid.setSolution(entryX, entryY, WEST, true);
+                    grid.setEntry(entryX, entryY, WEST, true);
                 }
                 else{
                     setWall(entryX, entryY, EAST, DOWN);
                     setWall(entryX + 1, entryY, WEST, DOWN);
-                    cells[entryX][entryY].solution[1] = 1;
-                    cells[entryX][entryY].entry[1] = 1;
+                    grid.setSolution(entryX, entryY, EAST, true);
+                    grid.setEntry(entryX, entryY, EAST, true);
                 }
                 start_x = entryX;
                 start_y = entryY;
@@ -1022,23 +1335,23 @@ public class Maze implements Printable {
             // Exit
             if(finish_x == 0){
                 setWall(finish_x, finish_y, WEST, DOWN);
-                cells[finish_x][finish_y].solution[3] = 1;
-                cells[finish_x][finish_y].exit[3] = 1;
+                grid.setSolution(finish_x, finish_y, WEST, true);
+                grid.setExit(finish_x, finish_y, WEST, true);
             }
             else if(finish_x == width - 1){
                 setWall(finish_x, finish_y, EAST, DOWN);
-                cells[finish_x][finish_y].solution[1] = 1;
-                cells[finish_x][finish_y].exit[1] = 1;
+                grid.setSolution(finish_x, finish_y, EAST, true);
+                grid.setExit(finish_x, finish_y, EAST, true);
             }
             else if(finish_y == 0){
                 setWall(finish_x, finish_y, NORTH, DOWN);
-                cells[finish_x][finish_y].solution[0] = 1;
-                cells[finish_x][finish_y].exit[0] = 1;
+                grid.setSolution(finish_x, finish_y, NORTH, true);
+                grid.setExit(finish_x, finish_y, NORTH, true);
             }
             else{
                 setWall(finish_x, finish_y, SOUTH, DOWN);
-                cells[finish_x][finish_y].solution[2] = 1;
-                cells[finish_x][finish_y].exit[2] = 1;
+                grid.setSolution(finish_x, finish_y, SOUTH, true);
+                grid.setExit(finish_x, finish_y, SOUTH, true);
             }
         }
         else{
@@ -1047,45 +1360,99 @@ public class Maze implements Printable {
             // randomly select start x value
             if(finish_x == 0){
                 exitX = finish_x + finishWidth;
-                exitY = rand.nextInt(finish_y, finish_y + finishHeight);
+                exitY = random.nextInt(finish_y, finish_y + finishHeight);
                 setWall(exitX, exitY, EAST, DOWN);
                 setWall(exitX + 1, exitY, WEST, DOWN);
-                cells[exitX][exitY].solution[1] = 1;
-                cells[exitX][exitY].exit[1] = 1;
+                grid.setSolution(exitX, exitY, EAST, true);
+                grid.setExit(exitX, exitY, EAST, true);
                 finish_y = exitY;
                 finish_x = exitX;
             }
             else if(finish_x == width - finishWidth- 1){
                 exitX = finish_x;
-                exitY = rand.nextInt(finish_y, finish_y + finishHeight);
+                exitY = random.nextInt(finish_y, finish_y + finishHeight);
                 setWall(exitX, exitY, WEST, DOWN);
                 setWall(exitX - 1, exitY, EAST, DOWN);
-                cells[exitX][exitY].solution[3] = 1;
-                cells[exitX][exitY].exit[3] = 1;
+                grid.setSolution(exitX, exitY, WEST, true);
+                grid.setExit(exitX, exitY, WEST, true);
                 finish_y = exitY;
                 finish_x = exitX;
             }
             else{
-                exitY = rand.nextBoolean() ? finish_y: finish_y + finishHeight;
-                exitX = rand.nextBoolean() ? finish_x: finish_x + finishWidth;
+                exitY = random.nextBoolean() ? finish_y: finish_y + finishHeight;
+                exitX = random.nextBoolean() ? finish_x: finish_x + finishWidth;
                 if(exitX == finish_x){
                     setWall(exitX, exitY, WEST, DOWN);
                     setWall(exitX - 1, exitY, EAST, DOWN);
-                    cells[exitX][exitY].solution[3] = 1;
-                    cells[exitX][exitY].exit[3] = 1;
+                    grid.setSolution(exitX, exitY, WEST, true);
+                    grid.setExit(exitX, exitY, WEST, true);
                 }
                 else{
                     setWall(exitX, exitY, EAST, DOWN);
                     setWall(exitX + 1, exitY, WEST, DOWN);
-                    cells[exitX][exitY].solution[1] = 1;
-                    cells[exitX][exitY].exit[1] = 1;
+                    grid.setSolution(exitX, exitY, EAST, true);
+                    grid.setExit(exitX, exitY, EAST, true);
                 }
                 finish_y = exitY;
                 finish_x = exitX;
             }
         }
-        excludedCells.push(cells[start_x][start_y]);
-        excludedCells.push(cells[finish_x][finish_y]);
+        excludedCells.set(cellIndex(start_x, start_y));
+        excludedCells.set(cellIndex(finish_x, finish_y));
+    }
+    /**
+     * Implements: Sets the entry and exit of a shaped maze, the entry on a random cell in the leftmost column of the
+     * shape and the exit on a random cell in its rightmost column.
+     * Pre-condition: Maze has been fully generated inside its shape.
+     * Post-condition: The west wall of the entry and east wall of the exit have been removed, the walls of the cells
+     * outside the shape are left up.
+     */
+    private void maskedEntryAndExit(){
+        start_x = 0;
+        while(columnInside(start_x) == 0){
+            start_x++;
+        }
+        start_y = nthInside(start_x, random.nextInt(columnInside(start_x)));
+        finish_x = width - 1;
+        while(columnInside(finish_x) == 0){
+            finish_x--;
+        }
+        finish_y = nthInside(finish_x, random.nextInt(columnInside(finish_x)));
+        grid.setWall(start_x, start_y, WEST, DOWN);
+        grid.setSolution(start_x, start_y, WEST, true);
+        grid.setEntry(start_x, start_y, WEST, true);
+        grid.setWall(finish_x, finish_y, EAST, DOWN);
+        grid.setSolution(finish_x, finish_y, EAST, true);
+        grid.setExit(finish_x, finish_y, EAST, true);
+        excludedCells.set(cellIndex(start_x, start_y));
+        excludedCells.set(cellIndex(finish_x, finish_y));
+    }
+    /**
+     * Counts the cells of a column that are inside the shape of the maze
+     * @param x The horizontal position of the column starting from 0
+     * @return the number of cells in the column that aren't masked
+     */
+    private int columnInside(int x){
+        int count = 0;
+        for(int y = 0; y < height; y++){
+            if(!maskedCells.get(cellIndex(x, y))){
+                count++;
+            }
+        }
+        return count;
+    }
+    /**
+     * Finds a cell of a column that is inside the shape of the maze
+     * @param x The horizontal position of the column starting from 0
+     * @param n How many cells inside the shape to skip, counting from the top
+     * @return the vertical position of the cell
+     */
+    private int nthInside(int x, int n){
+        for(int y = 0; ; y++){
+            if(!maskedCells.get(cellIndex(x, y)) && n-- == 0){
+                return y;
+            }
+        }
     }
     /**
      * Implements: Updates start and end cells in the maze.
@@ -1097,13 +1464,13 @@ public class Maze implements Printable {
      * and exit position are the same.
      */
     public Boolean entryAndExit(String start, String exit){
-        Random rand = new Random();
         int w_s = 0;
         int w_f = 0;
-        int start_new_x = -1;
-        int start_new_y = -1;
-        int finish_new_x = -1;
-        int finish_new_y = -1;
+        // The image openings are nudged from where they are now
+        int start_new_x = start_x;
+        int start_new_y = start_y;
+        int finish_new_x = finish_x;
+        int finish_new_y = finish_y;
         // Change starting location images
         // Set start position on maze
         switch (start) {
@@ -1115,64 +1482,61 @@ public class Maze implements Printable {
                 start_new_x = 0;
                 start_new_y = 0;
                 setWall(start_new_x, start_new_y, WEST, DOWN);
-                cells[start_new_x][start_new_y].solution[3] = 1;
-                cells[start_new_x][start_new_y].entry[3] = 1;
+                grid.setSolution(start_new_x, start_new_y, WEST, true);
+                grid.setEntry(start_new_x, start_new_y, WEST, true);
             }
             case "Top Right" -> {
                 start_new_x = width - 1;
                 start_new_y = 0;
                 setWall(start_new_x, start_new_y, EAST, DOWN);
-                cells[start_new_x][start_new_y].solution[1] = 1;
-                cells[start_new_x][start_new_y].entry[1] = 1;
+                grid.setSolution(start_new_x, start_new_y, EAST, true);
+                grid.setEntry(start_new_x, start_new_y, EAST, true);
             }
             case "Bottom Left" -> {
                 start_new_x = 0;
                 start_new_y = height - 1;
                 setWall(start_new_x, start_new_y, WEST, DOWN);
-                cells[start_new_x][start_new_y].solution[3] = 1;
-                cells[start_new_x][start_new_y].entry[3] = 1;
+                grid.setSolution(start_new_x, start_new_y, WEST, true);
+                grid.setEntry(start_new_x, start_new_y, WEST, true);
             }
             case "Bottom Right" -> {
                 start_new_x = width - 1;
                 start_new_y = height - 1;
                 setWall(start_new_x, start_new_y, EAST, DOWN);
-                cells[start_new_x][start_new_y].solution[1] = 1;
-                cells[start_new_x][start_new_y].entry[1] = 1;
+                grid.setSolution(start_new_x, start_new_y, EAST, true);
+                grid.setEntry(start_new_x, start_new_y, EAST, true);
             }
             case "Top Middle" -> {
                 start_new_x = Math.abs(width / 2);
                 start_new_y = 0;
                 setWall(start_new_x, start_new_y, NORTH, DOWN);
-                cells[start_new_x][start_new_y].solution[0] = 1;
-                cells[start_new_x][start_new_y].entry[0] = 1;
+                grid.setSolution(start_new_x, start_new_y, NORTH, true);
+                grid.setEntry(start_new_x, start_new_y, NORTH, true);
             }
             case "Bottom Middle" -> {
                 start_new_x = Math.abs(width / 2);
                 start_new_y = height - 1;
                 setWall(start_new_x, start_new_y, SOUTH, DOWN);
-                cells[start_new_x][start_new_y].solution[2] = 1;
-                cells[start_new_x][start_new_y].entry[2] = 1;
+                grid.setSolution(start_new_x, start_new_y, SOUTH, true);
+                grid.setEntry(start_new_x, start_new_y, SOUTH, true);
             }
             case "Middle Right" -> {
                 start_new_x = width - 1;
                 start_new_y = Math.abs(height / 2);
                 setWall(start_new_x, start_new_y, EAST, DOWN);
-                cells[start_new_x][start_new_y].solution[1] = 1;
-                cells[start_new_x][start_new_y].entry[1] = 1;
+                grid.setSolution(start_new_x, start_new_y, EAST, true);
+                grid.setEntry(start_new_x, start_new_y, EAST, true);
             }
             case "Middle Left" -> {
                 start_new_x = 0;
                 start_new_y = Math.abs(height / 2);
                 setWall(start_new_x, start_new_y, WEST, DOWN);
-                cells[start_new_x][start_new_y].solution[3] = 1;
-                cells[start_new_x][start_new_y].entry[3] = 1;
+                grid.setSolution(start_new_x, start_new_y, WEST, true);
+                grid.setEntry(start_new_x, start_new_y, WEST, true);
             }
             case "Upward" -> {
                 if(start_new_y == start_Iy){
-                    // unable to move entry any higher
-                    setWall(start_new_x, start_new_y, Direction.getDirection(w_s), DOWN);
-                    cells[start_new_x][start_new_y].solution[w_s] = 1;
-                    cells[start_new_x][start_new_y].entry[w_s] = 1;
+                    // unable to move any further, the opening stays where it is
                 }
                 else{
                     // set y
@@ -1180,35 +1544,35 @@ public class Maze implements Printable {
                         start_new_y = start_Iy;
                     }
                     else{
-                        start_new_y = rand.nextInt(start_new_y-1,start_Iy);
+                        start_new_y = random.nextInt(start_Iy, start_new_y - 1);
                     }
                     //set x
                     if(start_Ix == 0){
                         start_new_x = start_Ix + startWidth;
                         setWall(start_new_x, start_new_y, EAST, DOWN);
-                        cells[start_new_x][start_new_y].solution[1] = 1;
-                        cells[start_new_x][start_new_y].entry[1] = 1;
+                        grid.setSolution(start_new_x, start_new_y, EAST, true);
+                        grid.setEntry(start_new_x, start_new_y, EAST, true);
                         setWall(start_new_x + 1, start_new_y, WEST, DOWN);
                     }
                     else if(start_Ix == width - startWidth - 1){
                         start_new_x = start_Ix;
                         setWall(start_new_x, start_new_y, WEST, DOWN);
-                        cells[start_new_x][start_new_y].solution[3] = 1;
-                        cells[start_new_x][start_new_y].entry[3] = 1;
+                        grid.setSolution(start_new_x, start_new_y, WEST, true);
+                        grid.setEntry(start_new_x, start_new_y, WEST, true);
                         setWall(start_new_x - 1, start_new_y, EAST, DOWN);
                     }
                     else{
-                        start_new_x = rand.nextBoolean() ? start_Ix : start_Ix+startWidth;
+                        start_new_x = random.nextBoolean() ? start_Ix : start_Ix+startWidth;
                         if(start_new_x == start_Ix){
                             setWall(start_new_x, start_new_y, WEST, DOWN);
-                            cells[start_new_x][start_new_y].solution[3] = 1;
-                            cells[start_new_x][start_new_y].entry[3] = 1;
+                            grid.setSolution(start_new_x, start_new_y, WEST, true);
+                            grid.setEntry(start_new_x, start_new_y, WEST, true);
                             setWall(start_new_x - 1, start_new_y, EAST, DOWN);
                         }
                         else{
                             setWall(start_new_x, start_new_y, EAST, DOWN);
-                            cells[start_new_x][start_new_y].solution[1] = 1;
-                            cells[start_new_x][start_new_y].entry[1] = 1;
+                            grid.setSolution(start_new_x, start_new_y, EAST, true);
+                            grid.setEntry(start_new_x, start_new_y, EAST, true);
                             setWall(start_new_x + 1, start_new_y, WEST, DOWN);
                         }
                     }
@@ -1216,10 +1580,7 @@ public class Maze implements Printable {
             }
             case "Downward" -> {
                 if(start_new_y == start_Iy + startHeight){
-                    // unable to move entry any higher
-                    setWall(start_new_x, start_new_y, Direction.getDirection(w_s), DOWN);
-                    cells[start_new_x][start_new_y].solution[w_s] = 1;
-                    cells[start_new_x][start_new_y].entry[w_s] = 1;
+                    // unable to move any further, the opening stays where it is
                 }
                 else{
                     // set y
@@ -1227,35 +1588,35 @@ public class Maze implements Printable {
                         start_new_y = start_Iy + startHeight;
                     }
                     else{
-                        start_new_y = rand.nextInt(start_new_y + 1,start_Iy + startHeight);
+                        start_new_y = random.nextInt(start_new_y + 1,start_Iy + startHeight);
                     }
                     //set x
                     if(start_Ix == 0){
                         start_new_x = start_Ix + startWidth;
                         setWall(start_new_x, start_new_y, EAST, DOWN);
-                        cells[start_new_x][start_new_y].solution[1] = 1;
-                        cells[start_new_x][start_new_y].entry[1] = 1;
+                        grid.setSolution(start_new_x, start_new_y, EAST, true);
+                        grid.setEntry(start_new_x, start_new_y, EAST, true);
                         setWall(start_new_x + 1, start_new_y, WEST, DOWN);
                     }
                     else if(start_Ix == width - startWidth - 1){
                         start_new_x = start_Ix;
                         setWall(start_new_x, start_new_y, WEST, DOWN);
-                        cells[start_new_x][start_new_y].solution[3] = 1;
-                        cells[start_new_x][start_new_y].entry[3] = 1;
+                        grid.setSolution(start_new_x, start_new_y, WEST, true);
+                        grid.setEntry(start_new_x, start_new_y, WEST, true);
                         setWall(start_new_x - 1, start_new_y, EAST, DOWN);
                     }
                     else{
-                        start_new_x = rand.nextBoolean() ? start_Ix : start_Ix + startWidth;
+                        start_new_x = random.nextBoolean() ? start_Ix : start_Ix + startWidth;
                         if(start_new_x == start_Ix){
                             setWall(start_new_x, start_new_y, WEST, DOWN);
-                            cells[start_new_x][start_new_y].solution[3] = 1;
-                            cells[start_new_x][start_new_y].entry[3] = 1;
+                            grid.setSolution(start_new_x, start_new_y, WEST, true);
+                            grid.setEntry(start_new_x, start_new_y, WEST, true);
                             setWall(start_new_x - 1, start_new_y, EAST, DOWN);
                         }
                         else{
                             setWall(start_new_x, start_new_y, EAST, DOWN);
-                            cells[start_new_x][start_new_y].solution[1] = 1;
-                            cells[start_new_x][start_new_y].entry[1] = 1;
+                            grid.setSolution(start_new_x, start_new_y, EAST, true);
+                            grid.setEntry(start_new_x, start_new_y, EAST, true);
                             setWall(start_new_x + 1, start_new_y, WEST, DOWN);
                         }
                     }
@@ -1263,10 +1624,7 @@ public class Maze implements Printable {
             }
             case "Leftward" -> {
                 if(start_new_x == start_Ix){
-                    // unable to move entry any higher
-                    setWall(start_new_x, start_new_y, Direction.getDirection(w_s), DOWN);
-                    cells[start_new_x][start_new_y].solution[w_s] = 1;
-                    cells[start_new_x][start_new_y].entry[w_s] = 1;
+                    // unable to move any further, the opening stays where it is
                 }
                 else{
                     // set x
@@ -1274,35 +1632,35 @@ public class Maze implements Printable {
                         start_new_x = start_Ix;
                     }
                     else{
-                        start_new_x = rand.nextInt(start_Ix,start_new_x - 1);
+                        start_new_x = random.nextInt(start_Ix,start_new_x - 1);
                     }
                     //set y
                     if(start_Iy == 0){
                         start_new_y = start_Iy + startHeight;
                         setWall(start_new_x, start_new_y, SOUTH, DOWN);
-                        cells[start_new_x][start_new_y].solution[2] = 1;
-                        cells[start_new_x][start_new_y].entry[2] = 1;
+                        grid.setSolution(start_new_x, start_new_y, SOUTH, true);
+                        grid.setEntry(start_new_x, start_new_y, SOUTH, true);
                         setWall(start_new_x, start_new_y + 1, NORTH, DOWN);
                     }
                     else if(start_Iy == height - startHeight - 1){
                         start_new_y = start_Iy;
                         setWall(start_new_x, start_new_y, NORTH, DOWN);
-                        cells[start_new_x][start_new_y].solution[0] = 1;
-                        cells[start_new_x][start_new_y].entry[0] = 1;
+                        grid.setSolution(start_new_x, start_new_y, NORTH, true);
+                        grid.setEntry(start_new_x, start_new_y, NORTH, true);
                         setWall(start_new_x, start_new_y - 1,SOUTH, DOWN);
                     }
                     else{
-                        start_new_y = rand.nextBoolean() ? start_Iy : start_Iy + startHeight;
+                        start_new_y = random.nextBoolean() ? start_Iy : start_Iy + startHeight;
                         if(start_new_y == start_Iy){
                             setWall(start_new_x, start_new_y, NORTH, DOWN);
-                            cells[start_new_x][start_new_y].solution[0] = 1;
-                            cells[start_new_x][start_new_y].entry[0] = 1;
+                            grid.setSolution(start_new_x, start_new_y, NORTH, true);
+                            grid.setEntry(start_new_x, start_new_y, NORTH, true);
                             setWall(start_new_x, start_new_y - 1,SOUTH, DOWN);
                         }
                         else{
                             setWall(start_new_x, start_new_y, SOUTH, DOWN);
-                            cells[start_new_x][start_new_y].solution[2] = 1;
-                            cells[start_new_x][start_new_y].entry[2] = 1;
+                            grid.setSolution(start_new_x, start_new_y, SOUTH, true);
+                            grid.setEntry(start_new_x, start_new_y, SOUTH, true);
                             setWall(start_new_x, start_new_y + 1, NORTH, DOWN);
                         }
                     }
@@ -1310,10 +1668,7 @@ public class Maze implements Printable {
             }
             case "Rightward" -> {
                 if(start_new_x == start_Ix + startWidth){
-                    // unable to move entry any higher
-                    setWall(start_new_x, start_new_y, Direction.getDirection(w_s), DOWN);
-                    cells[start_new_x][start_new_y].solution[w_s] = 1;
-                    cells[start_new_x][start_new_y].entry[w_s] = 1;
+                    // unable to move any further, the opening stays where it is
                 }
                 else{
                     // set x
@@ -1321,35 +1676,35 @@ public class Maze implements Printable {
                         start_new_x = start_Ix + startWidth;
                     }
                     else{
-                        start_new_x = rand.nextInt(start_new_x + 1,start_Ix + startWidth);
+                        start_new_x = random.nextInt(start_new_x + 1,start_Ix + startWidth);
                     }
                     //set y
                     if(start_Iy == 0){
                         start_new_y = start_Iy + startHeight;
                         setWall(start_new_x, start_new_y, SOUTH, DOWN);
-                        cells[start_new_x][start_new_y].solution[2] = 1;
-                        cells[start_new_x][start_new_y].entry[2] = 1;
+                        grid.setSolution(start_new_x, start_new_y, SOUTH, true);
+                        grid.setEntry(start_new_x, start_new_y, SOUTH, true);
                         setWall(start_new_x, start_new_y + 1, NORTH, DOWN);
                     }
                     else if(start_Iy == height - startHeight - 1){
                         start_new_y = start_Iy;
                         setWall(start_new_x, start_new_y, NORTH, DOWN);
-                        cells[start_new_x][start_new_y].solution[0] = 1;
-                        cells[start_new_x][start_new_y].entry[0] = 1;
+                        grid.setSolution(start_new_x, start_new_y, NORTH, true);
+                        grid.setEntry(start_new_x, start_new_y, NORTH, true);
                         setWall(start_new_x, start_new_y - 1,SOUTH, DOWN);
                     }
                     else{
-                        start_new_y = rand.nextBoolean() ? start_Iy : start_Iy + startHeight;
+                        start_new_y = random.nextBoolean() ? start_Iy : start_Iy + startHeight;
                         if(start_new_x == start_Iy){
                             setWall(start_new_x, start_new_y, NORTH, DOWN);
-                            cells[start_new_x][start_new_y].solution[0] = 1;
-                            cells[start_new_x][start_new_y].entry[0] = 1;
+                            grid.setSolution(start_new_x, start_new_y, NORTH, true);
+                            grid.setEntry(start_new_x, start_new_y, NORTH, true);
                             setWall(start_new_x, start_new_y - 1,SOUTH, DOWN);
                         }
                         else{
                             setWall(start_new_x, start_new_y, SOUTH, DOWN);
-                            cells[start_new_x][start_new_y].solution[2] = 1;
-                            cells[start_new_x][start_new_y].entry[2] = 1;
+                            grid.setSolution(start_new_x, start_new_y, SOUTH, true);
+                            grid.setEntry(start_new_x, start_new_y, SOUTH, true);
                             setWall(start_new_x, start_new_y + 1, NORTH, DOWN);
                         }
                     }
@@ -1366,64 +1721,61 @@ public class Maze implements Printable {
                 finish_new_x = 0;
                 finish_new_y = 0;
                 setWall(finish_new_x, finish_new_y, WEST, DOWN);
-                cells[finish_new_x][finish_new_y].solution[3] = 1;
-                cells[finish_new_x][finish_new_y].exit[3] = 1;
+                grid.setSolution(finish_new_x, finish_new_y, WEST, true);
+                grid.setExit(finish_new_x, finish_new_y, WEST, true);
             }
             case "Top Right" -> {
                 finish_new_x = width - 1;
                 finish_new_y = 0;
                 setWall(finish_new_x, finish_new_y, EAST, DOWN);
-                cells[finish_new_x][finish_new_y].solution[1] = 1;
-                cells[finish_new_x][finish_new_y].exit[1] = 1;
+                grid.setSolution(finish_new_x, finish_new_y, EAST, true);
+                grid.setExit(finish_new_x, finish_new_y, EAST, true);
             }
             case "Bottom Left" -> {
                 finish_new_x = 0;
                 finish_new_y = height - 1;
                 setWall(finish_new_x, finish_new_y, WEST, DOWN);
-                cells[finish_new_x][finish_new_y].solution[3] = 1;
-                cells[finish_new_x][finish_new_y].exit[3] = 1;
+                grid.setSolution(finish_new_x, finish_new_y, WEST, true);
+                grid.setExit(finish_new_x, finish_new_y, WEST, true);
             }
             case "Bottom Right" -> {
                 finish_new_x = width - 1;
                 finish_new_y = height - 1;
                 setWall(finish_new_x, finish_new_y, EAST, DOWN);
-                cells[finish_new_x][finish_new_y].solution[1] = 1;
-                cells[finish_new_x][finish_new_y].exit[1] = 1;
+                grid.setSolution(finish_new_x, finish_new_y, EAST, true);
+                grid.setExit(finish_new_x, finish_new_y, EAST, true);
             }
             case "Top Middle" -> {
                 finish_new_x = Math.abs(width / 2);
                 finish_new_y = 0;
                 setWall(finish_new_x, finish_new_y, NORTH, DOWN);
-                cells[finish_new_x][finish_new_y].solution[0] = 1;
-                cells[finish_new_x][finish_new_y].exit[0] = 1;
+                grid.setSolution(finish_new_x, finish_new_y, NORTH, true);
+                grid.setExit(finish_new_x, finish_new_y, NORTH, true);
             }
             case "Bottom Middle" -> {
                 finish_new_x = Math.abs(width / 2);
                 finish_new_y = height - 1;
                 setWall(finish_new_x, finish_new_y, SOUTH, DOWN);
-                cells[finish_new_x][finish_new_y].solution[2] = 1;
-                cells[finish_new_x][finish_new_y].exit[2] = 1;
+                grid.setSolution(finish_new_x, finish_new_y, SOUTH, true);
+                grid.setExit(finish_new_x, finish_new_y, SOUTH, true);
             }
             case "Middle Right" -> {
                 finish_new_x = width - 1;
                 finish_new_y = Math.abs(height / 2);
                 setWall(finish_new_x, finish_new_y, EAST, DOWN);
-                cells[finish_new_x][finish_new_y].solution[1] = 1;
-                cells[finish_new_x][finish_new_y].exit[1] = 1;
+                grid.setSolution(finish_new_x, finish_new_y, EAST, true);
+                grid.setExit(finish_new_x, finish_new_y, EAST, true);
             }
             case "Middle Left" -> {
                 finish_new_x = 0;
                 finish_new_y = Math.abs(height / 2);
                 setWall(finish_new_x, finish_new_y, WEST, DOWN);
-                cells[finish_new_x][finish_new_y].solution[3] = 1;
-                cells[finish_new_x][finish_new_y].exit[3] = 1;
+                grid.setSolution(finish_new_x, finish_new_y, WEST, true);
+                grid.setExit(finish_new_x, finish_new_y, WEST, true);
             }
             case "Upward" -> {
                 if(finish_new_y == finish_Iy){
-                    // unable to move entry any higher
-                    setWall(finish_new_x, finish_new_y, Direction.getDirection(w_f), DOWN);
-                    cells[finish_new_x][finish_new_y].solution[w_f] = 1;
-                    cells[finish_new_x][finish_new_y].exit[w_f] = 1;
+                    // unable to move any further, the opening stays where it is
                 }
                 else{
                     // set y
@@ -1431,35 +1783,35 @@ public class Maze implements Printable {
                         finish_new_y = finish_Iy;
                     }
                     else{
-                        finish_new_y = rand.nextInt(finish_new_y-1,finish_Iy);
+                        finish_new_y = random.nextInt(finish_Iy, finish_new_y - 1);
                     }
                     //set x
                     if(finish_Ix == 0){
-                        finish_new_y = finish_Ix + finishWidth;
+                        finish_new_x = finish_Ix + finishWidth;
                         setWall(finish_new_x, finish_new_y, EAST, DOWN);
-                        cells[finish_new_x][finish_new_y].solution[1] = 1;
-                        cells[finish_new_x][finish_new_y].exit[1] = 1;
+                        grid.setSolution(finish_new_x, finish_new_y, EAST, true);
+                        grid.setExit(finish_new_x, finish_new_y, EAST, true);
                         setWall(finish_new_x + 1, finish_new_y, WEST, DOWN);
                     }
                     else if(finish_Ix == width - finishWidth - 1){
-                        finish_new_y = finish_Ix;
+                        finish_new_x = finish_Ix;
                         setWall(finish_new_x, finish_new_y, WEST, DOWN);
-                        cells[finish_new_x][finish_new_y].solution[3] = 1;
-                        cells[finish_new_x][finish_new_y].exit[3] = 1;
+                        grid.setSolution(finish_new_x, finish_new_y, WEST, true);
+                        grid.setExit(finish_new_x, finish_new_y, WEST, true);
                         setWall(finish_new_x - 1, finish_new_y, EAST, DOWN);
                     }
                     else{
-                        finish_new_x = rand.nextBoolean() ? finish_Ix : finish_Ix+finishWidth;
+                        finish_new_x = random.nextBoolean() ? finish_Ix : finish_Ix+finishWidth;
                         if(finish_new_x == finish_Ix){
                             setWall(finish_new_x, finish_new_y, WEST, DOWN);
-                            cells[finish_new_x][finish_new_y].solution[3] = 1;
-                            cells[finish_new_x][finish_new_y].exit[3] = 1;
+                            grid.setSolution(finish_new_x, finish_new_y, WEST, true);
+                            grid.setExit(finish_new_x, finish_new_y, WEST, true);
                             setWall(finish_new_x - 1, finish_new_y, EAST, DOWN);
                         }
                         else{
                             setWall(finish_new_x, finish_new_y, EAST, DOWN);
-                            cells[finish_new_x][finish_new_y].solution[1] = 1;
-                            cells[finish_new_x][finish_new_y].exit[1] = 1;
+                            grid.setSolution(finish_new_x, finish_new_y, EAST, true);
+                            grid.setExit(finish_new_x, finish_new_y, EAST, true);
                             setWall(finish_new_x + 1, finish_new_y, WEST, DOWN);
                         }
                     }
@@ -1467,46 +1819,43 @@ public class Maze implements Printable {
             }
             case "Downward" -> {
                 if(finish_new_y == finish_Iy + finishHeight){
-                    // unable to move entry any higher
-                    setWall(finish_new_x, finish_new_y, Direction.getDirection(w_f), DOWN);
-                    cells[finish_new_x][finish_new_y].solution[w_f] = 1;
-                    cells[finish_new_x][finish_new_y].exit[w_f] = 1;
+                    // unable to move any further, the opening stays where it is
                 }
                 else{
                     // set y
                     if(finish_new_y + 1 == finish_Iy+ finishHeight){
-                        finish_new_y = finish_Iy + startHeight;
+                        finish_new_y = finish_Iy + finishHeight;
                     }
                     else{
-                        finish_new_y = rand.nextInt(finish_new_y + 1,finish_Iy + finishHeight);
+                        finish_new_y = random.nextInt(finish_new_y + 1,finish_Iy + finishHeight);
                     }
                     //set x
                     if(finish_Ix == 0){
                         finish_new_x = finish_Ix + finishWidth;
                         setWall(finish_new_x, finish_new_y, EAST, DOWN);
-                        cells[finish_new_x][finish_new_y].solution[1] = 1;
-                        cells[finish_new_x][finish_new_y].exit[1] = 1;
+                        grid.setSolution(finish_new_x, finish_new_y, EAST, true);
+                        grid.setExit(finish_new_x, finish_new_y, EAST, true);
                         setWall(finish_new_x + 1, finish_new_y, WEST, DOWN);
                     }
                     else if(finish_Ix == width - finishWidth - 1){
                         finish_new_x = finish_Ix;
                         setWall(finish_new_x, finish_new_y, WEST, DOWN);
-                        cells[finish_new_x][finish_new_y].solution[3] = 1;
-                        cells[finish_new_x][finish_new_y].exit[3] = 1;
+                        grid.setSolution(finish_new_x, finish_new_y, WEST, true);
+                        grid.setExit(finish_new_x, finish_new_y, WEST, true);
                         setWall(finish_new_x - 1, finish_new_y, EAST, DOWN);
                     }
                     else{
-                        finish_new_x = rand.nextBoolean() ? finish_Ix : finish_Ix + finishWidth;
+                        finish_new_x = random.nextBoolean() ? finish_Ix : finish_Ix + finishWidth;
                         if(finish_new_x == finish_Ix){
                             setWall(finish_new_x, finish_new_y, WEST, DOWN);
-                            cells[finish_new_x][finish_new_y].solution[3] = 1;
-                            cells[finish_new_x][finish_new_y].exit[3] = 1;
+                            grid.setSolution(finish_new_x, finish_new_y, WEST, true);
+                            grid.setExit(finish_new_x, finish_new_y, WEST, true);
                             setWall(finish_new_x - 1, finish_new_y, EAST, DOWN);
                         }
                         else{
                             setWall(finish_new_x, finish_new_y, EAST, DOWN);
-                            cells[finish_new_x][finish_new_y].solution[1] = 1;
-                            cells[finish_new_x][finish_new_y].exit[1] = 1;
+                            grid.setSolution(finish_new_x, finish_new_y, EAST, true);
+                            grid.setExit(finish_new_x, finish_new_y, EAST, true);
                             setWall(finish_new_x + 1, finish_new_y, WEST, DOWN);
                         }
                     }
@@ -1514,10 +1863,7 @@ public class Maze implements Printable {
             }
             case "Leftward" -> {
                 if(finish_new_x == finish_Ix){
-                    // unable to move entry any higher
-                    setWall(finish_new_x, finish_new_y, Direction.getDirection(w_f), DOWN);
-                    cells[finish_new_x][finish_new_y].solution[w_f] = 1;
-                    cells[finish_new_x][finish_new_y].exit[w_f] = 1;
+                    // unable to move any further, the opening stays where it is
                 }
                 else{
                     // set x
@@ -1525,35 +1871,35 @@ public class Maze implements Printable {
                         finish_new_x = finish_Ix;
                     }
                     else{
-                        finish_new_x = rand.nextInt(finish_Ix,finish_new_x - 1);
+                        finish_new_x = random.nextInt(finish_Ix,finish_new_x - 1);
                     }
                     //set y
                     if(finish_Iy == 0){
                         finish_new_y = finish_Iy + finishHeight;
                         setWall(finish_new_x, finish_new_y, SOUTH, DOWN);
-                        cells[finish_new_x][finish_new_y].solution[2] = 1;
-                        cells[finish_new_x][finish_new_y].exit[2] = 1;
+                        grid.setSolution(finish_new_x, finish_new_y, SOUTH, true);
+                        grid.setExit(finish_new_x, finish_new_y, SOUTH, true);
                         setWall(finish_new_x, finish_new_y + 1, NORTH, DOWN);
                     }
                     else if(finish_Iy == height - finishHeight - 1){
                         finish_new_y = finish_Iy;
                         setWall(finish_new_x, finish_new_y, NORTH, DOWN);
-                        cells[finish_new_x][finish_new_y].solution[0] = 1;
-                        cells[finish_new_x][finish_new_y].exit[0] = 1;
+                        grid.setSolution(finish_new_x, finish_new_y, NORTH, true);
+                        grid.setExit(finish_new_x, finish_new_y, NORTH, true);
                         setWall(finish_new_x, finish_new_y - 1, SOUTH, DOWN);
                     }
                     else{
-                        finish_new_y = rand.nextBoolean() ? finish_Iy : finish_Iy + finishHeight;
+                        finish_new_y = random.nextBoolean() ? finish_Iy : finish_Iy + finishHeight;
                         if(finish_new_y == finish_Iy){
                             setWall(finish_new_x, finish_new_y, NORTH, DOWN);
-                            cells[finish_new_x][finish_new_y].solution[0] = 1;
-                            cells[finish_new_x][finish_new_y].exit[0] = 1;
+                            grid.setSolution(finish_new_x, finish_new_y, NORTH, true);
+                            grid.setExit(finish_new_x, finish_new_y, NORTH, true);
                             setWall(finish_new_x, finish_new_y - 1, SOUTH, DOWN);
                         }
                         else{
                             setWall(finish_new_x, finish_new_y, SOUTH, DOWN);
-                            cells[finish_new_x][finish_new_y].solution[2] = 1;
-                            cells[finish_new_x][finish_new_y].exit[2] = 1;
+                            grid.setSolution(finish_new_x, finish_new_y, SOUTH, true);
+                            grid.setExit(finish_new_x, finish_new_y, SOUTH, true);
                             setWall(finish_new_x, finish_new_y + 1, NORTH, DOWN);
                         }
                     }
@@ -1561,10 +1907,7 @@ public class Maze implements Printable {
             }
             case "Rightward" -> {
                 if(finish_new_x == finish_Ix + finishWidth){
-                    // unable to move entry any higher
-                    setWall(finish_new_x, finish_new_y, Direction.getDirection(w_f), DOWN);
-                    cells[finish_new_x][finish_new_y].solution[w_f] = 1;
-                    cells[finish_new_x][finish_new_y].exit[w_f] = 1;
+                    // unable to move any further, the opening stays where it is
                 }
                 else{
                     // set x
@@ -1572,35 +1915,35 @@ public class Maze implements Printable {
                         finish_new_x = finish_Ix + finishWidth;
                     }
                     else{
-                        finish_new_x = rand.nextInt(finish_new_x + 1,finish_Ix + finishWidth);
+                        finish_new_x = random.nextInt(finish_new_x + 1,finish_Ix + finishWidth);
                     }
                     //set y
                     if(finish_Iy == 0){
                         finish_new_y = finish_Iy + finishHeight;
                         setWall(finish_new_x, finish_new_y, SOUTH, DOWN);
-                        cells[finish_new_x][finish_new_y].solution[2] = 1;
-                        cells[finish_new_x][finish_new_y].exit[2] = 1;
+                        grid.setSolution(finish_new_x, finish_new_y, SOUTH, true);
+                        grid.setExit(finish_new_x, finish_new_y, SOUTH, true);
                         setWall(finish_new_x, finish_new_y + 1, NORTH, DOWN);
                     }
                     else if(finish_Iy == height - finishHeight - 1){
                         finish_new_y = finish_Iy;
                         setWall(finish_new_x, finish_new_y, NORTH, DOWN);
-                        cells[finish_new_x][finish_new_y].solution[0] = 1;
-                        cells[finish_new_x][finish_new_y].exit[0] = 1;
+                        grid.setSolution(finish_new_x, finish_new_y, NORTH, true);
+                        grid.setExit(finish_new_x, finish_new_y, NORTH, true);
                         setWall(finish_new_x, finish_new_y - 1, SOUTH, DOWN);
                     }
                     else{
-                        finish_new_y = rand.nextBoolean() ? finish_Iy : finish_Iy + finishHeight;
+                        finish_new_y = random.nextBoolean() ? finish_Iy : finish_Iy + finishHeight;
                         if(finish_new_y == finish_Iy){
                             setWall(finish_new_x, finish_new_y, NORTH, DOWN);
-                            cells[finish_new_x][finish_new_y].solution[0] = 1;
-                            cells[finish_new_x][finish_new_y].exit[0] = 1;
+                            grid.setSolution(finish_new_x, finish_new_y, NORTH, true);
+                            grid.setExit(finish_new_x, finish_new_y, NORTH, true);
                             setWall(finish_new_x, finish_new_y - 1, SOUTH, DOWN);
                         }
                         else{
                             setWall(finish_new_x, finish_new_y, SOUTH, DOWN);
-                            cells[finish_new_x][finish_new_y].solution[2] = 1;
-                            cells[finish_new_x][finish_new_y].exit[2] = 1;
+                            grid.setSolution(finish_new_x, finish_new_y, SOUTH, true);
+                            grid.setExit(finish_new_x, finish_new_y, SOUTH, true);
                             setWall(finish_new_x, finish_new_y + 1, NORTH, DOWN);
                         }
                     }
@@ -1612,23 +1955,23 @@ public class Maze implements Printable {
             // Reset old entry points default
             if(validate(start_x,start_y,start_new_x,start_new_y)){
                 for(int i = 0; i < 4; i++){
-                    if(cells[start_x][start_y].entry[i] == 1){
+                    if(grid.isEntry(start_x, start_y, Direction.getDirection(i))){
                         w_s = i;
                     }
                 }
-                cells[start_x][start_y].entry[w_s] = 0;
+                grid.setEntry(start_x, start_y, Direction.getDirection(w_s), false);
                 setWall(start_x, start_y, Direction.getDirection(w_s), UP);
-                cells[start_x][start_y].solution[w_s] = 0;
+                grid.setSolution(start_x, start_y, Direction.getDirection(w_s), false);
             }
             if(validate(finish_x,finish_y,finish_new_x,finish_new_y)){
                 for(int i = 0; i < 4; i++){
-                    if(cells[finish_x][finish_y].exit[i] == 1){
+                    if(grid.isExit(finish_x, finish_y, Direction.getDirection(i))){
                         w_f = i;
                     }
                 }
-                cells[finish_x][finish_y].exit[w_f] = 0;
+                grid.setExit(finish_x, finish_y, Direction.getDirection(w_f), false);
                 setWall(finish_x, finish_y, Direction.getDirection(w_f), UP);
-                cells[finish_x][finish_y].solution[w_f] = 0;
+                grid.setSolution(finish_x, finish_y, Direction.getDirection(w_f), false);
             }
             start_x = start_new_x;
             start_y = start_new_y;
@@ -1639,205 +1982,461 @@ public class Maze implements Printable {
         else{
             // Reset new entry points
             for(int i = 0; i < 4; i++){
-                if(cells[start_x][start_y].entry[i] == 1){
+                if(grid.isEntry(start_x, start_y, Direction.getDirection(i))){
                     w_s = i;
 
                 }
             }
-            cells[start_x][start_y].entry[w_s] = 0;
+            grid.setEntry(start_x, start_y, Direction.getDirection(w_s), false);
             setWall(start_x, start_y, Direction.getDirection(w_s), UP);
-            cells[start_x][start_y].solution[w_s] = 0;
+            grid.setSolution(start_x, start_y, Direction.getDirection(w_s), false);
 
             for(int i = 0; i < 4; i++){
-                if(cells[finish_x][finish_y].exit[i] == 1){
+                if(grid.isExit(finish_x, finish_y, Direction.getDirection(i))){
                     w_f = i;
                 }
             }
-            cells[finish_x][finish_y].exit[w_f] = 0;
+            grid.setExit(finish_x, finish_y, Direction.getDirection(w_f), false);
             setWall(finish_x, finish_y, Direction.getDirection(w_f), UP);
-            cells[finish_x][finish_y].solution[w_f] = 0;
+            grid.setSolution(finish_x, finish_y, Direction.getDirection(w_f), false);
 
             return false;
         }
     }
     /**
-     * Implements: Recursive back tracking is used starting from the start cell to find the optimal path to the exit cell.
+     * Implements: The maze's solver, a breadth first search from both ends unless another is set, is used to find the
+     * shortest path from the start cell to the exit cell.
      * Pre-condition: Maze has been generated with entry and exit cells set.
      * Post-condition: Maze solution is found and method records directions cells move from one another.
      */
     private Stack<Cell> solve(){
-        Random rand = new Random();
+        return solve(TaskProgress.NONE);
+    }
+    /**
+     * Implements: Finds the solution as {@link #solve()} does, reporting the number of cells visited out of every cell
+     * of the maze and stopping if cancelled. Only the cells of the solution are looked at again once it is found.
+     * Pre-condition: Maze has been generated with entry and exit cells set.
+     * Post-condition: Maze solution is found and method records directions cells move from one another, or a
+     * {@link java.util.concurrent.CancellationException} is thrown leaving the solution empty. If the exit can't be
+     * reached from the start an {@link java.util.EmptyStackException} is thrown.
+     * @param progress Where progress is reported and cancellation is checked
+     */
+    private Stack<Cell> solve(TaskProgress progress){
         mazeSolution.clear();
-        Cell pointer = cells[start_x][start_y];
-        Cell finish = cells[finish_x][finish_y];
-
-        Stack<Cell> visitedCells = new Stack<>(); // Stack for holding the cells visited
-        mazeSolution.push(cells[start_x][start_y]);
-        visitedCells.push(cells[start_x][start_y]);
-
-        boolean solution = false;
-        ArrayList<Information> neighbourCellList = new ArrayList<>(); // Array list for holding neighbour cells
-        Information info;
-        // Keep performing until solution is complete
-        while (!solution){
-            int x_2 = pointer.getX();
-            int y_2 = pointer.getY();
-
-            // decide which direction to move
-            // Finding current cells neighbour without walls between cells
-            neighbourCellList.clear(); // Clear List
-            info = new Information(); // Clear neighbour variable
-            // Neighbour cell above
-            if(((y_2 - 1) >= 0) && (getWall(x_2, y_2, NORTH) == DOWN) && (getWall(x_2, y_2 - 1, SOUTH) == DOWN)
-                    && !(visitedCells.contains(cells[x_2][y_2 - 1]))){
-                info.current_x = x_2;
-                info.current_y = y_2;
-                info.neighbour_x = x_2;
-                info.neighbour_y = y_2 - 1;
-                info.current_wall = NORTH;
-                info.neighbour_wall = SOUTH;
-                neighbourCellList.add(info); // Add the neighbor to list
-            }
-            // Neighbour cell bellow
-            info = new Information(); // Clear neighbour variable
-            if(((y_2 + 1) < height) && (cells[x_2][y_2].getWall(SOUTH) == DOWN) && (cells[x_2][y_2 + 1].getWall(NORTH) == DOWN)
-                    && !(visitedCells.contains(cells[x_2][y_2 + 1]))){
-                info.current_x = x_2;
-                info.current_y = y_2;
-                info.neighbour_x = x_2;
-                info.neighbour_y = y_2 + 1;
-                info.current_wall = SOUTH;
-                info.neighbour_wall = NORTH;
-                neighbourCellList.add(info); // Add the neighbor to list
-            }
-            // Neighbour cell left
-            info = new Information(); // Clear neighbour variable
-            if(((x_2 - 1) >= 0) && (cells[x_2][y_2].getWall(WEST) == DOWN) && (cells[x_2 - 1][y_2].getWall(EAST) == DOWN)
-                    && !(visitedCells.contains(cells[x_2 - 1][y_2]))){
-                info.current_x = x_2;
-                info.current_y = y_2;
-                info.neighbour_x = x_2 - 1;
-                info.neighbour_y = y_2;
-                info.current_wall = WEST;
-                info.neighbour_wall = EAST;
-                neighbourCellList.add(info); // Add the neighbor to list
-            }
-            // Neighbour cell right
-            info = new Information(); // Clear neighbour variable
-            if(((x_2 + 1) < width) && (cells[x_2][y_2].getWall(EAST) == DOWN) && (cells[x_2 + 1][y_2].getWall(WEST) == DOWN)
-                    && !(visitedCells.contains(cells[x_2 + 1][y_2]))){
-                info.current_x = x_2;
-                info.current_y = y_2;
-                info.neighbour_x = x_2 + 1;
-                info.neighbour_y = y_2;
-                info.current_wall = EAST;
-                info.neighbour_wall = WEST;
-                neighbourCellList.add(info); // Add the neighbor to list
-            }
-
-            // Ensure cell has neighbour cells to move to
-            if(!neighbourCellList.isEmpty()){
-                // Find next cell to move to
-                // Randomly choose a neighbor from the list
-                int next = rand.nextInt(neighbourCellList.size());
-                info = neighbourCellList.get(next);
-                Cell pathStep = cells[info.neighbour_x][info.neighbour_y];
-
-                // Add cell to visitedCells
-                visitedCells.push(pathStep);
-                // Add cell to mazeSolution
-                mazeSolution.push(pathStep);
-
-                if(x_2 == info.neighbour_x){
-                    // Up
-                    if(info.neighbour_y < y_2){
-                        cells[x_2][y_2].solution[0] = 1;
-                        cells[info.neighbour_x][info.neighbour_y].solution[2] = 1;
-                    }
-                    // Down
-                    else{
-                        cells[x_2][y_2].solution[2] = 1;
-                        cells[info.neighbour_x][info.neighbour_y].solution[0] = 1;
-                    }
-                }
-                if(y_2 == info.neighbour_y){
-                    // Right
-                    if(info.neighbour_x > x_2){
-                        cells[x_2][y_2].solution[1] = 1;
-                        cells[info.neighbour_x][info.neighbour_y].solution[3] = 1;
-                    }
-                    // Left
-                    else{
-                        cells[x_2][y_2].solution[3] = 1;
-                        cells[info.neighbour_x][info.neighbour_y].solution[1] = 1;
-                    }
-                }
-
-                if (pathStep == finish){
-                    if(!(x_2 == 0 || x_2 == width -1)){
-                        if(finish.getX() == 0 || finish.getX() == width - 1){
-                            cells[finish.getX()][finish.getY()].solution[2] = 0;
-                        }
-                    }
-                    solution = true;
-                }
-                pointer = pathStep;
-            }
-            else
-            {
-                cells[x_2][y_2].solution[0]= 0;
-                cells[x_2][y_2].solution[1]= 0;
-                cells[x_2][y_2].solution[2]= 0;
-                cells[x_2][y_2].solution[3]= 0;
-
-                mazeSolution.pop();
-                pointer = mazeSolution.peek();
-
-                if (x_2 == pointer.getX()){
-                    // up
-                    if (y_2 < pointer.getY()){
-                        cells[pointer.getX()][pointer.getY()].solution[0] = 0;
-                    }
-                    // Down
-                    else{
-                        cells[pointer.getX()][pointer.getY()].solution[2] = 0;
-                    }
-                }
-                if (y_2 == pointer.getY()){
-                    // Right
-                    if (x_2 > pointer.getX()){
-                        cells[pointer.getX()][pointer.getY()].solution[1] = 0;
-                    }
-                    // Left
-                    else{
-                        cells[pointer.getX()][pointer.getY()].solution[3] = 0;
-                    }
+        lastSolve = mazeSolver.solve(grid, cellIndex(start_x, start_y), cellIndex(finish_x, finish_y), progress);
+        if(!lastSolve.isSolved()){
+            throw new EmptyStackException(); // Callers treat an empty solution as a maze that can't be solved
+        }
+        markSolution(lastSolve.getPath());
+        return mazeSolution;
+    }
+    /**
+     * Implements: Records a path from the start cell to the exit cell as the solution.
+     * Pre-condition: The old solution has been cleared.
+     * Post-condition: The cells of the path are the solution and each records the directions it moves to the next.
+     * @param path The indices of the cells from the start to the exit, y * width + x
+     */
+    private void markSolution(int[] path){
+        int length = path.length;
+        mazeSolution.push(grid.getCell(start_x, start_y));
+        for(int i = 1; i < length; i++){
+            int from = path[i - 1];
+            int to = path[i];
+            Direction position = to == from - width ? NORTH : to == from + width ? SOUTH : to == from - 1 ? WEST : EAST;
+            grid.setSolution(from % width, from / width, position, true);
+            grid.setSolution(to % width, to / width, Direction.getDirection((position.getIndex() + 2) % 4), true);
+            mazeSolution.push(grid.getCell(to % width, to / width));
+        }
+        if(length > 1){
+            int x_2 = path[length - 2] % width;
+            if(!(x_2 == 0 || x_2 == width -1)){
+                if(finish_x == 0 || finish_x == width - 1){
+                    grid.setSolution(finish_x, finish_y, SOUTH, false);
                 }
             }
         }
         setSolutionNumber(mazeSolution.size());
-        return mazeSolution;
     }
     /**
-     * Method which finds the solution to the maze using recursive backtracking.
+     * Implements: Changes the algorithm used to find the solution the next time the maze is solved.
+     * Pre-condition: None.
+     * Post-condition: {@link #solver()} finds the solution with the new algorithm.
+     * @param mazeSolver The algorithm used to find the shortest path from the start to the finish
+     */
+    public void setMazeSolver(MazeSolver mazeSolver){
+        this.mazeSolver = mazeSolver;
+    }
+    /**
+     * Gets the algorithm used to find the solution
+     * @return the algorithm used to find the solution
+     */
+    public MazeSolver getMazeSolver(){
+        return mazeSolver;
+    }
+    /**
+     * Gets how the solution was last found, including the number of cells expanded and the time it took
+     * @return the result of the last solve, or null if the maze hasn't been solved since it was loaded
+     */
+    public SolveResult getLastSolve(){
+        return lastSolve;
+    }
+    /**
+     * Implements: Gets the number of steps from the entry cell to every cell of the maze, searching the maze only the
+     * first time it is asked for after the walls or the entry change. The rooms left for the start and finish images
+     * aren't measured, so an entry in an image room is measured from the cell its room opens onto.
+     * Pre-condition: Maze has been generated with entry and exit cells set. Walls are changed through the maze rather
+     * than directly through its grid.
+     * Post-condition: The distances are cached until the walls are next changed, taking 4 MB per million cells plus
+     * another 4 MB while they are worked out. Mazes with more than {@link #SEARCH_CACHE_THRESHOLD} cells drop the
+     * distances kept for re-solving first.
+     * @return the distance from the entry to every cell
+     */
+    public DistanceField getDistanceField(){
+        int[] way = pathOutOfRoom(cellIndex(start_x, start_y));
+        int entry = way == null ? cellIndex(start_x, start_y) : way[way.length - 1];
+        if(distanceField == null || distanceField.getOrigin() != entry){
+            distanceField = null;
+            if(isLarge()){
+                endField = null;
+            }
+            distanceField = new DistanceField(grid, entry, imageRoomCells());
+        }
+        return distanceField;
+    }
+    /**
+     * Method which finds the shortest solution to the maze using the maze's solver.
      * Method records directions cells move from one another.
-     * Implements: Method is used when entry and exit positions have been updated. Method resets old solution and uses
-     * private method solve to find the new solution.
+     * Implements: Method is used when entry and exit positions have been updated. Method clears only the cells of the
+     * old solution and reads the new solution from the path index, or from distances measured from whichever of the
+     * entry and exit stayed put, so moving one of them doesn't search the whole maze. An entry or exit in an image room
+     * is joined to the rest of the maze through the room's opening, so nudging it along the room doesn't either.
+     * Otherwise private method solve finds the new solution.
      * Pre-condition: Maze entry and exit cells have been updated.
      * Post-condition: New solution to the maze has been found and method records directions cells move from one another.
      */
     public void solver(){
-        // Clear old solution
-        for(int i = 0; i < width; i++){
-            for(int j = 0; j < height; j++){
-                cells[i][j].solution[0] = 0;
-                cells[i][j].solution[1] = 0;
-                cells[i][j].solution[2] = 0;
-                cells[i][j].solution[3] = 0;
+        solver(TaskProgress.NONE);
+    }
+    /**
+     * Implements: Finds the new solution as {@link #solver()} does, reporting the number of cells visited out of every
+     * cell of the maze and stopping if cancelled
+     * Pre-condition: Maze entry and exit cells have been updated.
+     * Post-condition: New solution to the maze has been found, or a {@link java.util.concurrent.CancellationException}
+     * is thrown leaving no solution recorded.
+     * @param progress Where progress is reported and cancellation is checked
+     */
+    public void solver(TaskProgress progress){
+        if(lastSolve == null || !lastSolve.isSolved()){
+            // Nothing is known about which cells hold the old solution
+            grid.clearSolution();
+            setCoordinates();
+            solve(progress);
+            return;
+        }
+        int start = cellIndex(start_x, start_y);
+        int finish = cellIndex(finish_x, finish_y);
+        int[] oldPath = lastSolve.getPath();
+        // Only the old solution and the entry and exit have solution flags set, so they are all that need clearing
+        for(int cell : oldPath){
+            clearSolutionFlags(cell % width, cell / width);
+        }
+        clearSolutionFlags(start_x, start_y);
+        clearSolutionFlags(finish_x, finish_y);
+        mazeSolution.clear();
+        long startTime = System.nanoTime();
+        // The image rooms aren't searched, so an end in one walks out through the room's only opening. A room with
+        // more than one opening is part of the maze's paths and needs a full search.
+        int[] wayIn = pathOutOfRoom(start);
+        int[] wayOut = pathOutOfRoom(finish);
+        if(wayIn == null || wayOut == null || hasOpenImageRoom()){
+            solve(progress);
+            return;
+        }
+        int from = wayIn[wayIn.length - 1];
+        int to = wayOut[wayOut.length - 1];
+        long expanded = 0;
+        int[] middle;
+        PathIndex index = getPathIndex();
+        if(index != null && index.contains(from) && index.contains(to)){
+            progress.start(ProgressListener.Stage.SOLVING, 1);
+            middle = index.path(from, to);
+        }
+        else{
+            // The maze has loops or is too large to index, so measure from the end that stayed put and step back along
+            // the distances from the end that moved. Nudging the same end again then only walks the new path.
+            DistanceField field = fieldFrom(from, to);
+            if(field == null){
+                boolean startMoved = oldPath[0] != start;
+                boolean finishMoved = oldPath[oldPath.length - 1] != finish;
+                if(startMoved == finishMoved){
+                    solve(progress);
+                    return;
+                }
+                progress.start(ProgressListener.Stage.SOLVING, 1);
+                endField = null;
+                if(isLarge()){
+                    distanceField = null; // Only one set of distances is kept on large mazes
+                }
+                endField = new DistanceField(grid, startMoved ? to : from, imageRoomCells());
+                field = endField;
+                expanded = field.getReachedCells();
+            }
+            else{
+                progress.start(ProgressListener.Stage.SOLVING, 1);
+            }
+            if(field.getOrigin() == from){
+                middle = field.pathTo(grid, to);
+            }
+            else{
+                middle = field.pathTo(grid, from);
+                if(middle != null){
+                    reverse(middle);
+                }
+            }
+        }
+        progress.finish();
+        if(middle == null){
+            lastSolve = new SolveResult(null, expanded, System.nanoTime() - startTime);
+            throw new EmptyStackException(); // Callers treat an empty solution as a maze that can't be solved
+        }
+        int[] path = joinPath(wayIn, middle, wayOut);
+        markSolution(path);
+        lastSolve = new SolveResult(path, expanded + path.length, System.nanoTime() - startTime);
+    }
+    /**
+     * Implements: Joins the way out of the entry's room, the path between the rooms and the way out of the exit's room
+     * into the solution.
+     * Pre-condition: The middle path starts with the last cell of the way in and finishes with the last cell of the
+     * way out.
+     * Post-condition: Nothing is changed.
+     * @return the cells from the entry to the exit
+     */
+    private int[] joinPath(int[] wayIn, int[] middle, int[] wayOut){
+        int[] path = Arrays.copyOf(wayIn, wayIn.length + middle.length + wayOut.length - 2);
+        System.arraycopy(middle, 1, path, wayIn.length, middle.length - 1);
+        for(int i = wayOut.length - 2, j = wayIn.length + middle.length - 1; i >= 0; i--, j++){
+            path[j] = wayOut[i];
+        }
+        return path;
+    }
+    /**
+     * Implements: Checks whether a cell is in the room left for the start or finish image.
+     * Pre-condition: None.
+     * Post-condition: Nothing is changed.
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @return true if the cell is in an image room
+     */
+    private boolean isInImageRoom(int x, int y){
+        return start_Ix >= 0 && x >= start_Ix && x <= start_Ix + startWidth && y >= start_Iy && y <= start_Iy + startHeight
+                || finish_Ix >= 0 && x >= finish_Ix && x <= finish_Ix + finishWidth && y >= finish_Iy
+                && y <= finish_Iy + finishHeight;
+    }
+    /**
+     * Implements: Gets the cells of the rooms left for the start and finish images, which the cached distances and path
+     * index don't search.
+     * Pre-condition: None.
+     * Post-condition: Nothing is changed.
+     * @return a bitmap of the image room cells, indexed by y * width + x
+     */
+    private BitSet imageRoomCells(){
+        BitSet rooms = new BitSet();
+        if(start_Ix >= 0){
+            for(int j = start_Iy; j <= start_Iy + startHeight; j++){
+                rooms.set(cellIndex(start_Ix, j), cellIndex(start_Ix + startWidth, j) + 1);
+            }
+        }
+        if(finish_Ix >= 0){
+            for(int j = finish_Iy; j <= finish_Iy + finishHeight; j++){
+                rooms.set(cellIndex(finish_Ix, j), cellIndex(finish_Ix + finishWidth, j) + 1);
+            }
+        }
+        return rooms;
+    }
+    /**
+     * Implements: Checks whether either image room opens onto the rest of the maze in more than one place, so paths
+     * through the maze can go through it.
+     * Pre-condition: None.
+     * Post-condition: Nothing is changed.
+     * @return true if an image room has more than one opening
+     */
+    private boolean hasOpenImageRoom(){
+        return start_Ix >= 0 && countOpenings(start_Ix, start_Iy, start_Ix + startWidth, start_Iy + startHeight) > 1
+                || finish_Ix >= 0 && countOpenings(finish_Ix, finish_Iy, finish_Ix + finishWidth, finish_Iy + finishHeight) > 1;
+    }
+    /**
+     * Implements: Counts the passages from a rectangle of cells to the cells around it.
+     * Pre-condition: The rectangle is inside the maze.
+     * Post-condition: Nothing is changed.
+     * @return the number of passages leaving the rectangle
+     */
+    private int countOpenings(int x1, int y1, int x2, int y2){
+        int openings = 0;
+        for(int x = x1; x <= x2; x++){
+            openings += (isPassage(x, y1, NORTH) ? 1 : 0) + (isPassage(x, y2, SOUTH) ? 1 : 0);
+        }
+        for(int y = y1; y <= y2; y++){
+            openings += (isPassage(x1, y, WEST) ? 1 : 0) + (isPassage(x2, y, EAST) ? 1 : 0);
+        }
+        return openings;
+    }
+    /**
+     * Implements: Checks whether the wall between a cell and its neighbour is down on both sides.
+     * Pre-condition: None.
+     * Post-condition: Nothing is changed.
+     * @return true if there is a neighbour in that direction that can be walked to
+     */
+    private boolean isPassage(int x, int y, Direction position){
+        int neighbour = neighbourOf(x, y, position);
+        return neighbour >= 0 && grid.getWall(x, y, position) == DOWN
+                && grid.getWall(neighbour % width, neighbour / width, Direction.getDirection((position.getIndex() + 2) % 4)) == DOWN;
+    }
+    /**
+     * Implements: Finds the cell next to a cell in a direction.
+     * Pre-condition: None.
+     * Post-condition: Nothing is changed.
+     * @return the index of the neighbour, y * width + x, or -1 if the cell is on that edge of the maze
+     */
+    private int neighbourOf(int x, int y, Direction position){
+        int nx = x + (position == EAST ? 1 : position == WEST ? -1 : 0);
+        int ny = y + (position == SOUTH ? 1 : position == NORTH ? -1 : 0);
+        return cellExists(nx, ny) ? cellIndex(nx, ny) : -1;
+    }
+    /**
+     * Implements: Finds the way from an end of the maze out of the image room it is in, searching only the room, which
+     * is a few cells across.
+     * Pre-condition: None.
+     * Post-condition: Nothing is changed.
+     * @param end The index of the entry or exit cell, y * width + x
+     * @return the cells from the end to the first cell outside its room, just the end if it isn't in an image room, or
+     * null if the room doesn't have exactly one opening
+     */
+    private int[] pathOutOfRoom(int end){
+        int endX = end % width;
+        int endY = end / width;
+        if(!isInImageRoom(endX, endY)){
+            return new int[]{end};
+        }
+        boolean inStartRoom = start_Ix >= 0 && endX >= start_Ix && endX <= start_Ix + startWidth && endY >= start_Iy
+                && endY <= start_Iy + startHeight;
+        int x1 = inStartRoom ? start_Ix : finish_Ix;
+        int y1 = inStartRoom ? start_Iy : finish_Iy;
+        int x2 = x1 + (inStartRoom ? startWidth : finishWidth);
+        int y2 = y1 + (inStartRoom ? startHeight : finishHeight);
+        if(countOpenings(x1, y1, x2, y2) != 1){
+            return null;
+        }
+        Map<Integer, Integer> previous = new HashMap<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        previous.put(end, end);
+        queue.add(end);
+        while(!queue.isEmpty()){
+            int cell = queue.poll();
+            int x = cell % width;
+            int y = cell / width;
+            for(Direction position : Direction.values()){
+                if(!isPassage(x, y, position)){
+                    continue;
+                }
+                int next = neighbourOf(x, y, position);
+                int nx = next % width;
+                int ny = next / width;
+                if(nx < x1 || nx > x2 || ny < y1 || ny > y2){
+                    // Found the opening, step back to the end
+                    ArrayList<Integer> way = new ArrayList<>();
+                    way.add(next);
+                    for(int step = cell; step != end; step = previous.get(step)){
+                        way.add(step);
+                    }
+                    way.add(end);
+                    int[] path = new int[way.size()];
+                    for(int i = 0; i < path.length; i++){
+                        path[i] = way.get(path.length - 1 - i);
+                    }
+                    return path;
+                }
+                if(!previous.containsKey(next)){
+                    previous.put(next, cell);
+                    queue.add(next);
+                }
+            }
+        }
+        return null;
+    }
+    /**
+     * Implements: Checks whether the maze is big enough that the results of searching it are kept one at a time.
+     * Pre-condition: None.
+     * Post-condition: Nothing is changed.
+     * @return true if the maze has more than {@link #SEARCH_CACHE_THRESHOLD} cells
+     */
+    private boolean isLarge(){
+        return (long) width * height > SEARCH_CACHE_THRESHOLD;
+    }
+    /**
+     * Implements: Finds distances already worked out from the entry or the exit for the current walls.
+     * Pre-condition: None.
+     * Post-condition: No new distances are worked out.
+     * @return distances from the start or the finish, or null if neither has any
+     */
+    private DistanceField fieldFrom(int start, int finish){
+        for(DistanceField field : new DistanceField[]{endField, distanceField}){
+            if(field != null && (field.getOrigin() == start || field.getOrigin() == finish)){
+                return field;
             }
         }
-        setCoordinates();
-        solve();
+        return null;
+    }
+    /**
+     * Implements: Reverses the order of the cells of a path.
+     * Pre-condition: None.
+     * Post-condition: The path runs the other way.
+     */
+    private static void reverse(int[] path){
+        for(int i = 0, j = path.length - 1; i < j; i++, j--){
+            int cell = path[i];
+            path[i] = path[j];
+            path[j] = cell;
+        }
+    }
+    /**
+     * Implements: Clears the solution directions of a cell.
+     * Pre-condition: None.
+     * Post-condition: The cell isn't part of any solution.
+     */
+    private void clearSolutionFlags(int x, int y){
+        for(Direction position : Direction.values()){
+            grid.setSolution(x, y, position, false);
+        }
+    }
+    /**
+     * Implements: Gets an index of the paths through the maze, building it the first time it is asked for after the
+     * walls change. While the maze has no loops, moving the entry or exit finds the new solution from the index
+     * without searching the maze.
+     * Pre-condition: Maze has been generated with entry and exit cells set. Walls are changed through the maze rather
+     * than directly through its grid.
+     * Post-condition: The index is cached until the walls are next changed. Mazes with more than
+     * {@link #SEARCH_CACHE_THRESHOLD} cells are never indexed, and are re-solved from their distances or searched.
+     * @return the index of the paths between the cells that can be reached from the entry, or null if the maze has
+     * loops so paths aren't unique or is too large to index
+     */
+    public PathIndex getPathIndex(){
+        if(!pathIndexBuilt){
+            int[] way = pathOutOfRoom(cellIndex(start_x, start_y));
+            pathIndex = isLarge() || way == null ? null : PathIndex.build(grid, way[way.length - 1], imageRoomCells());
+            pathIndexBuilt = true;
+        }
+        return pathIndex;
+    }
+    /**
+     * Implements: Forgets everything worked out from the walls of the maze.
+     * Pre-condition: A wall between two cells has changed.
+     * Post-condition: Distances and paths are worked out again the next time they are needed.
+     */
+    private void wallsChanged(){
+        distanceField = null;
+        endField = null;
+        pathIndex = null;
+        pathIndexBuilt = false;
     }
     /**
      * Implements: Calculates the percentage of cells used in solution.
@@ -1846,13 +2445,34 @@ public class Maze implements Printable {
      * @return the percentage of cells used in solution as an int.
      */
     public int percentUsed(){
-        double totalCells = width * height;
+        double totalCells = width * height - maskedCells.cardinality();
         if(getSolutionNumber() == 0){
             solver();
         }
         double required = getSolutionNumber();
         return (int)Math.abs(required/totalCells * 100);
     }
+    /**
+     * Implements: Turns the maze into a braid maze by knocking down a wall at a percentage of its dead ends, joining
+     * them into loops. Walls of images and cells outside the shape of the maze are left alone.
+     * Pre-condition: The percentage is between 0 and 100.
+     * Post-condition: The chosen dead ends have been removed and the solution has been found again. The maze is no
+     * longer perfect if any were removed, so there may be more than one way through it.
+     * @param percent the percentage of the dead ends to remove.
+     * @return the number of dead ends removed.
+     */
+    public int braid(int percent){
+        BitSet fixedCells = (BitSet) excludedCells.clone(); // The entry and exit can still be joined to other cells
+        fixedCells.clear(cellIndex(start_x, start_y));
+        fixedCells.clear(cellIndex(finish_x, finish_y));
+        int removed = new Braider(grid, fixedCells).braid(percent, random);
+        if(removed > 0){
+            wallsChanged();
+            updateLastEdited();
+            solver();
+        }
+        return removed;
+    }
     /**
      * Implements: Cycles through the two-dimensional array to calculates the number of dead ends in the maze by see which
      * cells have three walls up.
@@ -1864,21 +2484,16 @@ public class Maze implements Printable {
         int deadEnds = 0;
         for (int i = 0; i < width; i++){
             for (int j = 0; j < height; j++){
-                Cell deadEndCell = cells[i][j];
-                if (deadEndCell.getWall(NORTH) == UP && deadEndCell.getWall(EAST) == UP
-                        && deadEndCell.getWall(SOUTH) == UP && deadEndCell.getWall(WEST) == DOWN){
-                    deadEnds++;
+                int up = 0;
+                int down = 0;
+                for (Direction position : Direction.values()){
+                    Wall wall = grid.getWall(i, j, position);
+                    if (wall == UP)
+                        up++;
+                    else if (wall == DOWN)
+                        down++;
                 }
-                else if(deadEndCell.getWall(NORTH) == UP && deadEndCell.getWall(EAST) == UP
-                        && deadEndCell.getWall(SOUTH) == DOWN && deadEndCell.getWall(WEST) == UP){
-                    deadEnds++;
-                }
-                else if(deadEndCell.getWall(NORTH) == UP && deadEndCell.getWall(EAST) == DOWN
-                        && deadEndCell.getWall(SOUTH) == UP && deadEndCell.getWall(WEST) == UP){
-                    deadEnds++;
-                }
-                else if(deadEndCell.getWall(NORTH) == DOWN && deadEndCell.getWall(EAST) == UP
-                        && deadEndCell.getWall(SOUTH) == UP && deadEndCell.getWall(WEST) == UP){
+                if (up == 3 && down == 1){
                     deadEnds++;
                 }
             }
@@ -1949,10 +2564,36 @@ public class Maze implements Printable {
      * Post-condition: All cells coordinates are set.
      */
     private void setCoordinates(){
-        for(int i = 0; i < cells.length; i++){
-            for(int j = 0; j < cells[0].length; j++){
-                cells[i][j].setX(i);
-                cells[i][j].setY(j);
+        for(int i = 0; i < width; i++){
+            for(int j = 0; j < height; j++){
+                Cell cell = grid.getCell(i, j);
+                cell.setX(i);
+                cell.setY(j);
+            }
+        }
+    }
+    /**
+     * Implements: Shades each cell in a range by its distance from the entry, from blue for the nearest to red for the
+     * farthest, leaving cells that can't be reached blank.
+     * Pre-condition: Maze has been generated with entry and exit cells set.
+     * Post-condition: The cells have been filled in, ready for the walls to be drawn over them.
+     */
+    private void drawHeatMap(Graphics2D g2d, int offsetX, int offsetY, int cellSize, int firstColumn, int lastColumn,
+                             int firstRow, int lastRow){
+        DistanceField distances = getDistanceField();
+        Color[] palette = new Color[HEAT_MAP_SHADES];
+        for(int shade = 0; shade < HEAT_MAP_SHADES; shade++){
+            palette[shade] = Color.getHSBColor(2f / 3 * (1 - shade / (HEAT_MAP_SHADES - 1f)), 0.6f, 1f);
+        }
+        int maxDistance = Math.max(1, distances.getMaxDistance());
+        for(int i = firstColumn; i <= lastColumn; i++){
+            for(int j = firstRow; j <= lastRow; j++){
+                int distance = distances.getDistance(i, j);
+                if(distance == DistanceField.UNREACHABLE || maskedCells.get(cellIndex(i, j))){
+                    continue;
+                }
+                g2d.setColor(palette[(int) ((long) distance * (HEAT_MAP_SHADES - 1) / maxDistance)]);
+                g2d.fillRect(i * cellSize + offsetX, j * cellSize + offsetY, cellSize, cellSize);
             }
         }
     }
@@ -1969,6 +2610,25 @@ public class Maze implements Printable {
      * @param solve Whether the solution should be displayed or not, if true a red line will be drawn showing the optimal solution
      */
     public void drawMaze(Graphics2D g2d, Dimension size, Insets insets, int offsetX, int offsetY, int cellSize, Boolean solve){
+        drawMaze(g2d, size, insets, offsetX, offsetY, cellSize, solve, TaskProgress.NONE);
+    }
+    /**
+     * Implements: Draws the maze onto a {@link Graphics2D} object, reporting the number of cells drawn out of the cells
+     * inside the clip after each column and stopping if cancelled
+     * Pre-condition: Maze has been fully constructed with all the required information.
+     * Post-condition: Maze has been drawn ont a {@link Graphics2D} object, or a
+     * {@link java.util.concurrent.CancellationException} is thrown leaving it part drawn.
+     * @param g2d The {@link Graphics2D} to draw the maze onto
+     * @param size The size of the resulting image (excluding offsets and insets)
+     * @param insets The insets of the image
+     * @param offsetX Shifts the entire image in the x direction on the canvas
+     * @param offsetY Shifts the entire image in the y direction on the canvas
+     * @param cellSize The size each cell should be on the image
+     * @param solve Whether the solution should be displayed or not, if true a red line will be drawn showing the optimal solution
+     * @param progress Where progress is reported and cancellation is checked
+     */
+    public void drawMaze(Graphics2D g2d, Dimension size, Insets insets, int offsetX, int offsetY, int cellSize, Boolean solve,
+                         TaskProgress progress){
         g2d.setStroke(new BasicStroke(2));
         g2d.setColor(Color.BLACK);
 
@@ -1978,38 +2638,52 @@ public class Maze implements Printable {
         g2d.setBackground(Color.white);
         g2d.clearRect(0, 0, w, h);
 
-        // Models.Maze shape was originally used as the clip for the walls of the
-        // Need to come back and revisit this idea
-        Path2D mazeShape = new Path2D.Double();
-        Path2D lineSolution = new Path2D.Double();
         Path2D arrowEntry = new Path2D.Double();
         Path2D arrowExit = new Path2D.Double();
 
+        // Only draw the cells inside the clip, images and arrows are drawn from a cell next to them so cells up to the
+        // size of the largest image before the clip are included too
+        int firstColumn = 0;
+        int lastColumn = width - 1;
+        int firstRow = 0;
+        int lastRow = height - 1;
+        Rectangle clip = g2d.getClipBounds();
+        if(clip != null && cellSize > 0){
+            int margin = Math.max(Math.max(logoWidth, logoHeight),
+                    Math.max(Math.max(startWidth, startHeight), Math.max(finishWidth, finishHeight))) + 1;
+            firstColumn = Math.max(0, Math.floorDiv(clip.x - offsetX, cellSize) - margin);
+            lastColumn = Math.min(width - 1, Math.floorDiv(clip.x + clip.width - offsetX, cellSize) + 1);
+            firstRow = Math.max(0, Math.floorDiv(clip.y - offsetY, cellSize) - margin);
+            lastRow = Math.min(height - 1, Math.floorDiv(clip.y + clip.height - offsetY, cellSize) + 1);
+        }
+
+        long rows = Math.max(0, lastRow - firstRow + 1);
+        progress.start(ProgressListener.Stage.RENDERING, rows * Math.max(0, lastColumn - firstColumn + 1));
+        if(showHeatMap){
+            drawHeatMap(g2d, offsetX, offsetY, cellSize, firstColumn, lastColumn, firstRow, lastRow);
+        }
         int x,y;
-        for (int i = 0; i < getWidth(); i++){
+        for (int i = firstColumn; i <= lastColumn; i++){
+            progress.update(rows * (i - firstColumn));
             x = i * cellSize + offsetX;
-            for (int j = 0; j < getHeight(); j++) {
+            for (int j = firstRow; j <= lastRow; j++) {
+                // Cells outside the shape of the maze are left blank
+                if(maskedCells.get(cellIndex(i, j))){
+                    continue;
+                }
                 y = j * cellSize + offsetY;
                 g2d.setColor(Color.BLACK);
                 // Draw walls of cells
                 if (getWall(i, j, NORTH) == UP){
-                    mazeShape.moveTo(x,y);
-                    mazeShape.lineTo(x + cellSize, y);
                     g2d.drawLine(x,y, x + cellSize, y);
                 }
                 if (getWall(i, j, EAST) == UP){
-                    mazeShape.moveTo(x + cellSize,y);
-                    mazeShape.lineTo(x + cellSize, y + cellSize);
                     g2d.drawLine(x + cellSize,y, x + cellSize, y + cellSize);
                 }
                 if (getWall(i, j, SOUTH) == UP){
-                    mazeShape.moveTo(x,y + cellSize);
-                    mazeShape.lineTo(x + cellSize, y + cellSize);
                     g2d.drawLine(x,y + cellSize, x + cellSize, y + cellSize);
                 }
                 if (getWall(i, j, WEST) == UP){
-                    mazeShape.moveTo(x,y);
-                    mazeShape.lineTo(x, y + cellSize);
                     g2d.drawLine(x,y, x, y + cellSize);
                 }
 
@@ -2018,38 +2692,30 @@ public class Maze implements Printable {
                     // Set colour to red
                     g2d.setColor(Color.RED);
                     // Up
-                    if(getCells()[i][j].solution[0] == 1){
+                    if(grid.isSolution(i, j, NORTH)){
                         int start_x = x + cellSize/2;
                         int start_y = y + cellSize/2;
                         int finish_y = start_y - cellSize/2;
-                        lineSolution.moveTo(start_x, start_y);
-                        lineSolution.lineTo(start_x, finish_y);
                         g2d.drawLine(start_x, start_y, start_x, finish_y);
                     }
                     // Down
-                    if(getCells()[i][j].solution[2] == 1){
+                    if(grid.isSolution(i, j, SOUTH)){
                         int start_x = x + cellSize/2;
                         int start_y = y + cellSize/2;
                         int finish_y = start_y + cellSize/2;
-                        lineSolution.moveTo(start_x, start_y);
-                        lineSolution.lineTo(start_x, finish_y);
                         g2d.drawLine(start_x, start_y, start_x, finish_y);}
                     // Right
-                    if(getCells()[i][j].solution[1] == 1){
+                    if(grid.isSolution(i, j, EAST)){
                         int start_x = x + cellSize/2;
                         int start_y = y + cellSize/2;
                         int finish_x = start_x + cellSize/2;
-                        lineSolution.moveTo(start_x, start_y);
-                        lineSolution.lineTo(finish_x, start_y);
                         g2d.drawLine(start_x, start_y, finish_x, start_y);
                     }
                     // Left
-                    if(getCells()[i][j].solution[3] == 1){
+                    if(grid.isSolution(i, j, WEST)){
                         int start_x = x + cellSize/2;
                         int start_y = y + cellSize/2;
                         int finish_x = start_x - cellSize/2;
-                        lineSolution.moveTo(start_x, start_y);
-                        lineSolution.lineTo(finish_x, start_y);
                         g2d.drawLine(start_x, start_y, finish_x, start_y);
                     }
                     // Set colour back to black
@@ -2064,23 +2730,15 @@ public class Maze implements Printable {
                     g2d.drawImage(startScaled,x,y,null);
                     // Draw walls of cells
                     if (getWall(i, j, NORTH) == UP){
-                        mazeShape.moveTo(x,y);
-                        mazeShape.lineTo(x + cellSize, y);
                         g2d.drawLine(x,y, x + cellSize, y);
                     }
                     if (getWall(i, j, EAST) == UP){
-                        mazeShape.moveTo(x + cellSize,y);
-                        mazeShape.lineTo(x + cellSize, y + cellSize);
                         g2d.drawLine(x + cellSize,y, x + cellSize, y + cellSize);
                     }
                     if (getWall(i, j, SOUTH) == UP){
-                        mazeShape.moveTo(x,y + cellSize);
-                        mazeShape.lineTo(x + cellSize, y + cellSize);
                         g2d.drawLine(x,y + cellSize, x + cellSize, y + cellSize);
                     }
                     if (getWall(i, j, WEST) == UP){
-                        mazeShape.moveTo(x,y);
-                        mazeShape.lineTo(x, y + cellSize);
                         g2d.drawLine(x,y, x, y + cellSize);
                     }
                 }
@@ -2093,23 +2751,15 @@ public class Maze implements Printable {
                     g2d.drawImage(finishScaled,x,y,null);
                     // Draw walls of cells
                     if (getWall(i, j, NORTH) == UP){
-                        mazeShape.moveTo(x,y);
-                        mazeShape.lineTo(x + cellSize, y);
                         g2d.drawLine(x,y, x + cellSize, y);
                     }
                     if (getWall(i, j, EAST) == UP){
-                        mazeShape.moveTo(x + cellSize,y);
-                        mazeShape.lineTo(x + cellSize, y + cellSize);
                         g2d.drawLine(x + cellSize,y, x + cellSize, y + cellSize);
                     }
                     if (getWall(i, j, SOUTH) == UP){
-                        mazeShape.moveTo(x,y + cellSize);
-                        mazeShape.lineTo(x + cellSize, y + cellSize);
                         g2d.drawLine(x,y + cellSize, x + cellSize, y + cellSize);
                     }
                     if (getWall(i, j, WEST) == UP){
-                        mazeShape.moveTo(x,y);
-                        mazeShape.lineTo(x, y + cellSize);
                         g2d.drawLine(x,y, x, y + cellSize);
                     }
                 }
@@ -2122,30 +2772,22 @@ public class Maze implements Printable {
                     g2d.drawImage(logoScaled,x,y,null);
                     // Draw walls of cells
                     if (getWall(i, j, NORTH) == UP){
-                        mazeShape.moveTo(x,y);
-                        mazeShape.lineTo(x + cellSize, y);
                         g2d.drawLine(x,y, x + cellSize, y);
                     }
                     if (getWall(i, j, EAST) == UP){
-                        mazeShape.moveTo(x + cellSize,y);
-                        mazeShape.lineTo(x + cellSize, y + cellSize);
                         g2d.drawLine(x + cellSize,y, x + cellSize, y + cellSize);
                     }
                     if (getWall(i, j, SOUTH) == UP){
-                        mazeShape.moveTo(x,y + cellSize);
-                        mazeShape.lineTo(x + cellSize, y + cellSize);
                         g2d.drawLine(x,y + cellSize, x + cellSize, y + cellSize);
                     }
                     if (getWall(i, j, WEST) == UP){
-                        mazeShape.moveTo(x,y);
-                        mazeShape.lineTo(x, y + cellSize);
                         g2d.drawLine(x,y, x, y + cellSize);
                     }
                 }
                 // Draws entry and exit arrows
                 if(showArrows){
                     // Draw entry arrow
-                    if (getCells()[i][j].entry[0] == 1){
+                    if (grid.isEntry(i, j, NORTH)){
                         int arrowX = x + cellSize/4;
                         int arrowMove = cellSize/2;
 
@@ -2162,7 +2804,7 @@ public class Maze implements Printable {
                         g2d.fill(arrowEntry); // fill arrow
                         g2d.setColor(Color.black);
                     }
-                    if (getCells()[i][j].entry[1] == 1){
+                    if (grid.isEntry(i, j, EAST)){
                         int arrowX = x + cellSize;
                         int arrowY = y + cellSize/4;
                         int arrowMove = cellSize/2;
@@ -2181,7 +2823,7 @@ public class Maze implements Printable {
                         g2d.fill(arrowEntry); // fill arrow
                         g2d.setColor(Color.black);
                     }
-                    if (getCells()[i][j].entry[2] == 1){
+                    if (grid.isEntry(i, j, SOUTH)){
                         int arrowX = x + cellSize/4;
                         int arrowY = y + cellSize;
                         int arrowMove = cellSize/2;
@@ -2200,7 +2842,7 @@ public class Maze implements Printable {
                         g2d.fill(arrowEntry); // fill arrow
                         g2d.setColor(Color.black);
                     }
-                    if (getCells()[i][j].entry[3] == 1){
+                    if (grid.isEntry(i, j, WEST)){
                         int arrowX = x;
                         int arrowY = y + cellSize/4;
                         int arrowMove = cellSize/2;
@@ -2220,7 +2862,7 @@ public class Maze implements Printable {
                         g2d.setColor(Color.black);
                     }
                     // Draw exit arrow
-                    if (getCells()[i][j].exit[0] == 1){
+                    if (grid.isExit(i, j, NORTH)){
                         int arrowX = x + cellSize/4;
                         int arrowY = y + cellSize/4;
                         int arrowMove = cellSize/2;
@@ -2238,7 +2880,7 @@ public class Maze implements Printable {
                         g2d.fill(arrowExit); // fill arrow
                         g2d.setColor(Color.black);
                     }
-                    if (getCells()[i][j].exit[1] == 1){
+                    if (grid.isExit(i, j, EAST)){
                         int arrowX = x + cellSize - cellSize/4;
                         int arrowY = y + cellSize/4;
                         int arrowMove = cellSize/2;
@@ -2257,7 +2899,7 @@ public class Maze implements Printable {
                         g2d.fill(arrowExit); // fill arrow
                         g2d.setColor(Color.black);
                     }
-                    if (getCells()[i][j].exit[2] == 1){
+                    if (grid.isExit(i, j, SOUTH)){
                         int arrowX = x + cellSize/4;
                         int arrowY = y + cellSize - cellSize/4;
                         int arrowMove = cellSize/2;
@@ -2276,7 +2918,7 @@ public class Maze implements Printable {
                         g2d.fill(arrowExit); // fill arrow
                         g2d.setColor(Color.black);
                     }
-                    if (getCells()[i][j].exit[3] == 1){
+                    if (grid.isExit(i, j, WEST)){
                         int arrowX = x + cellSize/4;
                         int arrowY = y + cellSize/4;
                         int arrowMove = cellSize/2;
@@ -2298,6 +2940,7 @@ public class Maze implements Printable {
                 }
             }
         }
+        progress.finish();
     }
     /**
      * Sets whether arrows should be shown pointing to the entrance and exit of the maze
@@ -2313,6 +2956,21 @@ public class Maze implements Printable {
     public boolean isShowingArrows() {
         return showArrows;
     }
+    /**
+     * Sets whether each cell is shaded by how far it is from the entrance, from blue for the nearest to red for the
+     * farthest
+     * @param showHeatMap If true the heat map will be drawn under the walls of the maze, otherwise it will not be drawn
+     */
+    public void setShowHeatMap(boolean showHeatMap) {
+        this.showHeatMap = showHeatMap;
+    }
+    /**
+     * Checks whether cells are shaded by how far they are from the entrance
+     * @return true if the heat map will be drawn, false otherwise
+     */
+    public boolean isShowingHeatMap() {
+        return showHeatMap;
+    }
     /**
      * Exports the current Maze as an image to the specified path
      *
@@ -2320,14 +2978,99 @@ public class Maze implements Printable {
      * @param showSolution If true the optimal solution will be added as a red line, otherwise it will be excluded
      */
     public void exportAsImage(String path, boolean showSolution) throws IOException {
+        exportAsImage(path, showSolution, TaskProgress.NONE);
+    }
+    /**
+     * Exports the current Maze as an image to the specified path, reporting progress while it is drawn and stopping if
+     * cancelled, in which case nothing is written
+     *
+     * @param path         The path to save the image to
+     * @param showSolution If true the optimal solution will be added as a red line, otherwise it will be excluded
+     * @param progress     Where progress is reported and cancellation is checked
+     */
+    public void exportAsImage(String path, boolean showSolution, TaskProgress progress) throws IOException {
         int cellSize = calculateCellSize();
-        int imageWidth = cellSize * (width + 2);
-        int imageHeight = cellSize * (height + 2);
-        BufferedImage image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = image.createGraphics();
-        drawMaze(g2d, new Dimension(imageWidth, imageHeight), new Insets(0, 0, 0, 0), cellSize, cellSize, cellSize, showSolution);
+        BufferedImage image;
+        if(cellSize * (Math.max(width, height) + 2) > MAX_IMAGE_SIZE){
+            // Too big to draw every wall, so each pixel shows a block of cells instead
+            image = renderOverview(MAX_IMAGE_SIZE, MAX_IMAGE_SIZE, showSolution, progress);
+        }
+        else{
+            int imageWidth = cellSize * (width + 2);
+            int imageHeight = cellSize * (height + 2);
+            image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = image.createGraphics();
+            drawMaze(g2d, new Dimension(imageWidth, imageHeight), new Insets(0, 0, 0, 0), cellSize, cellSize, cellSize,
+                    showSolution, progress);
+        }
         ImageIO.write(image, "jpg", new File(path));
     }
+    /**
+     * Draws a picture of the whole maze that fits within a size, for mazes too big to draw cell by cell. Each pixel
+     * shows a square block of cells, shaded darker the more of their walls are up and coloured red if the solution
+     * goes through the block. Images and cells outside the shape of a shaped maze are not drawn.
+     * Only one row of pixels is counted at a time, so this needs memory proportional to the width of the picture
+     * rather than the size of the maze.
+     * @param maxWidth The widest the picture can be in pixels
+     * @param maxHeight The tallest the picture can be in pixels
+     * @param solve Whether the blocks the solution goes through are coloured red
+     * @return the picture of the maze
+     */
+    public BufferedImage renderOverview(int maxWidth, int maxHeight, boolean solve) {
+        return renderOverview(maxWidth, maxHeight, solve, TaskProgress.NONE);
+    }
+    /**
+     * Draws a picture of the whole maze as {@link #renderOverview(int, int, boolean)} does, reporting the number of
+     * cells counted after each row of pixels and stopping if cancelled
+     * @param maxWidth The widest the picture can be in pixels
+     * @param maxHeight The tallest the picture can be in pixels
+     * @param solve Whether the blocks the solution goes through are coloured red
+     * @param progress Where progress is reported and cancellation is checked
+     * @return the picture of the maze
+     * @throws java.util.concurrent.CancellationException thrown if the progress's token is cancelled
+     */
+    public BufferedImage renderOverview(int maxWidth, int maxHeight, boolean solve, TaskProgress progress) {
+        progress.start(ProgressListener.Stage.RENDERING, (long) width * height);
+        int cellsPerPixel = Math.max(1, Math.max((width + maxWidth - 1) / maxWidth, (height + maxHeight - 1) / maxHeight));
+        int imageWidth = (width + cellsPerPixel - 1) / cellsPerPixel;
+        int imageHeight = (height + cellsPerPixel - 1) / cellsPerPixel;
+        BufferedImage image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+        int[] wallsUp = new int[imageWidth];
+        int[] wallCount = new int[imageWidth];
+        BitSet onSolution = new BitSet(imageWidth);
+        int[] pixels = new int[imageWidth];
+        for(int py = 0; py < imageHeight; py++){
+            Arrays.fill(wallsUp, 0);
+            Arrays.fill(wallCount, 0);
+            onSolution.clear();
+            for(int j = py * cellsPerPixel; j < Math.min(height, (py + 1) * cellsPerPixel); j++){
+                for(int i = 0; i < width; i++){
+                    if(maskedCells.get(cellIndex(i, j))){
+                        continue;
+                    }
+                    int px = i / cellsPerPixel;
+                    // The east and south walls of every cell cover each wall once, apart from the outside edges
+                    if(grid.getWall(i, j, EAST) == UP)
+                        wallsUp[px]++;
+                    if(grid.getWall(i, j, SOUTH) == UP)
+                        wallsUp[px]++;
+                    wallCount[px] += 2;
+                    if(solve && !onSolution.get(px) && (grid.isSolution(i, j, NORTH) || grid.isSolution(i, j, EAST)
+                            || grid.isSolution(i, j, SOUTH) || grid.isSolution(i, j, WEST)))
+                        onSolution.set(px);
+                }
+            }
+            for(int px = 0; px < imageWidth; px++){
+                // Blocks entirely outside the shape of the maze are left white
+                int shade = wallCount[px] == 0 ? 255 : 255 - 255 * wallsUp[px] / wallCount[px];
+                pixels[px] = onSolution.get(px) ? 0xFF0000 : shade << 16 | shade << 8 | shade;
+            }
+            image.getRaster().setDataElements(0, py, imageWidth, 1, pixels);
+            progress.update((long) Math.min(height, (py + 1) * cellsPerPixel) * width);
+        }
+        progress.finish();
+        return image;
+    }
     /**
      * Calculates the size of the cells in pixels based off of the width and height of the maze in cells
      * @return the size of the cells in pixels based off of the width and height of the maze in cells
@@ -2345,7 +3088,7 @@ public class Maze implements Printable {
         else if(maxSize <= 75)
             return 21;
         else
-            return 16;
+            return Math.max(1, Math.min(16, MAX_IMAGE_SIZE / (maxSize + 2)));
     }
     /**
      * Changes the logo of the maze to the specified image file
@@ -2362,8 +3105,13 @@ public class Maze implements Printable {
             throw new IOException("Could not get an image from the file " + logoPath);
         }
         logo = image;
-        if(!logoExists)
+        if(!logoExists){
+            wallsChanged();
+            logoInput = logoScale;
+            if(mazeSolution.isEmpty())
+                solve(); // The logo has to be kept off the solution
             logoImageInsert();
+        }
     }
     /**
      * Gets the current logo as a {@link BufferedImage} or null if there is currently no logo
@@ -0,0 +1,157 @@
+package Models;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Generates large batches of mazes at the same time on a fixed size pool of threads, passing each finished maze to a
+ * consumer on the calling thread. Finished mazes wait in a bounded queue until the consumer takes them and workers stop
+ * once it is full, so a slow consumer never has more than threads + maxPending mazes held on the heap.
+ */
+public class MazeBatchGenerator {
+    private final int threads;
+    private final int maxPending;
+
+    /**
+     * Creates a batch generator with a thread for every processor
+     */
+    public MazeBatchGenerator() {
+        this(Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a batch generator
+     * @param threads The number of mazes generated at the same time
+     * @param maxPending The number of finished mazes that can wait for the consumer before generation pauses
+     */
+    public MazeBatchGenerator(int threads, int maxPending) {
+        if(threads < 1 || maxPending < 1){
+            throw new IllegalArgumentException("Threads and max pending must be at least 1");
+        }
+        this.threads = threads;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Generates a maze for every spec, mazes are passed to the consumer in the order they finish rather than the order
+     * of the specs. If a maze can't be generated or the consumer throws, the rest of the batch is cancelled and the
+     * exception is rethrown.
+     * @param specs Descriptions of the mazes to generate
+     * @param consumer Receives every maze, always on the calling thread
+     * @return the throughput and memory use of the batch
+     * @throws InterruptedException thrown if the calling thread is interrupted while waiting for a maze
+     */
+    public Statistics generate(List<MazeSpec> specs, Consumer<Maze> consumer) throws InterruptedException {
+        return generate(specs, consumer, null);
+    }
+
+    /**
+     * Generates a maze for every spec as {@link #generate(List, Consumer)} does, stopping the mazes being generated and
+     * throwing a {@link java.util.concurrent.CancellationException} soon after the token is cancelled
+     * @param specs Descriptions of the mazes to generate
+     * @param consumer Receives every maze, always on the calling thread
+     * @param token The token that cancels the batch, or null if it can't be cancelled
+     * @return the throughput and memory use of the batch
+     * @throws InterruptedException thrown if the calling thread is interrupted while waiting for a maze
+     */
+    public Statistics generate(List<MazeSpec> specs, Consumer<Maze> consumer, CancellationToken token)
+            throws InterruptedException {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid()).toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long startTime = System.nanoTime();
+
+        // Holds either a finished maze or what stopped it being generated
+        BlockingQueue<Object> finished = new ArrayBlockingQueue<>(maxPending);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        // Cancelled when the batch ends early, so mazes still being generated stop rather than run to the end
+        CancellationToken batchToken = new CancellationToken(token);
+        try {
+            for(MazeSpec spec : specs){
+                executor.execute(() -> {
+                    Object result;
+                    try {
+                        result = spec.build(new TaskProgress(null, batchToken));
+                    } catch (RuntimeException | Error e) {
+                        result = e;
+                    }
+                    try {
+                        finished.put(result);
+                    } catch (InterruptedException e) {
+                        // The batch has been cancelled
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            for(int i = 0; i < specs.size(); i++){
+                Object result = finished.take();
+                if(result instanceof RuntimeException e){
+                    throw e;
+                }
+                if(result instanceof Error e){
+                    throw e;
+                }
+                consumer.accept((Maze) result);
+            }
+        } finally {
+            batchToken.cancel();
+            executor.shutdownNow();
+        }
+
+        long peakHeap = 0;
+        for(MemoryPoolMXBean pool : heapPools){
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        return new Statistics(specs.size(), System.nanoTime() - startTime, peakHeap);
+    }
+
+    /**
+     * The throughput and memory use of a batch. The peak heap use covers the whole JVM, so it includes anything else
+     * running at the same time as the batch.
+     */
+    public static class Statistics {
+        private final int mazes;
+        private final long elapsedNanos;
+        private final long peakHeapBytes;
+
+        Statistics(int mazes, long elapsedNanos, long peakHeapBytes) {
+            this.mazes = mazes;
+            this.elapsedNanos = elapsedNanos;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+
+        public int getMazes() {
+            return mazes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getMazesPerSecond() {
+            return elapsedNanos == 0 ? 0 : mazes * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Gets the most heap memory that was in use while the batch ran, found by adding up the peak use of every heap
+         * memory pool
+         * @return the peak heap use in bytes
+         */
+        public long getPeakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d mazes in %.2f s (%.1f mazes/s), peak heap %d MB", mazes, elapsedNanos / 1e9,
+                    getMazesPerSecond(), peakHeapBytes / (1024 * 1024));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package Models;
+
+/**
+ * Stores the layout of a maze, that is the walls of every cell along with which of those walls the solution, entry
+ * and exit pass through.
+ * Each cell stores its own copy of the four walls around it (North, East, South, West) so changing a wall of one cell
+ * does not change the matching wall of its neighbour, that is left to {@link Maze#setCell(int, int, Cell)}
+ */
+public interface MazeGrid {
+    /**
+     * Gets the width of the grid in cells
+     * @return the width of the grid in cells
+     */
+    int getWidth();
+    /**
+     * Gets the height of the grid in cells
+     * @return the height of the grid in cells
+     */
+    int getHeight();
+    /**
+     * Gets the type of wall at a specified position of a cell
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param position The position of the wall around the cell
+     * @return The type of the wall at position of cell x, y
+     */
+    Wall getWall(int x, int y, Direction position);
+    /**
+     * Sets the type of wall at a specified position of a cell, leaving the neighbouring cell unchanged
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param position The position of the wall around the cell
+     * @param wallType The type to set the wall to
+     */
+    void setWall(int x, int y, Direction position, Wall wallType);
+    /**
+     * Knocks down a wall of a cell along with the matching wall of the neighbouring cell
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param position The position of the wall around the cell, there must be a neighbouring cell on this side
+     */
+    default void carve(int x, int y, Direction position) {
+        setWall(x, y, position, Wall.DOWN);
+        switch (position) {
+            case NORTH -> setWall(x, y - 1, Direction.SOUTH, Wall.DOWN);
+            case EAST -> setWall(x + 1, y, Direction.WEST, Wall.DOWN);
+            case SOUTH -> setWall(x, y + 1, Direction.NORTH, Wall.DOWN);
+            case WEST -> setWall(x - 1, y, Direction.EAST, Wall.DOWN);
+        }
+    }
+    /**
+     * Puts up a wall of a cell along with the matching wall of the neighbouring cell
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param position The position of the wall around the cell, there must be a neighbouring cell on this side
+     */
+    default void seal(int x, int y, Direction position) {
+        setWall(x, y, position, Wall.UP);
+        switch (position) {
+            case NORTH -> setWall(x, y - 1, Direction.SOUTH, Wall.UP);
+            case EAST -> setWall(x + 1, y, Direction.WEST, Wall.UP);
+            case SOUTH -> setWall(x, y + 1, Direction.NORTH, Wall.UP);
+            case WEST -> setWall(x - 1, y, Direction.EAST, Wall.UP);
+        }
+    }
+    /**
+     * Knocks down the walls leading east and north from cells of a row, along with the matching walls of the
+     * neighbouring cells, for generators that decide a whole row at a time
+     * @param y The vertical position of the row starting from 0
+     * @param east Bitmap of the columns to carve east from, column x is bit x % 64 of word x / 64. The last column must
+     *             not be set
+     * @param north Bitmap of the columns to carve north from, laid out the same way. Must be empty for the top row
+     */
+    default void carveRow(int y, long[] east, long[] north) {
+        for (int word = 0; word < east.length; word++) {
+            for (long bits = east[word]; bits != 0; bits &= bits - 1) {
+                carve(word * 64 + Long.numberOfTrailingZeros(bits), y, Direction.EAST);
+            }
+            for (long bits = north[word]; bits != 0; bits &= bits - 1) {
+                carve(word * 64 + Long.numberOfTrailingZeros(bits), y, Direction.NORTH);
+            }
+        }
+    }
+    /**
+     * Opens a rectangle of cells into a single room, knocking down every wall between two of its cells and putting up
+     * every wall around its edge along with the matching walls of the neighbouring cells
+     * @param x1 The horizontal position of the left column of the rectangle
+     * @param y1 The vertical position of the top row of the rectangle
+     * @param x2 The horizontal position of the right column of the rectangle
+     * @param y2 The vertical position of the bottom row of the rectangle
+     */
+    default void carveRegion(int x1, int y1, int x2, int y2) {
+        for (int y = y1; y <= y2; y++) {
+            for (int x = x1; x <= x2; x++) {
+                setWall(x, y, Direction.NORTH, y > y1 ? Wall.DOWN : Wall.UP);
+                setWall(x, y, Direction.EAST, x < x2 ? Wall.DOWN : Wall.UP);
+                setWall(x, y, Direction.SOUTH, y < y2 ? Wall.DOWN : Wall.UP);
+                setWall(x, y, Direction.WEST, x > x1 ? Wall.DOWN : Wall.UP);
+            }
+        }
+        sealRegionEdge(x1, y1, x2, y2);
+    }
+    /**
+     * Puts up every wall of every cell in a rectangle along with the matching walls of the neighbouring cells
+     * @param x1 The horizontal position of the left column of the rectangle
+     * @param y1 The vertical position of the top row of the rectangle
+     * @param x2 The horizontal position of the right column of the rectangle
+     * @param y2 The vertical position of the bottom row of the rectangle
+     */
+    default void sealRegion(int x1, int y1, int x2, int y2) {
+        for (int y = y1; y <= y2; y++) {
+            for (int x = x1; x <= x2; x++) {
+                for (Direction position : Direction.values()) {
+                    setWall(x, y, position, Wall.UP);
+                }
+            }
+        }
+        sealRegionEdge(x1, y1, x2, y2);
+    }
+    /**
+     * Puts up the walls of the cells just outside a rectangle that face into it
+     */
+    private void sealRegionEdge(int x1, int y1, int x2, int y2) {
+        for (int x = x1; x <= x2; x++) {
+            if (y1 > 0)
+                setWall(x, y1 - 1, Direction.SOUTH, Wall.UP);
+            if (y2 < getHeight() - 1)
+                setWall(x, y2 + 1, Direction.NORTH, Wall.UP);
+        }
+        for (int y = y1; y <= y2; y++) {
+            if (x1 > 0)
+                setWall(x1 - 1, y, Direction.EAST, Wall.UP);
+            if (x2 < getWidth() - 1)
+                setWall(x2 + 1, y, Direction.WEST, Wall.UP);
+        }
+    }
+    /**
+     * Checks whether the solution passes through a specified wall of a cell
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param position The position of the wall around the cell
+     * @return true if the solution goes through the wall, false otherwise
+     */
+    boolean isSolution(int x, int y, Direction position);
+    /**
+     * Sets whether the solution passes through a specified wall of a cell
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param position The position of the wall around the cell
+     * @param value true if the solution goes through the wall, false otherwise
+     */
+    void setSolution(int x, int y, Direction position, boolean value);
+    /**
+     * Checks whether a specified wall of a cell is the entry to the maze
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param position The position of the wall around the cell
+     * @return true if the wall is the entry to the maze, false otherwise
+     */
+    boolean isEntry(int x, int y, Direction position);
+    /**
+     * Sets whether a specified wall of a cell is the entry to the maze
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param position The position of the wall around the cell
+     * @param value true if the wall is the entry to the maze, false otherwise
+     */
+    void setEntry(int x, int y, Direction position, boolean value);
+    /**
+     * Checks whether a specified wall of a cell is the exit of the maze
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param position The position of the wall around the cell
+     * @return true if the wall is the exit of the maze, false otherwise
+     */
+    boolean isExit(int x, int y, Direction position);
+    /**
+     * Sets whether a specified wall of a cell is the exit of the maze
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param position The position of the wall around the cell
+     * @param value true if the wall is the exit of the maze, false otherwise
+     */
+    void setExit(int x, int y, Direction position, boolean value);
+    /**
+     * Checks whether a cell is the top left corner of the finishing image
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @return true if the cell is the top left corner of the finishing image, false otherwise
+     */
+    boolean isFinishImage(int x, int y);
+    /**
+     * Sets whether a cell is the top left corner of the finishing image
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param value true if the cell is the top left corner of the finishing image, false otherwise
+     */
+    void setFinishImage(int x, int y, boolean value);
+    /**
+     * Removes the solution from every cell of the grid
+     */
+    void clearSolution();
+    /**
+     * Gets a specific cell of the grid
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @return The cell at the specified position
+     */
+    Cell getCell(int x, int y);
+    /**
+     * Replaces a specific cell of the grid with the walls and flags of another cell, leaving neighbouring cells unchanged
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param cell The cell to replace the old one with
+     */
+    void setCell(int x, int y, Cell cell);
+    /**
+     * Gets every cell of the grid
+     * @return A 2D array containing the cells of the grid where the first index of the array is x position
+     * and the second is y position
+     */
+    Cell[][] getCells();
+}
@@ -0,0 +1,199 @@
+package Models;
+
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
+
+/**
+ * The shape of a maze, marking which cells of its grid are part of the maze and which are left out. The cells left out
+ * are kept as a bitmap indexed by y * width + x, so any cell can be looked up in constant time and a mask of a
+ * 10,000x10,000 maze takes around 12 MB.
+ * A mask is usually made from a silhouette image with {@link #fromImage(BufferedImage, int, int)}, every dark cell of
+ * the image becoming part of the maze.
+ */
+public class MazeMask {
+    /**
+     * Pixels darker than this are part of the shape when no other threshold is given
+     */
+    public static final int DEFAULT_THRESHOLD = 128;
+
+    private final int width;
+    private final int height;
+    private final BitSet outside; // Cells left out of the maze, indexed by y * width + x
+
+    /**
+     * Creates a mask where every cell is part of the maze
+     * @param width the width of the maze in cells
+     * @param height the height of the maze in cells
+     */
+    public MazeMask(int width, int height) {
+        if(width < 1 || height < 1){
+            throw new IllegalArgumentException("Invalid mask size " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        outside = new BitSet(width * height);
+    }
+
+    /**
+     * Creates a copy of a mask that can be changed without changing the original
+     * @param other the mask to copy
+     */
+    public MazeMask(MazeMask other) {
+        width = other.width;
+        height = other.height;
+        outside = (BitSet) other.outside.clone();
+    }
+
+    /**
+     * Creates a mask from an image using {@link #DEFAULT_THRESHOLD}
+     * @param image The silhouette of the shape, dark opaque pixels are part of the maze
+     * @param width the width of the maze in cells
+     * @param height the height of the maze in cells
+     * @return the mask of the shape
+     */
+    public static MazeMask fromImage(BufferedImage image, int width, int height) {
+        return fromImage(image, width, height, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a mask from an image by stretching it over the grid and looking at the pixel in the middle of each cell.
+     * A cell is part of the maze if that pixel is mostly opaque and its brightness is below the threshold.
+     * @param image The silhouette of the shape, dark opaque pixels are part of the maze
+     * @param width the width of the maze in cells
+     * @param height the height of the maze in cells
+     * @param threshold The brightness from 0 to 256 below which a pixel is part of the shape
+     * @return the mask of the shape
+     */
+    public static MazeMask fromImage(BufferedImage image, int width, int height, int threshold) {
+        MazeMask mask = new MazeMask(width, height);
+        int[] columns = new int[width];
+        for(int x = 0; x < width; x++){
+            columns[x] = (int) ((2L * x + 1) * image.getWidth() / (2L * width));
+        }
+        for(int y = 0; y < height; y++){
+            int row = (int) ((2L * y + 1) * image.getHeight() / (2L * height));
+            for(int x = 0; x < width; x++){
+                int argb = image.getRGB(columns[x], row);
+                int brightness = (299 * (argb >> 16 & 0xFF) + 587 * (argb >> 8 & 0xFF) + 114 * (argb & 0xFF)) / 1000;
+                if((argb >>> 24) < 128 || brightness >= threshold){
+                    mask.outside.set(y * width + x);
+                }
+            }
+        }
+        return mask;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Checks whether a cell is part of the maze
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @return true if the cell is part of the maze, false if it is left out
+     */
+    public boolean isInside(int x, int y) {
+        return !outside.get(y * width + x);
+    }
+
+    /**
+     * Sets whether a cell is part of the maze
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param inside true if the cell is part of the maze, false to leave it out
+     */
+    public void setInside(int x, int y, boolean inside) {
+        outside.set(y * width + x, !inside);
+    }
+
+    /**
+     * Counts the cells that are part of the maze
+     * @return the number of cells that are part of the maze
+     */
+    public int countInside() {
+        return width * height - outside.cardinality();
+    }
+
+    /**
+     * Gets the cells left out of the maze
+     * @return a copy of the bitmap of the cells left out, indexed by y * width + x
+     */
+    public BitSet getOutsideCells() {
+        return (BitSet) outside.clone();
+    }
+
+    /**
+     * Leaves out every cell that can't be reached from the largest connected part of the shape, so that every cell of
+     * the maze can be reached from every other
+     */
+    public void keepLargestRegion() {
+        int totalCells = width * height;
+        BitSet reached = (BitSet) outside.clone();  // Cells left out or already put in a region
+        BitSet largest = new BitSet(totalCells);    // The largest region found so far
+        BitSet current = new BitSet(totalCells);    // The region being filled
+        int largestSize = 0;
+        int[] neighbours = new int[4];
+        // Circular queue that grows when full, the edge of a search across a grid is far smaller than the grid
+        int[] queue = new int[1024];
+        for(int root = reached.nextClearBit(0); root < totalCells; root = reached.nextClearBit(root + 1)){
+            current.clear();
+            reached.set(root);
+            current.set(root);
+            queue[0] = root;
+            int head = 0;
+            int size = 1;
+            int regionSize = 0;
+            while(size > 0){
+                int index = queue[head];
+                head = (head + 1) & (queue.length - 1);
+                size--;
+                regionSize++;
+                int x = index % width;
+                int count = 0;
+                if(index >= width){
+                    neighbours[count++] = index - width;
+                }
+                if(x < width - 1){
+                    neighbours[count++] = index + 1;
+                }
+                if(index < totalCells - width){
+                    neighbours[count++] = index + width;
+                }
+                if(x > 0){
+                    neighbours[count++] = index - 1;
+                }
+                for(int i = 0; i < count; i++){
+                    int next = neighbours[i];
+                    if(reached.get(next)){
+                        continue;
+                    }
+                    reached.set(next);
+                    current.set(next);
+                    if(size == queue.length){
+                        int[] larger = new int[queue.length * 2];
+                        for(int j = 0; j < size; j++){
+                            larger[j] = queue[(head + j) & (queue.length - 1)];
+                        }
+                        queue = larger;
+                        head = 0;
+                    }
+                    queue[(head + size) & (queue.length - 1)] = next;
+                    size++;
+                }
+            }
+            if(regionSize > largestSize){
+                largestSize = regionSize;
+                BitSet swap = largest;
+                largest = current;
+                current = swap;
+            }
+        }
+        outside.set(0, totalCells);
+        outside.andNot(largest);
+    }
+}
@@ -0,0 +1,320 @@
+package Models;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps mazes generated ahead of time for popular combinations of size and start, finish and logo options, so a maze
+ * asked for with one of those combinations can be handed over straight away rather than generated while the user waits.
+ * The layout of a maze only depends on its size and options, the name, author, arrows and images are applied once it is
+ * taken. Mazes are generated on low priority daemon threads, which top up a combination whenever one of its mazes is
+ * taken. The pool holds at most a fixed number of mazes per combination and stops generating once the estimated size of
+ * the mazes it holds would go over its memory budget.
+ */
+public class MazePool {
+    /**
+     * The number of mazes kept ready for each combination when no other cap is given
+     */
+    public static final int DEFAULT_PER_KEY_CAP = 2;
+    /**
+     * The estimated heap the pool may fill when no other budget is given
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+    /**
+     * Rough heap use of a maze cell kept as a {@link Cell} object with its arrays of walls and images
+     */
+    static final long CELL_OBJECT_BYTES = 200;
+    /**
+     * Rough heap use of a maze cell kept in a {@link PackedGrid}, its walls plus a share of the bitmaps of the maze
+     */
+    static final long PACKED_CELL_BYTES = 8;
+
+    private static MazePool defaultPool;
+
+    private final int perKeyCap;
+    private final long memoryBudget;
+    private final ExecutorService refillers;
+    private final Map<Key, ArrayDeque<Maze>> ready = new HashMap<>();    // Guarded by this
+    private final Set<Key> refilling = new HashSet<>();                 // Guarded by this
+    private final Set<Key> starved = new HashSet<>();   // Turned away by the budget, guarded by this
+    private long reservedBytes;                                         // Guarded by this
+    private final CancellationToken token = new CancellationToken();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Creates a pool that keeps nothing ready until combinations are added with
+     * {@link #keepReady(int, int, String, String, String)}
+     * @param threads The number of mazes generated at the same time
+     * @param perKeyCap The most mazes kept ready for a single combination
+     * @param memoryBudget The most heap in bytes the mazes kept ready are estimated to take up
+     */
+    public MazePool(int threads, int perKeyCap, long memoryBudget) {
+        if(threads < 1 || perKeyCap < 1 || memoryBudget < 0){
+            throw new IllegalArgumentException("Threads and per key cap must be at least 1 and the budget positive");
+        }
+        this.perKeyCap = perKeyCap;
+        this.memoryBudget = memoryBudget;
+        refillers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "Maze pool refill");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the pool shared by the app, which keeps mazes ready in a few common sizes with the options the create form
+     * starts with. The pool starts filling the first time it is asked for.
+     * @return the shared pool
+     */
+    public static synchronized MazePool getDefault() {
+        if(defaultPool == null){
+            defaultPool = new MazePool(1, DEFAULT_PER_KEY_CAP, DEFAULT_MEMORY_BUDGET);
+            for(int size : new int[]{10, 20, 25, 50}){
+                defaultPool.keepReady(size, size, "Exclude", "Exclude", "Exclude");
+            }
+        }
+        return defaultPool;
+    }
+
+    /**
+     * Estimates the heap taken up by a maze, a rough guide for the memory budget rather than an exact measure
+     * @param width the width of the maze in cells
+     * @param height the height of the maze in cells
+     * @return the estimated size of the maze in bytes
+     */
+    static long estimateBytes(int width, int height) {
+        long cells = (long) width * height;
+        return cells * (cells > Maze.PACKED_GRID_THRESHOLD ? PACKED_CELL_BYTES : CELL_OBJECT_BYTES);
+    }
+
+    /**
+     * Adds a combination to keep mazes ready for and starts generating them in the background
+     * @param width the width of the maze in cells.
+     * @param height the height of the maze in cells.
+     * @param startInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param finishInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param logoInput describes the logo point as None if there is no logo to be inserted, or the size that needs to be left for the logo
+     */
+    public void keepReady(int width, int height, String startInput, String finishInput, String logoInput) {
+        Key key = new Key(width, height, startInput, finishInput, logoInput);
+        synchronized(this){
+            ready.putIfAbsent(key, new ArrayDeque<>());
+        }
+        refill(key);
+    }
+
+    /**
+     * Takes a maze that was generated ahead of time, named and dated as though it had just been created. The
+     * combination is topped up in the background, even when no maze was ready, so one that failed is tried again.
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param width the width of the maze in cells.
+     * @param height the height of the maze in cells.
+     * @param startInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param finishInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param logoInput describes the logo point as None if there is no logo to be inserted, or the size that needs to be left for the logo
+     * @return a ready maze, or null if there are none ready for the combination and it has to be generated instead
+     */
+    public Maze take(String name, String author, int width, int height, String startInput, String finishInput,
+                     String logoInput) {
+        Key key = new Key(width, height, startInput, finishInput, logoInput);
+        Maze maze;
+        ArrayDeque<Maze> mazes;
+        synchronized(this){
+            mazes = ready.get(key);
+            maze = mazes == null ? null : mazes.poll();
+            if(maze != null){
+                reservedBytes -= estimateBytes(width, height);
+            }
+        }
+        if(maze == null){
+            misses.incrementAndGet();
+            if(mazes != null){
+                refill(key);
+            }
+            return null;
+        }
+        hits.incrementAndGet();
+        refill(key);
+        maze.claim(name, author);
+        return maze;
+    }
+
+    /**
+     * Starts generating mazes for a combination unless it is already being refilled
+     */
+    private void refill(Key key) {
+        synchronized(this){
+            if(token.isCancelled() || !refilling.add(key)){
+                return;
+            }
+        }
+        refillers.execute(() -> {
+            long bytes = estimateBytes(key.width, key.height);
+            while(reserve(key, bytes)){
+                Maze maze;
+                try {
+                    maze = generate(key.width, key.height, key.startInput, key.finishInput, key.logoInput);
+                } catch(RuntimeException ex) {
+                    Key[] waiting;
+                    synchronized(this){
+                        reservedBytes -= bytes;
+                        refilling.remove(key);
+                        waiting = starved.toArray(new Key[0]);
+                        starved.clear();
+                    }
+                    // The room given back may be what another combination was waiting for
+                    for(Key other : waiting){
+                        refill(other);
+                    }
+                    if(!(ex instanceof CancellationException)){
+                        failures.incrementAndGet(); // Tried again the next time the combination is asked for
+                    }
+                    return;
+                }
+                synchronized(this){
+                    if(token.isCancelled()){
+                        reservedBytes -= bytes;
+                        refilling.remove(key);
+                        return;
+                    }
+                    ready.get(key).add(maze);
+                }
+            }
+        });
+    }
+
+    /**
+     * Generates a maze for a combination, named and dated once it is taken
+     * @param width the width of the maze in cells.
+     * @param height the height of the maze in cells.
+     * @param startInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param finishInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param logoInput describes the logo point as None if there is no logo to be inserted, or the size that needs to be left for the logo
+     * @return the generated maze
+     */
+    Maze generate(int width, int height, String startInput, String finishInput, String logoInput) {
+        return new Maze("", "", width, height, startInput, finishInput, logoInput, false, null, null, null,
+                Maze.defaultGenerator(width, height), new SplittableRandom().nextLong(), null,
+                new TaskProgress(null, token));
+    }
+
+    /**
+     * Sets aside room in the budget for another maze of a combination if it is below its cap and the budget allows,
+     * otherwise ends its refill in the same step so a refill started once room is given back isn't missed
+     */
+    private synchronized boolean reserve(Key key, long bytes) {
+        if(token.isCancelled() || ready.get(key).size() + 1 > perKeyCap){
+            refilling.remove(key);
+            return false;
+        }
+        if(reservedBytes + bytes > memoryBudget){
+            refilling.remove(key);
+            starved.add(key);
+            return false;
+        }
+        reservedBytes += bytes;
+        return true;
+    }
+
+    /**
+     * Gets the number of mazes currently ready for a combination
+     * @return the number of mazes that can be taken for the combination without generating one
+     */
+    public synchronized int getReady(int width, int height, String startInput, String finishInput, String logoInput) {
+        ArrayDeque<Maze> mazes = ready.get(new Key(width, height, startInput, finishInput, logoInput));
+        return mazes == null ? 0 : mazes.size();
+    }
+
+    /**
+     * Gets the estimated heap taken up by the mazes that are ready or being generated
+     * @return the estimated size in bytes
+     */
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    /**
+     * Gets the number of times a ready maze was taken
+     * @return the number of takes that were handed a maze
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of times no maze was ready to take
+     * @return the number of takes that returned null
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of mazes that couldn't be generated, a combination whose maze fails is tried again the next time
+     * it is taken from
+     * @return the number of mazes that failed to generate
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Stops generating mazes and lets go of the mazes that are ready, mazes being generated are given up soon after
+     */
+    public void shutdown() {
+        token.cancel();
+        refillers.shutdown();
+        synchronized(this){
+            for(Map.Entry<Key, ArrayDeque<Maze>> entry : ready.entrySet()){
+                reservedBytes -= entry.getValue().size() * estimateBytes(entry.getKey().width, entry.getKey().height);
+                entry.getValue().clear();
+            }
+        }
+    }
+
+    /**
+     * The size and options that decide the layout of a maze
+     */
+    private static final class Key {
+        private final int width;
+        private final int height;
+        private final String startInput;
+        private final String finishInput;
+        private final String logoInput;
+
+        Key(int width, int height, String startInput, String finishInput, String logoInput) {
+            this.width = width;
+            this.height = height;
+            this.startInput = startInput;
+            this.finishInput = finishInput;
+            this.logoInput = logoInput;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if(!(other instanceof Key key)){
+                return false;
+            }
+            return width == key.width && height == key.height && startInput.equals(key.startInput)
+                    && finishInput.equals(key.finishInput) && logoInput.equals(key.logoInput);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(width, height, startInput, finishInput, logoInput);
+        }
+    }
+}
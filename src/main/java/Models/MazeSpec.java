@@ -0,0 +1,107 @@
+package Models;
+
+import Models.Generators.MazeGenerator;
+import Models.Generators.WilsonGenerator;
+
+/**
+ * Describes a maze to be generated by a {@link MazeBatchGenerator}, holding the same options as the {@link Maze}
+ * constructor
+ */
+public class MazeSpec {
+    private final String name;
+    private final String author;
+    private final int width;
+    private final int height;
+    private final String startInput;
+    private final String finishInput;
+    private final String logoInput;
+    private final boolean showArrows;
+    private final String startImagePath;
+    private final String finishImagePath;
+    private final String logoPath;
+    private final MazeGenerator generator;
+    private final long seed;
+
+    /**
+     * Describes a maze without any images that is generated with Wilson's algorithm
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param width the width of the maze in cells.
+     * @param height the height of the maze in cells.
+     * @param seed The seed used for every random decision made while creating the maze
+     */
+    public MazeSpec(String name, String author, int width, int height, long seed) {
+        this(name, author, width, height, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), seed);
+    }
+
+    /**
+     * Describes a maze
+     * @param name the title of the maze.
+     * @param author the name of the author who created the maze.
+     * @param width the width of the maze in cells.
+     * @param height the height of the maze in cells.
+     * @param startInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param finishInput describes the starting point as default, a grouped bunch of cells or arrow
+     * @param logoInput describes the logo point as None if there is no logo to be inserted, or the size that needs to be left for the logo
+     * @param showArrows If true arrows will be drawn pointing to the entrance and exit of the maze, otherwise they will not be drawn
+     * @param startImagePath A full path to an image file that will be used as the start of the maze or null if no start image is wanted
+     * @param finishImagePath A full path to an image file that will be used as the end of the maze or null if no end image is wanted
+     * @param logoPath A full path to an image file that will be displayed as the logo or null if no logo is wanted
+     * @param generator The algorithm used to carve the layout of the maze, this may be shared between mazes generated
+     *                  at the same time so must not keep any state between calls
+     * @param seed The seed used for every random decision made while creating the maze
+     */
+    public MazeSpec(String name, String author, int width, int height, String startInput, String finishInput,
+                    String logoInput, boolean showArrows, String startImagePath, String finishImagePath,
+                    String logoPath, MazeGenerator generator, long seed) {
+        this.name = name;
+        this.author = author;
+        this.width = width;
+        this.height = height;
+        this.startInput = startInput;
+        this.finishInput = finishInput;
+        this.logoInput = logoInput;
+        this.showArrows = showArrows;
+        this.startImagePath = startImagePath;
+        this.finishImagePath = finishImagePath;
+        this.logoPath = logoPath;
+        this.generator = generator;
+        this.seed = seed;
+    }
+
+    /**
+     * Generates the described maze
+     * @return a new maze built from this description
+     */
+    public Maze build() {
+        return build(TaskProgress.NONE);
+    }
+
+    /**
+     * Generates the described maze, reporting progress and stopping if cancelled
+     * @param progress Where progress is reported and cancellation is checked
+     * @return a new maze built from this description
+     * @throws java.util.concurrent.CancellationException thrown if the progress's token is cancelled
+     */
+    public Maze build(TaskProgress progress) {
+        return new Maze(name, author, width, height, startInput, finishInput, logoInput, showArrows, startImagePath,
+                finishImagePath, logoPath, generator, seed, null, progress);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
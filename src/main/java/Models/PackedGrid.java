@@ -0,0 +1,333 @@
+package Models;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A {@link MazeGrid} that packs the walls and flags of each cell into the bits of a single int.
+ * This uses 4 bytes per cell compared to the hundreds of bytes a {@link Cell} object with its arrays takes up, which
+ * makes it the better choice for large mazes.
+ * The int for a cell is laid out as follows (bit 0 being the least significant):
+ * <ul>
+ *     <li>bits 0-7: the four walls, two bits each ordered North, East, South, West holding {@link Wall#getValue()}</li>
+ *     <li>bits 8-11: whether the solution goes through each wall (North, East, South, West)</li>
+ *     <li>bits 12-15: whether each wall is the entry to the maze</li>
+ *     <li>bits 16-19: whether each wall is the exit of the maze</li>
+ *     <li>bit 20: whether the cell is the top left corner of the finishing image</li>
+ * </ul>
+ * Cells returned by {@link #getCell(int, int)} are lightweight views, reading and changing them reads and changes the grid.
+ */
+public class PackedGrid implements MazeGrid {
+    static final Wall[] WALLS = {Wall.DOWN, Wall.UP, Wall.START, Wall.END};
+    static final int ALL_WALLS_UP = 0b01010101;
+    static final int SOLUTION_SHIFT = 8;
+    static final int ENTRY_SHIFT = 12;
+    static final int EXIT_SHIFT = 16;
+    static final int FINISH_IMAGE_BIT = 1 << 20;
+    static final int SOLUTION_MASK = 0xF << SOLUTION_SHIFT;
+
+    private final int width;
+    private final int height;
+    /**
+     * The packed state of every cell stored row by row, the cell at x, y is at index y * width + x
+     */
+    private final int[] data;
+
+    /**
+     * Creates a grid where every cell has all of its walls up
+     * @param width the width of the grid in cells
+     * @param height the height of the grid in cells
+     */
+    public PackedGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        data = new int[Math.multiplyExact(width, height)];
+        Arrays.fill(data, ALL_WALLS_UP);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public Wall getWall(int x, int y, Direction position) {
+        return WALLS[(data[index(x, y)] >>> (position.getIndex() * 2)) & 0b11];
+    }
+
+    @Override
+    public void setWall(int x, int y, Direction position, Wall wallType) {
+        int i = index(x, y);
+        int shift = position.getIndex() * 2;
+        data[i] = (data[i] & ~(0b11 << shift)) | (wallType.getValue() << shift);
+    }
+
+    /**
+     * Knocks down the walls of a row without branching on each cell, as the bits are random and a branch would be
+     * mispredicted half of the time. Walls that are down are stored as 0, so each wall is cleared by a mask that is
+     * all ones where the bit isn't set. Cells of the row above are only written where a word of the north bitmap has a
+     * bit set, so a row with no passages north can be carved while another thread works on the row above.
+     */
+    @Override
+    public void carveRow(int y, long[] east, long[] north) {
+        int row = index(0, y);
+        for (int x = 0; x < width - 1; x++) {
+            int carve = (int) (east[x >>> 6] >>> x) & 1;
+            data[row + x] &= ~(carve * (0b11 << 2));
+            data[row + x + 1] &= ~(carve * (0b11 << 6));
+        }
+        for (int word = 0; word < north.length; word++) {
+            if (north[word] == 0) {
+                continue;
+            }
+            for (int x = word * 64; x < Math.min(width, word * 64 + 64); x++) {
+                int carve = (int) (north[word] >>> x) & 1;
+                data[row + x] &= ~(carve * 0b11);
+                data[row + x - width] &= ~(carve * (0b11 << 4));
+            }
+        }
+    }
+
+    /**
+     * Opens a rectangle of cells into a single room, writing the walls of each cell in one go
+     */
+    @Override
+    public void carveRegion(int x1, int y1, int x2, int y2) {
+        for (int y = y1; y <= y2; y++) {
+            for (int x = x1; x <= x2; x++) {
+                int walls = (y > y1 ? 0 : 1) | (x < x2 ? 0 : 1 << 2) | (y < y2 ? 0 : 1 << 4) | (x > x1 ? 0 : 1 << 6);
+                int i = index(x, y);
+                data[i] = (data[i] & ~0xFF) | walls;
+            }
+        }
+        sealEdge(x1, y1, x2, y2);
+    }
+
+    /**
+     * Puts up every wall of every cell in a rectangle, writing the walls of each cell in one go
+     */
+    @Override
+    public void sealRegion(int x1, int y1, int x2, int y2) {
+        for (int y = y1; y <= y2; y++) {
+            int start = index(x1, y);
+            for (int i = start; i <= start + x2 - x1; i++) {
+                data[i] = (data[i] & ~0xFF) | ALL_WALLS_UP;
+            }
+        }
+        sealEdge(x1, y1, x2, y2);
+    }
+
+    @Override
+    public boolean isSolution(int x, int y, Direction position) {
+        return getFlag(x, y, SOLUTION_SHIFT + position.getIndex());
+    }
+
+    @Override
+    public void setSolution(int x, int y, Direction position, boolean value) {
+        setFlag(x, y, SOLUTION_SHIFT + position.getIndex(), value);
+    }
+
+    @Override
+    public boolean isEntry(int x, int y, Direction position) {
+        return getFlag(x, y, ENTRY_SHIFT + position.getIndex());
+    }
+
+    @Override
+    public void setEntry(int x, int y, Direction position, boolean value) {
+        setFlag(x, y, ENTRY_SHIFT + position.getIndex(), value);
+    }
+
+    @Override
+    public boolean isExit(int x, int y, Direction position) {
+        return getFlag(x, y, EXIT_SHIFT + position.getIndex());
+    }
+
+    @Override
+    public void setExit(int x, int y, Direction position, boolean value) {
+        setFlag(x, y, EXIT_SHIFT + position.getIndex(), value);
+    }
+
+    @Override
+    public boolean isFinishImage(int x, int y) {
+        return (data[index(x, y)] & FINISH_IMAGE_BIT) != 0;
+    }
+
+    @Override
+    public void setFinishImage(int x, int y, boolean value) {
+        int i = index(x, y);
+        data[i] = value ? data[i] | FINISH_IMAGE_BIT : data[i] & ~FINISH_IMAGE_BIT;
+    }
+
+    @Override
+    public void clearSolution() {
+        for (int i = 0; i < data.length; i++) {
+            data[i] &= ~SOLUTION_MASK;
+        }
+    }
+
+    @Override
+    public Cell getCell(int x, int y) {
+        if(x < 0 || x >= width || y < 0 || y >= height)
+            throw new ArrayIndexOutOfBoundsException("Cell " + x + ", " + y + " is outside the grid");
+        return new GridCell(this, x, y);
+    }
+
+    @Override
+    public void setCell(int x, int y, Cell cell) {
+        data[index(x, y)] = pack(cell);
+    }
+
+    /**
+     * Packs the walls and flags of a cell into an int laid out as described above
+     */
+    static int pack(Cell cell) {
+        int packed = 0;
+        for (int k = 0; k < 4; k++) {
+            Direction position = Direction.getDirection(k);
+            packed |= cell.getWall(position).getValue() << (k * 2);
+            if (cell.isSolution(position))
+                packed |= 1 << (SOLUTION_SHIFT + k);
+            if (cell.isEntry(position))
+                packed |= 1 << (ENTRY_SHIFT + k);
+            if (cell.isExit(position))
+                packed |= 1 << (EXIT_SHIFT + k);
+        }
+        if (cell.isFinishImage())
+            packed |= FINISH_IMAGE_BIT;
+        return packed;
+    }
+
+    /**
+     * Writes the width and height of a grid followed by the packed state of every cell row by row, all as big-endian
+     * ints. Any {@link MazeGrid} can be written and the result is read back by {@link #read(InputStream)}.
+     * @param grid The grid to write
+     * @param out The stream to write to, this is not closed
+     * @throws IOException thrown if the stream could not be written to
+     */
+    public static void write(MazeGrid grid, OutputStream out) throws IOException {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        ByteBuffer row = ByteBuffer.allocate(Math.max(8, width * 4));
+        row.putInt(width).putInt(height);
+        out.write(row.array(), 0, 8);
+        int[] packed = grid instanceof PackedGrid packedGrid ? packedGrid.data : null;
+        MappedGrid mapped = grid instanceof MappedGrid mappedGrid ? mappedGrid : null;
+        for (int y = 0; y < height; y++) {
+            row.clear();
+            for (int x = 0; x < width; x++) {
+                if (packed != null)
+                    row.putInt(packed[y * width + x]);
+                else if (mapped != null)
+                    row.putInt(mapped.getPacked(y * width + x));
+                else
+                    row.putInt(pack(grid, x, y));
+            }
+            out.write(row.array(), 0, width * 4);
+        }
+    }
+
+    /**
+     * Reads a grid written by {@link #write(MazeGrid, OutputStream)}
+     * @param in The stream to read from, this is not closed
+     * @return the grid that was read
+     * @throws IOException thrown if the stream could not be read or ended early
+     */
+    public static PackedGrid read(InputStream in) throws IOException {
+        DataInputStream dataIn = new DataInputStream(in);
+        int width = dataIn.readInt();
+        int height = dataIn.readInt();
+        if (width < 1 || height < 1)
+            throw new IOException("Invalid grid size " + width + "x" + height);
+        PackedGrid grid = new PackedGrid(width, height);
+        byte[] row = new byte[width * 4];
+        for (int y = 0; y < height; y++) {
+            dataIn.readFully(row);
+            ByteBuffer.wrap(row).asIntBuffer().get(grid.data, y * width, width);
+        }
+        return grid;
+    }
+
+    /**
+     * Packs the walls and flags of a cell of any grid into an int laid out as described above
+     */
+    static int pack(MazeGrid grid, int x, int y) {
+        int packed = 0;
+        for (int k = 0; k < 4; k++) {
+            Direction position = Direction.getDirection(k);
+            packed |= grid.getWall(x, y, position).getValue() << (k * 2);
+            if (grid.isSolution(x, y, position))
+                packed |= 1 << (SOLUTION_SHIFT + k);
+            if (grid.isEntry(x, y, position))
+                packed |= 1 << (ENTRY_SHIFT + k);
+            if (grid.isExit(x, y, position))
+                packed |= 1 << (EXIT_SHIFT + k);
+        }
+        if (grid.isFinishImage(x, y))
+            packed |= FINISH_IMAGE_BIT;
+        return packed;
+    }
+
+    /**
+     * Gets every cell of the grid as views, this creates a view object for every cell so should be avoided on large grids
+     * @return A 2D array containing views of the cells of the grid where the first index of the array is x position
+     * and the second is y position
+     */
+    @Override
+    public Cell[][] getCells() {
+        Cell[][] cells = new Cell[width][height];
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                cells[i][j] = new GridCell(this, i, j);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Gets the position of a cell in the data array
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @return the position of the cell in the data array
+     */
+    private int index(int x, int y) {
+        if(x < 0 || x >= width || y < 0 || y >= height)
+            throw new ArrayIndexOutOfBoundsException("Cell " + x + ", " + y + " is outside the grid");
+        return y * width + x;
+    }
+
+    /**
+     * Puts up the walls of the cells just outside a rectangle that face into it
+     */
+    private void sealEdge(int x1, int y1, int x2, int y2) {
+        for (int x = x1; x <= x2; x++) {
+            if (y1 > 0)
+                setWall(x, y1 - 1, Direction.SOUTH, Wall.UP);
+            if (y2 < height - 1)
+                setWall(x, y2 + 1, Direction.NORTH, Wall.UP);
+        }
+        for (int y = y1; y <= y2; y++) {
+            if (x1 > 0)
+                setWall(x1 - 1, y, Direction.EAST, Wall.UP);
+            if (x2 < width - 1)
+                setWall(x2 + 1, y, Direction.WEST, Wall.UP);
+        }
+    }
+
+    private boolean getFlag(int x, int y, int bit) {
+        return (data[index(x, y)] & (1 << bit)) != 0;
+    }
+
+    private void setFlag(int x, int y, int bit, boolean value) {
+        int i = index(x, y);
+        data[i] = value ? data[i] | (1 << bit) : data[i] & ~(1 << bit);
+    }
+}
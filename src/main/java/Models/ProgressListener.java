@@ -0,0 +1,24 @@
+package Models;
+
+/**
+ * Receives reports of how far a long running task on a maze has got, such as generating, solving or rendering it.
+ * Reports are made on the thread doing the work, so a listener that updates a user interface must hand the update over
+ * to the interface's own thread.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    /**
+     * The part of the work being reported on
+     */
+    enum Stage {
+        GENERATING, SOLVING, RENDERING
+    }
+
+    /**
+     * Called when a task starts each stage of its work and again every time it gets noticeably further through it
+     * @param stage The part of the work being done
+     * @param done The number of cells dealt with so far
+     * @param total The number of cells the stage deals with in total
+     */
+    void progressed(Stage stage, long done, long total);
+}
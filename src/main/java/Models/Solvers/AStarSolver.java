@@ -0,0 +1,212 @@
+package Models.Solvers;
+
+import Models.MazeGrid;
+import Models.ProgressListener.Stage;
+import Models.TaskProgress;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static Models.Generators.WilsonGenerator.neighbourIndex;
+import static Models.Solvers.BreadthFirstSolver.isOpen;
+import static Models.Solvers.BreadthFirstSolver.tracePath;
+
+/**
+ * Finds the shortest path with an A* search, which looks first at the cells whose distance from the start plus the
+ * estimated distance left to the finish is smallest. Cells that lead away from the finish are put off and often never
+ * looked at, so on braided mazes and open areas far fewer cells are expanded than by a {@link BreadthFirstSolver}.
+ * The open set is a binary heap of cell indices kept in int arrays, with ties broken towards the cell furthest from the
+ * start so the search keeps heading on rather than widening. A cell can be in the heap more than once when a shorter
+ * way to it is found, the older entries are skipped when they come out.
+ * The heuristic must never overestimate the distance left and must not drop by more than one between neighbouring
+ * cells, which both built in heuristics satisfy, otherwise the path found may not be the shortest.
+ */
+public class AStarSolver implements MazeSolver {
+    /**
+     * An estimate of the number of steps from a cell to the finish
+     */
+    @FunctionalInterface
+    public interface Heuristic {
+        /**
+         * The Manhattan distance to the finish, the exact distance if there were no walls
+         */
+        Heuristic MANHATTAN = (x, y, finishX, finishY, width, height) -> Math.abs(x - finishX) + Math.abs(y - finishY);
+        /**
+         * The distance to the edge of the grid the finish is on, or the Manhattan distance if the finish isn't on an
+         * edge. It only draws the search across the grid towards the exit edge, never along it, so it is a weaker
+         * estimate than {@link #MANHATTAN} that still suits mazes entered on one side and left on the other.
+         */
+        Heuristic EXIT_EDGE = (x, y, finishX, finishY, width, height) -> {
+            if(finishX == width - 1){
+                return width - 1 - x;
+            }
+            if(finishX == 0){
+                return x;
+            }
+            if(finishY == height - 1){
+                return height - 1 - y;
+            }
+            if(finishY == 0){
+                return y;
+            }
+            return Math.abs(x - finishX) + Math.abs(y - finishY);
+        };
+
+        /**
+         * Estimates the number of steps from a cell to the finish
+         * @param x The horizontal position of the cell starting from 0
+         * @param y The vertical position of the cell starting from 0
+         * @param finishX The horizontal position of the finish
+         * @param finishY The vertical position of the finish
+         * @param width The width of the grid in cells
+         * @param height The height of the grid in cells
+         * @return the estimated number of steps, no more than the real number
+         */
+        int estimate(int x, int y, int finishX, int finishY, int width, int height);
+    }
+
+    private final Heuristic heuristic;
+
+    /**
+     * Creates a solver using the Manhattan distance to the finish
+     */
+    public AStarSolver() {
+        this(Heuristic.MANHATTAN);
+    }
+
+    /**
+     * Creates a solver
+     * @param heuristic The estimate of the distance left from each cell to the finish
+     */
+    public AStarSolver(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    public SolveResult solve(MazeGrid grid, int start, int finish) {
+        return solve(grid, start, finish, TaskProgress.NONE);
+    }
+
+    @Override
+    public SolveResult solve(MazeGrid grid, int start, int finish, TaskProgress progress) {
+        long startTime = System.nanoTime();
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int totalCells = width * height;
+        int finishX = finish % width;
+        int finishY = finish / width;
+        progress.start(Stage.SOLVING, totalCells);
+        int[] previous = new int[totalCells];   // The cell each cell was reached from
+        int[] distance = new int[totalCells];   // The shortest distance from the start found so far to each cell
+        BitSet reached = new BitSet(totalCells);
+        BitSet expandedCells = new BitSet(totalCells);
+        Heap open = new Heap();
+        reached.set(start);
+        open.push(start, heuristic.estimate(start % width, start / width, finishX, finishY, width, height), 0);
+        long expanded = 0;
+        while(open.size > 0){
+            int current = open.cells[0];
+            int steps = open.steps[0];
+            open.pop();
+            if(expandedCells.get(current)){
+                continue; // A shorter way to the cell was already expanded
+            }
+            expandedCells.set(current);
+            progress.update(++expanded);
+            if(current == finish){
+                break;
+            }
+            int x = current % width;
+            int y = current / width;
+            for(int direction = 0; direction < 4; direction++){
+                if(!isOpen(grid, x, y, direction)){
+                    continue;
+                }
+                int next = neighbourIndex(current, direction, width);
+                if(expandedCells.get(next) || reached.get(next) && distance[next] <= steps + 1){
+                    continue;
+                }
+                reached.set(next);
+                distance[next] = steps + 1;
+                previous[next] = current;
+                open.push(next, steps + 1 + heuristic.estimate(next % width, next / width, finishX, finishY, width,
+                        height), steps + 1);
+            }
+        }
+        progress.finish();
+        int[] path = expandedCells.get(finish) ? tracePath(previous, start, finish) : null;
+        return new SolveResult(path, expanded, System.nanoTime() - startTime);
+    }
+
+    /**
+     * A binary min heap of cells ordered by their estimated total distance, kept in parallel int arrays that grow as
+     * needed
+     */
+    private static class Heap {
+        private int[] cells = new int[1024];
+        private int[] scores = new int[1024];   // Distance from the start plus the estimate to the finish
+        private int[] steps = new int[1024];    // Distance from the start
+        private int size;
+
+        /**
+         * Checks whether the entry at one position should come out before the entry at another
+         */
+        private boolean before(int a, int b) {
+            return scores[a] < scores[b] || scores[a] == scores[b] && steps[a] > steps[b];
+        }
+
+        private void swap(int a, int b) {
+            int cell = cells[a];
+            int score = scores[a];
+            int step = steps[a];
+            cells[a] = cells[b];
+            scores[a] = scores[b];
+            steps[a] = steps[b];
+            cells[b] = cell;
+            scores[b] = score;
+            steps[b] = step;
+        }
+
+        void push(int cell, int score, int step) {
+            if(size == cells.length){
+                int capacity = cells.length * 2;
+                cells = Arrays.copyOf(cells, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                steps = Arrays.copyOf(steps, capacity);
+            }
+            int position = size++;
+            cells[position] = cell;
+            scores[position] = score;
+            steps[position] = step;
+            while(position > 0 && before(position, (position - 1) >>> 1)){
+                swap(position, (position - 1) >>> 1);
+                position = (position - 1) >>> 1;
+            }
+        }
+
+        /**
+         * Removes the entry at the top of the heap
+         */
+        void pop() {
+            size--;
+            cells[0] = cells[size];
+            scores[0] = scores[size];
+            steps[0] = steps[size];
+            int position = 0;
+            while(true){
+                int child = 2 * position + 1;
+                if(child >= size){
+                    break;
+                }
+                if(child + 1 < size && before(child + 1, child)){
+                    child++;
+                }
+                if(!before(child, position)){
+                    break;
+                }
+                swap(position, child);
+                position = child;
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package Models.Solvers;
+
+import Models.MazeGrid;
+import Models.ProgressListener.Stage;
+import Models.TaskProgress;
+
+import java.util.BitSet;
+
+import static Models.Generators.WilsonGenerator.neighbourIndex;
+import static Models.Solvers.BreadthFirstSolver.isOpen;
+
+/**
+ * Finds the shortest path with two breadth first searches, one from the start and one from the finish, which stop
+ * where they meet. Each round a whole level of whichever search has the smaller frontier is expanded, so the two grow
+ * at about the same rate and together look at around half as many cells as a single search when the start and finish
+ * are far apart.
+ * A cell is only ever reached by one of the searches before they meet, so a single int array holds the cell each cell
+ * was reached from for both, pointing back towards the start or the finish. The queues of both searches share one int
+ * array, the search from the start filling it from the front and the search from the finish from the back.
+ */
+public class BidirectionalSolver implements MazeSolver {
+    @Override
+    public SolveResult solve(MazeGrid grid, int start, int finish) {
+        return solve(grid, start, finish, TaskProgress.NONE);
+    }
+
+    @Override
+    public SolveResult solve(MazeGrid grid, int start, int finish, TaskProgress progress) {
+        long startTime = System.nanoTime();
+        int width = grid.getWidth();
+        int totalCells = width * grid.getHeight();
+        progress.start(Stage.SOLVING, totalCells);
+        if(start == finish){
+            progress.finish();
+            return new SolveResult(new int[]{start}, 0, System.nanoTime() - startTime);
+        }
+        int[] previous = new int[totalCells];   // The cell each cell was reached from, towards the side that reached it
+        int[] queue = new int[totalCells];
+        BitSet fromStart = new BitSet(totalCells);
+        BitSet fromFinish = new BitSet(totalCells);
+        // The search from the start queues cells at startHead..startTail, the search from the finish at
+        // finishTail..finishHead going backwards from the end of the array
+        int startHead = 0;
+        int startTail = 0;
+        int finishHead = totalCells - 1;
+        int finishTail = totalCells - 1;
+        queue[startTail++] = start;
+        fromStart.set(start);
+        queue[finishTail--] = finish;
+        fromFinish.set(finish);
+        long expanded = 0;
+        int meetStart = -1;     // The last cell of the path reached from the start
+        int meetFinish = -1;    // The first cell of the path reached from the finish
+        while(meetStart < 0 && startHead < startTail && finishHead > finishTail){
+            boolean forwards = startTail - startHead <= finishHead - finishTail;
+            int levelEnd = forwards ? startTail : finishTail;
+            BitSet own = forwards ? fromStart : fromFinish;
+            BitSet other = forwards ? fromFinish : fromStart;
+            while(meetStart < 0 && (forwards ? startHead < levelEnd : finishHead > levelEnd)){
+                int current = forwards ? queue[startHead++] : queue[finishHead--];
+                progress.update(++expanded);
+                int x = current % width;
+                int y = current / width;
+                for(int direction = 0; direction < 4; direction++){
+                    if(!isOpen(grid, x, y, direction)){
+                        continue;
+                    }
+                    int next = neighbourIndex(current, direction, width);
+                    if(other.get(next)){
+                        // Every cell the other search has reached so far is on its latest level, or the searches
+                        // would have met sooner, so the first meeting gives a shortest path
+                        meetStart = forwards ? current : next;
+                        meetFinish = forwards ? next : current;
+                        break;
+                    }
+                    if(!own.get(next)){
+                        own.set(next);
+                        previous[next] = current;
+                        if(forwards){
+                            queue[startTail++] = next;
+                        }
+                        else{
+                            queue[finishTail--] = next;
+                        }
+                    }
+                }
+            }
+        }
+        progress.finish();
+        if(meetStart < 0){
+            return new SolveResult(null, expanded, System.nanoTime() - startTime);
+        }
+        int startLength = 1;
+        for(int current = meetStart; current != start; current = previous[current]){
+            startLength++;
+        }
+        int finishLength = 1;
+        for(int current = meetFinish; current != finish; current = previous[current]){
+            finishLength++;
+        }
+        int[] path = new int[startLength + finishLength];
+        int current = meetStart;
+        for(int i = startLength - 1; i >= 0; i--){
+            path[i] = current;
+            current = previous[current];
+        }
+        current = meetFinish;
+        for(int i = startLength; i < path.length; i++){
+            path[i] = current;
+            current = previous[current];
+        }
+        return new SolveResult(path, expanded, System.nanoTime() - startTime);
+    }
+}
@@ -0,0 +1,98 @@
+package Models.Solvers;
+
+import Models.Direction;
+import Models.MazeGrid;
+import Models.ProgressListener.Stage;
+import Models.TaskProgress;
+
+import java.util.BitSet;
+
+import static Models.Generators.WilsonGenerator.neighbourIndex;
+import static Models.Wall.DOWN;
+
+/**
+ * Finds the shortest path with a breadth first search, which looks at cells in order of their distance from the start.
+ * The cell each cell was reached from and the queue of cells to look at are kept in int arrays, so nothing is allocated
+ * per cell and the search takes time in proportion to the cells it visits.
+ */
+public class BreadthFirstSolver implements MazeSolver {
+    @Override
+    public SolveResult solve(MazeGrid grid, int start, int finish) {
+        return solve(grid, start, finish, TaskProgress.NONE);
+    }
+
+    @Override
+    public SolveResult solve(MazeGrid grid, int start, int finish, TaskProgress progress) {
+        long startTime = System.nanoTime();
+        int width = grid.getWidth();
+        int totalCells = width * grid.getHeight();
+        progress.start(Stage.SOLVING, totalCells);
+        int[] previous = new int[totalCells];   // The cell each cell was reached from
+        int[] queue = new int[totalCells];
+        BitSet reached = new BitSet(totalCells);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        reached.set(start);
+        while(head < tail && !reached.get(finish)){
+            int current = queue[head++];
+            progress.update(head);
+            int x = current % width;
+            int y = current / width;
+            for(int direction = 0; direction < 4; direction++){
+                if(isOpen(grid, x, y, direction)){
+                    int next = neighbourIndex(current, direction, width);
+                    if(!reached.get(next)){
+                        reached.set(next);
+                        previous[next] = current;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        progress.finish();
+        int[] path = reached.get(finish) ? tracePath(previous, start, finish) : null;
+        return new SolveResult(path, head, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Checks whether a cell is joined to the cell next to it, the walls on both sides must be down
+     * @param grid The grid holding the maze
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @param direction The index of the direction of the neighbour (North, East, South, West)
+     * @return true if the neighbour is inside the grid and the cells are joined
+     */
+    static boolean isOpen(MazeGrid grid, int x, int y, int direction) {
+        return switch (direction) {
+            case 0 -> y > 0 && grid.getWall(x, y, Direction.NORTH) == DOWN
+                    && grid.getWall(x, y - 1, Direction.SOUTH) == DOWN;
+            case 1 -> x < grid.getWidth() - 1 && grid.getWall(x, y, Direction.EAST) == DOWN
+                    && grid.getWall(x + 1, y, Direction.WEST) == DOWN;
+            case 2 -> y < grid.getHeight() - 1 && grid.getWall(x, y, Direction.SOUTH) == DOWN
+                    && grid.getWall(x, y + 1, Direction.NORTH) == DOWN;
+            default -> x > 0 && grid.getWall(x, y, Direction.WEST) == DOWN
+                    && grid.getWall(x - 1, y, Direction.EAST) == DOWN;
+        };
+    }
+
+    /**
+     * Lays out the path to a cell by walking back through the cells each was reached from
+     * @param previous The cell each cell was reached from
+     * @param start The index of the cell the search started from
+     * @param finish The index of the cell the path leads to
+     * @return the indices of the cells from the start to the finish
+     */
+    static int[] tracePath(int[] previous, int start, int finish) {
+        int length = 1;
+        for(int current = finish; current != start; current = previous[current]){
+            length++;
+        }
+        int[] path = new int[length];
+        path[length - 1] = finish;
+        for(int i = length - 1; i > 0; i--){
+            path[i - 1] = previous[path[i]];
+        }
+        return path;
+    }
+}
@@ -0,0 +1,149 @@
+package Models.Solvers;
+
+import Models.MazeGrid;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static Models.Generators.WilsonGenerator.neighbourIndex;
+import static Models.Solvers.BreadthFirstSolver.isOpen;
+
+/**
+ * The number of steps from one cell of a maze to every other cell, found with a single breadth first search. Once
+ * found, the distance to any cell is a lookup in an int array, so anything that needs to know how far cells are from
+ * the entrance, such as scoring difficulty, highlighting or choosing an exit, can share one search.
+ * The field is a snapshot of the walls when it was made and must be made again after they change. It keeps one int per
+ * cell, 4 MB per million cells, and needs a queue of the same size while it is being found.
+ */
+public class DistanceField {
+    /**
+     * The distance of a cell that can't be reached from the origin
+     */
+    public static final int UNREACHABLE = -1;
+
+    private final int width;
+    private final int origin;
+    private final int[] distances;  // Steps from the origin to each cell, indexed by y * width + x
+    private final int maxDistance;
+    private final int farthestCell;
+    private final int reachedCells;
+
+    /**
+     * Finds the distance from a cell to every other cell of a grid
+     * @param grid The grid holding the maze
+     * @param origin The index of the cell distances are measured from, y * width + x
+     */
+    public DistanceField(MazeGrid grid, int origin) {
+        this(grid, origin, new BitSet());
+    }
+
+    /**
+     * Finds the distance from a cell to every other cell of a grid without stepping into some of its cells, which are
+     * left unreachable so a change to their walls doesn't change the field
+     * @param grid The grid holding the maze
+     * @param origin The index of the cell distances are measured from, y * width + x
+     * @param skipped The cells that aren't measured, indexed by y * width + x, this is not changed
+     */
+    public DistanceField(MazeGrid grid, int origin, BitSet skipped) {
+        width = grid.getWidth();
+        this.origin = origin;
+        int totalCells = width * grid.getHeight();
+        distances = new int[totalCells];
+        Arrays.fill(distances, UNREACHABLE);
+        int[] queue = new int[totalCells];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = origin;
+        distances[origin] = 0;
+        while(head < tail){
+            int current = queue[head++];
+            int x = current % width;
+            int y = current / width;
+            for(int direction = 0; direction < 4; direction++){
+                if(isOpen(grid, x, y, direction)){
+                    int next = neighbourIndex(current, direction, width);
+                    if(distances[next] == UNREACHABLE && !skipped.get(next)){
+                        distances[next] = distances[current] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        // Cells come off the queue in order of distance so the last one is the farthest
+        farthestCell = queue[tail - 1];
+        maxDistance = distances[farthestCell];
+        reachedCells = tail;
+    }
+
+    /**
+     * Gets the cell distances are measured from
+     * @return the index of the origin, y * width + x
+     */
+    public int getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Gets the number of steps from the origin to a cell
+     * @param x The horizontal position of the cell starting from 0
+     * @param y The vertical position of the cell starting from 0
+     * @return the number of steps, or {@link #UNREACHABLE} if the cell can't be reached from the origin
+     */
+    public int getDistance(int x, int y) {
+        return distances[y * width + x];
+    }
+
+    /**
+     * Gets the distance to the cell farthest from the origin
+     * @return the largest number of steps to any cell that can be reached
+     */
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Gets a cell as far from the origin as any other, which makes for the longest solution if used as the exit
+     * @return the index of the cell, y * width + x
+     */
+    public int getFarthestCell() {
+        return farthestCell;
+    }
+
+    /**
+     * Gets the number of cells that can be reached from the origin, all of which were looked at to make the field
+     * @return the number of cells reached, including the origin
+     */
+    public int getReachedCells() {
+        return reachedCells;
+    }
+
+    /**
+     * Gets a shortest path from the origin to a cell by stepping back from the cell to a neighbour one step nearer the
+     * origin until the origin is reached, which takes time in proportion to the length of the path
+     * @param grid The grid the field was made from, with the same walls
+     * @param cell The index of the cell the path finishes at, y * width + x
+     * @return the indices of the cells from the origin to the cell, or null if the cell can't be reached
+     */
+    public int[] pathTo(MazeGrid grid, int cell) {
+        if(distances[cell] == UNREACHABLE){
+            return null;
+        }
+        int[] path = new int[distances[cell] + 1];
+        for(int i = path.length - 1; i > 0; i--){
+            path[i] = cell;
+            int x = cell % width;
+            int y = cell / width;
+            for(int direction = 0; direction < 4; direction++){
+                if(isOpen(grid, x, y, direction)){
+                    int next = neighbourIndex(cell, direction, width);
+                    if(distances[next] == i - 1){
+                        cell = next;
+                        break;
+                    }
+                }
+            }
+        }
+        path[0] = origin;
+        return path;
+    }
+}
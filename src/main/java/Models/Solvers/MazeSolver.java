@@ -0,0 +1,31 @@
+package Models.Solvers;
+
+import Models.MazeGrid;
+import Models.TaskProgress;
+
+/**
+ * An algorithm that finds a shortest path between two cells of a {@link MazeGrid}. Two cells are joined when the walls
+ * on both sides of the wall between them are down.
+ */
+public interface MazeSolver {
+    /**
+     * Finds a shortest path from one cell to another
+     * @param grid The grid holding the maze, which isn't changed
+     * @param start The index of the cell to start from, y * width + x
+     * @param finish The index of the cell to reach, y * width + x
+     * @return the path found with how much work it took, or an unsolved result if the finish can't be reached
+     */
+    SolveResult solve(MazeGrid grid, int start, int finish);
+
+    /**
+     * Finds a shortest path as {@link #solve(MazeGrid, int, int)} does, reporting the number of cells looked at out of
+     * every cell of the grid and stopping if the task is cancelled
+     * @param grid The grid holding the maze, which isn't changed
+     * @param start The index of the cell to start from, y * width + x
+     * @param finish The index of the cell to reach, y * width + x
+     * @param progress Where progress is reported and cancellation is checked
+     * @return the path found with how much work it took, or an unsolved result if the finish can't be reached
+     * @throws java.util.concurrent.CancellationException thrown if the task is cancelled
+     */
+    SolveResult solve(MazeGrid grid, int start, int finish, TaskProgress progress);
+}
@@ -0,0 +1,179 @@
+package Models.Solvers;
+
+import Models.MazeGrid;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static Models.Generators.WilsonGenerator.neighbourIndex;
+import static Models.Solvers.BreadthFirstSolver.isOpen;
+
+/**
+ * An index of the paths through a perfect maze, where there is exactly one path between any two cells. The maze is
+ * treated as a tree hanging from a root cell, and the path between two cells runs up from each of them to their lowest
+ * common ancestor.
+ * Each cell keeps its parent, its depth and a jump pointer to an ancestor further up, chosen so that any ancestor can
+ * be reached in O(log n) jumps. This needs only three ints per cell, where a binary lifting table would need one per
+ * level of the tree, but that is still 12 MB per million cells plus a queue of another 4 MB while it is built, so the
+ * largest mazes aren't indexed. The distance between two cells takes O(log n) time and the path between them takes
+ * time in proportion to its length.
+ * The index is a snapshot of the walls when it was built and must be built again after they change.
+ */
+public class PathIndex {
+    private final int width;
+    private final int[] parent;     // The next cell towards the root, the root is its own parent
+    private final int[] depth;      // Steps from the root, -1 for cells that can't be reached from it
+    private final int[] jump;       // An ancestor about as far above as the cell's depth allows, for skipping up
+
+    private PathIndex(int width, int[] parent, int[] depth, int[] jump) {
+        this.width = width;
+        this.parent = parent;
+        this.depth = depth;
+        this.jump = jump;
+    }
+
+    /**
+     * Builds an index of the part of a maze that can be reached from a cell
+     * @param grid The grid holding the maze
+     * @param root The index of the cell the tree hangs from, y * width + x
+     * @return the index, or null if the part of the maze reached has a loop so paths through it aren't unique
+     */
+    public static PathIndex build(MazeGrid grid, int root) {
+        return build(grid, root, new BitSet());
+    }
+
+    /**
+     * Builds an index of the part of a maze that can be reached from a cell without stepping into some of its cells,
+     * which are left out of the index so a change to their walls doesn't change it
+     * @param grid The grid holding the maze
+     * @param root The index of the cell the tree hangs from, y * width + x
+     * @param skipped The cells that aren't indexed, indexed by y * width + x, this is not changed
+     * @return the index, or null if the part of the maze reached has a loop so paths through it aren't unique
+     */
+    public static PathIndex build(MazeGrid grid, int root, BitSet skipped) {
+        int width = grid.getWidth();
+        int totalCells = width * grid.getHeight();
+        int[] parent = new int[totalCells];
+        int[] depth = new int[totalCells];
+        int[] jump = new int[totalCells];
+        Arrays.fill(depth, -1);
+        // Breadth first so every cell's parent, and the parent's jump pointer, is filled in before the cell's own
+        int[] queue = new int[totalCells];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        parent[root] = root;
+        jump[root] = root;
+        depth[root] = 0;
+        while(head < tail){
+            int current = queue[head++];
+            int x = current % width;
+            int y = current / width;
+            for(int direction = 0; direction < 4; direction++){
+                if(!isOpen(grid, x, y, direction)){
+                    continue;
+                }
+                int next = neighbourIndex(current, direction, width);
+                if(next == parent[current] || skipped.get(next)){
+                    continue;
+                }
+                if(depth[next] >= 0){
+                    return null; // A second way to a cell already reached
+                }
+                parent[next] = current;
+                depth[next] = depth[current] + 1;
+                // Jump as far as the parent's jump pointer and the one after it if those two jumps are the same size,
+                // otherwise start again from the parent
+                int up = jump[current];
+                jump[next] = depth[current] - depth[up] == depth[up] - depth[jump[up]] ? jump[up] : current;
+                queue[tail++] = next;
+            }
+        }
+        return new PathIndex(width, parent, depth, jump);
+    }
+
+    /**
+     * Checks whether a cell can be reached from the root, paths can only be found between cells that can
+     * @param cell The index of the cell, y * width + x
+     * @return true if the cell is part of the index
+     */
+    public boolean contains(int cell) {
+        return depth[cell] >= 0;
+    }
+
+    /**
+     * Climbs from a cell to its ancestor at a depth
+     */
+    private int ancestor(int cell, int targetDepth) {
+        while(depth[cell] > targetDepth){
+            cell = depth[jump[cell]] >= targetDepth ? jump[cell] : parent[cell];
+        }
+        return cell;
+    }
+
+    /**
+     * Finds the cell where the paths from two cells up to the root join
+     * @param a The index of a cell, y * width + x
+     * @param b The index of another cell, y * width + x
+     * @return the index of the lowest common ancestor of the cells
+     */
+    public int lowestCommonAncestor(int a, int b) {
+        if(depth[a] > depth[b]){
+            a = ancestor(a, depth[b]);
+        }
+        else{
+            b = ancestor(b, depth[a]);
+        }
+        // Cells at the same depth have jump pointers to the same depth, so they can jump together
+        while(a != b){
+            if(jump[a] != jump[b]){
+                a = jump[a];
+                b = jump[b];
+            }
+            else{
+                a = parent[a];
+                b = parent[b];
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Gets the number of steps on the path between two cells
+     * @param a The index of a cell, y * width + x
+     * @param b The index of another cell, y * width + x
+     * @return the number of steps between the cells, or -1 if either can't be reached from the root
+     */
+    public int distance(int a, int b) {
+        if(!contains(a) || !contains(b)){
+            return -1;
+        }
+        return depth[a] + depth[b] - 2 * depth[lowestCommonAncestor(a, b)];
+    }
+
+    /**
+     * Gets the path between two cells
+     * @param a The index of the cell the path starts at, y * width + x
+     * @param b The index of the cell the path finishes at, y * width + x
+     * @return the indices of the cells from a to b, or null if either can't be reached from the root
+     */
+    public int[] path(int a, int b) {
+        if(!contains(a) || !contains(b)){
+            return null;
+        }
+        int meet = lowestCommonAncestor(a, b);
+        int up = depth[a] - depth[meet];
+        int[] path = new int[up + depth[b] - depth[meet] + 1];
+        int cell = a;
+        for(int i = 0; i <= up; i++){
+            path[i] = cell;
+            cell = parent[cell];
+        }
+        cell = b;
+        for(int i = path.length - 1; i > up; i--){
+            path[i] = cell;
+            cell = parent[cell];
+        }
+        return path;
+    }
+}
@@ -0,0 +1,60 @@
+package Models.Solvers;
+
+/**
+ * The path a {@link MazeSolver} found through a maze, along with the number of cells it expanded and how long it took
+ * so solvers can be compared
+ */
+public class SolveResult {
+    private final int[] path;
+    private final long expanded;
+    private final long elapsedNanos;
+
+    /**
+     * Creates a result
+     * @param path The indices of the cells from the start to the finish, or null if the finish couldn't be reached
+     * @param expanded The number of cells whose neighbours were looked at
+     * @param elapsedNanos The time the solve took in nanoseconds
+     */
+    public SolveResult(int[] path, long expanded, long elapsedNanos) {
+        this.path = path;
+        this.expanded = expanded;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Checks whether a path was found
+     * @return true if the finish was reached from the start
+     */
+    public boolean isSolved() {
+        return path != null;
+    }
+
+    /**
+     * Gets the path that was found
+     * @return the indices of the cells from the start to the finish, y * width + x, or null if there is no path
+     */
+    public int[] getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the number of cells the path goes through, including the start and finish
+     * @return the length of the path in cells, or 0 if there is no path
+     */
+    public int getLength() {
+        return path == null ? 0 : path.length;
+    }
+
+    public long getExpanded() {
+        return expanded;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d cells long, %d expanded in %.3f ms", getLength(), expanded, elapsedNanos / 1e6);
+    }
+}
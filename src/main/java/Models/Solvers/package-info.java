@@ -0,0 +1,4 @@
+/**
+ * Algorithms that find the path through a maze from its entrance to its exit
+ */
+package Models.Solvers;
@@ -0,0 +1,98 @@
+package Models;
+
+import Models.ProgressListener.Stage;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Connects the loops of a long running task to a {@link ProgressListener} and a {@link CancellationToken}.
+ * Loops call {@link #update(long)} as they deal with each cell. This only compares two numbers until the task has got a
+ * thousandth of the way further, at which point the token is checked and the listener told, so it is cheap enough to
+ * call every step. Loops that can run for a long time without dealing with a new cell also call
+ * {@link #checkCancelled()} every so often.
+ * Each stage is expected to be run by one thread at a time, updates from several threads at once are allowed but may
+ * be reported out of order.
+ */
+public class TaskProgress {
+    /**
+     * Reports to nothing and is never cancelled
+     */
+    public static final TaskProgress NONE = new TaskProgress(null, null);
+
+    private final ProgressListener listener;
+    private final CancellationToken token;
+    private Stage stage;
+    private long total;
+    private long step;
+    private long nextReport = Long.MAX_VALUE;
+
+    /**
+     * Creates a link to a listener and token
+     * @param listener The listener told about progress, or null if progress isn't needed
+     * @param token The token that stops the task, or null if it can't be cancelled
+     */
+    public TaskProgress(ProgressListener listener, CancellationToken token) {
+        this.listener = listener;
+        this.token = token;
+    }
+
+    /**
+     * Starts a stage of the task, telling the listener that none of it has been done yet
+     * @param stage The part of the work that is starting
+     * @param total The number of cells the stage deals with in total
+     * @throws CancellationException thrown if the token has been cancelled
+     */
+    public void start(Stage stage, long total) {
+        if(listener == null && token == null){
+            return;
+        }
+        synchronized(this){
+            this.stage = stage;
+            this.total = total;
+            step = Math.max(1, total / 1000);
+            nextReport = 0;
+        }
+        update(0);
+    }
+
+    /**
+     * Records how far through the current stage the task has got
+     * @param done The number of cells dealt with so far
+     * @throws CancellationException thrown if the token has been cancelled
+     */
+    public void update(long done) {
+        if(done < nextReport){
+            return;
+        }
+        synchronized(this){
+            if(done < nextReport){
+                return;
+            }
+            nextReport = done >= total ? Long.MAX_VALUE : done + step;
+        }
+        checkCancelled();
+        if(listener != null){
+            listener.progressed(stage, Math.min(done, total), total);
+        }
+    }
+
+    /**
+     * Records that the current stage has been finished
+     * @throws CancellationException thrown if the token has been cancelled
+     */
+    public void finish() {
+        if(nextReport != Long.MAX_VALUE){
+            update(total);
+        }
+    }
+
+    /**
+     * Stops the task if the token has been cancelled
+     * @throws CancellationException thrown if the token has been cancelled
+     */
+    public void checkCancelled() {
+        if(token != null){
+            token.throwIfCancelled();
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package Panels;
 
 import Main.MazeGame;
+import Models.CancellationToken;
 import Models.Maze;
+import Models.MazePool;
+import Models.ProgressListener;
+import Models.TaskProgress;
 import Utils.IntValidator;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import static Utils.Utils.addToPanel;
 import static Utils.Utils.pickImage;
 
@@ -108,8 +115,8 @@ public class CreateMazeDisplay extends JPanel implements ActionListener {
         displayWidth = new JLabel("Width dimensions:");
         displayHeight = new JLabel("Height dimensions:");
 
-        SpinnerNumberModel dimW = new SpinnerNumberModel(10, 2, 100, 1);
-        SpinnerNumberModel dimH = new SpinnerNumberModel(10, 2, 100, 1);
+        SpinnerNumberModel dimW = new SpinnerNumberModel(10, 2, 10000, 1);
+        SpinnerNumberModel dimH = new SpinnerNumberModel(10, 2, 10000, 1);
         widthInput = new JSpinner(dimW);
         heightInput = new JSpinner(dimH);
 
@@ -245,8 +252,80 @@ public class CreateMazeDisplay extends JPanel implements ActionListener {
         if(!ValidateForm()) {
             return;
         }
-        Maze maze = new Maze(titleInput.getInput(), authorInput.getInput(), width, height, startSize,
-                finishSize, logoSize, displayArrows, startFile, finishFile, logoFile);
+        // A maze generated ahead of time can be shown straight away
+        Maze pooled = MazePool.getDefault().take(titleInput.getInput(), authorInput.getInput(), width, height,
+                startSize, finishSize, logoSize);
+        if(pooled != null) {
+            pooled.setShowArrows(displayArrows);
+            if(startFile != null)
+                pooled.setStartImage(startFile);
+            if(finishFile != null)
+                pooled.setFinishImage(finishFile);
+            if(logoFile != null)
+                pooled.setLogo(logoFile, logoSize);
+            ShowMaze(pooled);
+            return;
+        }
+        // Generate the maze away from the event thread, showing how far it has got and letting it be cancelled
+        CancellationToken token = new CancellationToken();
+        JProgressBar progressBar = new JProgressBar(0, 1000);
+        progressBar.setStringPainted(true);
+        progressBar.setString("Starting");
+        JButton stopBtn = new JButton("Cancel");
+        stopBtn.addActionListener(event -> token.cancel());
+        JDialog progressDialog = new JDialog(SwingUtilities.getWindowAncestor(this), "Creating maze");
+        progressDialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        progressDialog.add(progressBar, BorderLayout.CENTER);
+        progressDialog.add(stopBtn, BorderLayout.SOUTH);
+        progressDialog.pack();
+        progressDialog.setLocationRelativeTo(this);
+
+        ProgressListener listener = (stage, done, total) -> SwingUtilities.invokeLater(() -> {
+            progressBar.setValue(total == 0 ? 1000 : (int) (1000 * done / total));
+            progressBar.setString(switch (stage) {
+                case GENERATING -> "Generating";
+                case SOLVING -> "Solving";
+                case RENDERING -> "Rendering";
+            } + " " + done + " of " + total + " cells");
+        });
+        String title = titleInput.getInput();
+        String author = authorInput.getInput();
+        SwingWorker<Maze, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Maze doInBackground() {
+                return new Maze(title, author, width, height, startSize, finishSize, logoSize, displayArrows,
+                        startFile, finishFile, logoFile, Maze.defaultGenerator(width, height),
+                        new SplittableRandom().nextLong(), null, new TaskProgress(listener, token));
+            }
+
+            @Override
+            protected void done() {
+                progressDialog.dispose();
+                createBtn.setEnabled(true);
+                try {
+                    ShowMaze(get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    if(!(ex.getCause() instanceof CancellationException)) {
+                        ex.getCause().printStackTrace();
+                        JOptionPane.showMessageDialog(CreateMazeDisplay.this, "The maze could not be created.",
+                                "Maze not created", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }
+        };
+        createBtn.setEnabled(false);
+        worker.execute();
+        progressDialog.setVisible(true);
+    }
+
+    /**
+     * Implements: Opens a newly created maze in the editor
+     * Pre-condition: The maze has been generated.
+     * Post-condition: The editor showing the maze is displayed in place of the form.
+     */
+    private void ShowMaze(Maze maze) {
         EditMazeDisplay md = new EditMazeDisplay(contentPane, maze,solve, logoFile,startFile,finishFile);
         contentPane.add(md, "Maze View and Editor");
 
@@ -272,7 +351,7 @@ public class CreateMazeDisplay extends JPanel implements ActionListener {
             return false;
         }
 
-        IntValidator sizeValidator = new IntValidator(2, 100);
+        IntValidator sizeValidator = new IntValidator(2, 10000);
 
         Integer width = (Integer) widthInput.getValue();
         if(!sizeValidator.Validate(width, "Width"))
@@ -24,6 +24,7 @@ public class EditMazeDisplay extends JPanel implements ActionListener, KeyListen
     private JButton saveButton;
     private JButton toggleSolutionButton;
     private JButton toggleArrowsButton;
+    private JButton toggleHeatMapButton;
     private JButton viewDatabaseButton;
     private JButton refreshButton;
     private final JPanel contentPane;
@@ -136,6 +137,7 @@ public class EditMazeDisplay extends JPanel implements ActionListener, KeyListen
         addToPanel(buttonPanel, saveButton,constraints,0,5,1,1);
         addToPanel(buttonPanel, viewDatabaseButton, constraints, 2, 6, 1, 1);
         addToPanel(buttonPanel, mainMenuBtn, constraints, 0, 6, 1, 1);
+        addToPanel(buttonPanel, toggleHeatMapButton, constraints, 0, 7, 1, 1);
         add(buttonPanel, BorderLayout.EAST);
     }
     /**
@@ -150,6 +152,8 @@ public class EditMazeDisplay extends JPanel implements ActionListener, KeyListen
         toggleSolutionButton.addActionListener(this);
         toggleArrowsButton = new JButton("Toggle Arrows");
         toggleArrowsButton.addActionListener(this);
+        toggleHeatMapButton = new JButton("Toggle Heat Map");
+        toggleHeatMapButton.addActionListener(this);
         // Logo parts of maze JComboBox GUI components
         String[] logoOptions = {"Exclude","Small square", "Medium square","Large square",
                 "Small rectangle horizontal", "Medium rectangle horizontal","Large rectangle horizontal",
@@ -215,6 +219,10 @@ public class EditMazeDisplay extends JPanel implements ActionListener, KeyListen
             mazeDisplay.toggleArrows();
             repaint();
         }
+        if(e.getSource() == toggleHeatMapButton) {
+            mazeDisplay.toggleHeatMap();
+            repaint();
+        }
         if(e.getSource() == viewDatabaseButton){
             MazeDatabase dbGUI = new MazeDatabase(contentPane);
             contentPane.add(dbGUI);
@@ -7,11 +7,13 @@ import Models.Maze;
 
 import java.awt.*;
 
+import java.awt.image.BufferedImage;
 import java.awt.print.PageFormat;
 import java.awt.print.Printable;
 import java.awt.print.PrinterException;
 import java.awt.print.PrinterJob;
 import java.io.IOException;
+import java.time.LocalDateTime;
 
 import javax.swing.*;
 
@@ -22,6 +24,9 @@ public class MazeDisplay extends JPanel implements Printable {
     Maze maze;
     private static int cellSize = 20;
     private Boolean solve;
+    private BufferedImage overview;
+    private LocalDateTime overviewEdited;
+    private boolean overviewSolved;
 
     /**
      * Retrieves if the solution is showing
@@ -125,6 +130,16 @@ public class MazeDisplay extends JPanel implements Printable {
         cellSize = Math.min(cellSizeW,cellSizeH);
         int offsetX = 10;
         int offsetY = 10;
+        if (cellSize < 2) {
+            // Too many cells to draw each one, draw a scaled down overview instead
+            if (overview == null || !maze.getLastEdited().equals(overviewEdited) || overviewSolved != solve) {
+                overview = maze.renderOverview(360, 462, solve);
+                overviewEdited = maze.getLastEdited();
+                overviewSolved = solve;
+            }
+            g.drawImage(overview, offsetX, offsetY, null);
+            return;
+        }
         maze.drawMaze((Graphics2D) g, getSize(), getInsets(), offsetX, offsetY, cellSize, solve);
     }
 
@@ -151,6 +166,14 @@ public class MazeDisplay extends JPanel implements Printable {
         repaint();
     }
 
+    /**
+     * Toggles whether cells are shaded by how far they are from the start of the maze
+     */
+    public void toggleHeatMap() {
+        maze.setShowHeatMap(!maze.isShowingHeatMap());
+        repaint();
+    }
+
     /**
      * Implements:
      * Pre-condition:
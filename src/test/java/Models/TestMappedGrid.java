@@ -0,0 +1,90 @@
+package Models;
+
+import Models.Generators.WilsonGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static Models.Direction.*;
+import static Models.Wall.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMappedGrid {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void testDefaultWallsUp() throws IOException {
+        try (MappedGrid grid = MappedGrid.create(folder.resolve("grid"), 5, 4)) {
+            for (int i = 0; i < 5; i++)
+                for (int j = 0; j < 4; j++)
+                    assertArrayEquals(new Wall[]{UP, UP, UP, UP}, grid.getCell(i, j).getWalls());
+        }
+    }
+
+    @Test
+    void testSetWallAndFlags() throws IOException {
+        try (MappedGrid grid = MappedGrid.create(folder.resolve("grid"), 5, 4)) {
+            grid.setWall(2, 3, EAST, START);
+            grid.setSolution(2, 3, NORTH, true);
+            grid.setFinishImage(2, 3, true);
+            assertEquals(START, grid.getWall(2, 3, EAST));
+            assertEquals(UP, grid.getWall(3, 3, WEST), "Changing cell (2, 3) changed the wall of cell (3, 3)");
+            assertTrue(grid.isSolution(2, 3, NORTH));
+            assertTrue(grid.isFinishImage(2, 3));
+            grid.clearSolution();
+            assertFalse(grid.isSolution(2, 3, NORTH));
+            assertEquals(START, grid.getWall(2, 3, EAST), "Clearing the solution changed the walls");
+        }
+    }
+
+    @Test
+    void testSnapshotReopens() throws IOException {
+        Path file = folder.resolve("grid");
+        try (MappedGrid grid = MappedGrid.create(file, 5, 4)) {
+            grid.carve(1, 1, SOUTH);
+            grid.setExit(4, 0, NORTH, true);
+        }
+        try (MappedGrid grid = MappedGrid.open(file)) {
+            assertEquals(5, grid.getWidth());
+            assertEquals(4, grid.getHeight());
+            assertEquals(DOWN, grid.getWall(1, 2, NORTH));
+            assertTrue(grid.isExit(4, 0, NORTH));
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            PackedGrid packed = PackedGrid.read(in);
+            assertEquals(DOWN, packed.getWall(1, 1, SOUTH), "The snapshot can't be read as a packed grid");
+        }
+    }
+
+    @Test
+    void testOpenRejectsOtherFiles() throws IOException {
+        Path file = folder.resolve("grid");
+        Files.write(file, new byte[]{0, 0, 0, 5, 0, 0, 0, 4, 1, 2, 3});
+        assertThrows(IOException.class, () -> MappedGrid.open(file));
+    }
+
+    @Test
+    void testMazeInMappedGrid() throws IOException {
+        Path file = folder.resolve("maze");
+        Maze maze;
+        try (MappedGrid grid = MappedGrid.create(file, 30, 20)) {
+            maze = new Maze("Mapped", "Test", grid, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                    new WilsonGenerator(), 7, null);
+            TestMaze.assertPerfect(maze);
+        }
+        try (MappedGrid grid = MappedGrid.open(file)) {
+            Maze reopened = new Maze("Mapped", "Test", grid);
+            assertEquals(maze.getStart_x(), reopened.getStart_x());
+            assertEquals(maze.getStart_y(), reopened.getStart_y());
+            assertEquals(maze.getFinish_x(), reopened.getFinish_x());
+            assertEquals(maze.getFinish_y(), reopened.getFinish_y());
+            TestMaze.assertPerfect(reopened);
+        }
+    }
+}
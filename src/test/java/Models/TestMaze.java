@@ -1,13 +1,48 @@
 package Models;
 
+import Models.Generators.AldousBroderWilsonGenerator;
+import Models.Generators.BinaryTreeGenerator;
+import Models.Generators.DifficultyTarget;
+import Models.Generators.EllerGenerator;
+import Models.Generators.GrowingTreeGenerator;
+import Models.Generators.KruskalGenerator;
+import Models.Generators.MazeGenerator;
+import Models.Generators.PbmRowSink;
+import Models.Generators.RecursiveBacktrackerGenerator;
+import Models.Generators.RegionRecarver;
+import Models.Generators.SidewinderGenerator;
+import Models.Generators.TiledGenerator;
+import Models.Generators.WilsonGenerator;
+import Models.Solvers.AStarSolver;
+import Models.Solvers.BidirectionalSolver;
+import Models.Solvers.DistanceField;
+import Models.Solvers.PathIndex;
+import Models.Solvers.BreadthFirstSolver;
+import Models.Solvers.SolveResult;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Insets;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EmptyStackException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
 
 import static Models.Direction.*;
 import static Models.Wall.*;
@@ -18,6 +53,7 @@ import static org.junit.jupiter.api.Assertions.*;
 public class TestMaze {
 
     static Maze maze;
+    static final Map<Integer, ForkJoinPool> pools = new HashMap<>();
 
     @BeforeAll
     static void Setup() {
@@ -25,6 +61,18 @@ public class TestMaze {
         maze.setCreationDate(LocalDateTime.MIN);
     }
 
+    @AfterAll
+    static void ShutdownPools() {
+        pools.values().forEach(ForkJoinPool::shutdown);
+    }
+
+    /**
+     * Gets a pool with a number of threads shared by every test, shut down once they have all run
+     */
+    static ForkJoinPool pool(int parallelism) {
+        return pools.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
     @BeforeEach
     void ResetLastEdited() {
         maze.setLastEdited(LocalDateTime.of(12, 1, 1,1, 1));
@@ -61,6 +109,21 @@ public class TestMaze {
         assertTrue(startTime.compareTo(maze.getLastEdited()) <= 0, "Last edited was not updated");
     }
 
+    @Test
+    void testCarveRegion() {
+        Maze regions = new Maze("Test", "Test", 10, 10, "Exclude", "Exclude", "Exclude", false, null, null, null);
+        regions.setLastEdited(LocalDateTime.of(12, 1, 1, 1, 1));
+        LocalDateTime startTime = LocalDateTime.now();
+        regions.carveRegion(2, 3, 4, 5);
+        assertTrue(startTime.compareTo(regions.getLastEdited()) <= 0, "Last edited was not updated");
+        assertEquals(DOWN, regions.getWall(3, 4, NORTH));
+        assertEquals(UP, regions.getWall(2, 4, WEST));
+        assertEquals(UP, regions.getWall(1, 4, EAST), "The neighbouring cell's wall was left open");
+        regions.sealRegion(2, 3, 4, 5);
+        assertArrayEquals(new Wall[]{UP, UP, UP, UP}, regions.getCell(3, 4).getWalls());
+        assertThrows(IllegalArgumentException.class, () -> regions.carveRegion(8, 8, 10, 9));
+    }
+
     @Test
     void testSetCell() {
         Cell cell = new Cell();
@@ -156,4 +219,839 @@ public class TestMaze {
         assertTrue(imageFile.exists(), "testMazeWithImages.png was not created");
         assertTrue(imageFile.length() > 0, "The created image (testMazeWithImages.png) is empty!");
     }
+
+    @Test
+    void testLogoDoesNotCutOffCells() throws IOException {
+        // Logos that enclose cells against the start and finish images when added to these mazes
+        Object[][] mazes = {{16L, 9, 9, "Medium square", "Large square", "Medium square"},
+                {34L, 11, 9, "Medium square", "Large square", "Large rectangle horizontal"},
+                {71L, 12, 10, "Large square", "Large square", "Large square"}};
+        for (Object[] args : mazes) {
+            int width = (int) args[1];
+            int height = (int) args[2];
+            Maze imaged = new Maze("Test", "Test", width, height, (String) args[3], (String) args[4], "Exclude", false,
+                    "src/main/resources/Eric_Cartman.png", "src/main/resources/Stan-Marsh.jpeg", null,
+                    new WilsonGenerator(), (long) args[0]);
+            imaged.setLogo("src/main/resources/logo_example.png", (String) args[5]);
+            DistanceField distances = new DistanceField(imaged.getGrid(),
+                    imaged.getStart_y() * width + imaged.getStart_x());
+            for (int x = 0; x < width; x++)
+                for (int y = 0; y < height; y++) {
+                    boolean inLogo = x >= imaged.getLogo_x() && y >= imaged.getLogo_y()
+                            && x < imaged.getLogo_x() + 4 && y < imaged.getLogo_y() + 4;
+                    boolean walledUp = true;
+                    for (Direction position : Direction.values())
+                        walledUp &= imaged.getWall(x, y, position) == UP;
+                    assertTrue(distances.getDistance(x, y) != DistanceField.UNREACHABLE || inLogo || walledUp,
+                            "The logo cut off " + x + ", " + y);
+                }
+        }
+    }
+
+    @Test
+    void testGeneratedMazeIsPerfect() {
+        Maze perfect = new Maze("Test", "Test", 30, 25, "Exclude", "Exclude", "Exclude", false, null, null, null);
+        assertPerfect(perfect);
+    }
+
+    @Test
+    void testKruskalMazeIsPerfect() {
+        Maze perfect = new Maze("Test", "Test", 30, 25, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new KruskalGenerator());
+        assertPerfect(perfect);
+    }
+
+    @Test
+    void testTiledMazeIsPerfect() {
+        Maze perfect = new Maze("Test", "Test", 30, 25, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new TiledGenerator(7, pool(4)));
+        assertPerfect(perfect);
+    }
+
+    @Test
+    void testSameSeedGivesSameLayout() {
+        Maze first = new Maze("Test", "Test", 30, 25, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), 42);
+        Maze second = new Maze("Test", "Test", 30, 25, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), 42);
+        assertEquals(42, first.getSeed());
+        assertSameLayout(first, second);
+
+        first = new Maze("Test", "Test", 150, 120, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new TiledGenerator(16, pool(4)), -7);
+        second = new Maze("Test", "Test", 150, 120, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new TiledGenerator(16, pool(2)), -7);
+        assertSameLayout(first, second);
+    }
+
+    @Test
+    void testMazesLoadedWithoutASeedDontShareOne() {
+        Cell[][] cells = new Cell[4][3];
+        for (int i = 0; i < 4; i++)
+            for (int j = 0; j < 3; j++)
+                cells[i][j] = new Cell(i, j);
+        Maze first = new Maze(1, "Test", "Test", LocalDateTime.now(), LocalDateTime.now(), cells, 0, 0, 3, 2, -1, -1,
+                -1, -1, -1, -1, null, null, null);
+        Maze second = new Maze(2, "Test", "Test", LocalDateTime.now(), LocalDateTime.now(), cells, 0, 0, 3, 2, -1, -1,
+                -1, -1, -1, -1, null, null, null);
+        assertNotEquals(first.getSeed(), second.getSeed(), "Loaded mazes share a random stream");
+    }
+
+    /**
+     * Checks that two mazes have the same walls, entrance, exit and solution
+     */
+    static void assertSameLayout(Maze expected, Maze actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertEquals(expected.getStart_x(), actual.getStart_x());
+        assertEquals(expected.getStart_y(), actual.getStart_y());
+        assertEquals(expected.getFinish_x(), actual.getFinish_x());
+        assertEquals(expected.getFinish_y(), actual.getFinish_y());
+        assertEquals(expected.getSolutionNumber(), actual.getSolutionNumber());
+        MazeGrid expectedGrid = expected.getGrid();
+        MazeGrid actualGrid = actual.getGrid();
+        for (int i = 0; i < expected.getWidth(); i++)
+            for (int j = 0; j < expected.getHeight(); j++)
+                for (Direction position : Direction.values()) {
+                    assertEquals(expectedGrid.getWall(i, j, position), actualGrid.getWall(i, j, position),
+                            "Walls are different at " + i + ", " + j);
+                    assertEquals(expectedGrid.isSolution(i, j, position), actualGrid.isSolution(i, j, position),
+                            "Solutions are different at " + i + ", " + j);
+                }
+    }
+
+    @Test
+    void testDifficultyTargetIsMet() {
+        DifficultyTarget hard = new DifficultyTarget(0, 200, 30, 100, 5000);
+        Maze tuned = new Maze("Test", "Test", 30, 30, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), 3, hard);
+        assertTrue(tuned.deadEnds() <= 200, "Too many dead ends");
+        assertTrue(tuned.percentUsed() >= 30, "Solution is too short");
+        assertPerfect(tuned);
+    }
+
+    @Test
+    void testRecarvedRegionsKeepMazePerfect() {
+        int width = 40, height = 30;
+        Maze perfect = new Maze("Test", "Test", width, height, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), 11);
+        MazeGrid grid = perfect.getGrid();
+        BitSet excluded = new BitSet();
+        RegionRecarver recarver = new RegionRecarver(grid, excluded);
+        assertTrue(recarver.exclude(5, 5, 8, 7, new SplittableRandom(1)));
+        assertTrue(recarver.exclude(20, 10, 21, 20, new SplittableRandom(2)));
+        assertTrue(recarver.exclude(0, 25, 3, 29, new SplittableRandom(3)));
+        assertThrows(IllegalArgumentException.class, () -> recarver.exclude(7, 7, 9, 9, new SplittableRandom(4)));
+        assertPerfectOutside(grid, excluded);
+    }
+
+    @Test
+    void testGrowingTreeMazeIsPerfect() {
+        for (double newestChance : new double[]{0, 0.5, 1}) {
+            Maze perfect = new Maze("Test", "Test", 30, 25, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                    new GrowingTreeGenerator(newestChance));
+            assertPerfect(perfect);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new GrowingTreeGenerator(1.5));
+    }
+
+    @Test
+    void testBacktrackerKeepsOutOfExcludedCells() {
+        int width = 40, height = 30;
+        MazeGrid grid = new PackedGrid(width, height);
+        BitSet excluded = new BitSet();
+        for (int j = 10; j < 20; j++)
+            excluded.set(j * width + 5, j * width + 15);
+        new RecursiveBacktrackerGenerator().generate(grid, excluded, new SplittableRandom(5));
+        assertPerfectOutside(grid, excluded);
+
+        // A single long corridor would overflow the call stack of a recursive implementation
+        Maze corridor = new Maze("Test", "Test", 200000, 1, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new RecursiveBacktrackerGenerator());
+        assertPerfect(corridor);
+    }
+
+    @Test
+    void testRowParallelMazesArePerfect() {
+        for (boolean sidewinder : new boolean[]{false, true}) {
+            Maze perfect = new Maze("Test", "Test", 30, 25, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                    sidewinder ? new SidewinderGenerator() : new BinaryTreeGenerator());
+            assertPerfect(perfect);
+
+            // Several bands of rows, carved the same whatever the number of threads
+            int width = 300, height = 700;
+            MazeGrid single = new PackedGrid(width, height);
+            MazeGrid parallel = new PackedGrid(width, height);
+            BitSet none = new BitSet();
+            (sidewinder ? new SidewinderGenerator(pool(1)) : new BinaryTreeGenerator(pool(1)))
+                    .generate(single, none, new SplittableRandom(4));
+            (sidewinder ? new SidewinderGenerator(pool(3)) : new BinaryTreeGenerator(pool(3)))
+                    .generate(parallel, none, new SplittableRandom(4));
+            assertPerfectOutside(parallel, none);
+            for (int i = 0; i < width; i++)
+                for (int j = 0; j < height; j++)
+                    for (Direction position : Direction.values())
+                        assertEquals(single.getWall(i, j, position), parallel.getWall(i, j, position),
+                                "The layout depends on the number of threads");
+
+            // Excluded cells cutting off the top row and right column the algorithms lean on
+            BitSet excluded = new BitSet();
+            for (int j = 0; j < height; j++)
+                excluded.set(j * width + 250);
+            excluded.clear(400 * width + 250);
+            for (int j = 200; j < 260; j++)
+                excluded.set(j * width + 20, j * width + 120);
+            MazeGrid grid = new PackedGrid(width, height);
+            (sidewinder ? new SidewinderGenerator() : new BinaryTreeGenerator())
+                    .generate(grid, excluded, new SplittableRandom(6));
+            assertPerfectOutside(grid, excluded);
+        }
+        Maze column = new Maze("Test", "Test", 2, 300000, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new SidewinderGenerator());
+        assertPerfect(column);
+    }
+
+    @Test
+    void testHybridMazeIsPerfect() {
+        Maze perfect = new Maze("Test", "Test", 30, 25, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new AldousBroderWilsonGenerator());
+        assertPerfect(perfect);
+
+        int width = 40, height = 30;
+        MazeGrid grid = new PackedGrid(width, height);
+        BitSet excluded = new BitSet();
+        for (int j = 0; j < height; j++)
+            excluded.set(j * width + 30);
+        new AldousBroderWilsonGenerator(0.5).generate(grid, excluded, new SplittableRandom(8));
+        int cutOff = 0;
+        for (int j = 0; j < height - 1; j++)
+            cutOff += grid.getWall(35, j, SOUTH) == DOWN ? 1 : 0;
+        assertTrue(cutOff > 0, "The region cut off by excluded cells was not carved");
+    }
+
+    @Test
+    void testHybridMazesAreUniform() {
+        // A 3x3 grid has 192 mazes, with either algorithm on its own each should come up about equally often
+        int samples = 192 * 200;
+        for (double switchFraction : new double[]{0, 1}) {
+            Map<Integer, Integer> counts = countMazes(new AldousBroderWilsonGenerator(switchFraction), samples);
+            assertEquals(192, counts.size(), "Some mazes can never be generated");
+            double expected = samples / 192.0;
+            double chiSquared = 0;
+            for (int count : counts.values())
+                chiSquared += (count - expected) * (count - expected) / expected;
+            // The 99.9th percentile of the chi-squared distribution with 191 degrees of freedom is about 256
+            assertTrue(chiSquared < 256, "Mazes are not uniformly distributed, chi-squared " + chiSquared);
+        }
+
+        // Switching part way through is slightly uneven, sampling alone puts the distance at about 0.03
+        Map<Integer, Integer> counts = countMazes(new AldousBroderWilsonGenerator(), samples);
+        assertEquals(192, counts.size(), "Some mazes can never be generated");
+        double distance = 0;
+        for (int count : counts.values())
+            distance += Math.abs(count - samples / 192.0);
+        distance /= 2 * samples;
+        assertTrue(distance < 0.06, "Mazes are too far from uniformly distributed, distance " + distance);
+    }
+
+    /**
+     * Generates many 3x3 mazes and counts how often each layout comes up
+     */
+    private static Map<Integer, Integer> countMazes(MazeGenerator generator, int samples) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        SplittableRandom rand = new SplittableRandom(2024);
+        for (int k = 0; k < samples; k++) {
+            PackedGrid grid = new PackedGrid(3, 3);
+            generator.generate(grid, new BitSet(), rand);
+            int layout = 0;
+            for (int i = 0; i < 3; i++)
+                for (int j = 0; j < 3; j++) {
+                    layout = layout << 1 | (i < 2 && grid.getWall(i, j, EAST) == DOWN ? 1 : 0);
+                    layout = layout << 1 | (j < 2 && grid.getWall(i, j, SOUTH) == DOWN ? 1 : 0);
+                }
+            counts.merge(layout, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    void testProgressIsReported() {
+        List<String> reports = new ArrayList<>();
+        long[] last = {-1};
+        ProgressListener listener = (stage, done, total) -> {
+            assertTrue(done <= total, "More cells were done than there are");
+            if (reports.isEmpty() || !reports.get(reports.size() - 1).startsWith(stage.name())) {
+                last[0] = -1;
+            }
+            assertTrue(done >= last[0], "Progress went backwards");
+            last[0] = done;
+            reports.add(stage.name() + " " + done + " " + total);
+        };
+        Maze maze = new Maze("Test", "Test", 200, 150, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), 5, null, new TaskProgress(listener, new CancellationToken()));
+        assertPerfect(maze);
+        assertTrue(reports.contains("GENERATING 0 30000"));
+        assertTrue(reports.contains("GENERATING 30000 30000"));
+        assertTrue(reports.contains("SOLVING 30000 30000"));
+        assertTrue(reports.size() < 3000, "Progress was reported too often");
+
+        reports.clear();
+        maze.renderOverview(50, 50, true, new TaskProgress(listener, null));
+        assertEquals("RENDERING 30000 30000", reports.get(reports.size() - 1));
+    }
+
+    @Test
+    void testCancelledGenerationStops() {
+        for (MazeGenerator generator : new MazeGenerator[]{new WilsonGenerator(), new AldousBroderWilsonGenerator(),
+                new GrowingTreeGenerator(0.5), new TiledGenerator(32, pool(2)), new KruskalGenerator()}) {
+            CancellationToken token = new CancellationToken();
+            // Cancel as soon as a tenth of the cells have been added
+            TaskProgress progress = new TaskProgress((stage, done, total) -> {
+                if (done * 10 >= total && total > 0)
+                    token.cancel();
+            }, token);
+            assertThrows(CancellationException.class, () -> new Maze("Test", "Test", 300, 300, "Exclude", "Exclude",
+                    "Exclude", false, null, null, null, generator, 1, null, progress));
+        }
+
+        CancellationToken cancelled = new CancellationToken();
+        cancelled.cancel();
+        Maze maze = new Maze("Test", "Test", 20, 20, "Exclude", "Exclude", "Exclude", false, null, null, null);
+        assertThrows(CancellationException.class, () -> maze.solver(new TaskProgress(null, cancelled)));
+        assertTrue(new CancellationToken(cancelled).isCancelled(), "Cancelling a token didn't cancel tokens made from it");
+    }
+
+    @Test
+    void testBraidedMazeKeepsSolution() {
+        Maze braided = new Maze("Test", "Test", 40, 30, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), 7);
+        int before = braided.deadEnds();
+        int removed = braided.braid(50);
+        assertEquals(Math.round(before * 0.5), removed, "Half of the dead ends were not removed");
+        assertEquals(before - removed, braided.deadEnds(), "The dead ends were not counted the same way");
+        int openWalls = 0;
+        for (int i = 0; i < 40; i++)
+            for (int j = 0; j < 30; j++) {
+                openWalls += i < 39 && braided.getWall(i, j, EAST) == DOWN ? 1 : 0;
+                openWalls += j < 29 && braided.getWall(i, j, SOUTH) == DOWN ? 1 : 0;
+            }
+        assertTrue(openWalls > 40 * 30 - 1, "No loops were made");
+        assertSolutionConnects(braided);
+
+        Maze fullyBraided = new Maze("Test", "Test", 30, 30, "Exclude", "Exclude", "Exclude", false, null, null,
+                null, new KruskalGenerator(), 3);
+        fullyBraided.braid(100);
+        assertEquals(0, fullyBraided.deadEnds());
+        assertSolutionConnects(fullyBraided);
+        assertEquals(0, fullyBraided.braid(100));
+        assertThrows(IllegalArgumentException.class, () -> fullyBraided.braid(101));
+    }
+
+    @Test
+    void testSolutionIsShortestPath() {
+        Maze maze = new Maze("Test", "Test", 50, 40, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), 11);
+        assertEquals(shortestPathCells(maze), maze.getSolutionNumber());
+        maze.braid(100);
+        assertEquals(shortestPathCells(maze), maze.getSolutionNumber(), "The solution of a braided maze isn't the shortest");
+        assertSolutionConnects(maze);
+
+        // Closing off the finish leaves nothing to solve
+        MazeGrid grid = maze.getGrid();
+        for (Direction position : Direction.values()) {
+            int x = maze.getFinish_x() + (position == EAST ? 1 : position == WEST ? -1 : 0);
+            int y = maze.getFinish_y() + (position == SOUTH ? 1 : position == NORTH ? -1 : 0);
+            if (x >= 0 && y >= 0 && x < 50 && y < 40)
+                grid.seal(maze.getFinish_x(), maze.getFinish_y(), position);
+        }
+        assertThrows(EmptyStackException.class, maze::solver);
+    }
+
+    @Test
+    void testAStarFindsShortestPath() {
+        Maze maze = new Maze("Test", "Test", 60, 60, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), 5);
+        maze.braid(100);
+        int start = maze.getStart_y() * 60 + maze.getStart_x();
+        int finish = maze.getFinish_y() * 60 + maze.getFinish_x();
+        SolveResult breadthFirst = new BreadthFirstSolver().solve(maze.getGrid(), start, finish);
+        assertEquals(shortestPathCells(maze), breadthFirst.getLength());
+        for (AStarSolver.Heuristic heuristic : List.of(AStarSolver.Heuristic.MANHATTAN, AStarSolver.Heuristic.EXIT_EDGE)) {
+            SolveResult aStar = new AStarSolver(heuristic).solve(maze.getGrid(), start, finish);
+            assertEquals(breadthFirst.getLength(), aStar.getLength(), "A* didn't find a shortest path");
+            assertTrue(aStar.getExpanded() <= breadthFirst.getExpanded(), "A* expanded more cells than BFS");
+            assertEquals(start, aStar.getPath()[0]);
+            assertEquals(finish, aStar.getPath()[aStar.getLength() - 1]);
+        }
+
+        maze.setMazeSolver(new AStarSolver());
+        maze.solver();
+        assertSolutionConnects(maze);
+        assertEquals(breadthFirst.getLength(), maze.getLastSolve().getLength());
+
+        MazeGrid walled = new CellGrid(5, 5);
+        assertFalse(new AStarSolver().solve(walled, 0, 24).isSolved());
+        assertFalse(new BreadthFirstSolver().solve(walled, 0, 24).isSolved());
+    }
+
+    @Test
+    void testBidirectionalFindsShortestPath() {
+        for (int seed = 0; seed < 6; seed++) {
+            Maze maze = new Maze("Test", "Test", 45, 35, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                    new WilsonGenerator(), seed);
+            maze.braid(seed * 20);
+            int start = maze.getStart_y() * 45 + maze.getStart_x();
+            int finish = maze.getFinish_y() * 45 + maze.getFinish_x();
+            SolveResult result = new BidirectionalSolver().solve(maze.getGrid(), start, finish);
+            assertEquals(shortestPathCells(maze), result.getLength(), "The path isn't the shortest");
+            int[] path = result.getPath();
+            assertEquals(start, path[0]);
+            assertEquals(finish, path[path.length - 1]);
+            for (int i = 1; i < path.length; i++) {
+                int from = path[i - 1];
+                Direction position = path[i] == from - 45 ? NORTH : path[i] == from + 45 ? SOUTH
+                        : path[i] == from - 1 ? WEST : EAST;
+                assertEquals(DOWN, maze.getWall(from % 45, from / 45, position), "The path goes through a wall");
+            }
+            assertSolutionConnects(maze);
+        }
+        Maze large = new Maze("Test", "Test", 400, 400, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), 2);
+        large.braid(100);
+        int start = large.getStart_y() * 400 + large.getStart_x();
+        int finish = large.getFinish_y() * 400 + large.getFinish_x();
+        assertTrue(new BidirectionalSolver().solve(large.getGrid(), start, finish).getExpanded()
+                < new BreadthFirstSolver().solve(large.getGrid(), start, finish).getExpanded(), "Meeting in the middle saved nothing");
+        assertEquals(1, new BidirectionalSolver().solve(new CellGrid(3, 3), 4, 4).getLength());
+        assertFalse(new BidirectionalSolver().solve(new CellGrid(3, 3), 0, 8).isSolved());
+    }
+
+    @Test
+    void testDistanceFieldIsCachedUntilEdited() {
+        Maze maze = new Maze("Test", "Test", 30, 25, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), 4);
+        DistanceField distances = maze.getDistanceField();
+        assertSame(distances, maze.getDistanceField(), "The distances were searched for again");
+        assertEquals(0, distances.getDistance(maze.getStart_x(), maze.getStart_y()));
+        assertEquals(maze.getSolutionNumber() - 1, distances.getDistance(maze.getFinish_x(), maze.getFinish_y()));
+        int farthest = distances.getFarthestCell();
+        assertEquals(distances.getMaxDistance(), distances.getDistance(farthest % 30, farthest / 30));
+        for (int i = 0; i < 30; i++)
+            for (int j = 0; j < 25; j++)
+                assertTrue(distances.getDistance(i, j) <= distances.getMaxDistance());
+
+        maze.braid(100);
+        assertNotSame(distances, maze.getDistanceField(), "Braiding didn't clear the distances");
+        assertEquals(shortestPathCells(maze) - 1,
+                maze.getDistanceField().getDistance(maze.getFinish_x(), maze.getFinish_y()));
+        distances = maze.getDistanceField();
+        maze.setWall(3, 3, EAST, UP);
+        assertNotSame(distances, maze.getDistanceField(), "Changing a wall didn't clear the distances");
+
+        maze.setShowHeatMap(true);
+        BufferedImage image = new BufferedImage(30 * 10, 25 * 10, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        maze.drawMaze(g2d, new Dimension(300, 250), new Insets(0, 0, 0, 0), 0, 0, 10, false);
+        g2d.dispose();
+        int far = maze.getDistanceField().getFarthestCell();
+        int start = image.getRGB(maze.getStart_x() * 10 + 5, maze.getStart_y() * 10 + 5);
+        int end = image.getRGB(far % 30 * 10 + 5, far / 30 * 10 + 5);
+        assertTrue((start & 0xFF) > (start >> 16 & 0xFF), "The entrance isn't shaded blue");
+        assertTrue((end >> 16 & 0xFF) > (end & 0xFF), "The farthest cell isn't shaded red");
+    }
+
+    @Test
+    void testPathIndexAnswersPathQueries() {
+        Maze maze = new Maze("Test", "Test", 120, 90, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new BinaryTreeGenerator(), 8);
+        PathIndex index = maze.getPathIndex();
+        assertNotNull(index, "A perfect maze has no loops");
+        assertSame(index, maze.getPathIndex(), "The index was built again");
+        SplittableRandom rand = new SplittableRandom(8);
+        for (int i = 0; i < 200; i++) {
+            int a = rand.nextInt(120 * 90);
+            int b = rand.nextInt(120 * 90);
+            SolveResult expected = new BreadthFirstSolver().solve(maze.getGrid(), a, b);
+            assertEquals(expected.getLength() - 1, index.distance(a, b));
+            assertArrayEquals(expected.getPath(), index.path(a, b), "The path isn't the unique path");
+        }
+
+        // Moving the entry and exit is answered from the index
+        assertTrue(maze.entryAndExit("Top Left", "Bottom Right"));
+        maze.solver();
+        assertSolutionConnects(maze);
+        assertEquals(shortestPathCells(maze), maze.getSolutionNumber());
+        assertEquals(maze.getSolutionNumber(), maze.getLastSolve().getExpanded(), "The maze was searched again");
+        assertTrue(maze.entryAndExit("Bottom Left", "Top Right"));
+        maze.solver();
+        assertSolutionConnects(maze);
+        assertEquals(shortestPathCells(maze), maze.getSolutionNumber());
+
+        maze.braid(50);
+        assertNull(maze.getPathIndex(), "A braided maze has loops");
+        assertSolutionConnects(maze);
+    }
+
+    @Test
+    void testLargeMazesAreNotIndexed() {
+        for (int width : new int[]{200, Maze.SEARCH_CACHE_THRESHOLD / 2000 + 1}) {
+            // A single corridor along the top row, which has no loops
+            MazeGrid grid = new PackedGrid(width, 2000);
+            grid.carveRegion(0, 0, width - 1, 0);
+            grid.setEntry(0, 0, WEST, true);
+            grid.setExit(width - 1, 0, EAST, true);
+            Maze maze = new Maze("Test", "Test", grid);
+            assertEquals(width <= 200, maze.getPathIndex() != null);
+            maze.solver();
+            assertEquals(width, maze.getSolutionNumber());
+        }
+    }
+
+    @Test
+    void testMovingTheEntryOrExitOnlyWalksTheNewPath() {
+        Maze maze = new Maze("Test", "Test", 60, 40, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), 9);
+        maze.braid(100);
+        assertNull(maze.getPathIndex());
+        assertTrue(maze.entryAndExit("Top Left", "Bottom Right"));
+        maze.solver();
+        assertSolutionMatchesFlags(maze);
+
+        // The first move measures from the entry, later ones step back along those distances
+        assertTrue(maze.entryAndExit("Unchanged", "Middle Right"));
+        maze.solver();
+        assertSolutionMatchesFlags(maze);
+        assertTrue(maze.getLastSolve().getExpanded() > maze.getSolutionNumber());
+        for (String exit : new String[]{"Top Right", "Bottom Middle", "Bottom Left", "Bottom Right"}) {
+            assertTrue(maze.entryAndExit("Unchanged", exit));
+            maze.solver();
+            assertSolutionMatchesFlags(maze);
+            assertEquals(maze.getSolutionNumber(), maze.getLastSolve().getExpanded(), "The maze was searched again");
+        }
+
+        // Moving the entry instead measures from the exit
+        assertTrue(maze.entryAndExit("Top Middle", "Unchanged"));
+        maze.solver();
+        assertSolutionMatchesFlags(maze);
+        assertTrue(maze.entryAndExit("Middle Left", "Unchanged"));
+        maze.solver();
+        assertSolutionMatchesFlags(maze);
+        assertEquals(maze.getSolutionNumber(), maze.getLastSolve().getExpanded(), "The maze was searched again");
+
+        // Changing a wall forgets the distances
+        maze.setWall(10, 10, EAST, maze.getGrid().getWall(10, 10, EAST) == UP ? DOWN : UP);
+        assertTrue(maze.entryAndExit("Top Left", "Unchanged"));
+        maze.solver();
+        assertSolutionMatchesFlags(maze);
+        assertTrue(maze.getLastSolve().getExpanded() > maze.getSolutionNumber());
+    }
+
+    @Test
+    void testNudgingAnImageEntryOrExitOnlyWalksTheNewPath() {
+        Maze maze = new Maze("Test", "Test", 60, 40, "Medium rectangle vertical", "Large square", "Exclude", false,
+                null, null, null, new WilsonGenerator(), 9);
+        maze.solver();
+        PathIndex index = maze.getPathIndex();
+        assertNotNull(index, "The image rooms stopped the maze being indexed");
+        SplittableRandom rand = new SplittableRandom(9);
+        String[] moves = {"Upward", "Downward", "Leftward", "Rightward"};
+        for (int i = 0; i < 20; i++) {
+            String move = moves[rand.nextInt(4)];
+            assertTrue(i < 10 ? maze.entryAndExit(move, "Unchanged") : maze.entryAndExit("Unchanged", move));
+            maze.solver();
+            assertSolutionMatchesFlags(maze);
+            assertEquals(maze.getSolutionNumber(), maze.getLastSolve().getExpanded(), "The maze was searched again");
+        }
+        assertSame(index, maze.getPathIndex(), "Moving an image opening forgot the index");
+
+        // With loops the first nudge measures from the end that stayed put, later ones step back along those distances
+        maze.braid(100);
+        assertNull(maze.getPathIndex());
+        assertTrue(maze.entryAndExit("Unchanged", "Upward"));
+        maze.solver();
+        assertSolutionMatchesFlags(maze);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(maze.entryAndExit("Unchanged", moves[rand.nextInt(4)]));
+            maze.solver();
+            assertSolutionMatchesFlags(maze);
+            assertEquals(maze.getSolutionNumber(), maze.getLastSolve().getExpanded(), "The maze was searched again");
+        }
+    }
+
+    /**
+     * Checks the solution is a shortest path and no cell off it is still marked as part of a solution
+     */
+    static void assertSolutionMatchesFlags(Maze maze) {
+        assertSolutionConnects(maze);
+        assertEquals(shortestPathCells(maze), maze.getSolutionNumber());
+        int marked = 0;
+        for (int i = 0; i < maze.getWidth(); i++)
+            for (int j = 0; j < maze.getHeight(); j++)
+                for (Direction position : Direction.values())
+                    if (maze.getGrid().isSolution(i, j, position)) {
+                        marked++;
+                        break;
+                    }
+        assertEquals(maze.getSolutionNumber(), marked, "Cells of an old solution are still marked");
+    }
+
+    /**
+     * Finds the number of cells on the shortest path from the start to the finish
+     */
+    static int shortestPathCells(Maze maze) {
+        int width = maze.getWidth();
+        int[] distance = new int[width * maze.getHeight()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int start = maze.getStart_y() * width + maze.getStart_x();
+        distance[start] = 1;
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int index = queue.poll();
+            for (Direction position : Direction.values()) {
+                int x = index % width + (position == EAST ? 1 : position == WEST ? -1 : 0);
+                int y = index / width + (position == SOUTH ? 1 : position == NORTH ? -1 : 0);
+                if (x < 0 || y < 0 || x >= width || y >= maze.getHeight() || distance[y * width + x] != 0
+                        || maze.getWall(index % width, index / width, position) != DOWN)
+                    continue;
+                distance[y * width + x] = distance[index] + 1;
+                queue.add(y * width + x);
+            }
+        }
+        return distance[maze.getFinish_y() * width + maze.getFinish_x()];
+    }
+
+    /**
+     * Checks that the solution marked on the grid leads through open walls from the start to the finish, passing
+     * through as many cells as the solution number
+     */
+    static void assertSolutionConnects(Maze maze) {
+        MazeGrid grid = maze.getGrid();
+        int x = maze.getStart_x();
+        int y = maze.getStart_y();
+        Direction cameFrom = null;
+        int cells = 1;
+        while (x != maze.getFinish_x() || y != maze.getFinish_y()) {
+            Direction next = null;
+            for (Direction position : Direction.values()) {
+                int nx = x + (position == EAST ? 1 : position == WEST ? -1 : 0);
+                int ny = y + (position == SOUTH ? 1 : position == NORTH ? -1 : 0);
+                if (position != cameFrom && nx >= 0 && ny >= 0 && nx < maze.getWidth() && ny < maze.getHeight()
+                        && grid.isSolution(x, y, position) && grid.getWall(x, y, position) == DOWN) {
+                    assertNull(next, "The solution branches at " + x + ", " + y);
+                    next = position;
+                }
+            }
+            assertNotNull(next, "The solution stops at " + x + ", " + y);
+            x += next == EAST ? 1 : next == WEST ? -1 : 0;
+            y += next == SOUTH ? 1 : next == NORTH ? -1 : 0;
+            cameFrom = Direction.getDirection((next.getIndex() + 2) % 4);
+            cells++;
+        }
+        assertEquals(maze.getSolutionNumber(), cells, "The solution number doesn't match the marked path");
+    }
+
+    @Test
+    void testMaskFromImage() {
+        BufferedImage image = new BufferedImage(8, 2, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = {0xFF000000, 0xFFFFFFFF, 0x00000000, 0xFF606060};
+        for (int x = 0; x < 8; x++)
+            for (int y = 0; y < 2; y++)
+                image.setRGB(x, y, pixels[x / 2]);
+        MazeMask mask = MazeMask.fromImage(image, 4, 1);
+        assertTrue(mask.isInside(0, 0), "A black pixel was left out");
+        assertFalse(mask.isInside(1, 0), "A white pixel was put in");
+        assertFalse(mask.isInside(2, 0), "A transparent pixel was put in");
+        assertTrue(mask.isInside(3, 0), "A dark grey pixel was left out");
+        assertFalse(MazeMask.fromImage(image, 4, 1, 64).isInside(3, 0), "The threshold was ignored");
+
+        MazeMask regions = new MazeMask(5, 3);
+        regions.setInside(2, 0, false);
+        regions.setInside(2, 1, false);
+        regions.setInside(2, 2, false);
+        regions.setInside(4, 1, false);
+        regions.keepLargestRegion();
+        assertEquals(6, regions.countInside());
+        assertTrue(regions.isInside(0, 0));
+        assertFalse(regions.isInside(3, 0), "A smaller region was kept");
+    }
+
+    @Test
+    void testMaskedMazeFillsShape() {
+        BufferedImage image = new BufferedImage(100, 80, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, 100, 80);
+        g2d.setColor(Color.BLACK);
+        g2d.fillOval(10, 5, 80, 70);
+        g2d.fillRect(0, 76, 4, 4); // A speck that isn't joined to the ring
+        g2d.setColor(Color.WHITE);
+        g2d.fillOval(35, 25, 30, 30);
+        g2d.dispose();
+        MazeMask mask = MazeMask.fromImage(image, 50, 40);
+        MazeMask shape = new MazeMask(mask);
+        shape.keepLargestRegion();
+        assertTrue(mask.isInside(0, 39) && !shape.isInside(0, 39), "The speck wasn't left out");
+        assertFalse(shape.isInside(25, 20), "The hole in the ring was put in");
+
+        for (MazeGenerator generator : new MazeGenerator[]{new WilsonGenerator(),
+                new TiledGenerator(8, pool(2)), new GrowingTreeGenerator(0.5)}) {
+            Maze maze = new Maze("Test", "Test", mask, generator, 3);
+            assertTrue(shape.isInside(maze.getStart_x(), maze.getStart_y()), "The entry is outside the shape");
+            assertTrue(shape.isInside(maze.getFinish_x(), maze.getFinish_y()), "The exit is outside the shape");
+            for (int y = 0; y < 40; y++)
+                assertFalse(shape.isInside(maze.getStart_x() - 1, y), "The entry isn't on the left of the shape");
+            assertTrue(maze.getSolutionNumber() > 0);
+            assertEquals(maze.getSolutionNumber() * 100 / shape.countInside(), maze.percentUsed());
+
+            assertEquals(shape.getOutsideCells(), maze.getMaskedCells());
+            Maze reopened = new Maze("Test", "Test", maze.getGrid(), maze.getMaskedCells());
+            assertEquals(maze.getMaskedCells(), reopened.getMaskedCells());
+            assertEquals(maze.getStart_x(), reopened.getStart_x());
+            assertEquals(maze.getStart_y(), reopened.getStart_y());
+            assertEquals(maze.getFinish_x(), reopened.getFinish_x());
+            assertEquals(maze.getFinish_y(), reopened.getFinish_y());
+            assertEquals(maze.percentUsed(), reopened.percentUsed());
+            assertEquals(0xFFFFFF, reopened.renderOverview(50, 40, false).getRGB(0, 0) & 0xFFFFFF,
+                    "A cell outside the shape was drawn");
+
+            MazeGrid grid = maze.getGrid();
+            grid.setWall(maze.getStart_x(), maze.getStart_y(), WEST, UP);
+            grid.setWall(maze.getFinish_x(), maze.getFinish_y(), EAST, UP);
+            assertPerfectOutside(grid, shape.getOutsideCells());
+        }
+        MazeMask empty = new MazeMask(2, 1);
+        empty.setInside(0, 0, false);
+        empty.setInside(1, 0, false);
+        assertThrows(IllegalArgumentException.class, () -> new Maze("Test", "Test", empty, new WilsonGenerator(), 1));
+        assertThrows(IllegalArgumentException.class, () -> new Maze("Test", "Test", new CellGrid(3, 3),
+                new MazeMask(4, 4), new WilsonGenerator(), 1, TaskProgress.NONE));
+    }
+
+    @Test
+    void testWalledOffCellsArentMaskedWhenReopened() {
+        Maze maze = new Maze("Test", "Test", 12, 10, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new WilsonGenerator(), 5);
+        // Wall in a cell away from the entry and exit as the editor would
+        for (Direction position : Direction.values())
+            maze.setWall(6, 5, position, UP);
+        assertTrue(maze.getMaskedCells().isEmpty());
+        Maze reopened = new Maze("Test", "Test", maze.getGrid());
+        assertTrue(reopened.getMaskedCells().isEmpty(), "A walled off cell was taken to be outside the shape");
+        BufferedImage image = reopened.renderOverview(12, 10, false);
+        assertNotEquals(0xFFFFFF, image.getRGB(6, 5) & 0xFFFFFF, "The walled off cell wasn't drawn");
+        BitSet outside = new BitSet();
+        outside.set(200);
+        assertThrows(IllegalArgumentException.class, () -> new Maze("Test", "Test", maze.getGrid(), outside));
+    }
+
+    /**
+     * Checks that no excluded cell is open to a cell that isn't excluded and that the cells that aren't excluded form
+     * a spanning tree
+     */
+    static void assertPerfectOutside(MazeGrid grid, BitSet excluded) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int openWalls = 0;
+        for (int i = 0; i < width; i++)
+            for (int j = 0; j < height; j++) {
+                boolean room = excluded.get(j * width + i);
+                if (i < width - 1 && grid.getWall(i, j, EAST) == DOWN) {
+                    assertEquals(room, excluded.get(j * width + i + 1), "A room is open to the maze");
+                    openWalls += room ? 0 : 1;
+                }
+                if (j < height - 1 && grid.getWall(i, j, SOUTH) == DOWN) {
+                    assertEquals(room, excluded.get((j + 1) * width + i), "A room is open to the maze");
+                    openWalls += room ? 0 : 1;
+                }
+            }
+        int cells = width * height - excluded.cardinality();
+        assertEquals(cells - 1, openWalls, "The cells outside the rooms are not a spanning tree");
+        BitSet reached = new BitSet();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int first = excluded.nextClearBit(0);
+        queue.add(first);
+        reached.set(first);
+        while (!queue.isEmpty()) {
+            int index = queue.poll();
+            for (Direction position : Direction.values()) {
+                int x = index % width + (position == EAST ? 1 : position == WEST ? -1 : 0);
+                int y = index / width + (position == SOUTH ? 1 : position == NORTH ? -1 : 0);
+                if (x < 0 || y < 0 || x >= width || y >= height || reached.get(y * width + x)
+                        || grid.getWall(index % width, index / width, position) != DOWN)
+                    continue;
+                reached.set(y * width + x);
+                queue.add(y * width + x);
+            }
+        }
+        assertEquals(cells, reached.cardinality(), "Not every cell outside the rooms can be reached");
+    }
+
+    @Test
+    void testEllerMazeIsPerfect() {
+        Maze perfect = new Maze("Test", "Test", 30, 25, "Exclude", "Exclude", "Exclude", false, null, null, null,
+                new EllerGenerator());
+        assertPerfect(perfect);
+    }
+
+    @Test
+    void testEllerStreamsEveryRow() throws IOException {
+        int width = 40, height = 300;
+        int[] rows = {0};
+        int[] openWalls = {0};
+        new EllerGenerator().generate(width, height, new SplittableRandom(), (y, eastOpen, southOpen) -> {
+            assertEquals(rows[0]++, y, "Rows were not streamed in order");
+            assertTrue(eastOpen.length() < width && (y < height - 1 || southOpen.isEmpty()), "Outside walls were opened");
+            openWalls[0] += eastOpen.cardinality() + southOpen.cardinality();
+        });
+        assertEquals(height, rows[0]);
+        assertEquals(width * height - 1, openWalls[0], "The maze is not a spanning tree");
+
+        ByteArrayOutputStream image = new ByteArrayOutputStream();
+        new EllerGenerator().generate(width, height, new SplittableRandom(), new PbmRowSink(image, width, height, 2));
+        String header = "P4\n" + (2 * width + 1) * 2 + " " + (2 * height + 1) * 2 + "\n";
+        assertEquals(header.length() + ((2 * width + 1) * 2 + 7) / 8 * (2 * height + 1) * 2, image.size());
+    }
+
+    /**
+     * Checks that every cell of a maze without image regions can be reached and that there is only one path between
+     * any two cells, that is the open walls between cells form a spanning tree
+     */
+    static void assertPerfect(Maze maze) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        int openWalls = 0;
+        for (int i = 0; i < width; i++)
+            for (int j = 0; j < height; j++) {
+                if (i < width - 1 && maze.getWall(i, j, EAST) == DOWN) {
+                    assertEquals(DOWN, maze.getWall(i + 1, j, WEST), "Walls of neighbouring cells don't match");
+                    openWalls++;
+                }
+                if (j < height - 1 && maze.getWall(i, j, SOUTH) == DOWN) {
+                    assertEquals(DOWN, maze.getWall(i, j + 1, NORTH), "Walls of neighbouring cells don't match");
+                    openWalls++;
+                }
+            }
+        assertEquals(width * height - 1, openWalls, "The maze is not a spanning tree");
+        boolean[][] reached = new boolean[width][height];
+        ArrayDeque<int[]> queue = new java.util.ArrayDeque<>();
+        queue.add(new int[]{0, 0});
+        reached[0][0] = true;
+        int reachedCount = 1;
+        while (!queue.isEmpty()) {
+            int[] cell = queue.poll();
+            int x = cell[0], y = cell[1];
+            int[][] moves = {{0, -1}, {1, 0}, {0, 1}, {-1, 0}};
+            for (int k = 0; k < 4; k++) {
+                int nx = x + moves[k][0], ny = y + moves[k][1];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height || reached[nx][ny])
+                    continue;
+                if (maze.getWall(x, y, Direction.getDirection(k)) == DOWN) {
+                    reached[nx][ny] = true;
+                    reachedCount++;
+                    queue.add(new int[]{nx, ny});
+                }
+            }
+        }
+        assertEquals(width * height, reachedCount, "Not every cell of the maze can be reached");
+    }
 }
@@ -0,0 +1,88 @@
+package Models;
+
+import Models.Generators.MazeGenerator;
+import Models.Generators.WilsonGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMazeBatchGenerator {
+    @Test
+    void testEveryMazeIsGenerated() throws InterruptedException {
+        List<MazeSpec> specs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            specs.add(new MazeSpec("Maze " + i, "Test", 10 + i, 12, i));
+        }
+        Set<Long> seeds = new HashSet<>();
+        MazeBatchGenerator.Statistics statistics = new MazeBatchGenerator(3, 2).generate(specs, maze -> {
+            seeds.add(maze.getSeed());
+            TestMaze.assertPerfect(maze);
+        });
+        assertEquals(20, seeds.size(), "Not every maze was passed to the consumer");
+        assertEquals(20, statistics.getMazes());
+        assertTrue(statistics.getMazesPerSecond() > 0);
+        assertTrue(statistics.getPeakHeapBytes() > 0);
+    }
+
+    @Test
+    void testSlowConsumerLimitsFinishedMazes() throws InterruptedException {
+        int threads = 2;
+        int maxPending = 3;
+        AtomicInteger started = new AtomicInteger();
+        MazeGenerator counting = (grid, excludedCells, rand) -> {
+            started.incrementAndGet();
+            new WilsonGenerator().generate(grid, excludedCells, rand);
+        };
+        List<MazeSpec> specs = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            specs.add(new MazeSpec("Maze " + i, "Test", 10, 10, "Exclude", "Exclude", "Exclude", false, null, null,
+                    null, counting, i));
+        }
+        int[] consumed = {0};
+        new MazeBatchGenerator(threads, maxPending).generate(specs, maze -> {
+            assertTrue(started.get() - consumed[0] <= threads + maxPending + 1, "Too many mazes were generated ahead");
+            consumed[0]++;
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertEquals(30, consumed[0]);
+    }
+
+    @Test
+    void testFailureStopsBatch() {
+        MazeGenerator failing = (grid, excludedCells, rand) -> {
+            throw new IllegalStateException("Failed");
+        };
+        List<MazeSpec> specs = List.of(new MazeSpec("Maze", "Test", 10, 10, "Exclude", "Exclude", "Exclude", false,
+                null, null, null, failing, 1));
+        assertThrows(IllegalStateException.class, () -> new MazeBatchGenerator(2, 2).generate(specs, maze -> {}));
+    }
+
+    @Test
+    void testCancelledBatchStops() {
+        CancellationToken token = new CancellationToken();
+        List<MazeSpec> specs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            specs.add(new MazeSpec("Maze " + i, "Test", 20, 20, i));
+        }
+        specs.add(new MazeSpec("Large", "Test", 3000, 3000, 1));
+        int[] consumed = {0};
+        long start = System.nanoTime();
+        assertThrows(CancellationException.class, () -> new MazeBatchGenerator(1, 2).generate(specs, maze -> {
+            if (++consumed[0] == 10)
+                token.cancel();
+        }, token));
+        assertEquals(10, consumed[0]);
+        assertTrue(System.nanoTime() - start < 5_000_000_000L, "The batch took too long to stop");
+    }
+}
@@ -0,0 +1,142 @@
+package Models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMazePool {
+    /**
+     * Waits for the pool to have a number of mazes ready for a combination
+     */
+    private static void awaitReady(MazePool pool, int count, int width, int height) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (pool.getReady(width, height, "Exclude", "Exclude", "Exclude") < count) {
+            assertTrue(System.nanoTime() < deadline, "The pool was not filled in time");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testTakeCountsHitsAndMisses() throws InterruptedException {
+        MazePool pool = new MazePool(1, 2, MazePool.DEFAULT_MEMORY_BUDGET);
+        try {
+            LocalDateTime before = LocalDateTime.now();
+            pool.keepReady(12, 15, "Exclude", "Exclude", "Exclude");
+            awaitReady(pool, 2, 12, 15);
+            Thread.sleep(50);
+            assertEquals(2, pool.getReady(12, 15, "Exclude", "Exclude", "Exclude"), "The per key cap was passed");
+
+            Maze maze = pool.take("Pooled", "Tester", 12, 15, "Exclude", "Exclude", "Exclude");
+            assertNotNull(maze);
+            assertEquals("Pooled", maze.getName());
+            assertEquals("Tester", maze.getAuthor());
+            assertFalse(maze.getCreationDate().isBefore(before));
+            assertEquals(12, maze.getWidth());
+            TestMaze.assertPerfect(maze);
+
+            assertNull(pool.take("Other", "Tester", 13, 15, "Exclude", "Exclude", "Exclude"));
+            assertNull(pool.take("Other", "Tester", 12, 15, "Small square", "Exclude", "Exclude"));
+            assertEquals(1, pool.getHits());
+            assertEquals(2, pool.getMisses());
+
+            // The taken maze is replaced in the background
+            awaitReady(pool, 2, 12, 15);
+            assertNotSame(maze, pool.take("Pooled", "Tester", 12, 15, "Exclude", "Exclude", "Exclude"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testMemoryBudgetLimitsReadyMazes() throws InterruptedException {
+        long budget = 3 * MazePool.estimateBytes(10, 10) + 1;
+        MazePool pool = new MazePool(2, 5, budget);
+        try {
+            pool.keepReady(10, 10, "Exclude", "Exclude", "Exclude");
+            pool.keepReady(10, 10, "Arrow", "Arrow", "Exclude");
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (pool.getReady(10, 10, "Exclude", "Exclude", "Exclude")
+                    + pool.getReady(10, 10, "Arrow", "Arrow", "Exclude") < 3) {
+                assertTrue(System.nanoTime() < deadline, "The pool was not filled in time");
+                Thread.sleep(5);
+            }
+            Thread.sleep(50);
+            assertEquals(3, pool.getReady(10, 10, "Exclude", "Exclude", "Exclude")
+                    + pool.getReady(10, 10, "Arrow", "Arrow", "Exclude"));
+            assertTrue(pool.getReservedBytes() <= budget);
+            assertEquals(0, pool.getFailures());
+        } finally {
+            pool.shutdown();
+        }
+        assertNull(pool.take("Maze", "Tester", 10, 10, "Exclude", "Exclude", "Exclude"));
+    }
+
+    @Test
+    void testFailedMazesAreCountedAndRetried() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        MazePool pool = new MazePool(1, 1, MazePool.DEFAULT_MEMORY_BUDGET) {
+            @Override
+            Maze generate(int width, int height, String startInput, String finishInput, String logoInput) {
+                if (attempts.incrementAndGet() == 1)
+                    throw new IllegalStateException("Failed on purpose");
+                return super.generate(width, height, startInput, finishInput, logoInput);
+            }
+        };
+        try {
+            pool.keepReady(12, 15, "Exclude", "Exclude", "Exclude");
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (pool.getFailures() < 1) {
+                assertTrue(System.nanoTime() < deadline, "The failure was not counted");
+                Thread.sleep(5);
+            }
+            assertEquals(0, pool.getReady(12, 15, "Exclude", "Exclude", "Exclude"));
+            assertEquals(0, pool.getReservedBytes(), "The failed maze kept its room in the budget");
+
+            // Asking for the combination tries it again
+            assertNull(pool.take("Pooled", "Tester", 12, 15, "Exclude", "Exclude", "Exclude"));
+            awaitReady(pool, 1, 12, 15);
+            assertEquals(1, pool.getFailures());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testRoomGivenBackByAFailedMazeIsUsed() throws InterruptedException {
+        CountDownLatch generating = new CountDownLatch(1);
+        CountDownLatch turnedAway = new CountDownLatch(1);
+        // Room for a 13x15 maze or a 12x15 maze but not both
+        MazePool pool = new MazePool(2, 1, MazePool.estimateBytes(13, 15)) {
+            @Override
+            Maze generate(int width, int height, String startInput, String finishInput, String logoInput) {
+                if (width == 13) {
+                    generating.countDown();
+                    try {
+                        turnedAway.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IllegalStateException("Failed on purpose");
+                }
+                return super.generate(width, height, startInput, finishInput, logoInput);
+            }
+        };
+        try {
+            pool.keepReady(13, 15, "Exclude", "Exclude", "Exclude");
+            assertTrue(generating.await(10, TimeUnit.SECONDS));
+            // The 12x15 combination finds the budget taken up by the 13x15 maze being generated
+            pool.keepReady(12, 15, "Exclude", "Exclude", "Exclude");
+            Thread.sleep(100);
+            turnedAway.countDown();
+            awaitReady(pool, 1, 12, 15);
+            assertEquals(1, pool.getFailures());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package Models;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import static Models.Direction.*;
+import static Models.Wall.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPackedGrid {
+
+    PackedGrid grid;
+
+    @BeforeEach
+    void Setup() {
+        grid = new PackedGrid(5, 4);
+    }
+
+    @Test
+    void testDefaultWallsUp() {
+        for (int i = 0; i < 5; i++)
+            for (int j = 0; j < 4; j++)
+                assertArrayEquals(new Wall[]{UP, UP, UP, UP}, grid.getCell(i, j).getWalls());
+    }
+
+    @Test
+    void testSetWall() {
+        grid.setWall(2, 3, EAST, START);
+        grid.setWall(2, 3, WEST, DOWN);
+        grid.setWall(2, 3, SOUTH, END);
+        assertEquals(UP, grid.getWall(2, 3, NORTH));
+        assertEquals(START, grid.getWall(2, 3, EAST));
+        assertEquals(END, grid.getWall(2, 3, SOUTH));
+        assertEquals(DOWN, grid.getWall(2, 3, WEST));
+        assertEquals(UP, grid.getWall(3, 3, WEST), "Changing cell (2, 3) changed the wall of cell (3, 3)");
+    }
+
+    @Test
+    void testFlags() {
+        grid.setSolution(1, 1, NORTH, true);
+        grid.setEntry(1, 1, EAST, true);
+        grid.setExit(1, 1, SOUTH, true);
+        grid.setFinishImage(1, 1, true);
+        assertTrue(grid.isSolution(1, 1, NORTH));
+        assertFalse(grid.isSolution(1, 1, EAST));
+        assertTrue(grid.isEntry(1, 1, EAST));
+        assertTrue(grid.isExit(1, 1, SOUTH));
+        assertTrue(grid.isFinishImage(1, 1));
+        assertEquals(UP, grid.getWall(1, 1, NORTH), "Setting flags changed the walls");
+        grid.clearSolution();
+        assertFalse(grid.isSolution(1, 1, NORTH));
+        assertTrue(grid.isEntry(1, 1, EAST), "Clearing the solution cleared the entry");
+    }
+
+    @Test
+    void testCarveRowMatchesCarve() {
+        PackedGrid packed = new PackedGrid(70, 3);
+        CellGrid cells = new CellGrid(70, 3);
+        SplittableRandom rand = new SplittableRandom(2);
+        for (int y = 0; y < 3; y++) {
+            long[] east = {rand.nextLong(), rand.nextLong() & 0b011111};
+            long[] north = y > 0 ? new long[]{rand.nextLong(), rand.nextLong() & 0b111111} : new long[2];
+            packed.carveRow(y, east, north);
+            cells.carveRow(y, east, north);
+        }
+        for (int i = 0; i < 70; i++)
+            for (int j = 0; j < 3; j++)
+                assertArrayEquals(cells.getCell(i, j).getWalls(), packed.getCell(i, j).getWalls(),
+                        "Cell (" + i + ", " + j + ") doesn't match");
+    }
+
+    @Test
+    void testCellViewWritesThrough() {
+        Cell cell = grid.getCell(4, 2);
+        assertEquals(4, cell.getX());
+        assertEquals(2, cell.getY());
+        cell.setWall(NORTH, DOWN);
+        cell.setSolution(WEST, true);
+        assertEquals(DOWN, grid.getWall(4, 2, NORTH));
+        assertTrue(grid.getCell(4, 2).isSolution(WEST));
+        assertEquals(cell, grid.getCell(4, 2));
+        assertNotEquals(cell, grid.getCell(3, 2));
+        cell.setX(4);
+        cell.setY(2);
+        assertThrows(UnsupportedOperationException.class, () -> cell.setX(3));
+        assertThrows(UnsupportedOperationException.class, () -> cell.setY(0));
+        assertEquals(4, cell.getX());
+        assertEquals(2, cell.getY());
+    }
+
+    @Test
+    void testSetCell() {
+        Cell cell = new Cell(0, 0, DOWN, START, END, DOWN);
+        cell.setExit(EAST, true);
+        grid.setCell(0, 3, cell);
+        assertArrayEquals(new Wall[]{DOWN, START, END, DOWN}, grid.getCell(0, 3).getWalls());
+        assertTrue(grid.isExit(0, 3, EAST));
+    }
+
+    @Test
+    void testOutOfBounds() {
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> grid.getCell(5, 0));
+        // The next row starts just past the end of this one, so it mustn't be reached by going off the edge
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> grid.getWall(5, 0, WEST));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> grid.setWall(5, 0, WEST, DOWN));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> grid.setEntry(-1, 1, EAST, true));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> grid.isFinishImage(0, 4));
+        assertEquals(UP, grid.getWall(0, 1, WEST), "A write off the edge changed another cell");
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        grid.setWall(2, 3, EAST, START);
+        grid.setExit(4, 0, NORTH, true);
+        grid.setFinishImage(1, 2, true);
+        CellGrid cellGrid = new CellGrid(5, 4);
+        cellGrid.setWall(0, 1, SOUTH, DOWN);
+        cellGrid.setSolution(3, 3, WEST, true);
+        for (MazeGrid written : new MazeGrid[]{grid, cellGrid}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            PackedGrid.write(written, out);
+            PackedGrid read = PackedGrid.read(new ByteArrayInputStream(out.toByteArray()));
+            assertEquals(5, read.getWidth());
+            assertEquals(4, read.getHeight());
+            for (int i = 0; i < 5; i++)
+                for (int j = 0; j < 4; j++) {
+                    for (Direction position : Direction.values()) {
+                        assertEquals(written.getWall(i, j, position), read.getWall(i, j, position));
+                        assertEquals(written.isSolution(i, j, position), read.isSolution(i, j, position));
+                        assertEquals(written.isEntry(i, j, position), read.isEntry(i, j, position));
+                        assertEquals(written.isExit(i, j, position), read.isExit(i, j, position));
+                    }
+                    assertEquals(written.isFinishImage(i, j), read.isFinishImage(i, j));
+                }
+        }
+    }
+
+    @Test
+    void testRegionsMatchCellGrid() {
+        CellGrid cellGrid = new CellGrid(5, 4);
+        for (MazeGrid each : new MazeGrid[]{grid, cellGrid}) {
+            each.carve(0, 0, EAST);
+            each.carve(2, 2, SOUTH);
+            each.carveRegion(1, 1, 3, 2);
+            each.sealRegion(0, 3, 1, 3);
+            each.carveRegion(4, 0, 4, 3);
+        }
+        for (int i = 0; i < 5; i++)
+            for (int j = 0; j < 4; j++)
+                assertArrayEquals(cellGrid.getCell(i, j).getWalls(), grid.getCell(i, j).getWalls(),
+                        "Walls are different at " + i + ", " + j);
+        assertEquals(DOWN, grid.getWall(2, 1, SOUTH));
+        assertEquals(UP, grid.getWall(2, 2, SOUTH), "The edge of the region was left open");
+        assertEquals(UP, grid.getWall(2, 3, NORTH), "The neighbouring cell's wall was left open");
+    }
+}